@@ -0,0 +1,94 @@
+package com.czertainly.core.benchmark;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.*;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixture certificates and CRLs for the benchmarks. Everything is generated locally,
+ * so the benchmarks do not need any network access.
+ */
+public final class BenchmarkFixtures {
+
+    public static final X500Name ISSUER = new X500Name("CN=Benchmark CA,O=CZERTAINLY");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static KeyPair generateRsaKeyPair() throws Exception {
+        registerBouncyCastle();
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    public static ContentSigner createSigner(KeyPair keyPair) throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+    }
+
+    /**
+     * Create end entity certificate with the extensions processed when the certificate is stored
+     */
+    public static X509Certificate createCertificate(KeyPair issuerKeyPair, BigInteger serialNumber) throws Exception {
+        Date now = new Date();
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(ISSUER, serialNumber,
+                new Date(now.getTime() - TimeUnit.DAYS.toMillis(1)), new Date(now.getTime() + TimeUnit.DAYS.toMillis(365)),
+                new X500Name("CN=benchmark.czertainly.com,OU=Benchmark,O=CZERTAINLY,C=CZ"), generateRsaKeyPair().getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+        builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment));
+        builder.addExtension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(new KeyPurposeId[]{KeyPurposeId.id_kp_serverAuth, KeyPurposeId.id_kp_clientAuth}));
+        builder.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName[]{
+                new GeneralName(GeneralName.dNSName, "benchmark.czertainly.com"),
+                new GeneralName(GeneralName.dNSName, "www.benchmark.czertainly.com"),
+                new GeneralName(GeneralName.iPAddress, "127.0.0.1")
+        }));
+        return new JcaX509CertificateConverter().getCertificate(builder.build(createSigner(issuerKeyPair)));
+    }
+
+    /**
+     * Create CRL with the given number of revoked certificates, serial numbers of revoked certificates start from 1
+     */
+    public static X509CRL createCrl(KeyPair issuerKeyPair, int revokedCertificates) throws Exception {
+        Date now = new Date();
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(ISSUER, now);
+        builder.setNextUpdate(new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)));
+        for (int i = 1; i <= revokedCertificates; i++) {
+            builder.addCRLEntry(BigInteger.valueOf(i), now, CRLReason.keyCompromise);
+        }
+        return new JcaX509CRLConverter().getCRL(builder.build(createSigner(issuerKeyPair)));
+    }
+
+    /**
+     * Write the CRL to a temporary file, so it can be read through its file URL as if it was downloaded
+     */
+    public static String writeCrl(X509CRL crl) throws Exception {
+        Path crlFile = Files.createTempFile("benchmark", ".crl");
+        crlFile.toFile().deleteOnExit();
+        Files.write(crlFile, crl.getEncoded());
+        return crlFile.toUri().toString();
+    }
+
+    private static void registerBouncyCastle() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+}
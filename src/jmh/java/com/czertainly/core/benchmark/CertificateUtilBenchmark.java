@@ -0,0 +1,36 @@
+package com.czertainly.core.benchmark;
+
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.util.CertificateUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CertificateUtilBenchmark {
+
+    private X509Certificate certificate;
+
+    private String certificateContent;
+
+    @Setup
+    public void setUp() throws Exception {
+        certificate = BenchmarkFixtures.createCertificate(BenchmarkFixtures.generateRsaKeyPair(), BigInteger.TEN);
+        certificateContent = Base64.getEncoder().encodeToString(certificate.getEncoded());
+    }
+
+    @Benchmark
+    public Certificate prepareCertificate() {
+        return CertificateUtil.prepareCertificate(new Certificate(), certificate);
+    }
+
+    @Benchmark
+    public Certificate parseAndPrepareCertificate() throws Exception {
+        return CertificateUtil.prepareCertificate(new Certificate(), CertificateUtil.getX509Certificate(certificateContent));
+    }
+}
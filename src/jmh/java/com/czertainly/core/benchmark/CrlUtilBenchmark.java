@@ -0,0 +1,54 @@
+package com.czertainly.core.benchmark;
+
+import com.czertainly.core.util.CrlUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrlUtilBenchmark {
+
+    @Param({"100", "10000"})
+    private int revokedCertificates;
+
+    private String crlUrl;
+
+    private X509Certificate revokedCertificate;
+
+    private X509Certificate validCertificate;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair issuerKeyPair = BenchmarkFixtures.generateRsaKeyPair();
+        crlUrl = BenchmarkFixtures.writeCrl(BenchmarkFixtures.createCrl(issuerKeyPair, revokedCertificates));
+        revokedCertificate = BenchmarkFixtures.createCertificate(issuerKeyPair, BigInteger.valueOf(revokedCertificates));
+        validCertificate = BenchmarkFixtures.createCertificate(issuerKeyPair, BigInteger.valueOf(revokedCertificates + 1L));
+    }
+
+    @TearDown
+    public void tearDown() {
+        CrlUtil.clearCrlCache();
+    }
+
+    /**
+     * CRL is read and parsed on every check
+     */
+    @Benchmark
+    public String parseCrl() throws Exception {
+        CrlUtil.clearCrlCache();
+        return CrlUtil.checkCertificateRevocationList(revokedCertificate, crlUrl);
+    }
+
+    /**
+     * CRL is parsed only by the first check, following checks use the cached CRL
+     */
+    @Benchmark
+    public String checkCachedCrl() throws Exception {
+        return CrlUtil.checkCertificateRevocationList(validCertificate, crlUrl);
+    }
+}
@@ -0,0 +1,43 @@
+package com.czertainly.core.benchmark;
+
+import com.czertainly.api.model.core.certificate.CertificateValidationDto;
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.czertainly.core.util.MetaDefinitions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetaDefinitionsBenchmark {
+
+    private Map<String, CertificateValidationDto> validationResult;
+
+    private String serializedValidationResult;
+
+    @Setup
+    public void setUp() {
+        // same checks as stored by the certificate validation
+        validationResult = new LinkedHashMap<>();
+        validationResult.put("Signature Verification", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "Signature verification completed successfully"));
+        validationResult.put("Certificate Validity", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "Certificate is valid"));
+        validationResult.put("Basic Constraints", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "Basic constraints verification completed successfully"));
+        validationResult.put("OCSP Verification", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "OCSP verification completed successfully"));
+        validationResult.put("CRL Verification", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "CRL verification completed successfully"));
+        validationResult.put("Certificate Chain", new CertificateValidationDto(CertificateValidationStatus.SUCCESS, "Complete certificate chain is available"));
+        serializedValidationResult = MetaDefinitions.serializeValidation(validationResult);
+    }
+
+    @Benchmark
+    public String serializeValidation() {
+        return MetaDefinitions.serializeValidation(validationResult);
+    }
+
+    @Benchmark
+    public Map<String, CertificateValidationDto> deserializeValidation() {
+        return MetaDefinitions.deserializeValidation(serializedValidationResult);
+    }
+}
@@ -0,0 +1,36 @@
+package com.czertainly.core.benchmark;
+
+import com.czertainly.core.util.SecretEncodingVersion;
+import com.czertainly.core.util.SecretsUtil;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecretsUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-password";
+
+    private String encryptedSecret;
+
+    @Setup
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        new SecretsUtil().setEncryptionKeyStatic("benchmark-encryption-key");
+        encryptedSecret = SecretsUtil.encryptAndEncodeSecretString(SECRET, SecretEncodingVersion.V1);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return SecretsUtil.encryptAndEncodeSecretString(SECRET, SecretEncodingVersion.V1);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return SecretsUtil.decodeAndDecryptSecretString(encryptedSecret, SecretEncodingVersion.V1);
+    }
+}
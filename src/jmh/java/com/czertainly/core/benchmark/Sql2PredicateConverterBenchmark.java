@@ -0,0 +1,143 @@
+package com.czertainly.core.benchmark;
+
+import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
+import com.czertainly.api.model.common.attribute.v2.AttributeType;
+import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.search.SearchCondition;
+import com.czertainly.api.model.core.search.SearchGroup;
+import com.czertainly.api.model.core.search.SearchableFields;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.model.SearchFieldObject;
+import com.czertainly.core.util.converter.Sql2PredicateConverter;
+import jakarta.persistence.Entity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building of the certificate search predicates. Hibernate is bootstrapped without a database connection,
+ * only the criteria builder is needed to build the predicates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Sql2PredicateConverterBenchmark {
+
+    private StandardServiceRegistry registry;
+
+    private SessionFactory sessionFactory;
+
+    private CriteriaBuilder criteriaBuilder;
+
+    private List<SearchFieldObject> searchFieldObjects;
+
+    private List<SearchFilterRequestDto> propertyFilters;
+
+    private List<SearchFilterRequestDto> attributeFilters;
+
+    @Setup
+    public void setUp() throws Exception {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", false)
+                .build();
+        MetadataSources metadataSources = new MetadataSources(registry);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents("com.czertainly.core.dao.entity")) {
+            metadataSources.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+        }
+        sessionFactory = metadataSources.buildMetadata().buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+
+        searchFieldObjects = List.of(
+                new SearchFieldObject(SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM),
+                new SearchFieldObject(SearchableFields.NOT_AFTER.name(), AttributeContentType.DATE, AttributeType.META)
+        );
+        propertyFilters = List.of(
+                new BenchmarkSearchFilter(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME.name(), SearchCondition.CONTAINS, "czertainly"),
+                new BenchmarkSearchFilter(SearchGroup.PROPERTY, SearchableFields.NOT_AFTER.name(), SearchCondition.GREATER, "2023-01-01"),
+                new BenchmarkSearchFilter(SearchGroup.PROPERTY, SearchableFields.OCSP_VALIDATION.name(), SearchCondition.EQUALS, "success")
+        );
+        attributeFilters = List.of(
+                new BenchmarkSearchFilter(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME.name(), SearchCondition.CONTAINS, "czertainly"),
+                new BenchmarkSearchFilter(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER.name() + "|" + AttributeContentType.STRING.name(), SearchCondition.EQUALS, "123456789"),
+                new BenchmarkSearchFilter(SearchGroup.META, SearchableFields.NOT_AFTER.name() + "|" + AttributeContentType.DATE.name(), SearchCondition.LESSER, "2030-01-01")
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public Predicate propertyPredicates() {
+        CriteriaQuery<Certificate> query = criteriaBuilder.createQuery(Certificate.class);
+        Root<Certificate> root = query.from(Certificate.class);
+        return Sql2PredicateConverter.mapSearchFilter2Predicates(propertyFilters, criteriaBuilder, root, query, searchFieldObjects, Resource.CERTIFICATE);
+    }
+
+    @Benchmark
+    public Predicate attributePredicates() {
+        CriteriaQuery<Certificate> query = criteriaBuilder.createQuery(Certificate.class);
+        Root<Certificate> root = query.from(Certificate.class);
+        return Sql2PredicateConverter.mapSearchFilter2Predicates(attributeFilters, criteriaBuilder, root, query, searchFieldObjects, Resource.CERTIFICATE);
+    }
+
+    private static class BenchmarkSearchFilter extends SearchFilterRequestDto {
+
+        private final SearchGroup searchGroup;
+
+        private final String fieldIdentifier;
+
+        private final SearchCondition condition;
+
+        private final Serializable value;
+
+        private BenchmarkSearchFilter(SearchGroup searchGroup, String fieldIdentifier, SearchCondition condition, Serializable value) {
+            this.searchGroup = searchGroup;
+            this.fieldIdentifier = fieldIdentifier;
+            this.condition = condition;
+            this.value = value;
+        }
+
+        @Override
+        public SearchGroup getSearchGroup() {
+            return searchGroup;
+        }
+
+        @Override
+        public String getFieldIdentifier() {
+            return fieldIdentifier;
+        }
+
+        @Override
+        public SearchCondition getCondition() {
+            return condition;
+        }
+
+        @Override
+        public Serializable getValue() {
+            return value;
+        }
+    }
+}
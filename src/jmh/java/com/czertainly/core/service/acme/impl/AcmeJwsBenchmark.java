@@ -0,0 +1,69 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and signature verification of the ACME new account request. The benchmark is in the package
+ * of the helper service to be able to call the verification the same way as the ACME service does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AcmeJwsBenchmark {
+
+    @Param({"RSA", "EC"})
+    private String keyType;
+
+    private String rawJwsBody;
+
+    private final ExtendedAcmeHelperService helperService = new ExtendedAcmeHelperService();
+
+    @Setup
+    public void setUp() throws Exception {
+        final JWK jwk;
+        final JWSSigner signer;
+        final JWSAlgorithm algorithm;
+        if (ExtendedAcmeHelperService.RSA_KEY_TYPE_NOTATION.equals(keyType)) {
+            RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+            jwk = rsaKey.toPublicJWK();
+            signer = new RSASSASigner(rsaKey);
+            algorithm = JWSAlgorithm.RS256;
+        } else {
+            ECKey ecKey = new ECKeyGenerator(Curve.P_256).generate();
+            jwk = ecKey.toPublicJWK();
+            signer = new ECDSASigner(ecKey);
+            algorithm = JWSAlgorithm.ES256;
+        }
+
+        JWSHeader header = new JWSHeader.Builder(algorithm)
+                .jwk(jwk)
+                .customParam("nonce", "benchmarkNonce")
+                .customParam("url", "https://localhost/api/v1/protocols/acme/benchmark/new-account")
+                .build();
+        JWSObject jwsObject = new JWSObject(header, new Payload("{\"termsOfServiceAgreed\":true,\"contact\":[\"mailto:benchmark@czertainly.com\"]}"));
+        jwsObject.sign(signer);
+
+        String[] parts = jwsObject.serialize().split("\\.");
+        rawJwsBody = "{\"protected\":\"" + parts[0] + "\",\"payload\":\"" + parts[1] + "\",\"signature\":\"" + parts[2] + "\"}";
+    }
+
+    @Benchmark
+    public Boolean verifyNewAccountJws() throws Exception {
+        return helperService.newAccountProcess(helperService.initialize(rawJwsBody)).isValidSignature();
+    }
+}
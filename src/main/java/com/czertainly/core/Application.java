@@ -27,6 +27,8 @@ public class Application extends SpringBootServletInitializer {
 	private static final Integer POOL_SIZE = 10;
 	// Maximum queue size for the async operations when no pool is available to take action. Maximum count cannot exceed 500 since there are not many async operations
 	private static final Integer QUEUE_SIZE = 500;
+	// Number of threads validating certificates in parallel. Validation is mostly waiting for OCSP and CRL responses, per host concurrency is limited by the validation service
+	private static final Integer VALIDATION_POOL_SIZE = 20;
 
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -68,4 +70,15 @@ public class Application extends SpringBootServletInitializer {
 		executor.initialize();
 		return new DelegatingSecurityContextAsyncTaskExecutor(executor);
 	}
-}
\ No newline at end of file
+
+	@Bean("certificateValidationTaskExecutor")
+	public ThreadPoolTaskExecutor certificateValidationTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(VALIDATION_POOL_SIZE);
+		executor.setMaxPoolSize(VALIDATION_POOL_SIZE);
+		executor.setQueueCapacity(QUEUE_SIZE);
+		executor.setThreadNamePrefix("CZERTAINLYValidation-");
+		executor.initialize();
+		return executor;
+	}
+}
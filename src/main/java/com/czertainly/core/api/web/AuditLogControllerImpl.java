@@ -3,18 +3,19 @@ package com.czertainly.core.api.web;
 import com.czertainly.api.interfaces.core.web.AuditLogController;
 import com.czertainly.api.model.core.audit.AuditLogFilter;
 import com.czertainly.api.model.core.audit.AuditLogResponseDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
 import com.czertainly.api.model.core.audit.ObjectType;
 import com.czertainly.api.model.core.audit.OperationStatusEnum;
 import com.czertainly.api.model.core.audit.OperationType;
+import com.czertainly.core.model.ExportResource;
 import com.czertainly.core.service.AuditLogService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Arrays;
 import java.util.List;
@@ -33,13 +34,17 @@ public class AuditLogControllerImpl implements AuditLogController {
 
     @Override
     public ResponseEntity<org.springframework.core.io.Resource> exportAuditLogs(AuditLogFilter filter, Pageable pageable) {
-        ExportResultDto export = auditLogService.exportAuditLogs(filter, pageable.getSort());
+        ExportResource export = auditLogService.exportAuditLogs(filter, pageable.getSort());
+        // the file is deleted once written to the response, the request completion deletes the file also when
+        // the content was not written, e.g. for the HEAD request or the response that failed before the content
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+                ExportResource.class.getName(), export::delete, RequestAttributes.SCOPE_REQUEST);
 
+        // content length is taken from the exported file
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .contentLength(export.getFileContent().length)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export.getFileName())
-                .body(new ByteArrayResource(export.getFileContent()));
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export.getFilename())
+                .body(export);
     }
 
     @Override
@@ -21,9 +21,9 @@ import com.czertainly.core.security.authn.CzertainlyAuthenticationToken;
 import com.czertainly.core.security.authn.CzertainlyUserDetails;
 import com.czertainly.core.security.authn.client.AuthenticationInfo;
 import com.czertainly.core.security.authn.client.CzertainlyAuthenticationClient;
+import com.czertainly.core.service.acme.impl.AcmeAccountKeyCache;
 import com.czertainly.core.service.acme.impl.ExtendedAcmeHelperService;
 import com.czertainly.core.util.AcmeJsonProcessor;
-import com.czertainly.core.util.AcmePublicKeyProcessor;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.crypto.ECDSAVerifier;
@@ -79,6 +79,8 @@ public class ProtocolValidationFilter extends OncePerRequestFilter {
     @Autowired
     private ExtendedAcmeHelperService extendedAcmeHelperService;
     @Autowired
+    private AcmeAccountKeyCache acmeAccountKeyCache;
+    @Autowired
     @Qualifier("handlerExceptionResolver")
     private HandlerExceptionResolver resolver;
     @Autowired
@@ -364,14 +366,10 @@ public class ProtocolValidationFilter extends OncePerRequestFilter {
                             jwsHeader.get("kid").toString().split("/")[jwsHeader.get("kid").toString().split("/").length - 1])
                     .orElseThrow(
                             () -> new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.ACCOUNT_DOES_NOT_EXIST));
-            PublicKey publicKey;
-            try {
-                publicKey = AcmePublicKeyProcessor.publicKeyObjectFromString(account.getPublicKey());
-            } catch (Exception e) {
-                logger.error(e.getMessage());
+            if (!acmeAccountKeyCache.verify(account, jwsObject)) {
+                logger.error("Unable to verify the signature");
                 throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
             }
-            validateSignature(publicKey, jwsObject, false);
         }
     }
 
@@ -1,6 +1,7 @@
 package com.czertainly.core.dao.entity;
 
 import com.czertainly.api.model.common.attribute.v2.content.BaseAttributeContent;
+import com.czertainly.core.util.AttributeContentHashUtil;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -21,6 +22,9 @@ public class AttributeContent extends UniquelyIdentified {
     @Column(name = "attribute_definition_uuid", nullable = false)
     private UUID attributeDefinitionUuid;
 
+    @Column(name = "content_hash")
+    private String contentHash;
+
     @OneToMany(mappedBy = "attributeContent", cascade = CascadeType.ALL)
     private List<AttributeContentItem> attributeContentItems;
 
@@ -29,6 +33,7 @@ public class AttributeContent extends UniquelyIdentified {
 
     public void setAttributeContentItems(List<AttributeContentItem> attributeContentItems) {
         this.attributeContentItems = attributeContentItems;
+        updateContentHash();
     }
 
     public AttributeDefinition getAttributeDefinition() {
@@ -40,12 +45,25 @@ public class AttributeContent extends UniquelyIdentified {
         this.attributeDefinitionUuid = attributeDefinition.getUuid();
     }
 
+    public UUID getAttributeDefinitionUuid() {
+        return attributeDefinitionUuid;
+    }
+
     public <T extends BaseAttributeContent> List<T> getAttributeContent() {
         return (List<T>) getAttributeContentItems().stream().map(AttributeContentItem::getJson).collect(Collectors.toList());
     }
 
     public void addAttributeContent(List<BaseAttributeContent> baseAttributeContents) {
         baseAttributeContents.stream().forEach(bAttr -> getAttributeContentItems().add(new AttributeContentItem(this, bAttr)));
+        updateContentHash();
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    private void updateContentHash() {
+        this.contentHash = AttributeContentHashUtil.calculateContentHash(getAttributeContentItems().stream().map(AttributeContentItem::getJson).collect(Collectors.toList()));
     }
 
     public List<AttributeContentItem> getAttributeContentItems() {
@@ -61,6 +79,7 @@ public class AttributeContent extends UniquelyIdentified {
                 .append("attributeContent", attributeContentItems != null ? attributeContentItems.toArray().toString() : "-----")
                 .append("uuid", uuid)
                 .append("attributeDefinitionUuid", attributeDefinitionUuid)
+                .append("contentHash", contentHash)
                 .toString();
     }
 }
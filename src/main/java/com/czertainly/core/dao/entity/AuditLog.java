@@ -14,12 +14,14 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "audit_log")
+// author and creation time are set when the audited operation happens, not when the audit log is written
+@ExcludeSuperclassListeners
 public class AuditLog extends Audited implements Serializable, DtoMapper<AuditLogDto> {
 
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
-    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "uuid", nullable = false)
@@ -7,6 +7,7 @@ import com.czertainly.api.model.connector.cryptography.enums.KeyType;
 import com.czertainly.api.model.core.certificate.*;
 import com.czertainly.api.model.core.compliance.ComplianceStatus;
 import com.czertainly.api.model.core.cryptography.key.KeyState;
+import com.czertainly.core.model.CertificateStatisticKey;
 import com.czertainly.core.util.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
@@ -22,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 
 @Entity
 @Table(name = "certificate")
+@EntityListeners(CertificateStatisticsListener.class)
 public class Certificate extends UniquelyIdentifiedAndAudited implements Serializable, DtoMapper<CertificateDetailDto> {
 
     private static final long serialVersionUID = -3048734620156664554L;
@@ -122,12 +124,24 @@ public class Certificate extends UniquelyIdentifiedAndAudited implements Seriali
     @Column(name = "issuer_serial_number")
     private String issuerSerialNumber;
 
+    @Column(name = "issuer_certificate_uuid")
+    private UUID issuerCertificateUuid;
+
+    @Column(name = "subject_key_identifier")
+    private String subjectKeyIdentifier;
+
+    @Column(name = "authority_key_identifier")
+    private String authorityKeyIdentifier;
+
+    @Column(name = "subject_dn_normalized")
+    private String subjectDnNormalized;
+
+    @Column(name = "issuer_dn_normalized")
+    private String issuerDnNormalized;
+
     @Column(name = "certificate_validation_result", length = 100000)
     private String certificateValidationResult;
 
-    @Column(name = "compliance_result")
-    private String complianceResult;
-
     @Column(name = "compliance_status")
     @Enumerated(EnumType.STRING)
     private ComplianceStatus complianceStatus;
@@ -155,6 +169,9 @@ public class Certificate extends UniquelyIdentifiedAndAudited implements Seriali
     @Column(name = "signature_attributes", length = Integer.MAX_VALUE)
     private String signatureAttributes;
 
+    @Transient
+    private Set<CertificateStatisticKey> statisticKeys;
+
     @Override
     public CertificateDetailDto mapToDto() {
         CertificateDetailDto dto = new CertificateDetailDto();
@@ -465,6 +482,46 @@ public class Certificate extends UniquelyIdentifiedAndAudited implements Seriali
         this.issuerSerialNumber = issuerSerialNumber;
     }
 
+    public UUID getIssuerCertificateUuid() {
+        return issuerCertificateUuid;
+    }
+
+    public void setIssuerCertificateUuid(UUID issuerCertificateUuid) {
+        this.issuerCertificateUuid = issuerCertificateUuid;
+    }
+
+    public String getSubjectKeyIdentifier() {
+        return subjectKeyIdentifier;
+    }
+
+    public void setSubjectKeyIdentifier(String subjectKeyIdentifier) {
+        this.subjectKeyIdentifier = subjectKeyIdentifier;
+    }
+
+    public String getAuthorityKeyIdentifier() {
+        return authorityKeyIdentifier;
+    }
+
+    public void setAuthorityKeyIdentifier(String authorityKeyIdentifier) {
+        this.authorityKeyIdentifier = authorityKeyIdentifier;
+    }
+
+    public String getSubjectDnNormalized() {
+        return subjectDnNormalized;
+    }
+
+    public void setSubjectDnNormalized(String subjectDnNormalized) {
+        this.subjectDnNormalized = subjectDnNormalized;
+    }
+
+    public String getIssuerDnNormalized() {
+        return issuerDnNormalized;
+    }
+
+    public void setIssuerDnNormalized(String issuerDnNormalized) {
+        this.issuerDnNormalized = issuerDnNormalized;
+    }
+
     public RaProfile getRaProfile() {
         return raProfile;
     }
@@ -525,17 +582,6 @@ public class Certificate extends UniquelyIdentifiedAndAudited implements Seriali
         this.groupUuid = groupId;
     }
 
-    public CertificateComplianceStorageDto getComplianceResult() {
-        if (complianceResult == null) {
-            return null;
-        }
-        return (CertificateComplianceStorageDto) SerializationUtil.deserialize(complianceResult, CertificateComplianceStorageDto.class);
-    }
-
-    public void setComplianceResult(CertificateComplianceStorageDto complianceResult) {
-        this.complianceResult = SerializationUtil.serialize(complianceResult);
-    }
-
     public ComplianceStatus getComplianceStatus() {
         return complianceStatus;
     }
@@ -632,4 +678,13 @@ public class Certificate extends UniquelyIdentifiedAndAudited implements Seriali
     public Long getExpiryInDays() {
         return TimeUnit.DAYS.convert(Math.abs(notAfter.getTime() - new Date().getTime()), TimeUnit.MILLISECONDS);
     }
+
+    public Set<CertificateStatisticKey> getStatisticKeys() {
+        return statisticKeys;
+    }
+
+    public void setStatisticKeys(Set<CertificateStatisticKey> statisticKeys) {
+        this.statisticKeys = statisticKeys;
+    }
+
 }
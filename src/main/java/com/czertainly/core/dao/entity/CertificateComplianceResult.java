@@ -0,0 +1,64 @@
+package com.czertainly.core.dao.entity;
+
+import com.czertainly.api.model.core.compliance.ComplianceRuleStatus;
+import jakarta.persistence.*;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Result of one compliance rule for the certificate. The rule is identified by the UUID of the compliance profile rule,
+ * or by the UUID of the compliance rule when the rule was applied through the compliance group.
+ */
+@Entity
+@Table(name = "certificate_compliance_result")
+public class CertificateComplianceResult implements Serializable {
+
+    @EmbeddedId
+    private CertificateComplianceResultId id = new CertificateComplianceResultId();
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ComplianceRuleStatus status;
+
+    public CertificateComplianceResult() {}
+
+    public CertificateComplianceResult(UUID certificateUuid, UUID ruleUuid, ComplianceRuleStatus status) {
+        this.id = new CertificateComplianceResultId(certificateUuid, ruleUuid);
+        this.status = status;
+    }
+
+    public CertificateComplianceResultId getId() {
+        return id;
+    }
+
+    public void setId(CertificateComplianceResultId id) {
+        this.id = id;
+    }
+
+    public UUID getCertificateUuid() {
+        return id.getCertificateUuid();
+    }
+
+    public UUID getRuleUuid() {
+        return id.getRuleUuid();
+    }
+
+    public ComplianceRuleStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ComplianceRuleStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("status", status)
+                .toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.czertainly.core.dao.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ Embedded class for a composite primary key
+ */
+@Embeddable
+public class CertificateComplianceResultId implements Serializable {
+
+    @Column(name = "certificate_uuid")
+    private UUID certificateUuid;
+
+    @Column(name = "rule_uuid")
+    private UUID ruleUuid;
+
+    public CertificateComplianceResultId() {}
+
+    public CertificateComplianceResultId(UUID certificateUuid, UUID ruleUuid) {
+        this.certificateUuid = certificateUuid;
+        this.ruleUuid = ruleUuid;
+    }
+
+    public UUID getCertificateUuid() {
+        return certificateUuid;
+    }
+
+    public void setCertificateUuid(UUID certificateUuid) {
+        this.certificateUuid = certificateUuid;
+    }
+
+    public UUID getRuleUuid() {
+        return ruleUuid;
+    }
+
+    public void setRuleUuid(UUID ruleUuid) {
+        this.ruleUuid = ruleUuid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        CertificateComplianceResultId that = (CertificateComplianceResultId) o;
+        return Objects.equals(certificateUuid, that.certificateUuid) &&
+                Objects.equals(ruleUuid, that.ruleUuid);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(certificateUuid, ruleUuid);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("certificateUuid", certificateUuid)
+                .append("ruleUuid", ruleUuid)
+                .toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.czertainly.core.dao.entity;
+
+import com.czertainly.core.enums.CertificateStatisticDimensionEnum;
+import com.czertainly.core.model.CertificateStatisticKey;
+import jakarta.persistence.*;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "certificate_statistic")
+public class CertificateStatistic extends UniquelyIdentified {
+
+    @Column(name = "ra_profile_uuid")
+    private UUID raProfileUuid;
+
+    @Column(name = "dimension", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private CertificateStatisticDimensionEnum dimension;
+
+    @Column(name = "dimension_value")
+    private String value;
+
+    @Column(name = "certificate_count", nullable = false)
+    private Long count;
+
+    public CertificateStatistic() {
+    }
+
+    public CertificateStatistic(CertificateStatisticKey key, Long count) {
+        this.raProfileUuid = key.getRaProfileUuid();
+        this.dimension = key.getDimension();
+        this.value = key.getValue();
+        this.count = count;
+    }
+
+    public CertificateStatisticKey getKey() {
+        return new CertificateStatisticKey(raProfileUuid, dimension, value);
+    }
+
+    public UUID getRaProfileUuid() {
+        return raProfileUuid;
+    }
+
+    public void setRaProfileUuid(UUID raProfileUuid) {
+        this.raProfileUuid = raProfileUuid;
+    }
+
+    public CertificateStatisticDimensionEnum getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(CertificateStatisticDimensionEnum dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("uuid", uuid)
+                .append("raProfileUuid", raProfileUuid)
+                .append("dimension", dimension)
+                .append("value", value)
+                .append("count", count)
+                .toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.czertainly.core.dao.entity;
+
+import com.czertainly.core.model.CertificateStatisticKey;
+import com.czertainly.core.service.CertificateStatisticsService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Set;
+
+/**
+ * Keeps the persisted certificate statistics up to date with the created, updated and deleted certificates.
+ * Statistic counters the certificate contributed to when it was loaded are compared with the current ones.
+ */
+public class CertificateStatisticsListener {
+
+    @Lazy
+    @Autowired
+    private CertificateStatisticsService certificateStatisticsService;
+
+    @PostLoad
+    public void postLoad(Certificate certificate) {
+        if (certificateStatisticsService != null) {
+            certificate.setStatisticKeys(certificateStatisticsService.getStatisticKeys(certificate));
+            certificateStatisticsService.trackChanges();
+        }
+    }
+
+    @PrePersist
+    public void prePersist(Certificate certificate) {
+        if (certificateStatisticsService != null) {
+            certificateStatisticsService.trackChanges();
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void postPersistOrUpdate(Certificate certificate) {
+        if (certificateStatisticsService != null) {
+            final Set<CertificateStatisticKey> keys = certificateStatisticsService.getStatisticKeys(certificate);
+            certificateStatisticsService.recordChange(certificate.getStatisticKeys() != null ? certificate.getStatisticKeys() : Set.of(), keys);
+            certificate.setStatisticKeys(keys);
+        }
+    }
+
+    @PostRemove
+    public void postRemove(Certificate certificate) {
+        if (certificateStatisticsService != null) {
+            final Set<CertificateStatisticKey> keys = certificate.getStatisticKeys() != null ? certificate.getStatisticKeys() : certificateStatisticsService.getStatisticKeys(certificate);
+            certificateStatisticsService.recordChange(keys, Set.of());
+            certificate.setStatisticKeys(null);
+        }
+    }
+}
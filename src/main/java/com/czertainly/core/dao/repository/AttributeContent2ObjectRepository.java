@@ -1,11 +1,13 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.api.model.core.auth.Resource;
-import com.czertainly.core.dao.entity.AttributeContent;
 import com.czertainly.core.dao.entity.AttributeContent2Object;
 import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,9 +23,11 @@ public interface AttributeContent2ObjectRepository extends SecurityFilterReposit
 
     List<AttributeContent2Object> findByObjectUuidAndObjectTypeAndSourceObjectUuidAndSourceObjectType(UUID uuid, Resource resource, UUID sourceObjectUUid, Resource sourceObjectType);
 
-    List<AttributeContent2Object> findByAttributeContent(AttributeContent attributeContent);
-
-     long countByAttributeContent(AttributeContent attributeContent);
+    List<AttributeContent2Object> findByObjectUuidInAndObjectType(Collection<UUID> uuids, Resource resource);
 
     List<AttributeContent2Object> findByObjectUuidAndObjectTypeAndSourceObjectType(UUID uuid, Resource resource, Resource sourceObjectResource);
+
+    @Modifying
+    @Query("DELETE FROM AttributeContent2Object aco WHERE aco.uuid IN ?1")
+    int deleteByUuidIn(Collection<UUID> uuids);
 }
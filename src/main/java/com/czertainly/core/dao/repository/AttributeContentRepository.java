@@ -1,27 +1,33 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.api.model.common.attribute.v2.AttributeType;
-import com.czertainly.api.model.common.attribute.v2.content.BaseAttributeContent;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.core.dao.entity.AttributeContent;
-import com.czertainly.core.dao.entity.AttributeDefinition;
 import com.czertainly.core.model.SearchFieldObject;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 @Transactional
 public interface AttributeContentRepository extends JpaRepository<AttributeContent, String> {
 
-    @Query("SELECT ac " +
-            "FROM AttributeContent ac" +
-            "   JOIN AttributeContentItem aci on aci.attributeContentUuid = ac.uuid " +
-            "WHERE ac.attributeDefinition = ?2 and aci.json in ?1 ")
-    List<AttributeContent> findByBaseAttributeContentAndAttributeDefinition(List<BaseAttributeContent> baseAttributeContent, AttributeDefinition definition);
+    Optional<AttributeContent> findByAttributeDefinitionUuidAndContentHash(UUID attributeDefinitionUuid, String contentHash);
+
+    // both columns are used so the lookup is served by attribute_content_definition_hash_index
+    List<AttributeContent> findByAttributeDefinitionUuidInAndContentHashIn(Collection<UUID> attributeDefinitionUuids, Collection<String> contentHashes);
+
+    // content with the same definition and hash inserted by a concurrent transaction is kept, see attribute_content_definition_hash_index
+    @Modifying
+    @Query(value = "INSERT INTO attribute_content (uuid, attribute_definition_uuid, content_hash) VALUES (?1, ?2, ?3) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertContent(UUID uuid, UUID attributeDefinitionUuid, String contentHash);
 
     @Query("SELECT DISTINCT new com.czertainly.core.model.SearchFieldObject(ad.attributeName, ad.contentType, ad.type)" +
             "from AttributeContent2Object aco " +
@@ -30,4 +36,15 @@ public interface AttributeContentRepository extends JpaRepository<AttributeConte
             "where ad.type = ?2 and aco.objectType = ?1")
     List<SearchFieldObject> findDistinctAttributeContentNamesByAttrTypeAndObjType(final Resource resourceType, final AttributeType attributeType);
 
+    @Modifying
+    @Query("DELETE FROM AttributeContentItem aci " +
+            "WHERE aci.attributeContentUuid IN ?1 " +
+            "AND NOT EXISTS (SELECT aco.uuid FROM AttributeContent2Object aco WHERE aco.attributeContentUuid = aci.attributeContentUuid)")
+    int deleteOrphanedAttributeContentItems(Collection<UUID> attributeContentUuids);
+
+    @Modifying
+    @Query("DELETE FROM AttributeContent ac " +
+            "WHERE ac.uuid IN ?1 " +
+            "AND NOT EXISTS (SELECT aco.uuid FROM AttributeContent2Object aco WHERE aco.attributeContentUuid = ac.uuid)")
+    int deleteOrphanedAttributeContents(Collection<UUID> attributeContentUuids);
 }
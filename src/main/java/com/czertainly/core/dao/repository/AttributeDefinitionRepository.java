@@ -32,4 +32,6 @@ public interface AttributeDefinitionRepository extends SecurityFilterRepository<
     List<AttributeDefinition> findByConnectorUuidAndGlobalAndType(UUID connectorUuid, Boolean global, AttributeType type);
 
     List<AttributeDefinition> findByGlobalAndType(Boolean global, AttributeType type);
+
+    List<AttributeDefinition> findByConnectorUuidAndType(UUID connectorUuid, AttributeType type);
 }
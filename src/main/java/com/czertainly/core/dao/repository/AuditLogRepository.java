@@ -1,6 +1,7 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.repository.custom.CustomAuditLogRepository;
 import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
@@ -11,7 +12,7 @@ import java.util.List;
 
 @Repository
 @Transactional
-public interface AuditLogRepository extends SecurityFilterRepository<AuditLog, Object>, QuerydslPredicateExecutor<AuditLog> {
+public interface AuditLogRepository extends SecurityFilterRepository<AuditLog, Object>, QuerydslPredicateExecutor<AuditLog>, CustomAuditLogRepository {
 
     List<AuditLog> findAll(Predicate predicate, Sort sort);
 }
@@ -0,0 +1,35 @@
+package com.czertainly.core.dao.repository;
+
+import com.czertainly.api.model.core.compliance.ComplianceRuleStatus;
+import com.czertainly.core.dao.entity.CertificateComplianceResult;
+import com.czertainly.core.dao.entity.CertificateComplianceResultId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CertificateComplianceResultRepository extends JpaRepository<CertificateComplianceResult, CertificateComplianceResultId> {
+
+    @Query("SELECT r FROM CertificateComplianceResult r WHERE r.id.certificateUuid IN :certificateUuids")
+    List<CertificateComplianceResult> findByCertificateUuidIn(@Param("certificateUuids") Collection<UUID> certificateUuids);
+
+    @Query("SELECT r.id.ruleUuid FROM CertificateComplianceResult r WHERE r.id.certificateUuid = :certificateUuid AND r.status = :status")
+    List<UUID> findRuleUuidsByCertificateUuidAndStatus(@Param("certificateUuid") UUID certificateUuid, @Param("status") ComplianceRuleStatus status);
+
+    @Query("SELECT DISTINCT r.id.certificateUuid FROM CertificateComplianceResult r WHERE r.id.ruleUuid = :ruleUuid")
+    List<UUID> findCertificateUuidsByRuleUuid(@Param("ruleUuid") UUID ruleUuid);
+
+    @Modifying
+    @Query("DELETE FROM CertificateComplianceResult r WHERE r.id.certificateUuid IN :certificateUuids")
+    int deleteByCertificateUuidIn(@Param("certificateUuids") Collection<UUID> certificateUuids);
+
+    @Modifying
+    @Query("DELETE FROM CertificateComplianceResult r WHERE r.id.ruleUuid = :ruleUuid")
+    int deleteByRuleUuid(@Param("ruleUuid") UUID ruleUuid);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,6 +13,7 @@ import java.util.List;
 public interface CertificateContentRepository extends SecurityFilterRepository<CertificateContent, Long> {
 
     CertificateContent findByFingerprint(String thumbprint);
+    List<CertificateContent> findByFingerprintIn(Collection<String> fingerprints);
     CertificateContent findByContent(String content);
 
     @Query("SELECT c FROM CertificateContent c " +
@@ -14,6 +14,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,11 +34,23 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
 
     boolean existsByFingerprint(String fingerprint);
 
+    List<Certificate> findByFingerprintIn(Collection<String> fingerprints);
+
     List<Certificate> findBySubjectDn(String subjectDn);
 
     List<Certificate> findByCommonName(String commonName);
 
-    List<Certificate> findAllByIssuerSerialNumber(String issuerSerialNumber);
+    List<Certificate> findAllByIssuerCertificateUuid(UUID issuerCertificateUuid);
+
+    List<Certificate> findBySubjectKeyIdentifier(String subjectKeyIdentifier);
+
+    List<Certificate> findByAuthorityKeyIdentifierAndIssuerCertificateUuidIsNull(String authorityKeyIdentifier);
+
+    @Modifying
+    @Query("UPDATE Certificate c SET c.issuerCertificateUuid = NULL WHERE c.issuerCertificateUuid IN ?1")
+    int clearIssuerCertificateUuid(Collection<UUID> issuerCertificateUuids);
+
+    List<Certificate> findBySubjectDnNormalized(String subjectDnNormalized);
 
     List<Certificate> findByStatus(CertificateStatus status);
 
@@ -82,7 +96,29 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
                                                     @Param("skipStatuses") List<CertificateStatus> skipStatuses,
                                                     Pageable pageable);
 
-    List<Certificate> findByComplianceResultContaining(String ruleUuid);
+    List<Certificate> findByUuidIn(Collection<UUID> uuids);
+
+    @Query("SELECT c.raProfileUuid, c.groupUuid, c.keySize, c.status, c.complianceStatus, c.certificateType, c.basicConstraints, COUNT(c) " +
+            "FROM Certificate c " +
+            "GROUP BY c.raProfileUuid, c.groupUuid, c.keySize, c.status, c.complianceStatus, c.certificateType, c.basicConstraints")
+    List<Object[]> countCertificatesByStatisticProperties();
+
+    @Query("SELECT c.raProfileUuid, COUNT(c), " +
+            "SUM(CASE WHEN c.notAfter <= :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.notAfter < :expiry10 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.notAfter < :expiry20 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.notAfter < :expiry30 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.notAfter < :expiry60 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN c.notAfter < :expiry90 THEN 1 ELSE 0 END) " +
+            "FROM Certificate c WHERE c.status <> :skipStatus AND c.notAfter IS NOT NULL " +
+            "GROUP BY c.raProfileUuid")
+    List<Object[]> countCertificatesByExpiry(@Param("skipStatus") CertificateStatus skipStatus,
+                                             @Param("now") Date now,
+                                             @Param("expiry10") Date expiry10,
+                                             @Param("expiry20") Date expiry20,
+                                             @Param("expiry30") Date expiry30,
+                                             @Param("expiry60") Date expiry60,
+                                             @Param("expiry90") Date expiry90);
 
     List<Certificate> findByRaProfileAndComplianceStatusIsNotNull(RaProfile raProfile);
 }
@@ -0,0 +1,55 @@
+package com.czertainly.core.dao.repository;
+
+import com.czertainly.core.dao.entity.CertificateStatistic;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@Transactional
+public interface CertificateStatisticRepository extends SecurityFilterRepository<CertificateStatistic, Long> {
+
+    // counter without RA profile or value is identified by the nil UUID and empty value, same as in the unique index
+    String NO_RA_PROFILE = "00000000-0000-0000-0000-000000000000";
+
+    String KEY_CONDITION = "COALESCE(ra_profile_uuid, CAST('" + NO_RA_PROFILE + "' AS UUID)) = :raProfileUuid " +
+            "AND dimension = :dimension AND COALESCE(dimension_value, '') = :value";
+
+    // key of the advisory lock held by the instance recalculating the statistics
+    long RECALCULATION_LOCK_KEY = 202304051000L;
+
+    // counters are read as values, the persistence context may hold counters changed by the statements below
+    @Query("SELECT s.raProfileUuid, s.dimension, s.value, s.count FROM CertificateStatistic s")
+    List<Object[]> findCounts();
+
+    @Modifying
+    @Query(value = "UPDATE certificate_statistic SET certificate_count = certificate_count + :change WHERE " + KEY_CONDITION, nativeQuery = true)
+    int addCount(@Param("raProfileUuid") UUID raProfileUuid, @Param("dimension") String dimension, @Param("value") String value, @Param("change") long change);
+
+    @Modifying
+    @Query(value = "INSERT INTO certificate_statistic (uuid, ra_profile_uuid, dimension, dimension_value, certificate_count) " +
+            "VALUES (:uuid, NULLIF(:raProfileUuid, CAST('" + NO_RA_PROFILE + "' AS UUID)), :dimension, NULLIF(:value, ''), :count) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertCount(@Param("uuid") UUID uuid, @Param("raProfileUuid") UUID raProfileUuid, @Param("dimension") String dimension, @Param("value") String value, @Param("count") long count);
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryLock(@Param("key") long key);
+
+    // blocks the transactions writing the changes until the recalculated statistics are committed
+    @Modifying
+    @Query(value = "LOCK TABLE certificate_statistic IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockTable();
+
+    @Modifying
+    @Query(value = "DELETE FROM certificate_statistic", nativeQuery = true)
+    void deleteAllCounts();
+
+    @Modifying
+    @Query(value = "DELETE FROM certificate_statistic WHERE " + KEY_CONDITION + " AND certificate_count <= 0", nativeQuery = true)
+    int deleteEmpty(@Param("raProfileUuid") UUID raProfileUuid, @Param("dimension") String dimension, @Param("value") String value);
+}
@@ -1,5 +1,6 @@
 package com.czertainly.core.dao.repository;
 
+import com.czertainly.api.model.core.discovery.DiscoveryStatus;
 import com.czertainly.core.dao.entity.DiscoveryHistory;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,8 @@ public interface DiscoveryRepository extends SecurityFilterRepository<DiscoveryH
 
 	Optional<DiscoveryHistory> findByName(String name);
 
+    List<DiscoveryHistory> findByStatus(DiscoveryStatus status);
+
     @Query("SELECT DISTINCT connectorName FROM DiscoveryHistory ")
     List<String> findDistinctConnectorName();
 }
@@ -1,10 +1,12 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.api.model.common.attribute.v2.AttributeType;
+import com.czertainly.core.model.KeysetCursor;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
@@ -29,9 +31,46 @@ public interface SecurityFilterRepository<T, ID> extends JpaRepository<T, ID> {
 
     List<T> findUsingSecurityFilter(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, Pageable p, BiFunction<Root<T>, CriteriaBuilder, Order> order);
 
+    /**
+     * Find objects using the security filter and the specification. Unlike the additional where clause the specification
+     * has access to the criteria query, so it can compose correlated subqueries evaluated by the database.
+     *
+     * @param filter        Security filter
+     * @param specification Additional predicates of the listing
+     * @param p             Requested page, null for all objects
+     * @param order         Order of the listing
+     * @return Page of objects
+     */
+    List<T> findUsingSecurityFilterBySpecification(SecurityFilter filter, Specification<T> specification, Pageable p, BiFunction<Root<T>, CriteriaBuilder, Order> order);
+
+    /**
+     * Find page of objects ordered by creation time and UUID (both descending) starting after the given cursor.
+     * Unlike offset pagination the latency does not depend on the position of the page in the listing.
+     *
+     * @param filter                Security filter
+     * @param additionalWhereClause Additional predicates of the listing
+     * @param cursor                Position of the last object of the previous page, null for the first page
+     * @param limit                 Maximum number of objects returned
+     * @return Page of objects
+     */
+    List<T> findUsingSecurityFilterByKeyset(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, KeysetCursor cursor, int limit);
+
     Long countUsingSecurityFilter(SecurityFilter filter);
 
     Long countUsingSecurityFilter(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause);
 
+    Long countUsingSecurityFilterBySpecification(SecurityFilter filter, Specification<T> specification);
+
+    /**
+     * Count objects using the security filter. When estimate is requested and there are no predicates to apply,
+     * the count is taken from the table statistics of the database instead of scanning the whole table.
+     *
+     * @param filter        Security filter
+     * @param specification Additional predicates of the listing
+     * @param estimate      Whether the estimated count can be returned
+     * @return Exact or estimated number of objects
+     */
+    Long countUsingSecurityFilterBySpecification(SecurityFilter filter, Specification<T> specification, boolean estimate);
+
     List<T> findUsingSecurityFilterByCustomCriteriaQuery(SecurityFilter filter, Root<T> root, CriteriaQuery<T> criteriaQuery, Predicate customPredicates);
 }
@@ -3,18 +3,23 @@ package com.czertainly.core.dao.repository;
 import com.czertainly.api.exception.ValidationError;
 import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.common.attribute.v2.AttributeType;
+import com.czertainly.core.model.KeysetCursor;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.Table;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.BiFunction;
 
 public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T, ID> implements SecurityFilterRepository<T, ID> {
@@ -70,13 +75,13 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
 
     @Override
     public List<T> findUsingSecurityFilter(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause) {
-        final CriteriaQuery<T> cr = createCriteriaBuilder(filter, additionalWhereClause, null);
+        final CriteriaQuery<T> cr = createCriteriaBuilder(filter, toSpecification(additionalWhereClause), null);
         return entityManager.createQuery(cr).getResultList();
     }
 
     @Override
     public List<T> findUsingSecurityFilterByCustomCriteriaQuery(SecurityFilter filter, Root<T> root, CriteriaQuery<T> criteriaQuery, Predicate customPredicates) {
-        final List<Predicate> predicates = getPredicates(filter, null, root, null);
+        final List<Predicate> predicates = getPredicates(filter, null, root, criteriaQuery, null);
         predicates.add(customPredicates);
 
         if (predicates != null && !predicates.isEmpty()) {
@@ -87,7 +92,12 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
 
     @Override
     public List<T> findUsingSecurityFilter(final SecurityFilter filter, final BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, final Pageable p, final BiFunction<Root<T>, CriteriaBuilder, Order> order) {
-        final CriteriaQuery<T> cr = createCriteriaBuilder(filter, additionalWhereClause, order);
+        return findUsingSecurityFilterBySpecification(filter, toSpecification(additionalWhereClause), p, order);
+    }
+
+    @Override
+    public List<T> findUsingSecurityFilterBySpecification(final SecurityFilter filter, final Specification<T> specification, final Pageable p, final BiFunction<Root<T>, CriteriaBuilder, Order> order) {
+        final CriteriaQuery<T> cr = createCriteriaBuilder(filter, specification, order);
         if (p != null) {
             return entityManager.createQuery(cr).setFirstResult((int) p.getOffset()).setMaxResults(p.getPageSize()).getResultList();
         } else {
@@ -95,6 +105,33 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
         }
     }
 
+    @Override
+    public List<T> findUsingSecurityFilterByKeyset(final SecurityFilter filter, final BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, final KeysetCursor cursor, final int limit) {
+        final Class<T> entity = this.entityInformation.getJavaType();
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> cr = cb.createQuery(entity);
+        final Root<T> root = cr.from(entity);
+
+        cr.select(root);
+        cr.orderBy(cb.desc(root.get("created")), cb.desc(root.get("uuid")));
+
+        final List<Predicate> predicates = getPredicates(filter, toSpecification(additionalWhereClause), root, cr, cb);
+        if (cursor != null) {
+            // row value comparison (created, uuid) < (cursor.created, cursor.uuid) expanded for the criteria API
+            predicates.add(cb.or(
+                    cb.lessThan(root.<LocalDateTime>get("created"), cursor.getCreated()),
+                    cb.and(
+                            cb.equal(root.get("created"), cursor.getCreated()),
+                            cb.lessThan(root.<UUID>get("uuid"), cursor.getUuid())
+                    )
+            ));
+        }
+        if (!predicates.isEmpty()) {
+            cr.where(predicates.toArray(new Predicate[]{}));
+        }
+        return entityManager.createQuery(cr).setMaxResults(limit).getResultList();
+    }
+
     @Override
     public Long countUsingSecurityFilter(SecurityFilter filter) {
         return countUsingSecurityFilter(filter, null);
@@ -102,12 +139,58 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
 
     @Override
     public Long countUsingSecurityFilter(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause) {
-        CriteriaQuery<Long> cr = createCountCriteriaBuilder(filter, additionalWhereClause);
+        return countUsingSecurityFilterBySpecification(filter, toSpecification(additionalWhereClause));
+    }
+
+    @Override
+    public Long countUsingSecurityFilterBySpecification(SecurityFilter filter, Specification<T> specification) {
+        CriteriaQuery<Long> cr = createCountCriteriaBuilder(filter, specification);
         List<Long> crlist = entityManager.createQuery(cr).getResultList();
         return crlist.get(0);
     }
 
-    private CriteriaQuery<T> createCriteriaBuilder(final SecurityFilter filter, final BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, final BiFunction<Root<T>, CriteriaBuilder, Order> order) {
+    @Override
+    public Long countUsingSecurityFilterBySpecification(SecurityFilter filter, Specification<T> specification, boolean estimate) {
+        if (estimate && specification == null && !isRestricted(filter)) {
+            Long estimatedCount = getEstimatedCount();
+            if (estimatedCount != null) {
+                return estimatedCount;
+            }
+        }
+        return countUsingSecurityFilterBySpecification(filter, specification);
+    }
+
+    private boolean isRestricted(SecurityFilter filter) {
+        return filter.getResourceFilter().areOnlySpecificObjectsAllowed()
+                || !filter.getResourceFilter().getForbiddenObjects().isEmpty()
+                || (filter.getParentResourceFilter() != null
+                && (filter.getParentResourceFilter().areOnlySpecificObjectsAllowed() || !filter.getParentResourceFilter().getForbiddenObjects().isEmpty()));
+    }
+
+    private Long getEstimatedCount() {
+        Table table = this.entityInformation.getJavaType().getAnnotation(Table.class);
+        if (table == null) {
+            return null;
+        }
+        Object schema = entityManager.getEntityManagerFactory().getProperties().get("hibernate.default_schema");
+        String tableName = schema != null ? schema + "." + table.name() : table.name();
+        try {
+            Number reltuples = (Number) entityManager
+                    .createNativeQuery("SELECT c.reltuples FROM pg_class c WHERE c.oid = to_regclass(:tableName)")
+                    .setParameter("tableName", tableName)
+                    .getSingleResult();
+            // negative value means that the table was never analyzed and the estimate is not available
+            return reltuples == null || reltuples.longValue() < 0 ? null : reltuples.longValue();
+        } catch (NoResultException e) {
+            return null;
+        }
+    }
+
+    private Specification<T> toSpecification(final BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause) {
+        return additionalWhereClause == null ? null : (root, query, cb) -> additionalWhereClause.apply(root, cb);
+    }
+
+    private CriteriaQuery<T> createCriteriaBuilder(final SecurityFilter filter, final Specification<T> specification, final BiFunction<Root<T>, CriteriaBuilder, Order> order) {
         final Class<T> entity = this.entityInformation.getJavaType();
         final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         final CriteriaQuery<T> cr = cb.createQuery(entity);
@@ -118,24 +201,24 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
             cr.orderBy(order.apply(root, cb));
         }
 
-        final List<Predicate> predicates = getPredicates(filter, additionalWhereClause, root, cb);
+        final List<Predicate> predicates = getPredicates(filter, specification, root, cr, cb);
         return predicates.isEmpty() ? cr : cr.where(predicates.toArray(new Predicate[]{}));
     }
 
-    private CriteriaQuery<Long> createCountCriteriaBuilder(final SecurityFilter filter, final BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause) {
+    private CriteriaQuery<Long> createCountCriteriaBuilder(final SecurityFilter filter, final Specification<T> specification) {
         final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         final Class<T> entity = this.entityInformation.getJavaType();
         final CriteriaQuery<Long> cr = cb.createQuery(Long.class);
         final Root<T> root = cr.from(entity);
         cr.select(cb.count(root));
-        final List<Predicate> predicates = getPredicates(filter, additionalWhereClause, root, cb);
+        final List<Predicate> predicates = getPredicates(filter, specification, root, cr, cb);
         return predicates.isEmpty() ? cr : cr.where(predicates.toArray(new Predicate[]{}));
     }
 
-    private List<Predicate> getPredicates(SecurityFilter filter, BiFunction<Root<T>, CriteriaBuilder, Predicate> additionalWhereClause, Root<T> root, CriteriaBuilder cb) {
+    private List<Predicate> getPredicates(SecurityFilter filter, Specification<T> specification, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
         List<Predicate> predicates = new ArrayList<>();
-        if (additionalWhereClause != null) {
-            predicates.add(additionalWhereClause.apply(root, cb));
+        if (specification != null) {
+            predicates.add(specification.toPredicate(root, query, cb));
         }
 
         if (filter.getResourceFilter().areOnlySpecificObjectsAllowed()) {
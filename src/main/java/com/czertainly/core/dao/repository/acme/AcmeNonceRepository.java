@@ -2,11 +2,12 @@ package com.czertainly.core.dao.repository.acme;
 
 import com.czertainly.core.dao.entity.acme.AcmeNonce;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
 import java.util.Date;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,5 +15,11 @@ import java.util.Optional;
 public interface AcmeNonceRepository extends SecurityFilterRepository<AcmeNonce, Long> {
     Optional<AcmeNonce> findByNonce(String nonce);
 
-    List<AcmeNonce> findAllByExpiresBefore(Date expires);
+    @Modifying
+    @Query("delete from acme_nonce n where n.nonce = ?1 and n.expires > ?2")
+    int deleteByNonceAndExpiresAfter(String nonce, Date expires);
+
+    @Modifying
+    @Query("delete from acme_nonce n where n.expires < ?1")
+    int deleteAllByExpiresBefore(Date expires);
 }
@@ -0,0 +1,34 @@
+package com.czertainly.core.dao.repository.custom;
+
+import com.czertainly.core.dao.entity.AuditLog;
+import com.querydsl.core.types.Predicate;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Sort;
+
+import java.util.stream.Stream;
+
+public interface CustomAuditLogRepository {
+
+    /**
+     * Stream audit logs matching the predicate from a database cursor. Returned entities are detached, so reading
+     * the whole stream does not keep them in the persistence context. Needs to be called in a transaction and the
+     * stream needs to be closed by the caller.
+     *
+     * @param predicate Predicate of the audit logs
+     * @param sort      Order of the audit logs
+     * @param fetchSize Number of rows fetched from the cursor at once
+     * @return Stream of the audit logs
+     */
+    Stream<AuditLog> streamAll(Predicate predicate, Sort sort, int fetchSize);
+
+    /**
+     * Delete a chunk of the audit logs matching the predicate with a single delete statement. Every chunk is deleted
+     * in its own transaction, so the deleted rows are not locked until the whole purge finishes.
+     *
+     * @param predicate Predicate of the audit logs
+     * @param chunkSize Maximum number of audit logs deleted
+     * @return Number of deleted audit logs, less than the chunk size when there are no more audit logs to delete
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    long deleteChunk(Predicate predicate, int chunkSize);
+}
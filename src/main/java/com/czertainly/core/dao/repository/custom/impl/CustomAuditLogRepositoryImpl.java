@@ -0,0 +1,62 @@
+package com.czertainly.core.dao.repository.custom.impl;
+
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.entity.QAuditLog;
+import com.czertainly.core.dao.repository.custom.CustomAuditLogRepository;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.Querydsl;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CustomAuditLogRepositoryImpl implements CustomAuditLogRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<AuditLog> streamAll(Predicate predicate, Sort sort, int fetchSize) {
+        QAuditLog auditLog = QAuditLog.auditLog;
+        JPAQuery<AuditLog> query = new JPAQuery<AuditLog>(entityManager)
+                .select(auditLog)
+                .from(auditLog)
+                .where(predicate);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        JPQLQuery<AuditLog> sortedQuery = new Querydsl(entityManager, new PathBuilder<>(AuditLog.class, auditLog.getMetadata()))
+                .applySorting(sort, query);
+
+        return sortedQuery.stream().map(entity -> {
+            entityManager.detach(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public long deleteChunk(Predicate predicate, int chunkSize) {
+        QAuditLog auditLog = QAuditLog.auditLog;
+        List<Long> ids = new JPAQuery<Long>(entityManager)
+                .select(auditLog.id)
+                .from(auditLog)
+                .where(predicate)
+                .orderBy(auditLog.id.asc())
+                .limit(chunkSize)
+                .fetch();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        return new JPADeleteClause(entityManager, auditLog)
+                .where(auditLog.id.in(ids))
+                .execute();
+    }
+}
@@ -0,0 +1,16 @@
+package com.czertainly.core.enums;
+
+/**
+ * Dimensions of the certificate statistics shown on the dashboard
+ */
+public enum CertificateStatisticDimensionEnum {
+
+    GROUP,
+    RA_PROFILE,
+    TYPE,
+    KEY_SIZE,
+    BASIC_CONSTRAINTS,
+    STATUS,
+    COMPLIANCE_STATUS
+
+}
@@ -0,0 +1,84 @@
+package com.czertainly.core.model;
+
+import com.czertainly.api.model.core.certificate.CertificateStatus;
+import com.czertainly.api.model.core.certificate.CertificateType;
+import com.czertainly.api.model.core.compliance.ComplianceStatus;
+import com.czertainly.core.enums.CertificateStatisticDimensionEnum;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Identification of the certificate statistic counter. Each certificate contributes to one counter of every
+ * dimension, counters are kept separately per RA profile to be able to apply the RA profile permissions.
+ */
+public class CertificateStatisticKey {
+
+    private final UUID raProfileUuid;
+
+    private final CertificateStatisticDimensionEnum dimension;
+
+    private final String value;
+
+    public CertificateStatisticKey(UUID raProfileUuid, CertificateStatisticDimensionEnum dimension, String value) {
+        this.raProfileUuid = raProfileUuid;
+        this.dimension = dimension;
+        this.value = value;
+    }
+
+    /**
+     * Get the statistic counters the certificate with the given properties contributes to
+     *
+     * @return Set of the statistic counters
+     */
+    public static Set<CertificateStatisticKey> getKeys(UUID raProfileUuid, UUID groupUuid, Integer keySize, CertificateStatus status,
+                                                       ComplianceStatus complianceStatus, CertificateType certificateType, String basicConstraints) {
+        final Set<CertificateStatisticKey> keys = new HashSet<>();
+        keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.GROUP, Objects.toString(groupUuid, null)));
+        keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.RA_PROFILE, Objects.toString(raProfileUuid, null)));
+        keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.KEY_SIZE, Objects.toString(keySize, null)));
+        keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.STATUS, status != null ? status.getCode() : null));
+        keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.COMPLIANCE_STATUS, complianceStatus != null ? complianceStatus.getCode() : null));
+        if (!CertificateStatus.NEW.equals(status)) {
+            keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.TYPE, certificateType != null ? certificateType.getCode() : null));
+            keys.add(new CertificateStatisticKey(raProfileUuid, CertificateStatisticDimensionEnum.BASIC_CONSTRAINTS, basicConstraints));
+        }
+        return keys;
+    }
+
+    public UUID getRaProfileUuid() {
+        return raProfileUuid;
+    }
+
+    public CertificateStatisticDimensionEnum getDimension() {
+        return dimension;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CertificateStatisticKey that = (CertificateStatisticKey) o;
+        return Objects.equals(raProfileUuid, that.raProfileUuid) && dimension == that.dimension && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(raProfileUuid, dimension, value);
+    }
+
+    @Override
+    public String toString() {
+        return "CertificateStatisticKey{" +
+                "raProfileUuid=" + raProfileUuid +
+                ", dimension=" + dimension +
+                ", value='" + value + '\'' +
+                '}';
+    }
+}
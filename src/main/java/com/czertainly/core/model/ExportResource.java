@@ -0,0 +1,62 @@
+package com.czertainly.core.model;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Export generated into a temporary file. The file is deleted when the stream returned by
+ * {@link #getInputStream()} is closed, so the content of the export can be read only once. When the content
+ * is not read at all, the file has to be deleted by {@link #delete()}.
+ */
+public class ExportResource extends AbstractResource {
+
+    private final String fileName;
+
+    private final Path path;
+
+    public ExportResource(String fileName, Path path) {
+        this.fileName = fileName;
+        this.path = path;
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Delete the temporary file of the export, if it was not deleted yet
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // temporary file that cannot be deleted is left to the system
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Export [" + fileName + "]";
+    }
+}
@@ -0,0 +1,36 @@
+package com.czertainly.core.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Position in the listing ordered by the creation time and UUID of the objects, both descending.
+ * Next page of the listing starts right after the object identified by the cursor.
+ */
+public class KeysetCursor {
+
+    private final LocalDateTime created;
+
+    private final UUID uuid;
+
+    public KeysetCursor(LocalDateTime created, UUID uuid) {
+        this.created = created;
+        this.uuid = uuid;
+    }
+
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+                "created=" + created +
+                ", uuid=" + uuid +
+                '}';
+    }
+}
@@ -8,6 +8,9 @@ import com.czertainly.core.security.authn.client.dto.UserDetailsDto;
 import com.czertainly.core.util.CertificateUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +26,13 @@ import reactor.core.publisher.Mono;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Component
@@ -39,13 +49,76 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
     @Value("${auth.token.header-name}")
     private String authTokenHeaderName;
 
+    // Time in seconds for which the resolved authentication is reused for the same identification, 0 disables the cache
+    @Value("${auth.cache.ttl:30}")
+    private long authenticationCacheTtl;
+
+    // Maximum number of resolved authentications kept in the cache
+    @Value("${auth.cache.max-size:10000}")
+    private int authenticationCacheMaxSize;
+
+    // Resolved authentications keyed by the digest of the identifying certificate, token and system username
+    private final Map<String, CachedAuthentication> authenticationCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
     public CzertainlyAuthenticationClient(@Autowired ObjectMapper objectMapper, @Value("${auth-service.base-url}") String customAuthServiceBaseUrl) {
 
         this.objectMapper = objectMapper;
         this.customAuthServiceBaseUrl = customAuthServiceBaseUrl;
     }
 
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.gets", cacheHits, AtomicLong::get)
+                .tags("cache", "authentication", "result", "hit")
+                .description("Number of authentications resolved from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cacheMisses, AtomicLong::get)
+                .tags("cache", "authentication", "result", "miss")
+                .description("Number of authentications resolved by the authentication service")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", cacheEvictions, AtomicLong::get)
+                .tags("cache", "authentication")
+                .description("Number of authentications evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", authenticationCache, Map::size)
+                .tags("cache", "authentication")
+                .description("Number of authentications in the cache")
+                .register(meterRegistry);
+    }
+
     public AuthenticationInfo authenticate(HttpHeaders headers) throws AuthenticationException {
+        AuthenticationRequestDto authPayload = getAuthPayload(headers);
+        if (authenticationCacheTtl <= 0) {
+            return authenticate(headers, authPayload);
+        }
+
+        String cacheKey = getCacheKey(authPayload);
+        CachedAuthentication cachedAuthentication = authenticationCache.get(cacheKey);
+        if (cachedAuthentication != null && !cachedAuthentication.isExpired()) {
+            cacheHits.incrementAndGet();
+            return cachedAuthentication.getAuthenticationInfo();
+        }
+
+        cacheMisses.incrementAndGet();
+        AuthenticationInfo authenticationInfo = authenticate(headers, authPayload);
+        cacheAuthentication(cacheKey, authenticationInfo);
+        return authenticationInfo;
+    }
+
+    /**
+     * Remove all resolved authentications from the cache. Needs to be called when users or their roles change,
+     * so that the next request of the user is authenticated with the current user details.
+     */
+    public void invalidateAuthenticationCache() {
+        cacheEvictions.addAndGet(authenticationCache.size());
+        authenticationCache.clear();
+    }
+
+    private AuthenticationInfo authenticate(HttpHeaders headers, AuthenticationRequestDto authPayload) throws AuthenticationException {
         try {
             logger.trace(
                     String.format(
@@ -58,7 +131,7 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
             WebClient.RequestHeadersSpec<?> request = getClient(customAuthServiceBaseUrl)
                     .post()
                     .uri("/auth")
-                    .body(Mono.just(getAuthPayload(headers)), AuthenticationRequestDto.class)
+                    .body(Mono.just(authPayload), AuthenticationRequestDto.class)
                     .accept(MediaType.APPLICATION_JSON);
 
             AuthenticationResponseDto response = request
@@ -75,6 +148,34 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
         }
     }
 
+    private void cacheAuthentication(String cacheKey, AuthenticationInfo authenticationInfo) {
+        if (authenticationCache.size() >= authenticationCacheMaxSize) {
+            int size = authenticationCache.size();
+            authenticationCache.values().removeIf(CachedAuthentication::isExpired);
+            if (authenticationCache.size() >= authenticationCacheMaxSize) {
+                authenticationCache.clear();
+            }
+            cacheEvictions.addAndGet(Math.max(0, size - authenticationCache.size()));
+        }
+        authenticationCache.put(cacheKey, new CachedAuthentication(authenticationInfo, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(authenticationCacheTtl)));
+    }
+
+    private String getCacheKey(AuthenticationRequestDto authPayload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String value : new String[]{authPayload.getCertificateContent(), authPayload.getAuthenticationToken(), authPayload.getSystemUsername()}) {
+                if (value != null) {
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                }
+                // separator so that values cannot be shifted between the fields
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new CzertainlyAuthenticationException("Unable to compute digest of the authentication request.", e);
+        }
+    }
+
     private AuthenticationRequestDto getAuthPayload(HttpHeaders headers) {
         AuthenticationRequestDto requestDto = new AuthenticationRequestDto();
         if( headers.get(certificateHeaderName) != null) {
@@ -111,4 +212,24 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
             throw new CzertainlyAuthenticationException("The response from the authentication service could not be parsed.", e);
         }
     }
+
+    private static class CachedAuthentication {
+
+        private final AuthenticationInfo authenticationInfo;
+
+        private final long expiresAt;
+
+        private CachedAuthentication(AuthenticationInfo authenticationInfo, long expiresAt) {
+            this.authenticationInfo = authenticationInfo;
+            this.expiresAt = expiresAt;
+        }
+
+        public AuthenticationInfo getAuthenticationInfo() {
+            return authenticationInfo;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
 }
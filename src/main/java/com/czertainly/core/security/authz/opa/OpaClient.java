@@ -14,6 +14,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class OpaClient {
@@ -26,6 +29,17 @@ public class OpaClient {
 
     private final String opaBaseUrl;
 
+    // Time in seconds for which the authorization decision of OPA is reused for the same request, 0 disables the cache
+    @Value("${opa.cache.ttl:30}")
+    private long decisionCacheTtl;
+
+    // Maximum number of authorization decisions kept in the cache
+    @Value("${opa.cache.max-size:10000}")
+    private int decisionCacheMaxSize;
+
+    // Authorization decisions keyed by the policy name and serialized OPA input (principal, resource, action and object UUIDs)
+    private final Map<String, CachedDecision> decisionCache = new ConcurrentHashMap<>();
+
     public OpaClient(@Autowired ObjectMapper om, @Value("${opa.base-url}") String opaBaseUrl) {
         this.om = om;
         this.opaBaseUrl = opaBaseUrl;
@@ -53,6 +67,13 @@ public class OpaClient {
             ParameterizedTypeReference<OpaResultWrapper<T>> typeReference = ParameterizedTypeReference.forType(type);
             String body = om.writeValueAsString(new OpaRequestWrapper<>(new OpaInput(resource, principal, details)));
 
+            String cacheKey = policyName + ":" + type.getActualTypeArguments()[0].getTypeName() + ":" + body;
+            T cachedResult = getCachedDecision(cacheKey);
+            if (cachedResult != null) {
+                logger.trace(String.format("Using cached decision of OPA policy '%s'.", policyName));
+                return cachedResult;
+            }
+
             OpaResultWrapper<T> wrapper = getClient()
                     .post()
                     .uri("/v1/data/" + policyName)
@@ -64,12 +85,51 @@ public class OpaClient {
                     .block();
 
             if (wrapper == null) throw new RuntimeException("Empty response received from OPA.");
+            cacheDecision(cacheKey, wrapper.getResult());
             return wrapper.getResult();
         } catch (Exception e) {
             throw new AccessDeniedException("An error occurred when calling OPA.", e);
         }
     }
 
+    /**
+     * Invalidate all cached authorization decisions. Needs to be called whenever roles, permissions or
+     * role assignments of users change, so that the new permissions are applied immediately.
+     */
+    public void invalidateDecisionCache() {
+        logger.debug("Invalidating cached OPA decisions.");
+        decisionCache.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getCachedDecision(String cacheKey) {
+        if (decisionCacheTtl <= 0) {
+            return null;
+        }
+        CachedDecision cachedDecision = decisionCache.get(cacheKey);
+        if (cachedDecision == null) {
+            return null;
+        }
+        if (cachedDecision.isExpired()) {
+            decisionCache.remove(cacheKey, cachedDecision);
+            return null;
+        }
+        return (T) cachedDecision.getResult();
+    }
+
+    private void cacheDecision(String cacheKey, Object result) {
+        if (decisionCacheTtl <= 0 || result == null) {
+            return;
+        }
+        if (decisionCache.size() >= decisionCacheMaxSize) {
+            decisionCache.values().removeIf(CachedDecision::isExpired);
+            if (decisionCache.size() >= decisionCacheMaxSize) {
+                decisionCache.clear();
+            }
+        }
+        decisionCache.put(cacheKey, new CachedDecision(result, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(decisionCacheTtl)));
+    }
+
     public WebClient getClient() {
         if (client == null) {
             client = WebClient.builder().baseUrl(opaBaseUrl).build();
@@ -104,4 +164,24 @@ public class OpaClient {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private static class CachedDecision {
+
+        private final Object result;
+
+        private final long expiresAt;
+
+        private CachedDecision(Object result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
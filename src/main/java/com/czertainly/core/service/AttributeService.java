@@ -183,6 +183,17 @@ public interface AttributeService {
      */
     void updateAttributeContent(UUID objectUuid, List<RequestAttributeDto> attributes, Resource resource);
 
+    /**
+     * Update the content for the attributes of multiple objects of the same resource. Content of each attribute is looked up
+     * or created only once and linked to all the objects, objects already having the same content are left untouched.
+     * This method to be used when updating the objects in bulk
+     *
+     * @param objectUuids UUIDs of the objects
+     * @param attributes  List of custom attributes
+     * @param resource    Resource for the attribute and value
+     */
+    void updateAttributeContent(List<UUID> objectUuids, List<RequestAttributeDto> attributes, Resource resource);
+
     /**
      * Update the content for a single attribute
      *
@@ -210,6 +221,14 @@ public interface AttributeService {
      */
     void deleteAttributeContent(UUID objectUuid, Resource resource);
 
+    /**
+     * Function to delete all the attribute content for multiple objects of the same resource. This method to be used when deleting the objects in bulk
+     *
+     * @param objectUuids UUIDs of the objects
+     * @param resource    Resource type
+     */
+    void deleteAttributeContent(List<UUID> objectUuids, Resource resource);
+
     /**
      * Function to delete all the attribute content for an individual object with the parent resource.
      *
@@ -2,10 +2,10 @@ package com.czertainly.core.service;
 
 import com.czertainly.api.model.core.audit.AuditLogFilter;
 import com.czertainly.api.model.core.audit.AuditLogResponseDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
 import com.czertainly.api.model.core.audit.ObjectType;
 import com.czertainly.api.model.core.audit.OperationStatusEnum;
 import com.czertainly.api.model.core.audit.OperationType;
+import com.czertainly.core.model.ExportResource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
@@ -51,18 +51,20 @@ public interface AuditLogService {
     AuditLogResponseDto listAuditLogs(AuditLogFilter filter, Pageable pageable);
 
     /**
-     *
+     * Exports the audit logs streamed from the database into a temporary file
      * @param filter {@link AuditLogFilter}
      * @param sort {@link Sort}
      *
-     * @return {@link ExportResultDto}
+     * @return {@link ExportResource} that can be read once
      */
-    ExportResultDto exportAuditLogs(AuditLogFilter filter, Sort sort);
+    ExportResource exportAuditLogs(AuditLogFilter filter, Sort sort);
 
     /**
-     * Removes the audit logs from the database
+     * Removes the audit logs from the database in chunks, each chunk is deleted in its own transaction
      * @param filter {@link AuditLogFilter}
-     * @param sort {@link Sort}
+     * @param sort {@link Sort}, not used as the order of deletion does not matter
+     *
+     * @return number of removed audit logs
      */
-    void purgeAuditLogs(AuditLogFilter filter, Sort sort);
+    long purgeAuditLogs(AuditLogFilter filter, Sort sort);
 }
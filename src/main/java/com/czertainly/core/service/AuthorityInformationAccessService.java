@@ -0,0 +1,24 @@
+package com.czertainly.core.service;
+
+import java.security.cert.X509Certificate;
+
+public interface AuthorityInformationAccessService {
+
+    /**
+     * Get the issuer certificate published in the CA Issuers location of the Authority Information Access extension.
+     * Downloaded certificates are cached in memory and on disk, so the certificates issued by the same CA
+     * download the issuer only once.
+     *
+     * @param caIssuersUrl URL of the CA Issuers location
+     * @return Issuer certificate, or null when it is not possible to download it
+     */
+    X509Certificate getIssuerCertificate(String caIssuersUrl);
+
+    /**
+     * Remove the expired issuer certificates from the disk cache. Certificates are removed once no valid URL
+     * refers to them.
+     *
+     * @return Number of removed files
+     */
+    int purgeDiskCache();
+}
@@ -51,6 +51,15 @@ public interface CertificateService extends ResourceExtensionService  {
 
     Certificate createCertificateEntity(X509Certificate certificate);
 
+    /**
+     * Create and save entities of the certificates that are not stored yet. Contents of the certificates that do not
+     * exist yet are saved together, existing contents and keys of the certificates are looked up with a single query.
+     *
+     * @param certificates Certificates that are not stored yet keyed by their fingerprint
+     * @return List of saved certificate entities
+     */
+    List<Certificate> createCertificateEntities(Map<String, X509Certificate> certificates);
+
     void updateCertificateIssuer(Certificate certificate) throws NotFoundException;
 
     /**
@@ -0,0 +1,65 @@
+package com.czertainly.core.service;
+
+import com.czertainly.api.model.client.dashboard.StatisticsDto;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.model.CertificateStatisticKey;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+
+import java.util.List;
+import java.util.Set;
+
+public interface CertificateStatisticsService {
+
+    /**
+     * Get the statistic counters the certificate contributes to
+     *
+     * @param certificate Certificate
+     * @return Set of the statistic counters
+     */
+    Set<CertificateStatisticKey> getStatisticKeys(Certificate certificate);
+
+    /**
+     * Record change of the certificate statistics. Changes made in a transaction are written by the transaction
+     * just before it is committed, so they are committed or rolled back together with the certificates.
+     *
+     * @param removedKeys Counters the certificate no longer contributes to
+     * @param addedKeys   Counters the certificate newly contributes to
+     */
+    void recordChange(Set<CertificateStatisticKey> removedKeys, Set<CertificateStatisticKey> addedKeys);
+
+    /**
+     * Track the changes of the certificates managed by the current transaction. Certificates changed by the transaction
+     * are flushed before the recorded changes are written, so the changes made only at the commit are not missed.
+     */
+    void trackChanges();
+
+    /**
+     * Recalculate the persisted statistics from all certificates when no other instance is doing it at the same time,
+     * to correct changes that were not recorded, e.g. bulk deletes.
+     */
+    void reconcileStatistics();
+
+    /**
+     * Recalculate the persisted statistics from all certificates in the current transaction. Used after bulk updates
+     * of the certificates that bypass the recording of the changes.
+     */
+    void recalculateStatistics();
+
+    /**
+     * Add the certificate statistics from the persisted aggregate
+     *
+     * @param raProfileFilter Filter of RA profiles the user has access to, null if not restricted
+     * @param dto             Statistics to be filled
+     * @return Statistics with the certificate statistics
+     */
+    StatisticsDto addCertificateStatistics(SecurityResourceFilter raProfileFilter, StatisticsDto dto);
+
+    /**
+     * Add the certificate statistics calculated from the given certificates
+     *
+     * @param certificates Certificates
+     * @param dto          Statistics to be filled
+     * @return Statistics with the certificate statistics
+     */
+    StatisticsDto addCertificateStatistics(List<Certificate> certificates, StatisticsDto dto);
+}
@@ -90,20 +90,18 @@ public interface ComplianceService {
     void updateGroupsAndRules(Connector connector) throws ConnectorException;
 
     /**
-     * Update the status of the compliance for the certificate. The method takes the uuid of the compliance rule
-     * get all the certificate that has the rule and perform the following operation.
+     * Update the status of the compliance for the certificates. The method takes the uuid of the compliance rule,
+     * gets all the certificates that have a result of the rule and performs the following operation.
      *
      * The Compliance Update goes through the following protocol
      *
-     * 1. Get the list of certificates where the compliance_result column json contains the UUID of the compliance rule
-     * 2. Iterate through each certificate and for each certificate
-     *      2.1 Get the Compliance Validation result from the certificate
-     *      2.2 Extract Compliant, non-compliant and not applicable result
-     *      3.3 Check where the rule exists and remove it
-     *      3.4 Once the rule is removed, update the compliance status of the certificate based on the following condition
-     *      3.5 If the Non-Compliant rules are not empty, leave the status as non-compliant
-     *      3.6 If the Non-Compliant rules are empty and the certificate has compliant rules, then the status is compliant
-     *      3.7 If the compliant and the non-compliant rules are empty then the status is set to Not Applicable
+     * 1. Get the list of certificates that have a row of the rule in the certificate_compliance_result table
+     * 2. Delete the results of the rule for all these certificates with one set-based delete statement
+     * 3. Load the remaining results of the affected certificates with one query and for each certificate
+     *      3.1 If any remaining rule is non-compliant, the status is non-compliant
+     *      3.2 If no remaining rule is non-compliant and the certificate has compliant rules, then the status is compliant
+     *      3.3 If the certificate has neither compliant nor non-compliant rules, the status is set to Not Applicable
+     * 4. Save the statuses of the affected certificates together
      * @param ruleUuid UUID of the compliance rule
      */
     void inCoreComplianceStatusUpdate(UUID ruleUuid);
@@ -23,6 +23,7 @@ import com.czertainly.core.security.authz.SecurityFilter;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface ConnectorService extends ResourceExtensionService {
 
@@ -62,6 +63,25 @@ public interface ConnectorService extends ResourceExtensionService {
 
     List<DataAttribute> mergeAndValidateAttributes(SecuredUUID uuid, FunctionGroupCode functionGroup, List<RequestAttributeDto> attributes, String functionGroupType) throws ConnectorException;
 
+    /**
+     * Get attribute definitions of the connector for the function group and kind. Definitions are cached and
+     * requested from the connector only when not cached yet, expired or invalidated.
+     *
+     * @param connector     Connector providing the attributes
+     * @param functionGroup Function group of the connector
+     * @param kind          Kind of the function group
+     * @return List of attribute definitions, the list can be modified by the caller
+     * @throws ConnectorException when the definitions cannot be requested from the connector
+     */
+    List<BaseAttribute> getAttributeDefinitions(Connector connector, FunctionGroupCode functionGroup, String kind) throws ConnectorException;
+
+    /**
+     * Remove all cached attribute definitions of the connector
+     *
+     * @param connectorUuid UUID of the connector
+     */
+    void invalidateAttributeDefinitionCache(UUID connectorUuid);
+
     List<BulkActionMessageDto> bulkDeleteConnector(List<SecuredUUID> uuids) throws ValidationException, NotFoundException;
 
     List<BulkActionMessageDto> forceDeleteConnector(List<SecuredUUID> uuids) throws ValidationException, NotFoundException;
@@ -21,7 +21,9 @@ import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -305,4 +307,12 @@ public interface CryptographicKeyService extends ResourceExtensionService  {
      * @return Cryptographic Key UUID
      */
     UUID findKeyByFingerprint(String fingerprint);
+
+    /**
+     * Function to get the keys based on the sha 256 key fingerprints with a single query
+     *
+     * @param fingerprints SHA 256 fingerprints of the keys
+     * @return Cryptographic Key UUIDs keyed by the fingerprint, fingerprints of unknown keys are not included
+     */
+    Map<String, UUID> findKeysByFingerprints(Collection<String> fingerprints);
 }
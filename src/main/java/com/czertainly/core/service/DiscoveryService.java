@@ -34,6 +34,18 @@ public interface DiscoveryService extends ResourceExtensionService {
 
     void createDiscovery(DiscoveryDto request, DiscoveryHistory modal) throws AlreadyExistException, NotFoundException, ConnectorException;
 
+    /**
+     * Check the status of the running discoveries that are due for the next check in the discovery provider.
+     * Completed discoveries are downloaded and processed on the async executor.
+     */
+    void pollRunningDiscoveries();
+
+    /**
+     * Mark the discoveries left in progress by the previous run of the platform as failed. Running discoveries
+     * are tracked only in the memory, so their status is not checked anymore after the restart.
+     */
+    void failInterruptedDiscoveries();
+
     void deleteDiscovery(SecuredUUID uuid) throws NotFoundException;
     void bulkRemoveDiscovery(List<SecuredUUID> discoveryUuids) throws NotFoundException;
 
@@ -5,6 +5,7 @@ import com.czertainly.api.model.common.attribute.v2.MetadataAttribute;
 import com.czertainly.api.model.core.auth.Resource;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface MetadataService {
@@ -26,6 +27,17 @@ public interface MetadataService {
      */
     void createMetadata(UUID connectorUuid, UUID objectUuid, UUID sourceObjectUuid, String sourceObjectName, List<MetadataAttribute> metadata, Resource resource, Resource sourceObjectResource);
 
+    /**
+     * Method to create the metadata definitions and the metadata for multiple objects of the same resource reported by the connector
+     * @param connectorUuid - UUID Of the connector
+     * @param metadata - Map of the object UUIDs to the list of metadata for the attributes
+     * @param sourceObjectUuid - UUID of the source object
+     * @param sourceObjectName - Name of the source object
+     * @param resource - Resource for the metadata
+     * @param sourceObjectResource - Resource of the source object
+     */
+    void createMetadata(UUID connectorUuid, Map<UUID, List<MetadataAttribute>> metadata, UUID sourceObjectUuid, String sourceObjectName, Resource resource, Resource sourceObjectResource);
+
     /**
      * Method to get the metadata for the specified object
      * @param uuid UUID of the Object
@@ -0,0 +1,31 @@
+package com.czertainly.core.service.acme;
+
+import java.util.Date;
+
+/**
+ * Store of the ACME nonces issued in the Replay-Nonce header. Implementation is selected by the
+ * property acme.nonce.store, database store is shared by all instances of the Core, memory store
+ * can be used for single instance deployments.
+ */
+public interface AcmeNonceStore {
+
+    /**
+     * Store the issued nonce
+     * @param nonce Nonce value
+     * @param expires Time when the nonce expires
+     */
+    void store(String nonce, Date expires);
+
+    /**
+     * Consume the nonce. Nonce can be consumed only once, consumed nonce is removed from the store.
+     * @param nonce Nonce value
+     * @return true when the nonce was issued, not yet consumed and is not expired
+     */
+    boolean consume(String nonce);
+
+    /**
+     * Remove all expired nonces from the store
+     * @return Number of removed nonces
+     */
+    int purgeExpired();
+}
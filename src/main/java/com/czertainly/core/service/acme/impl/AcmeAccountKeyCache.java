@@ -0,0 +1,136 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.api.exception.AcmeProblemDocumentException;
+import com.czertainly.api.model.core.acme.Problem;
+import com.czertainly.core.dao.entity.acme.AcmeAccount;
+import com.czertainly.core.util.AcmePublicKeyProcessor;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the parsed public keys of ACME accounts and their signature verifiers keyed by the account ID.
+ * Cached key is used only when it was parsed from the public key currently stored for the account,
+ * so the key rollover of the account is always applied even before the cached key is invalidated.
+ */
+@Component
+public class AcmeAccountKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcmeAccountKeyCache.class);
+
+    // Maximum number of account keys kept in the cache
+    @Value("${acme.account-key.cache.max-size:10000}")
+    private int accountKeyCacheMaxSize;
+
+    private final Map<String, CachedAccountKey> accountKeyCache = new ConcurrentHashMap<>();
+
+    /**
+     * Get the public key of the ACME account
+     * @param account ACME account
+     * @return Parsed public key of the account
+     * @throws AcmeProblemDocumentException when the public key of the account cannot be parsed
+     */
+    public PublicKey getPublicKey(AcmeAccount account) throws AcmeProblemDocumentException {
+        return getAccountKey(account).getPublicKey();
+    }
+
+    /**
+     * Verify the signature of the JWS by the public key of the ACME account
+     * @param account ACME account
+     * @param jwsObject JWS to be verified
+     * @return true when the JWS is signed by the account key
+     * @throws AcmeProblemDocumentException when the public key of the account cannot be parsed or used for verification
+     */
+    public boolean verify(AcmeAccount account, JWSObject jwsObject) throws AcmeProblemDocumentException {
+        try {
+            return jwsObject.verify(getAccountKey(account).getVerifier());
+        } catch (JOSEException e) {
+            logger.error("Unable to verify signature: {}", e.getMessage());
+            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
+        }
+    }
+
+    /**
+     * Remove the cached key of the ACME account. Needs to be called when the key of the account changes
+     * or the account is deactivated.
+     * @param accountId ID of the ACME account
+     */
+    public void invalidate(String accountId) {
+        accountKeyCache.remove(accountId);
+    }
+
+    private CachedAccountKey getAccountKey(AcmeAccount account) throws AcmeProblemDocumentException {
+        CachedAccountKey cachedAccountKey = accountKeyCache.get(account.getAccountId());
+        if (cachedAccountKey != null && cachedAccountKey.getPublicKeyPem().equals(account.getPublicKey())) {
+            return cachedAccountKey;
+        }
+
+        try {
+            PublicKey publicKey = AcmePublicKeyProcessor.publicKeyObjectFromString(account.getPublicKey());
+            cachedAccountKey = new CachedAccountKey(account.getPublicKey(), publicKey, createVerifier(publicKey));
+        } catch (AcmeProblemDocumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unable to parse public key of ACME Account with ID {}: {}", account.getAccountId(), e.getMessage());
+            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
+        }
+
+        if (accountKeyCache.size() >= accountKeyCacheMaxSize) {
+            accountKeyCache.clear();
+        }
+        accountKeyCache.put(account.getAccountId(), cachedAccountKey);
+        return cachedAccountKey;
+    }
+
+    private JWSVerifier createVerifier(PublicKey publicKey) throws JOSEException, AcmeProblemDocumentException {
+        String keyType = publicKey.getAlgorithm();
+        if (keyType.equals(ExtendedAcmeHelperService.RSA_KEY_TYPE_NOTATION)) {
+            return new RSASSAVerifier((RSAPublicKey) publicKey);
+        } else if (keyType.equals(ExtendedAcmeHelperService.EC_KEY_TYPE_NOTATION)) {
+            return new ECDSAVerifier((ECPublicKey) publicKey);
+        }
+        String message = "Account key is generated using unsupported key type by the server. Supported key types are " + String.join(", ", ExtendedAcmeHelperService.ACME_SUPPORTED_ALGORITHMS);
+        logger.error(message);
+        throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY, message);
+    }
+
+    private static class CachedAccountKey {
+
+        private final String publicKeyPem;
+
+        private final PublicKey publicKey;
+
+        private final JWSVerifier verifier;
+
+        private CachedAccountKey(String publicKeyPem, PublicKey publicKey, JWSVerifier verifier) {
+            this.publicKeyPem = publicKeyPem;
+            this.publicKey = publicKey;
+            this.verifier = verifier;
+        }
+
+        public String getPublicKeyPem() {
+            return publicKeyPem;
+        }
+
+        public PublicKey getPublicKey() {
+            return publicKey;
+        }
+
+        public JWSVerifier getVerifier() {
+            return verifier;
+        }
+    }
+}
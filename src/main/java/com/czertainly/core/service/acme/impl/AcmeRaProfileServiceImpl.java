@@ -69,14 +69,14 @@ public class AcmeRaProfileServiceImpl implements AcmeRaProfileService {
 
     @Override
     public ResponseEntity<Account> updateAccount(String raProfileName, String accountId, String requestJson) throws AcmeProblemDocumentException, NotFoundException {
-        extendedAcmeHelperService.initialize(requestJson);
-        return extendedAcmeHelperService.updateAccount(accountId);
+        AcmeRequestContext context = extendedAcmeHelperService.initialize(requestJson);
+        return extendedAcmeHelperService.updateAccount(context, accountId);
     }
 
     @Override
     public ResponseEntity<?> keyRollover(String raProfileName, String jwsBody) throws AcmeProblemDocumentException {
-        extendedAcmeHelperService.initialize(jwsBody);
-        return extendedAcmeHelperService.keyRollover();
+        AcmeRequestContext context = extendedAcmeHelperService.initialize(jwsBody);
+        return extendedAcmeHelperService.keyRollover(context);
 
     }
 
@@ -94,8 +94,8 @@ public class AcmeRaProfileServiceImpl implements AcmeRaProfileService {
 
     @Override
     public ResponseEntity<Authorization> getAuthorization(String raProfileName, String authorizationId, String jwsBody) throws NotFoundException, AcmeProblemDocumentException {
-        extendedAcmeHelperService.initialize(jwsBody);
-        Authorization authorization = extendedAcmeHelperService.checkDeactivateAuthorization(authorizationId);
+        AcmeRequestContext context = extendedAcmeHelperService.initialize(jwsBody);
+        Authorization authorization = extendedAcmeHelperService.checkDeactivateAuthorization(context, authorizationId);
         logger.debug("New Authorization: {}", authorization.toString());
         return ResponseEntity
                 .ok()
@@ -117,10 +117,10 @@ public class AcmeRaProfileServiceImpl implements AcmeRaProfileService {
 
     @Override
     public ResponseEntity<Order> finalizeOrder(String raProfileName, String orderId, String jwsBody) throws AcmeProblemDocumentException, ConnectorException {
-        extendedAcmeHelperService.initialize(jwsBody);
+        AcmeRequestContext context = extendedAcmeHelperService.initialize(jwsBody);
         AcmeOrder order = extendedAcmeHelperService.checkOrderForFinalize(orderId);
         logger.debug("Finalizing the Order with ID: {}", orderId);
-        extendedAcmeHelperService.finalizeOrder(order);
+        extendedAcmeHelperService.finalizeOrder(context, order);
         order.setStatus(OrderStatus.PROCESSING);
         return ResponseEntity
                 .ok()
@@ -161,8 +161,8 @@ public class AcmeRaProfileServiceImpl implements AcmeRaProfileService {
 
     @Override
     public ResponseEntity<?> revokeCertificate(String raProfileName, String jwsBody) throws AcmeProblemDocumentException, ConnectorException, CertificateException {
-        extendedAcmeHelperService.initialize(jwsBody);
-        return extendedAcmeHelperService.revokeCertificate();
+        AcmeRequestContext context = extendedAcmeHelperService.initialize(jwsBody);
+        return extendedAcmeHelperService.revokeCertificate(context);
     }
 
     private String getAcmeProfileName(String raProfileName) throws AcmeProblemDocumentException {
@@ -0,0 +1,61 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.api.model.common.JwsBody;
+import com.nimbusds.jose.JWSObject;
+
+import java.security.PublicKey;
+
+/**
+ * Parsed JWS of a single ACME request. Context is created for every request and passed to the
+ * operations of the ACME helper service, so the service does not hold any request state.
+ */
+public final class AcmeRequestContext {
+
+    private final String rawJwsBody;
+    private final JwsBody acmeJwsBody;
+    private final JWSObject jwsObject;
+    private final PublicKey publicKey;
+    private final boolean validSignature;
+
+    AcmeRequestContext(String rawJwsBody, JwsBody acmeJwsBody, JWSObject jwsObject) {
+        this(rawJwsBody, acmeJwsBody, jwsObject, null, false);
+    }
+
+    private AcmeRequestContext(String rawJwsBody, JwsBody acmeJwsBody, JWSObject jwsObject, PublicKey publicKey, boolean validSignature) {
+        this.rawJwsBody = rawJwsBody;
+        this.acmeJwsBody = acmeJwsBody;
+        this.jwsObject = jwsObject;
+        this.publicKey = publicKey;
+        this.validSignature = validSignature;
+    }
+
+    /**
+     * Create context of the same request with the public key that signed the request
+     * @param publicKey Public key from the JWS header or of the ACME account
+     * @param validSignature Result of the signature verification by the public key
+     * @return New request context
+     */
+    AcmeRequestContext withPublicKey(PublicKey publicKey, boolean validSignature) {
+        return new AcmeRequestContext(rawJwsBody, acmeJwsBody, jwsObject, publicKey, validSignature);
+    }
+
+    public String getRawJwsBody() {
+        return rawJwsBody;
+    }
+
+    public JwsBody getAcmeJwsBody() {
+        return acmeJwsBody;
+    }
+
+    public JWSObject getJwsObject() {
+        return jwsObject;
+    }
+
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    public boolean isValidSignature() {
+        return validSignature;
+    }
+}
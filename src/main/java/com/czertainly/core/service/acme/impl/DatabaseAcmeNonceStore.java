@@ -0,0 +1,38 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.core.dao.entity.acme.AcmeNonce;
+import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
+import com.czertainly.core.service.acme.AcmeNonceStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+
+@Service
+@ConditionalOnProperty(value = "acme.nonce.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseAcmeNonceStore implements AcmeNonceStore {
+
+    @Autowired
+    private AcmeNonceRepository acmeNonceRepository;
+
+    @Override
+    public void store(String nonce, Date expires) {
+        AcmeNonce acmeNonce = new AcmeNonce();
+        acmeNonce.setCreated(new Date());
+        acmeNonce.setNonce(nonce);
+        acmeNonce.setExpires(expires);
+        acmeNonceRepository.save(acmeNonce);
+    }
+
+    @Override
+    public boolean consume(String nonce) {
+        // single delete statement, when the same nonce is used by concurrent requests, only one of them deletes the row
+        return acmeNonceRepository.deleteByNonceAndExpiresAfter(nonce, new Date()) > 0;
+    }
+
+    @Override
+    public int purgeExpired() {
+        return acmeNonceRepository.deleteAllByExpiresBefore(new Date());
+    }
+}
@@ -17,7 +17,6 @@ import com.czertainly.core.dao.entity.RaProfile;
 import com.czertainly.core.dao.entity.acme.AcmeAccount;
 import com.czertainly.core.dao.entity.acme.AcmeAuthorization;
 import com.czertainly.core.dao.entity.acme.AcmeChallenge;
-import com.czertainly.core.dao.entity.acme.AcmeNonce;
 import com.czertainly.core.dao.entity.acme.AcmeOrder;
 import com.czertainly.core.dao.entity.acme.AcmeProfile;
 import com.czertainly.core.dao.repository.AcmeProfileRepository;
@@ -25,12 +24,12 @@ import com.czertainly.core.dao.repository.RaProfileRepository;
 import com.czertainly.core.dao.repository.acme.AcmeAccountRepository;
 import com.czertainly.core.dao.repository.acme.AcmeAuthorizationRepository;
 import com.czertainly.core.dao.repository.acme.AcmeChallengeRepository;
-import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
 import com.czertainly.core.dao.repository.acme.AcmeOrderRepository;
 import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.CertValidationService;
 import com.czertainly.core.service.CertificateService;
+import com.czertainly.core.service.acme.AcmeNonceStore;
 import com.czertainly.core.service.v2.ClientOperationService;
 import com.czertainly.core.util.*;
 import com.nimbusds.jose.JOSEException;
@@ -79,7 +78,6 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
-import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -108,11 +106,6 @@ public class ExtendedAcmeHelperService {
     private static final String HTTP_CHALLENGE_REQUEST_METHOD = "GET";
     private static final String LOCATION_HEADER_NAME = "Location";
     private static final String HTTP_CHALLENGE_BASE_URL = "http://%s/.well-known/acme-challenge/%s";
-    private JwsBody acmeJwsBody;
-    private String rawJwsBody;
-    private JWSObject jwsObject;
-    private Boolean isValidSignature;
-    private PublicKey publicKey;
     @Autowired
     private AcmeAccountRepository acmeAccountRepository;
     @Autowired
@@ -132,42 +125,20 @@ public class ExtendedAcmeHelperService {
     @Autowired
     private AcmeProfileRepository acmeProfileRepository;
     @Autowired
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceStore acmeNonceStore;
+    @Autowired
+    private AcmeAccountKeyCache acmeAccountKeyCache;
 
     public ExtendedAcmeHelperService() {
     }
 
-    public JwsBody getAcmeJwsBody() {
-        return acmeJwsBody;
-    }
-
-    public String getRawJwsBody() {
-        return rawJwsBody;
-    }
-
-    public JWSObject getJwsObject() {
-        return jwsObject;
-    }
-
-    public Boolean getValidSignature() {
-        return isValidSignature;
-    }
-
-    public PublicKey getPublicKey() {
-        return publicKey;
-    }
-
-    protected void setPublicKey(PublicKey publicKey) throws JOSEException {
-        this.publicKey = publicKey;
-    }
-
-    private void setPublicKey() throws JOSEException, AcmeProblemDocumentException {
+    private PublicKey getJwkPublicKey(JWSObject jwsObject) throws JOSEException, AcmeProblemDocumentException {
         String keyType = jwsObject.getHeader().getJWK().getKeyType().toString();
         logger.info("Public key type: {}", keyType);
         if (keyType.equals(RSA_KEY_TYPE_NOTATION)) {
-            this.publicKey = jwsObject.getHeader().getJWK().toRSAKey().toPublicKey();
+            return jwsObject.getHeader().getJWK().toRSAKey().toPublicKey();
         } else if (keyType.equals(EC_KEY_TYPE_NOTATION)) {
-            this.publicKey = jwsObject.getHeader().getJWK().toECKey().toPublicKey();
+            return jwsObject.getHeader().getJWK().toECKey().toPublicKey();
         } else {
             String message = "Account key is generated using unsupported key type by the server. Supported key types are " + String.join(", ", ACME_SUPPORTED_ALGORITHMS);
             logger.error(message);
@@ -175,13 +146,7 @@ public class ExtendedAcmeHelperService {
         }
     }
 
-    private void setJwsObject() throws ParseException {
-        JWSObject jwsObject = new JWSObject(new Base64URL(acmeJwsBody.getProtected()), new Base64URL(acmeJwsBody.getPayload()),
-                new Base64URL(acmeJwsBody.getSignature()));
-        this.jwsObject = jwsObject;
-    }
-
-    private Boolean checkSignature(PublicKey publicKey) throws JOSEException, AcmeProblemDocumentException {
+    private Boolean checkSignature(JWSObject jwsObject, PublicKey publicKey) throws JOSEException, AcmeProblemDocumentException {
         String keyType = publicKey.getAlgorithm();
         logger.info("Key type for the request: {}", keyType);
         if (keyType.equals(RSA_KEY_TYPE_NOTATION)) {
@@ -195,29 +160,22 @@ public class ExtendedAcmeHelperService {
         }
     }
 
-    private void setIsValidSignature() throws JOSEException, AcmeProblemDocumentException {
-        this.isValidSignature = checkSignature(publicKey);
-    }
-
-    protected Boolean IsValidSignature() throws JOSEException, AcmeProblemDocumentException {
-        return checkSignature(publicKey);
-    }
-
-    protected void newAccountProcess() throws AcmeProblemDocumentException {
+    protected AcmeRequestContext newAccountProcess(AcmeRequestContext context) throws AcmeProblemDocumentException {
         try {
-            this.setPublicKey();
-            this.setIsValidSignature();
+            PublicKey publicKey = getJwkPublicKey(context.getJwsObject());
+            return context.withPublicKey(publicKey, checkSignature(context.getJwsObject(), publicKey));
         } catch (Exception e) {
             logger.error("Error while parsing the JWS. JWS may be malformed: {}", e.getMessage());
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED);
         }
     }
 
-    public void initialize(String rawJwsBody) throws AcmeProblemDocumentException {
-        this.rawJwsBody = rawJwsBody;
+    public AcmeRequestContext initialize(String rawJwsBody) throws AcmeProblemDocumentException {
         try {
-            this.acmeJwsBody = AcmeJsonProcessor.generalBodyJsonParser(rawJwsBody, JwsBody.class);
-            this.setJwsObject();
+            JwsBody acmeJwsBody = AcmeJsonProcessor.generalBodyJsonParser(rawJwsBody, JwsBody.class);
+            JWSObject jwsObject = new JWSObject(new Base64URL(acmeJwsBody.getProtected()), new Base64URL(acmeJwsBody.getPayload()),
+                    new Base64URL(acmeJwsBody.getSignature()));
+            return new AcmeRequestContext(rawJwsBody, acmeJwsBody, jwsObject);
         } catch (Exception e) {
             logger.error("Error while parsing JWS, {}", e.getMessage());
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED);
@@ -276,11 +234,11 @@ public class ExtendedAcmeHelperService {
     }
 
     protected ResponseEntity<Account> processNewAccount(String profileName, String requestJson) throws AcmeProblemDocumentException {
-        newAccountValidator(profileName, requestJson);
-        NewAccountRequest accountRequest = AcmeJsonProcessor.getPayloadAsRequestObject(getJwsObject(), NewAccountRequest.class);
+        AcmeRequestContext context = newAccountValidator(profileName, requestJson);
+        NewAccountRequest accountRequest = AcmeJsonProcessor.getPayloadAsRequestObject(context.getJwsObject(), NewAccountRequest.class);
         logger.debug("New Account requested: {}", accountRequest.toString());
         AcmeAccount account;
-        account = addNewAccount(profileName, AcmePublicKeyProcessor.publicKeyPemStringFromObject(getPublicKey()), accountRequest);
+        account = addNewAccount(profileName, AcmePublicKeyProcessor.publicKeyPemStringFromObject(context.getPublicKey()), accountRequest);
         Account accountDto = account.mapToDto();
         String baseUri = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString() + ACME_URI_HEADER;
         if (ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/")) {
@@ -317,14 +275,13 @@ public class ExtendedAcmeHelperService {
 
     }
 
-    private void newAccountValidator(String profileName, String requestJson) throws AcmeProblemDocumentException {
+    private AcmeRequestContext newAccountValidator(String profileName, String requestJson) throws AcmeProblemDocumentException {
         logger.info("Initiating the new Account validation for profile: {}", profileName);
         if (requestJson.isEmpty()) {
             logger.error("New Account is empty. JWS is malformed for profile: {}", profileName);
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED);
         }
-        initialize(requestJson);
-        newAccountProcess();
+        return newAccountProcess(initialize(requestJson));
     }
 
     private AcmeAccount addNewAccount(String profileName, String publicKey, NewAccountRequest accountRequest) throws AcmeProblemDocumentException {
@@ -397,8 +354,8 @@ public class ExtendedAcmeHelperService {
 
     protected ResponseEntity<Order> processNewOrder(String profileName, String requestJson) throws AcmeProblemDocumentException {
         logger.info("Request to process new Order for profile: {}", profileName);
-        initialize(requestJson);
-        String[] acmeAccountKeyIdSegment = getJwsObject().getHeader().getKeyID().split("/");
+        AcmeRequestContext context = initialize(requestJson);
+        String[] acmeAccountKeyIdSegment = context.getJwsObject().getHeader().getKeyID().split("/");
         String acmeAccountId = acmeAccountKeyIdSegment[acmeAccountKeyIdSegment.length - 1];
         logger.info("ACME Account ID: {}", acmeAccountId);
         AcmeAccount acmeAccount;
@@ -424,9 +381,8 @@ public class ExtendedAcmeHelperService {
         }
 
         try {
-            setPublicKey(AcmePublicKeyProcessor.publicKeyObjectFromString(acmeAccount.getPublicKey()));
-            IsValidSignature();
-            AcmeOrder order = generateOrder(baseUrl, acmeAccount);
+            // signature of the request is verified by the account key in the protocol validation filter
+            AcmeOrder order = generateOrder(context, baseUrl, acmeAccount);
             logger.debug("Order created: {}", order.toString());
             return ResponseEntity
                     .created(URI.create(order.getUrl()))
@@ -467,9 +423,9 @@ public class ExtendedAcmeHelperService {
         return new ByteArrayResource(chainString.getBytes(StandardCharsets.UTF_8));
     }
 
-    public AcmeOrder generateOrder(String baseUrl, AcmeAccount acmeAccount) {
+    public AcmeOrder generateOrder(AcmeRequestContext context, String baseUrl, AcmeAccount acmeAccount) throws AcmeProblemDocumentException {
         logger.info("Generating new Order for Account: {}", acmeAccount.toString());
-        Order orderRequest = AcmeJsonProcessor.getPayloadAsRequestObject(getJwsObject(), Order.class);
+        Order orderRequest = AcmeJsonProcessor.getPayloadAsRequestObject(context.getJwsObject(), Order.class);
         logger.debug("Order requested: {}", orderRequest.toString());
         AcmeOrder order = new AcmeOrder();
         order.setAcmeAccount(acmeAccount);
@@ -485,7 +441,7 @@ public class ExtendedAcmeHelperService {
         }
         acmeOrderRepository.save(order);
         logger.debug("Order created: {}", order);
-        Set<AcmeAuthorization> authorizations = generateValidations(baseUrl, order, orderRequest.getIdentifiers());
+        Set<AcmeAuthorization> authorizations = generateValidations(baseUrl, order, orderRequest.getIdentifiers(), acmeAccountKeyCache.getPublicKey(acmeAccount));
         order.setAuthorizations(authorizations);
         logger.debug("Challenges created for Order: {}", order);
         return order;
@@ -546,8 +502,8 @@ public class ExtendedAcmeHelperService {
     }
 
     @Async("threadPoolTaskExecutor")
-    public void finalizeOrder(AcmeOrder order) throws AcmeProblemDocumentException {
-        CertificateFinalizeRequest request = AcmeJsonProcessor.getPayloadAsRequestObject(getJwsObject(), CertificateFinalizeRequest.class);
+    public void finalizeOrder(AcmeRequestContext context, AcmeOrder order) throws AcmeProblemDocumentException {
+        CertificateFinalizeRequest request = AcmeJsonProcessor.getPayloadAsRequestObject(context.getJwsObject(), CertificateFinalizeRequest.class);
         logger.debug("Finalize Order: {}", request.toString());
         JcaPKCS10CertificationRequest p10Object;
         String decodedCsr = "";
@@ -612,10 +568,10 @@ public class ExtendedAcmeHelperService {
                 .body(orders);
     }
 
-    public Authorization checkDeactivateAuthorization(String authorizationId) throws NotFoundException {
+    public Authorization checkDeactivateAuthorization(AcmeRequestContext context, String authorizationId) throws NotFoundException {
         boolean isDeactivateRequest = false;
-        if (getJwsObject().getPayload().toJSONObject() != null) {
-            isDeactivateRequest = getJwsObject().getPayload().toJSONObject().getOrDefault("status", "") == "deactivated";
+        if (context.getJwsObject().getPayload().toJSONObject() != null) {
+            isDeactivateRequest = context.getJwsObject().getPayload().toJSONObject().getOrDefault("status", "") == "deactivated";
         }
         AcmeAuthorization authorization = acmeAuthorizationRepository.findByAuthorizationId(authorizationId).orElseThrow(() -> new NotFoundException(Authorization.class, authorizationId));
         if (authorization.getExpires() != null && authorization.getExpires().before(new Date())) {
@@ -629,11 +585,11 @@ public class ExtendedAcmeHelperService {
         return authorization.mapToDto();
     }
 
-    public ResponseEntity<Account> updateAccount(String accountId) throws NotFoundException, AcmeProblemDocumentException {
+    public ResponseEntity<Account> updateAccount(AcmeRequestContext context, String accountId) throws NotFoundException, AcmeProblemDocumentException {
         logger.info("Request to update the ACME Account with ID: {}", accountId);
         AcmeAccount account = getAcmeAccountEntity(accountId);
         validateAccount(account);
-        Account request = AcmeJsonProcessor.getPayloadAsRequestObject(getJwsObject(), Account.class);
+        Account request = AcmeJsonProcessor.getPayloadAsRequestObject(context.getJwsObject(), Account.class);
         logger.debug("Account Update request: {}", request.toString());
         if (request.getContact() != null) {
             account.setContact(SerializationUtil.serialize(request.getContact()));
@@ -642,6 +598,7 @@ public class ExtendedAcmeHelperService {
             logger.info("Deactivating Account with ID: {}", accountId);
             deactivateOrders(account.getOrders());
             account.setStatus(AccountStatus.DEACTIVATED);
+            acmeAccountKeyCache.invalidate(account.getAccountId());
         }
         acmeAccountRepository.save(account);
         if (logger.isDebugEnabled()) {
@@ -654,8 +611,9 @@ public class ExtendedAcmeHelperService {
                 .body(account.mapToDto());
     }
 
-    public ResponseEntity<?> revokeCertificate() throws ConnectorException, CertificateException, AcmeProblemDocumentException {
-        CertificateRevocationRequest request = AcmeJsonProcessor.getPayloadAsRequestObject(getJwsObject(), CertificateRevocationRequest.class);
+    public ResponseEntity<?> revokeCertificate(AcmeRequestContext context) throws ConnectorException, CertificateException, AcmeProblemDocumentException {
+        JWSObject jwsObject = context.getJwsObject();
+        CertificateRevocationRequest request = AcmeJsonProcessor.getPayloadAsRequestObject(jwsObject, CertificateRevocationRequest.class);
         logger.debug("Certificate revocation is triggered with the payload: {}", request.toString());
         X509Certificate x509Certificate = (X509Certificate) CertificateFactory.getInstance(CERTIFICATE_TYPE)
                 .generateCertificate(new ByteArrayInputStream(Base64.getUrlDecoder().decode(request.getCertificate())));
@@ -668,30 +626,32 @@ public class ExtendedAcmeHelperService {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.ALREADY_REVOKED);
         }
         String pemPubKeyJws = "";
-        if (getJwsObject().getHeader().toJSONObject().containsKey("jwk")) {
-            pemPubKeyJws = AcmePublicKeyProcessor.publicKeyPemStringFromObject(publicKey);
+        PublicKey jwsPublicKey = null;
+        if (jwsObject.getHeader().toJSONObject().containsKey("jwk")) {
+            try {
+                jwsPublicKey = getJwkPublicKey(jwsObject);
+            } catch (JOSEException e) {
+                throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
+            }
+            pemPubKeyJws = AcmePublicKeyProcessor.publicKeyPemStringFromObject(jwsPublicKey);
         }
         PublicKey accountPublicKey;
         PublicKey certPublicKey;
         AcmeAccount account = null;
-        String accountKid = getJwsObject().getHeader().toJSONObject().get("kid").toString();
+        String accountKid = jwsObject.getHeader().toJSONObject().get("kid").toString();
         logger.info("kid of the Account for revocation: {}", accountKid);
-        if (getJwsObject().getHeader().toJSONObject().containsKey("kid")) {
+        if (jwsObject.getHeader().toJSONObject().containsKey("kid")) {
             String accountId = accountKid.split("/")[accountKid.split("/").length - 1];
             account = getAcmeAccountEntity(accountId);
             validateAccount(account);
-            try {
-                accountPublicKey = AcmePublicKeyProcessor.publicKeyObjectFromString(account.getPublicKey());
-            } catch (Exception e) {
-                throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
-            }
+            accountPublicKey = acmeAccountKeyCache.getPublicKey(account);
             certPublicKey = x509Certificate.getPublicKey();
         } else {
-            accountPublicKey = publicKey;
+            accountPublicKey = jwsPublicKey;
             certPublicKey = x509Certificate.getPublicKey();
 
         }
-        if (getJwsObject().getHeader().toJSONObject().containsKey("jwk")) {
+        if (jwsObject.getHeader().toJSONObject().containsKey("jwk")) {
             String pemPubKeyCert = AcmePublicKeyProcessor.publicKeyPemStringFromObject(certPublicKey);
             String pemPubKeyAcc = AcmePublicKeyProcessor.publicKeyPemStringFromObject(accountPublicKey);
             if (!pemPubKeyCert.equals(pemPubKeyJws) || pemPubKeyAcc.equals(pemPubKeyJws)) {
@@ -699,9 +659,10 @@ public class ExtendedAcmeHelperService {
             }
         }
         try {
-            if ((accountPublicKey != null && checkSignature(accountPublicKey))) {
+            boolean signedByAccountKey = account != null ? acmeAccountKeyCache.verify(account, jwsObject) : accountPublicKey != null && checkSignature(jwsObject, accountPublicKey);
+            if (signedByAccountKey) {
                 logger.info("ACME Revocation request is signed by Account key: {}", request);
-            } else if ((certPublicKey != null && checkSignature(certPublicKey))) {
+            } else if ((certPublicKey != null && checkSignature(jwsObject, certPublicKey))) {
                 logger.info("ACME Revocation request is signed by private key associated to the Certificate: {}", request);
             } else {
                 throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
@@ -733,8 +694,8 @@ public class ExtendedAcmeHelperService {
         }
     }
 
-    public ResponseEntity<?> keyRollover() throws AcmeProblemDocumentException {
-        JWSObject innerJws = getJwsObject().getPayload().toJWSObject();
+    public ResponseEntity<?> keyRollover(AcmeRequestContext context) throws AcmeProblemDocumentException {
+        JWSObject innerJws = context.getJwsObject().getPayload().toJWSObject();
         PublicKey newKey;
         PublicKey oldKey;
         try {
@@ -756,17 +717,18 @@ public class ExtendedAcmeHelperService {
         if (oldAccount != null) {
             return ResponseEntity.status(HttpStatus.CONFLICT).header(LOCATION_HEADER_NAME, oldAccount.getAccountId()).body(new ProblemDocument("keyExists", "New Key already exists", "New key already tagged to a different account"));
         }
-        validateKey(innerJws);
+        validateKey(context, innerJws);
         acmeAccount.setPublicKey(AcmePublicKeyProcessor.publicKeyPemStringFromObject(newKey));
         acmeAccountRepository.save(acmeAccount);
+        acmeAccountKeyCache.invalidate(acmeAccount.getAccountId());
         return ResponseEntity.ok().build();
     }
 
-    private void validateKey(JWSObject innerJws) throws AcmeProblemDocumentException {
+    private void validateKey(AcmeRequestContext context, JWSObject innerJws) throws AcmeProblemDocumentException {
         if (!innerJws.getHeader().toJSONObject().containsKey("jwk")) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, new ProblemDocument("malformed", "Inner JWS Malformed", "Inner JWS does not contain jwk"));
         }
-        if (!innerJws.getHeader().toJSONObject().getOrDefault("url", "innerUrl").equals(getJwsObject().getHeader().toJSONObject().getOrDefault("url", "outerUrl"))) {
+        if (!innerJws.getHeader().toJSONObject().getOrDefault("url", "innerUrl").equals(context.getJwsObject().getHeader().toJSONObject().getOrDefault("url", "outerUrl"))) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, new ProblemDocument("malformed", "Inner JWS Malformed", "URL in inner and outer JWS are different"));
         }
         if (innerJws.getHeader().toJSONObject().containsKey("nonce")) {
@@ -798,11 +760,11 @@ public class ExtendedAcmeHelperService {
         }
     }
 
-    private Set<AcmeAuthorization> generateValidations(String baseUrl, AcmeOrder acmeOrder, List<Identifier> identifiers) {
-        return Set.of(authorization(baseUrl, acmeOrder, identifiers));
+    private Set<AcmeAuthorization> generateValidations(String baseUrl, AcmeOrder acmeOrder, List<Identifier> identifiers, PublicKey accountPublicKey) {
+        return Set.of(authorization(baseUrl, acmeOrder, identifiers, accountPublicKey));
     }
 
-    private AcmeAuthorization authorization(String baseUrl, AcmeOrder acmeOrder, List<Identifier> identifiers) {
+    private AcmeAuthorization authorization(String baseUrl, AcmeOrder acmeOrder, List<Identifier> identifiers, PublicKey accountPublicKey) {
         AcmeAuthorization authorization = new AcmeAuthorization();
         authorization.setAuthorizationId(AcmeRandomGeneratorAndValidator.generateRandomId());
         authorization.setStatus(AuthorizationStatus.PENDING);
@@ -815,18 +777,18 @@ public class ExtendedAcmeHelperService {
         authorization.setWildcard(checkWildcard(identifiers));
         authorization.setIdentifier(SerializationUtil.serialize(identifiers.get(0)));
         acmeAuthorizationRepository.save(authorization);
-        AcmeChallenge dnsChallenge = generateChallenge(ChallengeType.DNS01, baseUrl, authorization);
-        AcmeChallenge httpChallenge = generateChallenge(ChallengeType.HTTP01, baseUrl, authorization);
+        AcmeChallenge dnsChallenge = generateChallenge(ChallengeType.DNS01, baseUrl, authorization, accountPublicKey);
+        AcmeChallenge httpChallenge = generateChallenge(ChallengeType.HTTP01, baseUrl, authorization, accountPublicKey);
         authorization.setChallenges(Set.of(dnsChallenge, httpChallenge));
         return authorization;
     }
 
-    private AcmeChallenge generateChallenge(ChallengeType challengeType, String baseUrl, AcmeAuthorization authorization) {
+    private AcmeChallenge generateChallenge(ChallengeType challengeType, String baseUrl, AcmeAuthorization authorization, PublicKey accountPublicKey) {
         logger.info("Generating new Challenge for Authorization: {}", authorization.toString());
         AcmeChallenge challenge = new AcmeChallenge();
         challenge.setChallengeId(AcmeRandomGeneratorAndValidator.generateRandomId());
         challenge.setStatus(ChallengeStatus.PENDING);
-        challenge.setToken(AcmeRandomGeneratorAndValidator.generateRandomTokenForValidation(publicKey));
+        challenge.setToken(AcmeRandomGeneratorAndValidator.generateRandomTokenForValidation(accountPublicKey));
         challenge.setAuthorization(authorization);
         challenge.setType(challengeType);
         acmeChallengeRepository.save(challenge);
@@ -849,15 +811,15 @@ public class ExtendedAcmeHelperService {
         return !identifiers.stream().filter(identifier -> identifier.getValue().contains("*")).collect(Collectors.toList()).isEmpty();
     }
 
-    private String generateDnsValidationToken(String publicKey, String token) {
+    private String generateDnsValidationToken(AcmeAccount account, String token) {
         MessageDigest digest;
         try {
-            PublicKey pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(publicKey);
+            PublicKey pubKey = acmeAccountKeyCache.getPublicKey(account);
             digest = MessageDigest.getInstance(MESSAGE_DIGEST_ALGORITHM);
             final byte[] encodedhashOfExpectedKeyAuthorization = digest.digest(AcmeCommonHelper.createKeyAuthorization(token, pubKey).getBytes(StandardCharsets.UTF_8));
             final String base64EncodedDigest = Base64URL.encode(encodedhashOfExpectedKeyAuthorization).toString();
             return base64EncodedDigest;
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+        } catch (NoSuchAlgorithmException | AcmeProblemDocumentException e) {
             logger.error(e.getMessage());
             return null;
         }
@@ -875,7 +837,7 @@ public class ExtendedAcmeHelperService {
                 challenge.getToken());
         PublicKey pubKey;
         try {
-            pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(challenge.getAuthorization().getOrder().getAcmeAccount().getPublicKey());
+            pubKey = acmeAccountKeyCache.getPublicKey(challenge.getAuthorization().getOrder().getAcmeAccount());
         } catch (Exception e) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
         }
@@ -896,7 +858,7 @@ public class ExtendedAcmeHelperService {
                     .orElse(DEFAULT_DNS_PORT));
         }
         List<String> txtRecords = new ArrayList<>();
-        String expectedKeyAuthorization = generateDnsValidationToken(challenge.getAuthorization().getOrder().getAcmeAccount().getPublicKey(), challenge.getToken());
+        String expectedKeyAuthorization = generateDnsValidationToken(challenge.getAuthorization().getOrder().getAcmeAccount(), challenge.getToken());
         DirContext context;
         try {
             context = new InitialDirContext(env);
@@ -974,26 +936,13 @@ public class ExtendedAcmeHelperService {
     public String generateNonce() {
         String nonceString = AcmeRandomGeneratorAndValidator.generateNonce();
         Date expires = AcmeCommonHelper.addSeconds(new Date(), NONCE_VALIDITY);
-        AcmeNonce acmeNonce = new AcmeNonce();
-        acmeNonce.setCreated(new Date());
-        acmeNonce.setNonce(nonceString);
-        acmeNonce.setExpires(expires);
-        acmeNonceRepository.save(acmeNonce);
+        acmeNonceStore.store(nonceString, expires);
         return nonceString;
     }
 
-    private void acmeNonceCleanup() {
-        try {
-            acmeNonceRepository.deleteAll(acmeNonceRepository.findAllByExpiresBefore(new Date()));
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        }
-    }
-
     public void isNonceValid(String nonce) throws AcmeProblemDocumentException {
-        acmeNonceCleanup();
-        AcmeNonce acmeNonce = acmeNonceRepository.findByNonce(nonce).orElseThrow(() -> new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE));
-        if (acmeNonce.getExpires().after(AcmeCommonHelper.addSeconds(new Date(), NONCE_VALIDITY))) {
+        // nonce is consumed by the validation, expired nonces are removed by the scheduled task
+        if (!acmeNonceStore.consume(nonce)) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE);
         }
     }
@@ -0,0 +1,59 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.core.service.acme.AcmeNonceStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(value = "acme.nonce.store", havingValue = "memory")
+public class InMemoryAcmeNonceStore implements AcmeNonceStore {
+
+    // Maximum number of nonces kept when the size is not configured
+    private static final int DEFAULT_MAX_SIZE = 100000;
+
+    // Issued nonces with the time of their expiration in milliseconds, in the order they were issued. When the store
+    // is full, the oldest nonce is evicted, so the nonces issued and never used do not grow the store between the purges
+    private final Map<String, Long> nonces;
+
+    public InMemoryAcmeNonceStore() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    @Autowired
+    public InMemoryAcmeNonceStore(@Value("${acme.nonce.memory.max-size:" + DEFAULT_MAX_SIZE + "}") int maxSize) {
+        this.nonces = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    @Override
+    public void store(String nonce, Date expires) {
+        nonces.put(nonce, expires.getTime());
+    }
+
+    @Override
+    public boolean consume(String nonce) {
+        Long expires = nonces.remove(nonce);
+        return expires != null && expires > System.currentTimeMillis();
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (nonces) {
+            int size = nonces.size();
+            nonces.values().removeIf(expires -> expires <= now);
+            return size - nonces.size();
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.AcmeAccountService;
+import com.czertainly.core.service.acme.impl.AcmeAccountKeyCache;
 import com.czertainly.core.service.acme.impl.ExtendedAcmeHelperService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +39,8 @@ public class AcmeAccountServiceImpl implements AcmeAccountService {
     private AcmeAccountRepository acmeAccountRepository;
     @Autowired
     private ExtendedAcmeHelperService extendedAcmeHelperService;
+    @Autowired
+    private AcmeAccountKeyCache acmeAccountKeyCache;
 
 
     @Override
@@ -156,5 +159,6 @@ public class AcmeAccountServiceImpl implements AcmeAccountService {
         account.setStatus(AccountStatus.REVOKED);
         account.setEnabled(false);
         acmeAccountRepository.save(account);
+        acmeAccountKeyCache.invalidate(account.getAccountId());
     }
 }
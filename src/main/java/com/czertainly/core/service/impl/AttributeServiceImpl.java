@@ -32,6 +32,7 @@ import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.AttributeService;
+import com.czertainly.core.util.AttributeContentHashUtil;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.StringUtils;
@@ -47,6 +48,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class AttributeServiceImpl implements AttributeService {
     private static final Logger logger = LoggerFactory.getLogger(AttributeServiceImpl.class);
+    // Maximum number of attribute content links deleted by one statement
+    private static final int DELETE_BATCH_SIZE = 1000;
     private final List<Resource> CUSTOM_ATTRIBUTE_COMPLIANT_RESOURCES = List.of(
             Resource.CERTIFICATE,
             Resource.GROUP,
@@ -278,6 +281,61 @@ public class AttributeServiceImpl implements AttributeService {
         createAttributeContent(objectUuid, attributes, resource);
     }
 
+    @Override
+    public void updateAttributeContent(List<UUID> objectUuids, List<RequestAttributeDto> attributes, Resource resource) {
+        logger.info("Updating the content of {} objects of {}", objectUuids.size(), resource);
+        if (attributes == null || attributes.isEmpty()) {
+            return;
+        }
+
+        // content of the attributes is shared by all the objects, resolve it only once
+        final Set<String> attributeNames = new HashSet<>();
+        final Map<UUID, AttributeContent> contents = new HashMap<>();
+        for (RequestAttributeDto attribute : attributes) {
+            attributeNames.add(attribute.getName());
+            final AttributeDefinition definition = getCustomAttributeDefinition(attribute.getName(), attribute.getContent());
+            if (definition != null) {
+                contents.put(definition.getUuid(), getOrCreateAttributeContent(definition, attribute.getContent()));
+            }
+        }
+
+        for (int i = 0; i < objectUuids.size(); i += DELETE_BATCH_SIZE) {
+            final List<UUID> batch = objectUuids.subList(i, Math.min(i + DELETE_BATCH_SIZE, objectUuids.size()));
+            final Map<UUID, Set<UUID>> linkedContents = new HashMap<>();
+            final List<AttributeContent2Object> obsoleteContent2Objects = new ArrayList<>();
+            for (AttributeContent2Object object : attributeContent2ObjectRepository.findByObjectUuidInAndObjectType(batch, resource)) {
+                final AttributeDefinition definition = object.getAttributeContent().getAttributeDefinition();
+                if (!definition.getType().equals(AttributeType.CUSTOM) || !attributeNames.contains(definition.getAttributeName())) {
+                    continue;
+                }
+                final AttributeContent content = contents.get(definition.getUuid());
+                if (content != null && content.getUuid().equals(object.getAttributeContentUuid())) {
+                    linkedContents.computeIfAbsent(object.getObjectUuid(), k -> new HashSet<>()).add(content.getUuid());
+                } else {
+                    obsoleteContent2Objects.add(object);
+                }
+            }
+            deleteAttributeContent2Objects(obsoleteContent2Objects);
+
+            final List<AttributeContent2Object> newContent2Objects = new ArrayList<>();
+            for (UUID objectUuid : batch) {
+                final Set<UUID> objectContents = linkedContents.getOrDefault(objectUuid, Collections.emptySet());
+                for (AttributeContent content : contents.values()) {
+                    if (objectContents.contains(content.getUuid())) {
+                        continue;
+                    }
+                    final AttributeContent2Object content2Object = new AttributeContent2Object();
+                    content2Object.setObjectUuid(objectUuid);
+                    content2Object.setObjectType(resource);
+                    content2Object.setAttributeContent(content);
+                    newContent2Objects.add(content2Object);
+                }
+            }
+            attributeContent2ObjectRepository.saveAll(newContent2Objects);
+            logger.debug("Removed {} and created {} links to the attribute content", obsoleteContent2Objects.size(), newContent2Objects.size());
+        }
+    }
+
     @Override
     public void updateAttributeContent(UUID objectUuid, UUID attributeUuid, List<BaseAttributeContent> attributeContent, Resource resource) throws NotFoundException {
         AttributeDefinition attributeDefinition = getAttributeDefinition(SecuredUUID.fromUUID(attributeUuid), AttributeType.CUSTOM);
@@ -297,15 +355,9 @@ public class AttributeServiceImpl implements AttributeService {
             createAttributeContent(objectUuid, attributeDefinition.getAttributeName(), attributeContent, resource);
             return;
         }
-        for (AttributeContent2Object attributeContent2Object : attributeContent2Objects) {
-            AttributeContent content = attributeContent2Object.getAttributeContent();
-            attributeContent2ObjectRepository.delete(attributeContent2Object);
-            if (attributeContent2ObjectRepository.countByAttributeContent(attributeContent2Object.getAttributeContent()) == 0) {
-                attributeContentRepository.delete(content);
-            }
-            if (attributeContent != null) {
-                createAttributeContent(objectUuid, attributeDefinition.getAttributeName(), attributeContent, resource);
-            }
+        deleteAttributeContent2Objects(attributeContent2Objects);
+        if (attributeContent != null) {
+            createAttributeContent(objectUuid, attributeDefinition.getAttributeName(), attributeContent, resource);
         }
     }
 
@@ -316,43 +368,39 @@ public class AttributeServiceImpl implements AttributeService {
             return;
         }
         List<String> oldNames = attributes.stream().map(RequestAttributeDto::getName).collect(Collectors.toList());
-        for (AttributeContent2Object object : attributeContent2ObjectRepository.findByObjectUuidAndObjectType(objectUuid, resource)) {
-            AttributeDefinition definition = object.getAttributeContent().getAttributeDefinition();
-            if (definition.getType().equals(AttributeType.CUSTOM) && oldNames.contains(definition.getAttributeName())) {
-                attributeContent2ObjectRepository.delete(object);
-                if (attributeContent2ObjectRepository.findByAttributeContent(object.getAttributeContent()).size() == 0) {
-                    attributeContentRepository.delete(object.getAttributeContent());
-                }
-            }
-        }
+        deleteAttributeContent2Objects(attributeContent2ObjectRepository.findByObjectUuidAndObjectType(objectUuid, resource).stream()
+                .filter(object -> {
+                    AttributeDefinition definition = object.getAttributeContent().getAttributeDefinition();
+                    return definition.getType().equals(AttributeType.CUSTOM) && oldNames.contains(definition.getAttributeName());
+                })
+                .collect(Collectors.toList()));
     }
 
     @Override
     public void deleteAttributeContent(UUID objectUuid, Resource resource) {
         logger.info("Deleting the attribute content for: {} with UUID: {}", resource, objectUuid);
-        for (AttributeContent2Object object : attributeContent2ObjectRepository.findByObjectUuidAndObjectType(objectUuid, resource)) {
-            AttributeDefinition definition = object.getAttributeContent().getAttributeDefinition();
-            if (definition.getType().equals(AttributeType.CUSTOM)) {
-                attributeContent2ObjectRepository.delete(object);
-                if (attributeContent2ObjectRepository.findByAttributeContent(object.getAttributeContent()).size() == 0) {
-                    attributeContentRepository.delete(object.getAttributeContent());
-                }
-            }
+        deleteAttributeContent2Objects(attributeContent2ObjectRepository.findByObjectUuidAndObjectType(objectUuid, resource).stream()
+                .filter(object -> object.getAttributeContent().getAttributeDefinition().getType().equals(AttributeType.CUSTOM))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void deleteAttributeContent(List<UUID> objectUuids, Resource resource) {
+        logger.info("Deleting the attribute content for {} objects of {}", objectUuids.size(), resource);
+        for (int i = 0; i < objectUuids.size(); i += DELETE_BATCH_SIZE) {
+            List<UUID> batch = objectUuids.subList(i, Math.min(i + DELETE_BATCH_SIZE, objectUuids.size()));
+            deleteAttributeContent2Objects(attributeContent2ObjectRepository.findByObjectUuidInAndObjectType(batch, resource).stream()
+                    .filter(object -> object.getAttributeContent().getAttributeDefinition().getType().equals(AttributeType.CUSTOM))
+                    .collect(Collectors.toList()));
         }
     }
 
     @Override
     public void deleteAttributeContent(UUID objectUuid, Resource resource, UUID parentObjectUuid, Resource parentResource, AttributeType type) {
         logger.info("Deleting the attribute content for: {} with UUID: {}, Parent UUID: {}, Parent Resource: {}", resource, objectUuid, parentObjectUuid, parentResource);
-        for (AttributeContent2Object object : attributeContent2ObjectRepository.findByObjectUuidAndObjectTypeAndSourceObjectUuidAndSourceObjectType(objectUuid, resource, parentObjectUuid, parentResource)) {
-            AttributeDefinition definition = object.getAttributeContent().getAttributeDefinition();
-            if (definition.getType().equals(type)) {
-                attributeContent2ObjectRepository.delete(object);
-                if (attributeContent2ObjectRepository.findByAttributeContent(object.getAttributeContent()).size() == 0) {
-                    attributeContentRepository.delete(object.getAttributeContent());
-                }
-            }
-        }
+        deleteAttributeContent2Objects(attributeContent2ObjectRepository.findByObjectUuidAndObjectTypeAndSourceObjectUuidAndSourceObjectType(objectUuid, resource, parentObjectUuid, parentResource).stream()
+                .filter(object -> object.getAttributeContent().getAttributeDefinition().getType().equals(type))
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -478,12 +526,50 @@ public class AttributeServiceImpl implements AttributeService {
         return null;
     }
 
+    /**
+     * Delete the links of the objects to the attribute content by one statement. Attribute content is shared by all
+     * the objects with the same value, content that is not linked to any object anymore is then deleted together with
+     * its items, again by one statement each.
+     *
+     * @param attributeContent2Objects Links of the objects to the attribute content to be deleted
+     */
+    private void deleteAttributeContent2Objects(List<AttributeContent2Object> attributeContent2Objects) {
+        for (int i = 0; i < attributeContent2Objects.size(); i += DELETE_BATCH_SIZE) {
+            List<AttributeContent2Object> batch = attributeContent2Objects.subList(i, Math.min(i + DELETE_BATCH_SIZE, attributeContent2Objects.size()));
+            Set<UUID> attributeContentUuids = batch.stream().map(AttributeContent2Object::getAttributeContentUuid).collect(Collectors.toSet());
+            attributeContent2ObjectRepository.deleteByUuidIn(batch.stream().map(AttributeContent2Object::getUuid).collect(Collectors.toList()));
+            attributeContentRepository.deleteOrphanedAttributeContentItems(attributeContentUuids);
+            int deleted = attributeContentRepository.deleteOrphanedAttributeContents(attributeContentUuids);
+            logger.debug("Deleted {} links to the attribute content and {} orphaned attribute contents", batch.size(), deleted);
+        }
+    }
+
     private void createAttributeContent(final UUID objectUuid, final String attributeName, final List<BaseAttributeContent> baseAttributeContentList, final Resource resource) {
         logger.info("Creating the attribute content for: {} with UUID: {}", resource, objectUuid);
+        final AttributeDefinition definition = getCustomAttributeDefinition(attributeName, baseAttributeContentList);
+        if (definition == null) {
+            return;
+        }
+
+        final AttributeContent2Object metadata2Object = new AttributeContent2Object();
+        metadata2Object.setObjectUuid(objectUuid);
+        metadata2Object.setObjectType(resource);
+        metadata2Object.setAttributeContent(getOrCreateAttributeContent(definition, baseAttributeContentList));
+        attributeContent2ObjectRepository.save(metadata2Object);
+    }
+
+    /**
+     * Get the definition of the custom attribute and validate the content against it
+     *
+     * @param attributeName            Name of the custom attribute
+     * @param baseAttributeContentList Content of the attribute
+     * @return Definition of the attribute, or null when the attribute does not exist or is disabled
+     */
+    private AttributeDefinition getCustomAttributeDefinition(final String attributeName, final List<BaseAttributeContent> baseAttributeContentList) {
         final AttributeDefinition definition = attributeDefinitionRepository.findByTypeAndAttributeName(AttributeType.CUSTOM, attributeName).orElse(null);
         if (definition == null) {
             logger.warn("Custom attribute with name '" + attributeName + "' does not exist");
-            return;
+            return null;
         }
 
         final List<ValidationError> validationErrors = new ArrayList<>();
@@ -496,36 +582,37 @@ public class AttributeServiceImpl implements AttributeService {
             throw new ValidationException(validationErrors);
         }
         if (!definition.isEnabled()) {
-            logger.warn("Attribute {} is disabled and the content will not be created");
-            return;
-        }
-
-
-        AttributeContent existingContent = null;
-        final List<AttributeContent> attributeContentList = attributeContentRepository.findByBaseAttributeContentAndAttributeDefinition(baseAttributeContentList, definition);
-        for (final AttributeContent ac : attributeContentList) {
-            if (ac.getAttributeContentItems().size() == baseAttributeContentList.size()) {
-                existingContent = ac;
-            }
+            logger.warn("Attribute {} is disabled and the content will not be created", attributeName);
+            return null;
         }
+        return definition;
+    }
 
-        final AttributeContent2Object metadata2Object = new AttributeContent2Object();
-        metadata2Object.setObjectUuid(objectUuid);
-        metadata2Object.setObjectType(resource);
-
+    /**
+     * Find the identical content of the attribute by its hash or create a new one when no such content exists yet
+     *
+     * @param definition               Definition of the attribute
+     * @param baseAttributeContentList Content of the attribute
+     * @return Stored attribute content
+     */
+    private AttributeContent getOrCreateAttributeContent(final AttributeDefinition definition, final List<BaseAttributeContent> baseAttributeContentList) {
+        final String contentHash = AttributeContentHashUtil.calculateContentHash(baseAttributeContentList);
+        final AttributeContent existingContent = attributeContentRepository.findByAttributeDefinitionUuidAndContentHash(definition.getUuid(), contentHash).orElse(null);
         if (existingContent != null) {
             logger.debug("Existing content found: {}", existingContent);
-            metadata2Object.setAttributeContent(existingContent);
-        } else {
-            logger.debug("Creating new attribute content");
-            final AttributeContent content = new AttributeContent();
+            return existingContent;
+        }
+
+        logger.debug("Creating new attribute content");
+        // identical content can be created by a concurrent transaction, its content is used when the row already exists
+        final boolean inserted = attributeContentRepository.insertContent(UUID.randomUUID(), definition.getUuid(), contentHash) > 0;
+        final AttributeContent content = attributeContentRepository.findByAttributeDefinitionUuidAndContentHash(definition.getUuid(), contentHash).orElseThrow();
+        if (inserted) {
             content.addAttributeContent(baseAttributeContentList);
-            content.setAttributeDefinition(definition);
             attributeContentRepository.save(content);
-            logger.debug("Attribute Content: {}", content);
-            metadata2Object.setAttributeContent(content);
         }
-        attributeContent2ObjectRepository.save(metadata2Object);
+        logger.debug("Attribute Content: {}", content);
+        return content;
     }
 
     private AttributeDefinition getAttributeDefinition(SecuredUUID uuid, AttributeType type) throws NotFoundException {
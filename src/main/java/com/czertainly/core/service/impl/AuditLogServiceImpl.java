@@ -6,6 +6,7 @@ import com.czertainly.core.aop.AuditLogged;
 import com.czertainly.core.dao.entity.AuditLog;
 import com.czertainly.core.dao.entity.QAuditLog;
 import com.czertainly.core.dao.repository.AuditLogRepository;
+import com.czertainly.core.model.ExportResource;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.service.AuditLogService;
@@ -20,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -29,9 +31,11 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -39,17 +43,27 @@ public class AuditLogServiceImpl implements AuditLogService {
 
     private static final String LOGGER_NAME = "audit-log";
     private static final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final Logger purgeLogger = LoggerFactory.getLogger(AuditLogServiceImpl.class);
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     static {
         MAPPER.findAndRegisterModules();
         MAPPER.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
         MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
     }
 
     @Value("${export.auditLog.fileName.prefix:audit-logs}")
     private String fileNamePrefix;
 
+    // Number of audit logs fetched from the database cursor at once during the export
+    @Value("${export.auditLog.fetchSize:1000}")
+    private int exportFetchSize;
+
+    // Maximum number of audit logs deleted by a single statement during the purge
+    @Value("${auditlog.purge.chunk-size:5000}")
+    private int purgeChunkSize;
+
     @Value("${auditLog.enabled:false}")
     private boolean auditLogEnabled;
 
@@ -57,6 +71,10 @@ public class AuditLogServiceImpl implements AuditLogService {
     private AuditLogRepository auditLogRepository;
     @Autowired
     private ExportProcessor exportProcessor;
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    @Autowired
+    private AuditorAware<String> auditorAware;
 
     @Override
     public void log(ObjectType origination,
@@ -68,12 +86,12 @@ public class AuditLogServiceImpl implements AuditLogService {
     ) {
         String additionalDataJson = null;
         try {
-        	MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
             additionalDataJson = additionalData != null ? MAPPER.writeValueAsString(additionalData) : null;
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException(e);
         }
 
+        LocalDateTime now = LocalDateTime.now();
         AuditLog auditLog = new AuditLog();
         auditLog.setOrigination(origination);
         auditLog.setAffected(affected);
@@ -81,15 +99,12 @@ public class AuditLogServiceImpl implements AuditLogService {
         auditLog.setOperation(operation);
         auditLog.setOperationStatus(operationStatus);
         auditLog.setAdditionalData(additionalDataJson);
+        auditLog.setAuthor(auditorAware.getCurrentAuditor().orElse(null));
+        auditLog.setCreated(now);
+        auditLog.setUpdated(now);
 
-        auditLog = auditLogRepository.save(auditLog);
-
-        try {
-            logger.info(MAPPER.writeValueAsString(auditLog.mapToDto()));
-        } catch (JsonProcessingException e) {
-            logger.info(auditLog.mapToDto().toString());
-            throw new IllegalArgumentException(e);
-        }
+        // audit log is logged by the writer once it is written and has its ID assigned
+        auditLogWriter.write(auditLog);
     }
 
     @Override
@@ -139,21 +154,29 @@ public class AuditLogServiceImpl implements AuditLogService {
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.AUDIT_LOG, operation = OperationType.REQUEST)
     @ExternalAuthorization(resource = Resource.AUDIT_LOG, action = ResourceAction.EXPORT)
-    public ExportResultDto exportAuditLogs(AuditLogFilter filter, Sort sort) {
+    public ExportResource exportAuditLogs(AuditLogFilter filter, Sort sort) {
         Predicate predicate = createPredicate(filter);
-        List<AuditLog> entities = auditLogRepository.findAll(predicate, sort);
-        List<AuditLogDto> dtos = entities.stream().map(AuditLog::mapToDto).collect(Collectors.toList());
-
-        return exportProcessor.generateExport(fileNamePrefix, dtos);
+        try (Stream<AuditLog> entities = auditLogRepository.streamAll(predicate, sort, exportFetchSize)) {
+            return exportProcessor.generateExport(fileNamePrefix, AuditLogDto.class, entities.map(AuditLog::mapToDto));
+        }
     }
 
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.AUDIT_LOG, operation = OperationType.DELETE)
     @ExternalAuthorization(resource = Resource.AUDIT_LOG, action = ResourceAction.DELETE)
-    public void purgeAuditLogs(AuditLogFilter filter, Sort sort) {
+    public long purgeAuditLogs(AuditLogFilter filter, Sort sort) {
         Predicate predicate = createPredicate(filter);
-        List<AuditLog> entities = auditLogRepository.findAll(predicate, sort);
-        auditLogRepository.deleteAll(entities);
+        long purged = 0;
+        long deleted;
+        do {
+            deleted = auditLogRepository.deleteChunk(predicate, purgeChunkSize);
+            purged += deleted;
+            if (deleted > 0) {
+                purgeLogger.info("Purged {} audit logs", purged);
+            }
+        } while (deleted >= purgeChunkSize);
+
+        return purged;
     }
 
     private Predicate createPredicate(AuditLogFilter filter) {
@@ -197,4 +220,21 @@ public class AuditLogServiceImpl implements AuditLogService {
 
         return predicate;
     }
+
+    /**
+     * Log the audit log that was written to the database
+     *
+     * @param auditLog Written audit log
+     */
+    static void logWritten(AuditLog auditLog) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        AuditLogDto dto = auditLog.mapToDto();
+        try {
+            logger.info(MAPPER.writeValueAsString(dto));
+        } catch (JsonProcessingException e) {
+            logger.info(dto.toString());
+        }
+    }
 }
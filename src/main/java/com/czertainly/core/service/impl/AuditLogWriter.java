@@ -0,0 +1,167 @@
+package com.czertainly.core.service.impl;
+
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit logs to the database in batches from a background thread, so that audited operations do not wait
+ * for the insert. When the queue is full, the caller waits for free space and writes the audit log itself when
+ * the queue is still full, so audit logs are not dropped. Batch that cannot be written is written again audit log
+ * by audit log, so a single failing audit log or a short database outage does not discard the whole batch.
+ * Queued audit logs are written before shutdown. Audit logs are logged once they are written and have their ID assigned.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    // Maximum number of audit logs waiting to be written
+    @Value("${auditlog.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Maximum number of audit logs written in a single batch
+    @Value("${auditlog.writer.batch-size:500}")
+    private int batchSize;
+
+    // Time in milliseconds for which the caller waits for free space in the full queue before writing the audit log itself
+    @Value("${auditlog.writer.offer-timeout:100}")
+    private long offerTimeout;
+
+    // Number of attempts to write a single audit log when the batch could not be written
+    @Value("${auditlog.writer.write-attempts:3}")
+    private int writeAttempts;
+
+    // Time in milliseconds to wait before the next attempt to write a single audit log
+    @Value("${auditlog.writer.retry-delay:1000}")
+    private long retryDelay;
+
+    // Time in seconds to wait for the queued audit logs to be written on shutdown
+    @Value("${auditlog.writer.shutdown-timeout:30}")
+    private long shutdownTimeout;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    private BlockingQueue<AuditLog> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::writeQueued, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(shutdownTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // audit logs queued after the writer thread finished or that it did not manage to write in time
+        List<AuditLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("{} audit logs were not written by the writer before shutdown, writing them one by one", remaining.size());
+            writeOneByOne(remaining);
+        }
+    }
+
+    /**
+     * Queue the audit log to be written to the database
+     *
+     * @param auditLog Audit log with author and creation time already set
+     */
+    public void write(AuditLog auditLog) {
+        try {
+            // writer may be stopped while the audit log is being queued, the audit log taken back from the queue
+            // is written by the caller, otherwise it is written by the writer thread or by the stop
+            if (running && queue.offer(auditLog, offerTimeout, TimeUnit.MILLISECONDS) && (running || !queue.remove(auditLog))) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // writer is stopped or cannot keep up, the audit log is written in the transaction of the caller
+        logger.debug("Audit log {} written synchronously, queued audit logs: {}", auditLog.getUuid(), queue.size());
+        auditLogRepository.save(auditLog);
+        AuditLogServiceImpl.logWritten(auditLog);
+    }
+
+    private void writeQueued() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog auditLog = queue.poll(1, TimeUnit.SECONDS);
+                if (auditLog == null) {
+                    continue;
+                }
+                batch.add(auditLog);
+                queue.drainTo(batch, batchSize - 1);
+                auditLogRepository.saveAll(batch);
+                batch.forEach(AuditLogServiceImpl::logWritten);
+            } catch (InterruptedException e) {
+                // following audit logs are written by the callers
+                running = false;
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Unable to write {} audit logs in batch, writing them one by one: {}", batch.size(), e.getMessage());
+                writeOneByOne(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeOneByOne(List<AuditLog> batch) {
+        for (AuditLog auditLog : batch) {
+            // identifier assigned in the failed batch was rolled back together with it
+            auditLog.setId(null);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    auditLogRepository.save(auditLog);
+                    AuditLogServiceImpl.logWritten(auditLog);
+                    break;
+                } catch (Exception e) {
+                    if (attempt >= writeAttempts || !waitForRetry()) {
+                        logger.error("Unable to write audit log {}: {}", auditLog, e.getMessage(), e);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean waitForRetry() {
+        try {
+            Thread.sleep(retryDelay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
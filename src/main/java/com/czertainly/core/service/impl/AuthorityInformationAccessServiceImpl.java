@@ -0,0 +1,352 @@
+package com.czertainly.core.service.impl;
+
+import com.czertainly.core.service.AuthorityInformationAccessService;
+import com.czertainly.core.util.CertificateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class AuthorityInformationAccessServiceImpl implements AuthorityInformationAccessService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorityInformationAccessServiceImpl.class);
+    // Timeout setting for connecting and reading the issuer certificate from the CA Issuers location
+    private static final int AIA_CONNECTION_TIMEOUT = 10; //seconds
+    // maximum number of CA Issuers locations kept in the memory cache
+    private static final int AIA_CACHE_MAX_SIZE = 1000;
+    // location that could not be downloaded is not tried again before this time elapses
+    private static final long AIA_FAILURE_CACHE_VALIDITY = TimeUnit.MINUTES.toMillis(5);
+
+    // Directory of the disk cache, the disk cache is disabled when the directory is empty
+    @Value("${aia.cache.directory:}")
+    private String cacheDirectory;
+
+    // Number of hours the downloaded issuer certificate is used before it is downloaded again
+    @Value("${aia.cache.validity:24}")
+    private long cacheValidity;
+
+    // issuer certificates keyed by the CA Issuers URL
+    private final Map<String, CachedIssuer> urlCache = new ConcurrentHashMap<>();
+    // issuer certificates keyed by the hash of their content, shared by all the URLs publishing the same certificate
+    private final Map<String, X509Certificate> contentCache = new ConcurrentHashMap<>();
+    // loads in progress keyed by the URL, concurrent requests for the same URL wait for the pending load instead
+    // of downloading the issuer again, the entry is removed once the load completes
+    private final Map<String, CompletableFuture<CachedIssuer>> pendingLoads = new ConcurrentHashMap<>();
+
+    @Override
+    public X509Certificate getIssuerCertificate(String caIssuersUrl) {
+        if (caIssuersUrl == null || caIssuersUrl.isEmpty()) {
+            return null;
+        }
+        CachedIssuer cachedIssuer = urlCache.get(caIssuersUrl);
+        if (cachedIssuer != null && cachedIssuer.isValid()) {
+            return cachedIssuer.getCertificate();
+        }
+
+        CompletableFuture<CachedIssuer> load = new CompletableFuture<>();
+        CompletableFuture<CachedIssuer> pendingLoad = pendingLoads.putIfAbsent(caIssuersUrl, load);
+        if (pendingLoad != null) {
+            return pendingLoad.join().getCertificate();
+        }
+        try {
+            // issuer could be loaded by another thread before this load was registered
+            cachedIssuer = urlCache.get(caIssuersUrl);
+            if (cachedIssuer == null || !cachedIssuer.isValid()) {
+                cachedIssuer = loadIssuer(caIssuersUrl);
+                if (cachedIssuer == null) {
+                    cachedIssuer = downloadIssuer(caIssuersUrl);
+                }
+                evictCache();
+                urlCache.put(caIssuersUrl, cachedIssuer);
+            }
+            load.complete(cachedIssuer);
+            return cachedIssuer.getCertificate();
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingLoads.remove(caIssuersUrl, load);
+        }
+    }
+
+    @Override
+    public int purgeDiskCache() {
+        Path directory = getCacheDirectory(false);
+        if (directory == null) {
+            return 0;
+        }
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(cacheValidity);
+        int purged = 0;
+        try {
+            // expired URL files are removed first, certificates are removed when no remaining URL file refers to them
+            Set<String> referencedHashes = new HashSet<>();
+            for (Path urlFile : listFiles(directory, ".url")) {
+                if (deleteIfExpired(urlFile, expiredBefore)) {
+                    purged++;
+                } else {
+                    referencedHashes.add(Files.readString(urlFile, StandardCharsets.UTF_8).trim());
+                }
+            }
+            for (Path certificateFile : listFiles(directory, ".cer")) {
+                String contentHash = certificateFile.getFileName().toString().replace(".cer", "");
+                // certificate written just before its URL file is younger than the validity and is kept
+                if (!referencedHashes.contains(contentHash) && deleteIfExpired(certificateFile, expiredBefore)) {
+                    purged++;
+                }
+            }
+            // temporary files left by the writes that did not complete
+            for (Path tempFile : listFiles(directory, ".tmp")) {
+                if (deleteIfExpired(tempFile, expiredBefore)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to purge the disk cache of issuer certificates {}: {}", cacheDirectory, e.getMessage());
+        }
+        return purged;
+    }
+
+    private List<Path> listFiles(Path directory, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(extension)).collect(Collectors.toList());
+        }
+    }
+
+    private boolean deleteIfExpired(Path file, long expiredBefore) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() < expiredBefore && Files.deleteIfExists(file);
+        } catch (NoSuchFileException e) {
+            // file was removed by another instance sharing the directory
+            return false;
+        }
+    }
+
+    private CachedIssuer downloadIssuer(String caIssuersUrl) {
+        logger.debug("Downloading issuer certificate from {}", caIssuersUrl);
+        try {
+            URLConnection connection = new URL(caIssuersUrl).openConnection();
+            connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(AIA_CONNECTION_TIMEOUT));
+            connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(AIA_CONNECTION_TIMEOUT));
+            X509Certificate certificate;
+            try (InputStream inStream = new BufferedInputStream(connection.getInputStream())) {
+                // CA Issuers location can publish a single certificate or a PKCS#7 bundle, both DER or PEM encoded
+                certificate = CertificateFactory.getInstance("X.509").generateCertificates(inStream).stream()
+                        .filter(X509Certificate.class::isInstance)
+                        .map(X509Certificate.class::cast)
+                        .findFirst()
+                        .orElse(null);
+            }
+            if (certificate == null) {
+                logger.warn("No certificate published at {}", caIssuersUrl);
+                return new CachedIssuer(null, null, System.currentTimeMillis() + AIA_FAILURE_CACHE_VALIDITY);
+            }
+
+            String contentHash = CertificateUtil.getThumbprint(certificate);
+            X509Certificate cachedCertificate = contentCache.putIfAbsent(contentHash, certificate);
+            if (cachedCertificate != null) {
+                certificate = cachedCertificate;
+            }
+            storeIssuer(caIssuersUrl, contentHash, certificate);
+            return new CachedIssuer(certificate, contentHash, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(cacheValidity));
+        } catch (IOException | GeneralSecurityException e) {
+            logger.warn("Unable to download issuer certificate from {}: {}", caIssuersUrl, e.getMessage());
+            return new CachedIssuer(null, null, System.currentTimeMillis() + AIA_FAILURE_CACHE_VALIDITY);
+        }
+    }
+
+    /**
+     * Load the issuer certificate from the disk cache. The URL is mapped to the hash of the certificate content,
+     * certificate itself is stored under its content hash.
+     *
+     * @param caIssuersUrl URL of the CA Issuers location
+     * @return Cached issuer, or null when the disk cache does not contain valid issuer for the URL
+     */
+    private CachedIssuer loadIssuer(String caIssuersUrl) {
+        Path directory = getCacheDirectory(false);
+        if (directory == null) {
+            return null;
+        }
+        try {
+            Path urlFile = directory.resolve(getUrlHash(caIssuersUrl) + ".url");
+            if (!Files.exists(urlFile)) {
+                return null;
+            }
+            long validUntil = Files.getLastModifiedTime(urlFile).toMillis() + TimeUnit.HOURS.toMillis(cacheValidity);
+            if (validUntil < System.currentTimeMillis()) {
+                return null;
+            }
+
+            String contentHash = Files.readString(urlFile, StandardCharsets.UTF_8).trim();
+            X509Certificate certificate = contentCache.get(contentHash);
+            if (certificate == null) {
+                Path certificateFile = directory.resolve(contentHash + ".cer");
+                if (!Files.exists(certificateFile)) {
+                    return null;
+                }
+                try (InputStream inStream = new BufferedInputStream(Files.newInputStream(certificateFile))) {
+                    certificate = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(inStream);
+                }
+                if (!contentHash.equals(CertificateUtil.getThumbprint(certificate))) {
+                    logger.warn("Cached issuer certificate {} does not match its hash", certificateFile);
+                    return null;
+                }
+                contentCache.putIfAbsent(contentHash, certificate);
+            }
+            logger.debug("Issuer certificate for {} loaded from the disk cache", caIssuersUrl);
+            return new CachedIssuer(certificate, contentHash, validUntil);
+        } catch (IOException | GeneralSecurityException e) {
+            logger.debug("Unable to load cached issuer certificate for {}: {}", caIssuersUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeIssuer(String caIssuersUrl, String contentHash, X509Certificate certificate) {
+        Path directory = getCacheDirectory(true);
+        if (directory == null) {
+            return;
+        }
+        try {
+            Path certificateFile = directory.resolve(contentHash + ".cer");
+            if (!Files.exists(certificateFile)) {
+                writeFile(directory, certificateFile, certificate.getEncoded());
+            }
+            writeFile(directory, directory.resolve(getUrlHash(caIssuersUrl) + ".url"), contentHash.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | GeneralSecurityException e) {
+            logger.warn("Unable to store issuer certificate for {} in the disk cache: {}", caIssuersUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the directory of the disk cache. Cached certificates are used to build the certificate chains, so the
+     * directory is created accessible only by its owner and existing directory is refused when it is owned by another
+     * user or writable by other users.
+     *
+     * @param create Create the directory when it does not exist
+     * @return Directory of the disk cache, or null when the disk cache is disabled, the directory does not exist or is not secure
+     */
+    private Path getCacheDirectory(boolean create) {
+        if (cacheDirectory == null || cacheDirectory.isEmpty()) {
+            return null;
+        }
+        Path directory = Paths.get(cacheDirectory);
+        try {
+            boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+            if (!Files.isDirectory(directory)) {
+                if (!create) {
+                    return null;
+                }
+                if (posix) {
+                    Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+                } else {
+                    Files.createDirectories(directory);
+                }
+            }
+
+            UserPrincipal currentUser = directory.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+            if (!currentUser.equals(Files.getOwner(directory))) {
+                logger.warn("Disk cache of issuer certificates {} is not owned by the current user and is not used", cacheDirectory);
+                return null;
+            }
+            if (posix) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+                if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                    logger.warn("Disk cache of issuer certificates {} is writable by other users and is not used", cacheDirectory);
+                    return null;
+                }
+            }
+            return directory;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Unable to use the disk cache of issuer certificates {}: {}", cacheDirectory, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeFile(Path directory, Path file, byte[] content) throws IOException {
+        // file is written completely before it is visible to other instances sharing the directory
+        Path tempFile = Files.createTempFile(directory, "aia", ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private String getUrlHash(String caIssuersUrl) throws GeneralSecurityException {
+        return CertificateUtil.getThumbprint(caIssuersUrl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void evictCache() {
+        if (urlCache.size() < AIA_CACHE_MAX_SIZE) {
+            return;
+        }
+        urlCache.entrySet().removeIf(entry -> !entry.getValue().isValid());
+        while (urlCache.size() >= AIA_CACHE_MAX_SIZE) {
+            urlCache.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().getValidUntil()))
+                    .ifPresent(entry -> urlCache.remove(entry.getKey()));
+        }
+        Set<String> contentHashes = urlCache.values().stream().map(CachedIssuer::getContentHash).collect(Collectors.toSet());
+        contentCache.keySet().retainAll(contentHashes);
+    }
+
+    /**
+     * Issuer certificate downloaded from the CA Issuers location. Location that could not be downloaded is cached
+     * without the certificate for a short time, so it is not requested for every certificate issued by the same CA.
+     */
+    private static final class CachedIssuer {
+        private final X509Certificate certificate;
+        private final String contentHash;
+        private final long validUntil;
+
+        private CachedIssuer(X509Certificate certificate, String contentHash, long validUntil) {
+            this.certificate = certificate;
+            this.contentHash = contentHash;
+            this.validUntil = validUntil;
+        }
+
+        private X509Certificate getCertificate() {
+            return certificate;
+        }
+
+        private String getContentHash() {
+            return contentHash;
+        }
+
+        private long getValidUntil() {
+            return validUntil;
+        }
+
+        private boolean isValid() {
+            return validUntil > System.currentTimeMillis();
+        }
+    }
+}
@@ -9,6 +9,9 @@ import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
 import com.czertainly.core.aop.AuditLogged;
 import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.model.KeysetCursor;
+import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
 import com.czertainly.core.service.CertValidationService;
 import com.czertainly.core.util.CertificateUtil;
 import com.czertainly.core.util.CrlUtil;
@@ -17,15 +20,25 @@ import com.czertainly.core.util.OcspUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.SocketTimeoutException;
+import java.net.URI;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -35,60 +48,228 @@ public class CertValidationServiceImpl implements CertValidationService {
 
     private static final int DAYS_TO_EXPIRE = 30;
 
+    // Number of certificates validated in parallel before the results are written to the database
+    private static final int VALIDATION_BATCH_SIZE = 100;
+    // Maximum number of concurrent OCSP and CRL requests to the same host
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
     @Autowired
     private CertificateRepository certificateRepository;
 
+    @Autowired
+    @Qualifier("certificateValidationTaskExecutor")
+    private ThreadPoolTaskExecutor validationTaskExecutor;
+
     @Override
     @Async("threadPoolTaskExecutor")
     public void validateAllCertificates() {
-        List<Certificate> certificates = certificateRepository.findByStatus(CertificateStatus.UNKNOWN);
-        for (Certificate certificate : certificates) {
-            try {
-                validate(certificate);
-            } catch (Exception e) {
-                logger.warn("Unable to validate the certificate {}", certificate.toString());
+        SecurityFilter filter = SecurityFilter.create();
+        filter.setResourceFilter(SecurityResourceFilter.create());
+
+        // certificates are read page by page using keyset pagination so that the whole inventory is not loaded at once
+        KeysetCursor cursor = null;
+        List<Certificate> certificates;
+        do {
+            certificates = certificateRepository.findUsingSecurityFilterByKeyset(filter, (root, cb) -> cb.equal(root.get("status"), CertificateStatus.UNKNOWN), cursor, VALIDATION_BATCH_SIZE);
+            validateInBatches(certificates);
+            if (!certificates.isEmpty()) {
+                Certificate last = certificates.get(certificates.size() - 1);
+                cursor = new KeysetCursor(last.getCreated(), last.getUuid());
             }
-        }
+        } while (certificates.size() == VALIDATION_BATCH_SIZE);
     }
 
     @Override
     @Async("threadPoolTaskExecutor")
     public void validateCertificates(List<Certificate> certificates) {
+        validateInBatches(certificates);
+    }
+
+    @Override
+    @AuditLogged(originator = ObjectType.FE, affected = ObjectType.CERTIFICATE, operation = OperationType.VALIDATE)
+    public void validate(Certificate certificate) throws NotFoundException, CertificateException, IOException {
+        Map<UUID, Certificate> updatedCertificates = new LinkedHashMap<>();
+        try {
+            validateCertificateChain(certificate, updatedCertificates, Collections.emptyMap());
+        } finally {
+            certificateRepository.saveAll(updatedCertificates.values());
+        }
+    }
+
+    /**
+     * Validate certificates in batches. Certificates of the batch are validated in parallel by the certificate
+     * validation executor and the updated certificates of the whole batch are saved at once.
+     *
+     * @param certificates Certificates to be validated
+     */
+    private void validateInBatches(List<Certificate> certificates) {
+        logger.info("Validating {} certificates", certificates.size());
+        for (int i = 0; i < certificates.size(); i += VALIDATION_BATCH_SIZE) {
+            List<Certificate> batch = certificates.subList(i, Math.min(i + VALIDATION_BATCH_SIZE, certificates.size()));
+            Map<UUID, Certificate> updatedCertificates = new ConcurrentHashMap<>();
+            Map<String, String> ocspStatuses = checkOcspStatuses(batch);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Certificate certificate : batch) {
+                Runnable validation = () -> {
+                    Map<UUID, Certificate> updated = new LinkedHashMap<>();
+                    try {
+                        validateCertificateChain(certificate, updated, ocspStatuses);
+                    } catch (Exception e) {
+                        logger.warn("Unable to validate the certificate {}", certificate.toString());
+                    }
+                    mergeUpdatedCertificates(certificate, updated, updatedCertificates);
+                };
+                try {
+                    futures.add(validationTaskExecutor.submit(validation));
+                } catch (TaskRejectedException e) {
+                    // executor is saturated by other validations, certificate is validated by the calling thread
+                    logger.debug("Validation executor is full, validating the certificate {} by the calling thread", certificate.getUuid());
+                    validation.run();
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Validation of certificates was interrupted");
+                    return;
+                } catch (ExecutionException e) {
+                    logger.warn("Unable to validate the certificate: {}", e.getMessage());
+                }
+            }
+
+            certificateRepository.saveAll(updatedCertificates.values());
+            logger.debug("Validated {} of {} certificates", Math.min(i + VALIDATION_BATCH_SIZE, certificates.size()), certificates.size());
+        }
+    }
+
+    private void mergeUpdatedCertificates(Certificate certificate, Map<UUID, Certificate> updated, Map<UUID, Certificate> updatedCertificates) {
+        // validated certificate carries the validation timestamp and takes precedence over the same certificate
+        // updated as a chain member of another certificate from the batch
+        for (Certificate updatedCertificate : updated.values()) {
+            if (updatedCertificate == certificate) {
+                updatedCertificates.put(updatedCertificate.getUuid(), updatedCertificate);
+            } else {
+                updatedCertificates.putIfAbsent(updatedCertificate.getUuid(), updatedCertificate);
+            }
+        }
+    }
+
+    /**
+     * Check the OCSP status of the certificates from the batch issued by the same issuer and having the same OCSP URL
+     * together, using OCSP requests with multiple CertIDs. Statuses of the remaining certificates and of the chain
+     * certificates are checked one by one during the validation.
+     *
+     * @param certificates Certificates to be validated
+     * @return OCSP statuses of the certificates, see {@link #getOcspStatusKey(String, UUID, BigInteger)}
+     */
+    private Map<String, String> checkOcspStatuses(List<Certificate> certificates) {
+        Map<UUID, Map<String, List<X509Certificate>>> issuedCertificates = new HashMap<>();
+        Date now = new Date();
         for (Certificate certificate : certificates) {
+            if (certificate.getIssuerCertificateUuid() == null) {
+                continue;
+            }
             try {
-                validate(certificate);
-            } catch (Exception e) {
-                logger.warn("Unable to validate the certificate {}", certificate.toString());
+                X509Certificate certX509 = getX509(certificate.getCertificateContent().getContent());
+                if (certX509.getNotAfter().before(now)) {
+                    continue;
+                }
+                for (String ocspUrl : OcspUtil.getOcspUrlFromCertificate(certX509)) {
+                    issuedCertificates.computeIfAbsent(certificate.getIssuerCertificateUuid(), k -> new HashMap<>())
+                            .computeIfAbsent(ocspUrl, k -> new ArrayList<>()).add(certX509);
+                }
+            } catch (CertificateException e) {
+                logger.debug("Unable to parse the certificate {}", certificate.getUuid());
             }
         }
+
+        Map<String, String> ocspStatuses = new HashMap<>();
+        if (issuedCertificates.isEmpty()) {
+            return ocspStatuses;
+        }
+        for (Certificate issuer : certificateRepository.findByUuidIn(issuedCertificates.keySet())) {
+            X509Certificate x509Issuer;
+            try {
+                x509Issuer = getX509(issuer.getCertificateContent().getContent());
+            } catch (CertificateException e) {
+                continue;
+            }
+            for (Map.Entry<String, List<X509Certificate>> urlCertificates : issuedCertificates.get(issuer.getUuid()).entrySet()) {
+                String ocspUrl = urlCertificates.getKey();
+                if (urlCertificates.getValue().size() < 2) {
+                    continue;
+                }
+                try {
+                    Map<BigInteger, String> statuses = withHostPermit(ocspUrl, () -> OcspUtil.checkOcsp(urlCertificates.getValue(), x509Issuer, ocspUrl));
+                    statuses.forEach((serialNumber, status) -> ocspStatuses.put(getOcspStatusKey(ocspUrl, issuer.getUuid(), serialNumber), status));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return ocspStatuses;
+                } catch (Exception e) {
+                    logger.warn("Unable to check OCSP status of {} certificates from {}: {}", urlCertificates.getValue().size(), ocspUrl, e.getMessage());
+                }
+            }
+        }
+        return ocspStatuses;
     }
 
-    @Override
-    @AuditLogged(originator = ObjectType.FE, affected = ObjectType.CERTIFICATE, operation = OperationType.VALIDATE)
-    public void validate(Certificate certificate) throws NotFoundException, CertificateException, IOException {
+    private String getOcspStatusKey(String ocspUrl, UUID issuerUuid, BigInteger serialNumber) {
+        return ocspUrl + "|" + issuerUuid + "|" + serialNumber.toString(16);
+    }
+
+    private String checkOcsp(X509Certificate certX509, Certificate issuerCertificate, X509Certificate x509Issuer, String ocspUrl, Map<String, String> ocspStatuses) throws Exception {
+        String ocspStatus = ocspStatuses.get(getOcspStatusKey(ocspUrl, issuerCertificate.getUuid(), certX509.getSerialNumber()));
+        if (ocspStatus != null) {
+            return ocspStatus;
+        }
+        return withHostPermit(ocspUrl, () -> OcspUtil.checkOcsp(certX509, x509Issuer, ocspUrl));
+    }
+
+    private <T> T withHostPermit(String url, Callable<T> request) throws Exception {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            host = null;
+        }
+        Semaphore permits = hostPermits.computeIfAbsent(host == null ? url : host, k -> new Semaphore(MAX_REQUESTS_PER_HOST));
+        permits.acquire();
+        try {
+            return request.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void validateCertificateChain(Certificate certificate, Map<UUID, Certificate> updatedCertificates, Map<String, String> ocspStatuses) throws CertificateException, IOException {
         logger.debug("Initiating the certificate validation");
         List<Certificate> chainCerts = getCertificateChain(certificate);
         for (int i = 0; i < chainCerts.size(); i++) {
             Certificate crt = chainCerts.get(i);
             if (crt.getSubjectDn().equals(crt.getIssuerDn())) {
-                checkSelfSignedCertificate(crt);
+                checkSelfSignedCertificate(crt, updatedCertificates);
             } else {
                 if (checkFullChain(chainCerts)) {
                     if (chainCerts.size() > i + 1) {
-                        certificateValidation(crt, chainCerts.get(i + 1));
+                        certificateValidation(crt, chainCerts.get(i + 1), updatedCertificates, ocspStatuses);
                     }
                 } else {
                     if (chainCerts.size() > i + 1) {
-                        certificateValidation(crt, chainCerts.get(i + 1), true);
+                        certificateValidation(crt, chainCerts.get(i + 1), true, updatedCertificates, ocspStatuses);
                     } else {
                         logger.warn("Incomplete Chain");
-                        certificateValidation(crt, null, true);
+                        certificateValidation(crt, null, true, updatedCertificates, ocspStatuses);
                     }
                 }
             }
         }
         certificate.setStatusValidationTimestamp(LocalDateTime.now());
-        certificateRepository.save(certificate);
+        updatedCertificates.put(certificate.getUuid(), certificate);
     }
 
     private Boolean checkFullChain(List<Certificate> certificates) {
@@ -97,7 +278,7 @@ public class CertValidationServiceImpl implements CertValidationService {
     }
 
 
-    private void checkSelfSignedCertificate(Certificate certificate) {
+    private void checkSelfSignedCertificate(Certificate certificate, Map<UUID, Certificate> updatedCertificates) {
         Map<String, CertificateValidationDto> validationOutput = getValidationInitialOutput();
         X509Certificate x509;
         try {
@@ -119,7 +300,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             validationOutput.put("Signature Verification", new CertificateValidationDto(CertificateValidationStatus.FAILED, "Unable to verify the signature. Error: " + e.getMessage()));
             certificate.setStatus(CertificateStatus.INVALID);
             certificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(certificate);
+            updatedCertificates.put(certificate.getUuid(), certificate);
             return;
         }
 
@@ -129,7 +310,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             validationOutput.put("Certificate Validity", new CertificateValidationDto(CertificateValidationStatus.INVALID, "Not Valid yet"));
             certificate.setStatus(status);
             certificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(certificate);
+            updatedCertificates.put(certificate.getUuid(), certificate);
             return;
         }
         if (validTill < TimeUnit.DAYS.toMillis(DAYS_TO_EXPIRE) && validTill > 0) {
@@ -147,13 +328,13 @@ public class CertValidationServiceImpl implements CertValidationService {
             validationOutput.put("Certificate Expiry", new CertificateValidationDto(CertificateValidationStatus.EXPIRED, "Certificate expired " + convertMillisecondsToTimeString(validTill * -1) + " ago"));
             certificate.setStatus(status);
             certificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(certificate);
+            updatedCertificates.put(certificate.getUuid(), certificate);
             return;
         }
         validationOutput.put("OCSP Verification", new CertificateValidationDto(CertificateValidationStatus.NOT_CHECKED, "Self-signed Certificate"));
         validationOutput.put("CRL Verification", new CertificateValidationDto(CertificateValidationStatus.NOT_CHECKED, "Self-signed Certificate"));
         certificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-        certificateRepository.save(certificate);
+        updatedCertificates.put(certificate.getUuid(), certificate);
     }
 
     private boolean verifySignature(X509Certificate subjectCertificate, X509Certificate issuerCertificate) {
@@ -169,38 +350,30 @@ public class CertValidationServiceImpl implements CertValidationService {
     @Override
     public List<Certificate> getCertificateChain(Certificate certificate) {
         List<Certificate> chainCerts = new ArrayList<>();
-        chainCerts.add(certificate);
-        int previousLength = 1;
-        while (true) {
-            checkAddCertificateToChain(chainCerts);
-            if (chainCerts.size() != previousLength) {
-                previousLength += 1;
-            } else {
-                break;
-            }
+        Set<UUID> chainUuids = new HashSet<>();
+        Certificate chainCertificate = certificate;
+        // issuer links are resolved when the certificate is stored, the chain is followed by the primary key only
+        while (chainCertificate != null && chainUuids.add(chainCertificate.getUuid())) {
+            chainCerts.add(chainCertificate);
+            chainCertificate = getIssuerCertificate(chainCertificate);
         }
         return chainCerts;
     }
 
-    private List<Certificate> checkAddCertificateToChain(List<Certificate> chainCertificates) {
-        Certificate toCheckCertificate = chainCertificates.get(chainCertificates.size() - 1);
-        if (toCheckCertificate.getIssuerSerialNumber() != null
-                && toCheckCertificate.getIssuerSerialNumber().length() > 5) {
-            try {
-                chainCertificates.add(
-                        certificateRepository.findBySerialNumberIgnoreCase(toCheckCertificate.getIssuerSerialNumber())
-                                .orElseThrow(() -> new NotFoundException(Certificate.class,
-                                        toCheckCertificate.getIssuerSerialNumber())));
-            } catch (NotFoundException e) {
-                logger.error("Unable to find the chain of {}", toCheckCertificate.getCommonName());
-            } catch (NullPointerException e) {
-                logger.debug("Received end of chain");
-            }
+    private Certificate getIssuerCertificate(Certificate certificate) {
+        if (certificate.getIssuerCertificateUuid() == null) {
+            return null;
+        }
+        Certificate issuer = certificateRepository.findByUuid(certificate.getIssuerCertificateUuid()).orElse(null);
+        if (issuer == null) {
+            // issuer was deleted, certificate is linked again when the issuer is stored
+            logger.warn("Issuer of the certificate {} no longer exists", certificate.getCommonName());
+            certificate.setIssuerCertificateUuid(null);
         }
-        return chainCertificates;
+        return issuer;
     }
 
-    private void certificateValidation(Certificate subjectCertificate, Certificate issuerCertificate)
+    private void certificateValidation(Certificate subjectCertificate, Certificate issuerCertificate, Map<UUID, Certificate> updatedCertificates, Map<String, String> ocspStatuses)
             throws IOException, CertificateException {
         CertificateStatus status = CertificateStatus.UNKNOWN;
 
@@ -224,7 +397,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             status = CertificateStatus.INVALID;
             subjectCertificate.setStatus(status);
             subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(subjectCertificate);
+            updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
             return;
         }
 
@@ -233,7 +406,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             validationOutput.put("Certificate Validity", new CertificateValidationDto(CertificateValidationStatus.INVALID, "Not valid yet"));
             subjectCertificate.setStatus(status);
             subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(subjectCertificate);
+            updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
             return;
         }
         if (validTill < TimeUnit.DAYS.toMillis(DAYS_TO_EXPIRE) && validTill > 0) {
@@ -252,7 +425,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                     "Certificate expired " + convertMillisecondsToTimeString(validTill * -1) + " ago"));
             subjectCertificate.setStatus(status);
             subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(subjectCertificate);
+            updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
             return;
         }
         if (ocspUrls.isEmpty()) {
@@ -265,8 +438,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                 String ocspOutput = "";
                 String ocspMessage = "";
                 for (String ocspUrl : ocspUrls) {
-                    String ocspStatus = OcspUtil.checkOcsp(certX509, x509Issuer,
-                            ocspUrl);
+                    String ocspStatus = checkOcsp(certX509, issuerCertificate, x509Issuer, ocspUrl, ocspStatuses);
                     if (ocspStatus.equals("Success")) {
                         ocspOutput = "Success";
                         ocspMessage += "OCSP verification success from " + ocspUrl;
@@ -292,7 +464,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                             ocspMessage));
                     subjectCertificate.setStatus(status);
                     subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-                    certificateRepository.save(subjectCertificate);
+                    updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
                     return;
                 } else {
                     validationOutput.put("OCSP Verification", new CertificateValidationDto(CertificateValidationStatus.WARNING, ocspMessage));
@@ -316,7 +488,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             for (String crlUrl : crlUrls) {
                 logger.info("Checking for the CRL of the certificate " + crlUrl);
                 try {
-                    crlOutput = CrlUtil.checkCertificateRevocationList(certX509, crlUrl);
+                    crlOutput = CrlUtil.checkCertificateRevocationList(certX509, crlUrl, this::withHostPermit);
                     if (!crlOutput.equals("")) {
                         isRevoked = true;
                         break;
@@ -350,7 +522,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                         crlOutput.split("=")[0] + ".\n CRL URL(s): " + String.join(", ", crlUrls)));
                 subjectCertificate.setStatus(status);
                 subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-                certificateRepository.save(subjectCertificate);
+                updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
                 return;
             } else {
                 if (status != CertificateStatus.EXPIRING && !subjectCertificateOriginalStatus.equals(CertificateStatus.REVOKED)) {
@@ -371,9 +543,9 @@ public class CertValidationServiceImpl implements CertValidationService {
         validationOutput.forEach((key, value) -> logger.debug(key + ":" + value));
 
         if (status.equals(CertificateStatus.REVOKED)) {
-            for (Certificate cert : certificateRepository.findAllByIssuerSerialNumber(subjectCertificate.getSerialNumber())) {
+            for (Certificate cert : certificateRepository.findAllByIssuerCertificateUuid(subjectCertificate.getUuid())) {
                 cert.setStatus(CertificateStatus.REVOKED);
-                certificateRepository.save(cert);
+                updatedCertificates.put(cert.getUuid(), cert);
             }
         }
 
@@ -381,10 +553,10 @@ public class CertValidationServiceImpl implements CertValidationService {
             subjectCertificate.setStatus(status);
         }
         subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-        certificateRepository.save(subjectCertificate);
+        updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
     }
 
-    private void certificateValidation(Certificate subjectCertificate, Certificate issuerCertificate, Boolean isIncomplete)
+    private void certificateValidation(Certificate subjectCertificate, Certificate issuerCertificate, Boolean isIncomplete, Map<UUID, Certificate> updatedCertificates, Map<String, String> ocspStatuses)
             throws IOException, CertificateException {
         CertificateStatus status = CertificateStatus.UNKNOWN;
 
@@ -414,7 +586,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                 status = CertificateStatus.INVALID;
                 subjectCertificate.setStatus(status);
                 subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-                certificateRepository.save(subjectCertificate);
+                updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
                 return;
             }
         }
@@ -424,7 +596,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             validationOutput.put("Certificate Validity", new CertificateValidationDto(CertificateValidationStatus.INVALID, "Not valid yet"));
             subjectCertificate.setStatus(status);
             subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(subjectCertificate);
+            updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
             return;
         }
         if (validTill <= TimeUnit.DAYS.toMillis(DAYS_TO_EXPIRE) && validTill > 0) {
@@ -443,7 +615,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                     "Certificate expired " + convertMillisecondsToTimeString(validTill * -1) + " ago"));
             subjectCertificate.setStatus(status);
             subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-            certificateRepository.save(subjectCertificate);
+            updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
             return;
         }
         if (ocspUrls.isEmpty()) {
@@ -458,8 +630,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                 String ocspOutput = "";
                 String ocspMessage = "";
                 for (String ocspUrl : ocspUrls) {
-                    String ocspStatus = OcspUtil.checkOcsp(certX509, x509Issuer,
-                            ocspUrl);
+                    String ocspStatus = checkOcsp(certX509, issuerCertificate, x509Issuer, ocspUrl, ocspStatuses);
                     if (ocspStatus.equals("Success")) {
                         ocspOutput = "Success";
                         ocspMessage += "OCSP verification successful from " + ocspUrl;
@@ -486,7 +657,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                             ocspMessage));
                     subjectCertificate.setStatus(status);
                     subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-                    certificateRepository.save(subjectCertificate);
+                    updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
                     return;
                 } else {
                     validationOutput.put("OCSP Verification", new CertificateValidationDto(CertificateValidationStatus.WARNING, ocspMessage));
@@ -510,7 +681,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             for (String crlUrl : crlUrls) {
                 logger.info("Checking for the CRL of the certificate " + crlUrl);
                 try {
-                    crlOutput = CrlUtil.checkCertificateRevocationList(certX509, crlUrl);
+                    crlOutput = CrlUtil.checkCertificateRevocationList(certX509, crlUrl, this::withHostPermit);
                     if (!crlOutput.equals("")) {
                         isRevoked = true;
                         break;
@@ -532,7 +703,7 @@ public class CertValidationServiceImpl implements CertValidationService {
                         crlOutput.split("=")[0] + ".\n CRL URL(s): " + String.join(", ", crlUrls)));
                 subjectCertificate.setStatus(status);
                 subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-                certificateRepository.save(subjectCertificate);
+                updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
                 return;
             } else {
                 if (status != CertificateStatus.EXPIRING && !subjectCertificateOriginalStatus.equals(CertificateStatus.REVOKED)) {
@@ -553,9 +724,9 @@ public class CertValidationServiceImpl implements CertValidationService {
         validationOutput.forEach((key, value) -> logger.debug(key + ":" + value));
 
         if (status.equals(CertificateStatus.REVOKED)) {
-            for (Certificate cert : certificateRepository.findAllByIssuerSerialNumber(subjectCertificate.getSerialNumber())) {
+            for (Certificate cert : certificateRepository.findAllByIssuerCertificateUuid(subjectCertificate.getUuid())) {
                 cert.setStatus(CertificateStatus.REVOKED);
-                certificateRepository.save(cert);
+                updatedCertificates.put(cert.getUuid(), cert);
             }
         }
 
@@ -563,7 +734,7 @@ public class CertValidationServiceImpl implements CertValidationService {
             subjectCertificate.setStatus(status);
         }
         subjectCertificate.setCertificateValidationResult(MetaDefinitions.serializeValidation(validationOutput));
-        certificateRepository.save(subjectCertificate);
+        updatedCertificates.put(subjectCertificate.getUuid(), subjectCertificate);
     }
 
     private Map<String, CertificateValidationDto> getValidationInitialOutput() {
@@ -38,42 +38,30 @@ import com.czertainly.core.util.*;
 import com.czertainly.core.util.converter.Sql2PredicateConverter;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
-import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -88,6 +76,10 @@ public class CertificateServiceImpl implements CertificateService {
     public static final Integer DELETE_BATCH_SIZE = 1000;
     private static final Logger logger = LoggerFactory.getLogger(CertificateServiceImpl.class);
 
+    // Use estimated number of certificates from the database statistics for unfiltered listings
+    @Value("${certificate.listing.estimated-count:false}")
+    private boolean estimatedCountEnabled;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -106,6 +98,9 @@ public class CertificateServiceImpl implements CertificateService {
     @Autowired
     private CertificateContentRepository certificateContentRepository;
 
+    @Autowired
+    private CertificateComplianceResultRepository certificateComplianceResultRepository;
+
     @Autowired
     private DiscoveryCertificateRepository discoveryCertificateRepository;
 
@@ -121,6 +116,12 @@ public class CertificateServiceImpl implements CertificateService {
     @Autowired
     private CertValidationService certValidationService;
 
+    @Autowired
+    private AuthorityInformationAccessService authorityInformationAccessService;
+
+    @Autowired
+    private CertificateStatisticsService certificateStatisticsService;
+
     @Autowired
     private CertificateEventHistoryService certificateEventHistoryService;
 
@@ -152,22 +153,24 @@ public class CertificateServiceImpl implements CertificateService {
         RequestValidatorHelper.revalidateSearchRequestDto(request);
         final Pageable p = PageRequest.of(request.getPageNumber() - 1, request.getItemsPerPage());
 
-        final List<UUID> objectUUIDs = new ArrayList<>();
+        final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
         if (!request.getFilters().isEmpty()) {
-            final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
             searchFieldObjects.addAll(getSearchFieldObjectForMetadata());
             searchFieldObjects.addAll(getSearchFieldObjectForCustomAttributes());
-
-            final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(searchFieldObjects, request.getFilters(), entityManager.getCriteriaBuilder(), Resource.CERTIFICATE);
-            objectUUIDs.addAll(certificateRepository.findUsingSecurityFilterByCustomCriteriaQuery(filter, criteriaQueryDataObject.getRoot(), criteriaQueryDataObject.getCriteriaQuery(), criteriaQueryDataObject.getPredicate()));
         }
 
-        final BiFunction<Root<Certificate>, CriteriaBuilder, Predicate> additionalWhereClause = (root, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, objectUUIDs);
-        final List<CertificateDto> listedKeyDTOs = certificateRepository.findUsingSecurityFilter(filter, additionalWhereClause, p, (root, cb) -> cb.desc(root.get("created")))
+        final Specification<Certificate> specification = (root, query, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, query, searchFieldObjects, Resource.CERTIFICATE);
+        final List<CertificateDto> listedKeyDTOs = certificateRepository.findUsingSecurityFilterBySpecification(filter, specification, p, (root, cb) -> cb.desc(root.get("created")))
                 .stream()
                 .map(Certificate::mapToListDto)
                 .collect(Collectors.toList());
-        final Long maxItems = certificateRepository.countUsingSecurityFilter(filter, additionalWhereClause);
+        final Long maxItems;
+        if (listedKeyDTOs.size() < request.getItemsPerPage() && (!listedKeyDTOs.isEmpty() || p.getOffset() == 0)) {
+            // last page of the listing, total number of items is known without counting
+            maxItems = p.getOffset() + listedKeyDTOs.size();
+        } else {
+            maxItems = certificateRepository.countUsingSecurityFilterBySpecification(filter, request.getFilters().isEmpty() ? null : specification, estimatedCountEnabled);
+        }
 
         final CertificateResponseDto responseDto = new CertificateResponseDto();
         responseDto.setCertificates(listedKeyDTOs);
@@ -184,8 +187,8 @@ public class CertificateServiceImpl implements CertificateService {
     public CertificateDetailDto getCertificate(SecuredUUID uuid) throws NotFoundException, CertificateException, IOException {
         Certificate entity = getCertificateEntity(uuid);
         CertificateDetailDto dto = entity.mapToDto();
-        if (entity.getComplianceResult() != null) {
-            dto.setNonCompliantRules(frameComplianceResult(entity.getComplianceResult()));
+        if (entity.getComplianceStatus() != null) {
+            dto.setNonCompliantRules(frameComplianceResult(certificateComplianceResultRepository.findRuleUuidsByCertificateUuidAndStatus(entity.getUuid(), ComplianceRuleStatus.NOK)));
         } else {
             dto.setComplianceStatus(ComplianceStatus.NA);
         }
@@ -273,6 +276,8 @@ public class CertificateServiceImpl implements CertificateService {
             logger.error("Failed to remove Certificate {} from Locations", uuid);
         }
 
+        // issued certificates are linked again when the issuer is stored next time
+        certificateRepository.clearIssuerCertificateUuid(List.of(certificate.getUuid()));
         if (discoveryCertificateRepository.findByCertificateContent(certificate.getCertificateContent()).isEmpty()) {
             CertificateContent content = certificateContentRepository
                     .findById(certificate.getCertificateContent().getId()).orElse(null);
@@ -352,7 +357,9 @@ public class CertificateServiceImpl implements CertificateService {
 //            bulkOperationResponse.setFailedItem(Long.valueOf(totalItems - certListDyn.size()));
 
             for (List<Certificate> certificates : partitionList(certListDyn)) {
+                certificateRepository.clearIssuerCertificateUuid(certificates.stream().map(Certificate::getUuid).collect(Collectors.toList()));
                 certificateRepository.deleteAll(certificates);
+                attributeService.deleteAttributeContent(certificates.stream().map(Certificate::getUuid).collect(Collectors.toList()), Resource.CERTIFICATE);
             }
             for (List<CertificateContent> certificateContents : partitionContents(certificateContentRepository.findCertificateContentNotUsed())) {
                 certificateContentRepository.deleteAll(certificateContents);
@@ -428,44 +435,99 @@ public class CertificateServiceImpl implements CertificateService {
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.CERTIFICATE, operation = OperationType.CHANGE)
     //Auth is not required for methods. It is only internally used by other services to update the issuers of the certificate
     public void updateCertificateIssuer(Certificate certificate) throws NotFoundException {
+        // linked issuer still exists, the issued certificates were already linked together with the issuer
+        if (certificate.getIssuerCertificateUuid() != null && certificateRepository.findByUuid(certificate.getIssuerCertificateUuid()).isPresent()) {
+            return;
+        }
+
+        X509Certificate subjectCertificate;
+        try {
+            subjectCertificate = getX509(certificate.getCertificateContent().getContent());
+        } catch (Exception e) {
+            logger.warn("Unable to parse the certificate with subject {}", certificate.getSubjectDn());
+            return;
+        }
+
         if (!certificate.getIssuerDn().equals(certificate.getSubjectDn())) {
-            for (Certificate issuer : certificateRepository.findBySubjectDn(certificate.getIssuerDn())) {
-                X509Certificate subCert;
-                X509Certificate issCert;
-                try {
-                    subCert = getX509(certificate.getCertificateContent().getContent());
-                    issCert = getX509(issuer.getCertificateContent().getContent());
-                } catch (Exception e) {
-                    continue;
-                }
+            updateIssuerLink(certificate, subjectCertificate);
+        }
+        updateIssuedCertificateLinks(certificate, subjectCertificate);
+    }
 
-                if (issuer.getIssuerSerialNumber() == null) {
-                    updateCertificateIssuer(issuer);
-                }
+    private void updateIssuerLink(Certificate certificate, X509Certificate subjectCertificate) throws NotFoundException {
+        for (Certificate issuer : getIssuerCandidates(certificate)) {
+            if (issuer.getUuid().equals(certificate.getUuid())) {
+                continue;
+            }
+            X509Certificate issuerCertificate;
+            try {
+                issuerCertificate = getX509(issuer.getCertificateContent().getContent());
+            } catch (Exception e) {
+                logger.warn("Unable to parse the issuer with subject {}", certificate.getIssuerDn());
+                continue;
+            }
+
+            if (issuer.getIssuerCertificateUuid() == null) {
+                updateCertificateIssuer(issuer);
+            }
+
+            if (verifySignature(subjectCertificate, issuerCertificate)) {
+                certificate.setIssuerSerialNumber(issuer.getSerialNumber());
+                certificate.setIssuerCertificateUuid(issuer.getUuid());
+                certificateRepository.save(certificate);
+                return;
+            }
+        }
+    }
 
-                if (verifySignature(subCert, issCert)) {
-                    try {
-                        X509Certificate issuerCert = CertificateUtil
-                                .parseCertificate(issuer.getCertificateContent().getContent());
-                        X509Certificate subjectCert = CertificateUtil
-                                .parseCertificate(certificate.getCertificateContent().getContent());
-
-                        try {
-                            subjectCert.verify(issuerCert.getPublicKey());
-                            certificate.setIssuerSerialNumber(issuer.getSerialNumber());
-                            certificateRepository.save(certificate);
-                        } catch (Exception e) {
-                            logger.debug("Error when getting the issuer");
-                        }
-
-                    } catch (CertificateException e) {
-                        logger.warn("Unable to parse the issuer with subject {}", certificate.getIssuerDn());
-                    }
+    /**
+     * Link the certificates issued by the certificate that do not have their issuer yet, e.g. the certificates
+     * whose issuer was deleted and uploaded again.
+     *
+     * @param certificate       Certificate that can be the issuer
+     * @param issuerCertificate X.509 certificate of the issuer
+     */
+    private void updateIssuedCertificateLinks(Certificate certificate, X509Certificate issuerCertificate) {
+        if (certificate.getSubjectKeyIdentifier() == null) {
+            return;
+        }
+        for (Certificate issued : certificateRepository.findByAuthorityKeyIdentifierAndIssuerCertificateUuidIsNull(certificate.getSubjectKeyIdentifier())) {
+            if (issued.getUuid().equals(certificate.getUuid())) {
+                continue;
+            }
+            try {
+                if (verifySignature(getX509(issued.getCertificateContent().getContent()), issuerCertificate)) {
+                    issued.setIssuerSerialNumber(certificate.getSerialNumber());
+                    issued.setIssuerCertificateUuid(certificate.getUuid());
+                    certificateRepository.save(issued);
                 }
+            } catch (Exception e) {
+                logger.warn("Unable to parse the certificate with subject {}", issued.getSubjectDn());
             }
         }
     }
 
+    /**
+     * Get the certificates that can be the issuer of the certificate. Issuer is looked up by the authority key identifier,
+     * when the certificate does not have it or no certificate with such subject key identifier exists, by the normalized
+     * issuer DN. Candidates still need to be verified by the signature of the certificate.
+     *
+     * @param certificate Certificate to find the issuer for
+     * @return List of the possible issuers
+     */
+    private List<Certificate> getIssuerCandidates(Certificate certificate) {
+        if (certificate.getAuthorityKeyIdentifier() != null) {
+            List<Certificate> issuers = certificateRepository.findBySubjectKeyIdentifier(certificate.getAuthorityKeyIdentifier());
+            if (!issuers.isEmpty()) {
+                return issuers;
+            }
+        }
+        if (certificate.getIssuerDnNormalized() != null) {
+            return certificateRepository.findBySubjectDnNormalized(certificate.getIssuerDnNormalized());
+        }
+        return certificateRepository.findBySubjectDn(certificate.getIssuerDn());
+    }
+
     private boolean verifySignature(X509Certificate subjectCertificate, X509Certificate issuerCertificate) {
         try {
             subjectCertificate.verify(issuerCertificate.getPublicKey());
@@ -519,7 +581,7 @@ public class CertificateServiceImpl implements CertificateService {
 
             CertificateUtil.prepareCertificate(entity, certificate);
             entity.setFingerprint(fingerprint);
-            entity.setCertificateContent(checkAddCertificateContent(fingerprint, X509ObjectToString.toPem(certificate)));
+            entity.setCertificateContent(checkAddCertificateContent(fingerprint, certificate));
 
             try {
                 downloadUploadChain(entity);
@@ -554,30 +616,84 @@ public class CertificateServiceImpl implements CertificateService {
         }
 
         CertificateUtil.prepareCertificate(modal, certificate);
-        if (modal.getKey() == null) {
-            UUID keyUuid = cryptographicKeyService.findKeyByFingerprint(modal.getPublicKeyFingerprint());
-            if (keyUuid != null) modal.setKeyUuid(keyUuid);
-        }
-        CertificateContent certificateContent = checkAddCertificateContent(fingerprint, X509ObjectToString.toPem(certificate));
         modal.setFingerprint(fingerprint);
-        modal.setCertificateContent(certificateContent);
-        modal.setCertificateContentId(certificateContent.getId());
+        modal.setCertificateContent(checkAddCertificateContent(fingerprint, certificate));
+        setCertificateKeys(List.of(modal));
 
         return modal;
     }
 
-    private CertificateContent checkAddCertificateContent(String fingerprint, String content) {
-        CertificateContent certificateContent = certificateContentRepository.findByFingerprint(fingerprint);
-        if (certificateContent != null) {
-            return certificateContent;
+    @Override
+    public List<Certificate> createCertificateEntities(Map<String, X509Certificate> certificates) {
+        if (certificates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, CertificateContent> certificateContents = checkAddCertificateContents(certificates);
+        List<Certificate> entities = new ArrayList<>();
+        for (Map.Entry<String, X509Certificate> certificate : certificates.entrySet()) {
+            Certificate modal = new Certificate();
+            CertificateUtil.prepareCertificate(modal, certificate.getValue());
+            modal.setFingerprint(certificate.getKey());
+            modal.setCertificateContent(certificateContents.get(certificate.getKey()));
+            entities.add(modal);
         }
+        setCertificateKeys(entities);
 
-        certificateContent = new CertificateContent();
-        certificateContent.setContent(CertificateUtil.normalizeCertificateContent(content));
-        certificateContent.setFingerprint(fingerprint);
+        certificateRepository.saveAll(entities);
+        return entities;
+    }
+
+    private CertificateContent checkAddCertificateContent(String fingerprint, X509Certificate certificate) {
+        return checkAddCertificateContents(Collections.singletonMap(fingerprint, certificate)).get(fingerprint);
+    }
 
-        certificateContentRepository.save(certificateContent);
-        return certificateContent;
+    /**
+     * Get the contents of the certificates, contents that do not exist yet are created. Existing contents are looked
+     * up with a single query and new contents are saved together.
+     *
+     * @param certificates Certificates keyed by their fingerprint
+     * @return Contents of the certificates keyed by the fingerprint
+     */
+    private Map<String, CertificateContent> checkAddCertificateContents(Map<String, X509Certificate> certificates) {
+        Map<String, CertificateContent> certificateContents = new HashMap<>();
+        for (CertificateContent certificateContent : certificateContentRepository.findByFingerprintIn(certificates.keySet())) {
+            certificateContents.put(certificateContent.getFingerprint(), certificateContent);
+        }
+        List<CertificateContent> newCertificateContents = new ArrayList<>();
+        for (Map.Entry<String, X509Certificate> certificate : certificates.entrySet()) {
+            if (!certificateContents.containsKey(certificate.getKey())) {
+                CertificateContent certificateContent = new CertificateContent();
+                certificateContent.setContent(CertificateUtil.normalizeCertificateContent(X509ObjectToString.toPem(certificate.getValue())));
+                certificateContent.setFingerprint(certificate.getKey());
+                newCertificateContents.add(certificateContent);
+                certificateContents.put(certificate.getKey(), certificateContent);
+            }
+        }
+        // contents need to be saved first, the certificate takes ID of the content when the content is set
+        certificateContentRepository.saveAll(newCertificateContents);
+        return certificateContents;
+    }
+
+    /**
+     * Associate the certificates with the keys of their public keys, the keys are looked up with a single query
+     *
+     * @param certificates Certificates without the key
+     */
+    private void setCertificateKeys(List<Certificate> certificates) {
+        Set<String> publicKeyFingerprints = certificates.stream()
+                .filter(modal -> modal.getKey() == null && modal.getPublicKeyFingerprint() != null)
+                .map(Certificate::getPublicKeyFingerprint)
+                .collect(Collectors.toSet());
+        if (publicKeyFingerprints.isEmpty()) {
+            return;
+        }
+        Map<String, UUID> keyUuids = cryptographicKeyService.findKeysByFingerprints(publicKeyFingerprints);
+        for (Certificate modal : certificates) {
+            if (modal.getKey() == null && keyUuids.containsKey(modal.getPublicKeyFingerprint())) {
+                modal.setKeyUuid(keyUuids.get(modal.getPublicKeyFingerprint()));
+            }
+        }
     }
 
     @Override
@@ -787,44 +903,11 @@ public class CertificateServiceImpl implements CertificateService {
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.LIST, parentResource = Resource.RA_PROFILE, parentAction = ResourceAction.LIST)
     public StatisticsDto addCertificateStatistics(SecurityFilter filter, StatisticsDto dto) {
         filter.setParentRefProperty("raProfileUuid");
-        List<Certificate> certificates = certificateRepository.findUsingSecurityFilter(filter);
-
-        //Compliance Mapping
-        Map<String, String> complianceMap = new HashMap<>();
-        complianceMap.put("NA", "Not Checked");
-        complianceMap.put("OK", "Compliant");
-        complianceMap.put("NOK", "Non Compliant");
-        //
-        Map<String, Long> groupStat = new HashMap<>();
-        Map<String, Long> raProfileStat = new HashMap<>();
-        Map<String, Long> typeStat = new HashMap<>();
-        Map<String, Long> keySizeStat = new HashMap<>();
-        Map<String, Long> bcStat = new HashMap<>();
-        Map<String, Long> expiryStat = new HashMap<>();
-        Map<String, Long> statusStat = new HashMap<>();
-        Map<String, Long> complianceStat = new HashMap<>();
-        Date currentTime = new Date();
-        for (Certificate certificate : certificates) {
-            groupStat.merge(certificate.getGroup() != null ? certificate.getGroup().getName() : "Unknown", 1L, Long::sum);
-            raProfileStat.merge(certificate.getRaProfile() != null ? certificate.getRaProfile().getName() : "Unknown", 1L, Long::sum);
-            if (!certificate.getStatus().equals(CertificateStatus.NEW)) {
-                typeStat.merge(certificate.getCertificateType().getCode(), 1L, Long::sum);
-                expiryStat.merge(getExpiryTime(currentTime, certificate.getNotAfter()), 1L, Long::sum);
-                bcStat.merge(certificate.getBasicConstraints(), 1L, Long::sum);
-            }
-            keySizeStat.merge(certificate.getKeySize().toString(), 1L, Long::sum);
-            statusStat.merge(certificate.getStatus().getCode(), 1L, Long::sum);
-            complianceStat.merge(certificate.getComplianceStatus() != null ? complianceMap.get(certificate.getComplianceStatus().getCode().toUpperCase()) : "Not Checked", 1L, Long::sum);
-        }
-        dto.setGroupStatByCertificateCount(groupStat);
-        dto.setRaProfileStatByCertificateCount(raProfileStat);
-        dto.setCertificateStatByType(typeStat);
-        dto.setCertificateStatByKeySize(keySizeStat);
-        dto.setCertificateStatByBasicConstraints(bcStat);
-        dto.setCertificateStatByExpiry(expiryStat);
-        dto.setCertificateStatByStatus(statusStat);
-        dto.setCertificateStatByComplianceStatus(complianceStat);
-        return dto;
+        if (filter.getResourceFilter().areOnlySpecificObjectsAllowed() || !filter.getResourceFilter().getForbiddenObjects().isEmpty()) {
+            // persisted statistics are kept per RA profile only, access restricted to specific certificates needs to be evaluated on certificates
+            return certificateStatisticsService.addCertificateStatistics(certificateRepository.findUsingSecurityFilter(filter), dto);
+        }
+        return certificateStatisticsService.addCertificateStatistics(filter.getParentResourceFilter(), dto);
     }
 
     @Override
@@ -922,10 +1005,8 @@ public class CertificateServiceImpl implements CertificateService {
             throw new AlreadyExistException("Certificate already exists with fingerprint " + fingerprint);
         }
         CertificateUtil.prepareCertificate(entity, x509Cert);
-        CertificateContent certificateContent = checkAddCertificateContent(fingerprint, X509ObjectToString.toPem(x509Cert));
         entity.setFingerprint(fingerprint);
-        entity.setCertificateContent(certificateContent);
-        entity.setCertificateContentId(certificateContent.getId());
+        entity.setCertificateContent(checkAddCertificateContent(fingerprint, x509Cert));
         certificateRepository.save(entity);
         metadataService.createMetadataDefinitions(null, meta);
         metadataService.createMetadata(null, entity.getUuid(), null, null, meta, Resource.CERTIFICATE, null);
@@ -943,25 +1024,6 @@ public class CertificateServiceImpl implements CertificateService {
         return certificates.stream().map(Certificate::mapToListDto).filter(c -> c.isPrivateKeyAvailability()).collect(Collectors.toList());
     }
 
-    private String getExpiryTime(Date now, Date expiry) {
-        long diffInMillies = expiry.getTime() - now.getTime();
-        long difference = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
-        if (diffInMillies <= 0) {
-            return "expired";
-        } else if (difference < 10) {
-            return "10";
-        } else if (difference < 20) {
-            return "20";
-        } else if (difference < 30) {
-            return "30";
-        } else if (difference < 60) {
-            return "60";
-        } else if (difference < 90) {
-            return "90";
-        }
-        return "More";
-    }
-
 
     @Deprecated
     private List<SearchFieldDataDto> getSearchableFieldsMap() {
@@ -1039,11 +1101,12 @@ public class CertificateServiceImpl implements CertificateService {
         return certificateResponseDto;
     }
 
-    private List<CertificateComplianceResultDto> frameComplianceResult(CertificateComplianceStorageDto storageDto) {
-        logger.debug("Framing Compliance Result from stored data: {}", storageDto);
+    private List<CertificateComplianceResultDto> frameComplianceResult(List<UUID> nokRuleUuids) {
+        logger.debug("Framing Compliance Result from stored non compliant rules: {}", nokRuleUuids);
         List<CertificateComplianceResultDto> result = new ArrayList<>();
-        List<ComplianceProfileRule> rules = complianceService.getComplianceProfileRuleEntityForIds(storageDto.getNok());
-        List<ComplianceRule> rulesWithoutAttributes = complianceService.getComplianceRuleEntityForIds(storageDto.getNok());
+        List<String> ruleUuids = nokRuleUuids.stream().map(UUID::toString).collect(Collectors.toList());
+        List<ComplianceProfileRule> rules = complianceService.getComplianceProfileRuleEntityForIds(ruleUuids);
+        List<ComplianceRule> rulesWithoutAttributes = complianceService.getComplianceRuleEntityForIds(ruleUuids);
         for (ComplianceProfileRule complianceRule : rules) {
             result.add(getCertificateComplianceResultDto(complianceRule, ComplianceRuleStatus.NOK));
         }
@@ -1149,25 +1212,20 @@ public class CertificateServiceImpl implements CertificateService {
 
     private List<String> downloadChainFromAia(Certificate certificate) {
         List<String> chainCertificates = new ArrayList<>();
-        String oldChainUrl = "";
-        String chainUrl;
+        Set<String> chainUrls = new HashSet<>();
         try {
             X509Certificate certX509 = getX509(certificate.getCertificateContent().getContent());
             while (true) {
-                chainUrl = OcspUtil.getChainFromAia(certX509);
-                if (oldChainUrl.equals(chainUrl)) {
-                    break;
-                }
-                oldChainUrl = chainUrl;
-                if (chainUrl == null || chainUrl.isEmpty()) {
+                String chainUrl = OcspUtil.getChainFromAia(certX509);
+                if (chainUrl == null || chainUrl.isEmpty() || !chainUrls.add(chainUrl)) {
                     break;
                 }
-                String chainContent = downloadChain(chainUrl);
-                if (chainContent.equals("")) {
+                X509Certificate issuer = authorityInformationAccessService.getIssuerCertificate(chainUrl);
+                if (issuer == null) {
                     break;
                 }
-                chainCertificates.add(chainContent);
-                certX509 = getX509(chainContent);
+                chainCertificates.add(Base64.getEncoder().encodeToString(issuer.getEncoded()));
+                certX509 = issuer;
             }
 
         } catch (Exception e) {
@@ -1176,40 +1234,6 @@ public class CertificateServiceImpl implements CertificateService {
         return chainCertificates;
     }
 
-    private String downloadChain(String chainUrl) {
-        try {
-            URL url = new URL(chainUrl);
-            URLConnection urlConnection = url.openConnection();
-            urlConnection.setConnectTimeout(1000);
-            urlConnection.setReadTimeout(1000);
-            String fileName = chainUrl.split("/")[chainUrl.split("/").length - 1];
-            try (InputStream in = url.openStream();
-                 ReadableByteChannel rbc = Channels.newChannel(in);
-                 FileOutputStream fos = new FileOutputStream(fileName)) {
-                fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-                return "";
-            }
-            CertificateFactory fac = CertificateFactory.getInstance("X509");
-            FileInputStream is = new FileInputStream(fileName);
-            X509Certificate cert = (X509Certificate) fac.generateCertificate(is);
-            final StringWriter writer = new StringWriter();
-            final JcaPEMWriter pemWriter = new JcaPEMWriter(writer);
-            pemWriter.writeObject(cert);
-            pemWriter.flush();
-            pemWriter.close();
-            writer.close();
-            is.close();
-            Path path = Paths.get(fileName);
-            Files.deleteIfExists(path);
-            return writer.toString();
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        }
-        return "";
-    }
-
     private void updateRaProfile(SecuredUUID uuid, SecuredUUID raProfileUuid) throws NotFoundException {
         Certificate certificate = getCertificateEntity(uuid);
         RaProfile raProfile = raProfileRepository.findByUuid(raProfileUuid)
@@ -1275,6 +1299,8 @@ public class CertificateServiceImpl implements CertificateService {
             }
             String profileUpdateQuery = "UPDATE Certificate c SET c.raProfile = " + raProfile.getUuid() + searchService.getCompleteSearchQuery(request.getFilters(), "certificate", data, getSearchableFieldInformation(), true, false).replace("GROUP BY c.id ORDER BY c.id DESC", "");
             certificateRepository.bulkUpdateQuery(profileUpdateQuery);
+            // bulk update bypasses the recording of the statistic changes
+            certificateStatisticsService.recalculateStatistics();
             certificateEventHistoryService.addEventHistoryForRequest(request.getFilters(), "Certificate", getSearchableFieldInformation(), CertificateEvent.UPDATE_RA_PROFILE, CertificateEventStatus.SUCCESS, "RA Profile Name: " + raProfile.getName());
             bulkUpdateRaProfileComplianceCheck(request.getFilters());
         }
@@ -1303,6 +1329,8 @@ public class CertificateServiceImpl implements CertificateService {
             }
             String groupUpdateQuery = "UPDATE Certificate c SET c.group = " + group.getUuid() + searchService.getCompleteSearchQuery(request.getFilters(), "certificate", data, getSearchableFieldInformation(), true, false).replace("GROUP BY c.id ORDER BY c.id DESC", "");
             certificateRepository.bulkUpdateQuery(groupUpdateQuery);
+            // bulk update bypasses the recording of the statistic changes
+            certificateStatisticsService.recalculateStatistics();
             certificateEventHistoryService.addEventHistoryForRequest(request.getFilters(), "Certificate", getSearchableFieldInformation(), CertificateEvent.UPDATE_GROUP, CertificateEventStatus.SUCCESS, "Group Name: " + group.getName());
         }
     }
@@ -0,0 +1,350 @@
+package com.czertainly.core.service.impl;
+
+import com.czertainly.api.model.client.dashboard.StatisticsDto;
+import com.czertainly.api.model.core.certificate.CertificateStatus;
+import com.czertainly.api.model.core.certificate.CertificateType;
+import com.czertainly.api.model.core.compliance.ComplianceStatus;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.Group;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.CertificateStatisticRepository;
+import com.czertainly.core.dao.repository.GroupRepository;
+import com.czertainly.core.dao.repository.RaProfileRepository;
+import com.czertainly.core.enums.CertificateStatisticDimensionEnum;
+import com.czertainly.core.model.CertificateStatisticKey;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+import com.czertainly.core.service.CertificateStatisticsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class CertificateStatisticsServiceImpl implements CertificateStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateStatisticsServiceImpl.class);
+
+    private static final String UNKNOWN = "Unknown";
+
+    // upper bounds in days of the expiry intervals shown on the dashboard
+    private static final int[] EXPIRY_INTERVALS = {10, 20, 30, 60, 90};
+
+    private static final Map<String, String> COMPLIANCE_STATUS_LABELS = Map.of(
+            "NA", "Not Checked",
+            "OK", "Compliant",
+            "NOK", "Non Compliant"
+    );
+
+    private static final UUID NO_RA_PROFILE = UUID.fromString(CertificateStatisticRepository.NO_RA_PROFILE);
+
+    private static final Comparator<CertificateStatisticKey> STATISTIC_KEY_ORDER = Comparator
+            .comparing(CertificateStatisticKey::getRaProfileUuid, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(CertificateStatisticKey::getDimension)
+            .thenComparing(CertificateStatisticKey::getValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CertificateStatisticRepository certificateStatisticRepository;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private RaProfileRepository raProfileRepository;
+
+    @Override
+    public Set<CertificateStatisticKey> getStatisticKeys(Certificate certificate) {
+        return CertificateStatisticKey.getKeys(certificate.getRaProfileUuid(), certificate.getGroupUuid(), certificate.getKeySize(), certificate.getStatus(),
+                certificate.getComplianceStatus(), certificate.getCertificateType(), certificate.getBasicConstraints());
+    }
+
+    @Override
+    public void recordChange(Set<CertificateStatisticKey> removedKeys, Set<CertificateStatisticKey> addedKeys) {
+        final Map<CertificateStatisticKey, Long> changes = new HashMap<>();
+        for (CertificateStatisticKey key : removedKeys) {
+            if (!addedKeys.contains(key)) changes.merge(key, -1L, Long::sum);
+        }
+        for (CertificateStatisticKey key : addedKeys) {
+            if (!removedKeys.contains(key)) changes.merge(key, 1L, Long::sum);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            writeChanges(changes);
+            return;
+        }
+        final Map<CertificateStatisticKey, Long> transactionChanges = getTransactionChanges(true);
+        for (Map.Entry<CertificateStatisticKey, Long> change : changes.entrySet()) {
+            transactionChanges.merge(change.getKey(), change.getValue(), Long::sum);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void trackChanges() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            getTransactionChanges(true);
+        }
+    }
+
+    @Override
+    public void reconcileStatistics() {
+        // statistics are recalculated by a single instance, the others skip the reconciliation
+        if (!certificateStatisticRepository.tryAdvisoryLock(CertificateStatisticRepository.RECALCULATION_LOCK_KEY)) {
+            logger.info("Certificate statistics are reconciled by another instance");
+            return;
+        }
+        logger.info("Reconciling the certificate statistics");
+        final int count = recalculate();
+        logger.info("Certificate statistics reconciled, {} counters written", count);
+    }
+
+    @Override
+    public void recalculateStatistics() {
+        recalculate();
+    }
+
+    @Override
+    public StatisticsDto addCertificateStatistics(SecurityResourceFilter raProfileFilter, StatisticsDto dto) {
+        final Map<CertificateStatisticKey, Long> counts = new HashMap<>();
+        for (Object[] row : certificateStatisticRepository.findCounts()) {
+            final CertificateStatisticKey key = getStatisticKey(row);
+            if (isRaProfileAllowed(raProfileFilter, key.getRaProfileUuid())) {
+                counts.merge(key, ((Number) row[3]).longValue(), Long::sum);
+            }
+        }
+
+        // expiry interval depends on the current time, it is counted by the database for every request
+        final Map<String, Long> expiryStat = new HashMap<>();
+        final Date currentTime = new Date();
+        final List<Date> expiryBoundaries = new ArrayList<>();
+        for (int days : EXPIRY_INTERVALS) {
+            expiryBoundaries.add(new Date(currentTime.getTime() + TimeUnit.DAYS.toMillis(days)));
+        }
+        for (Object[] row : certificateRepository.countCertificatesByExpiry(CertificateStatus.NEW, currentTime, expiryBoundaries.get(0),
+                expiryBoundaries.get(1), expiryBoundaries.get(2), expiryBoundaries.get(3), expiryBoundaries.get(4))) {
+            if (!isRaProfileAllowed(raProfileFilter, (UUID) row[0])) {
+                continue;
+            }
+            // counts of the certificates expiring before each boundary, the interval is the difference of the adjacent counts
+            long previous = ((Number) row[2]).longValue();
+            mergeCount(expiryStat, "expired", previous);
+            for (int i = 0; i < EXPIRY_INTERVALS.length; i++) {
+                final long count = ((Number) row[3 + i]).longValue();
+                mergeCount(expiryStat, String.valueOf(EXPIRY_INTERVALS[i]), count - previous);
+                previous = count;
+            }
+            mergeCount(expiryStat, "More", ((Number) row[1]).longValue() - previous);
+        }
+        return fillStatistics(counts, expiryStat, dto);
+    }
+
+    @Override
+    public StatisticsDto addCertificateStatistics(List<Certificate> certificates, StatisticsDto dto) {
+        final Map<CertificateStatisticKey, Long> counts = new HashMap<>();
+        final Map<String, Long> expiryStat = new HashMap<>();
+        final Date currentTime = new Date();
+        for (Certificate certificate : certificates) {
+            for (CertificateStatisticKey key : getStatisticKeys(certificate)) {
+                counts.merge(key, 1L, Long::sum);
+            }
+            if (!CertificateStatus.NEW.equals(certificate.getStatus()) && certificate.getNotAfter() != null) {
+                expiryStat.merge(getExpiryTime(currentTime, certificate.getNotAfter()), 1L, Long::sum);
+            }
+        }
+        return fillStatistics(counts, expiryStat, dto);
+    }
+
+    private int recalculate() {
+        // transactions writing the changes wait for the lock, so their changes are either included in the counts
+        // below or written on top of the recalculated statistics once they are committed
+        certificateStatisticRepository.lockTable();
+
+        // changes recorded so far by the current transaction are flushed and included in the counts
+        entityManager.flush();
+        final Map<CertificateStatisticKey, Long> transactionChanges = getTransactionChanges(false);
+        if (transactionChanges != null) {
+            transactionChanges.clear();
+        }
+
+        final Map<CertificateStatisticKey, Long> counts = new HashMap<>();
+        for (Object[] row : certificateRepository.countCertificatesByStatisticProperties()) {
+            final Set<CertificateStatisticKey> keys = CertificateStatisticKey.getKeys((UUID) row[0], (UUID) row[1], (Integer) row[2], (CertificateStatus) row[3],
+                    (ComplianceStatus) row[4], (CertificateType) row[5], (String) row[6]);
+            for (CertificateStatisticKey key : keys) {
+                counts.merge(key, ((Number) row[7]).longValue(), Long::sum);
+            }
+        }
+
+        certificateStatisticRepository.deleteAllCounts();
+        for (Map.Entry<CertificateStatisticKey, Long> count : counts.entrySet()) {
+            final CertificateStatisticKey key = count.getKey();
+            certificateStatisticRepository.insertCount(UUID.randomUUID(), key.getRaProfileUuid() != null ? key.getRaProfileUuid() : NO_RA_PROFILE,
+                    key.getDimension().name(), key.getValue() != null ? key.getValue() : "", count.getValue());
+        }
+        return counts.size();
+    }
+
+    private Map<CertificateStatisticKey, Long> getTransactionChanges(boolean create) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof StatisticChangesSynchronization statisticChanges) {
+                return statisticChanges.changes;
+            }
+        }
+        if (!create) {
+            return null;
+        }
+        final StatisticChangesSynchronization synchronization = new StatisticChangesSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        return synchronization.changes;
+    }
+
+    private void writeChanges(Map<CertificateStatisticKey, Long> changes) {
+        // counters are written in the same order by all transactions to avoid deadlocks
+        final List<CertificateStatisticKey> keys = new ArrayList<>(changes.keySet());
+        keys.sort(STATISTIC_KEY_ORDER);
+        for (CertificateStatisticKey key : keys) {
+            final long change = changes.get(key);
+            if (change != 0) {
+                writeChange(key, change);
+            }
+        }
+    }
+
+    private void writeChange(CertificateStatisticKey key, long change) {
+        // counters are changed by the database, so the changes written by other transactions at the same time are not lost
+        final UUID raProfileUuid = key.getRaProfileUuid() != null ? key.getRaProfileUuid() : NO_RA_PROFILE;
+        final String dimension = key.getDimension().name();
+        final String value = key.getValue() != null ? key.getValue() : "";
+        if (certificateStatisticRepository.addCount(raProfileUuid, dimension, value, change) == 0 && change > 0
+                && certificateStatisticRepository.insertCount(UUID.randomUUID(), raProfileUuid, dimension, value, change) == 0) {
+            // counter was inserted by another transaction in the meantime
+            certificateStatisticRepository.addCount(raProfileUuid, dimension, value, change);
+        }
+        if (change < 0) {
+            certificateStatisticRepository.deleteEmpty(raProfileUuid, dimension, value);
+        }
+    }
+
+    private CertificateStatisticKey getStatisticKey(Object[] row) {
+        return new CertificateStatisticKey((UUID) row[0], (CertificateStatisticDimensionEnum) row[1], (String) row[2]);
+    }
+
+    private void mergeCount(Map<String, Long> stat, String key, long count) {
+        if (count > 0) {
+            stat.merge(key, count, Long::sum);
+        }
+    }
+
+    private boolean isRaProfileAllowed(SecurityResourceFilter raProfileFilter, UUID raProfileUuid) {
+        if (raProfileFilter == null) {
+            return true;
+        }
+        // same as the security filter query, certificates without RA profile are excluded when RA profiles are restricted
+        if (raProfileFilter.areOnlySpecificObjectsAllowed()) {
+            return raProfileUuid != null && raProfileFilter.getAllowedObjects().contains(raProfileUuid);
+        }
+        if (!raProfileFilter.getForbiddenObjects().isEmpty()) {
+            return raProfileUuid != null && !raProfileFilter.getForbiddenObjects().contains(raProfileUuid);
+        }
+        return true;
+    }
+
+    private StatisticsDto fillStatistics(Map<CertificateStatisticKey, Long> counts, Map<String, Long> expiryStat, StatisticsDto dto) {
+        final Map<String, String> groupNames = groupRepository.findAll().stream().collect(Collectors.toMap(g -> g.getUuid().toString(), Group::getName));
+        final Map<String, String> raProfileNames = raProfileRepository.findAll().stream().collect(Collectors.toMap(r -> r.getUuid().toString(), RaProfile::getName));
+
+        Map<String, Long> groupStat = new HashMap<>();
+        Map<String, Long> raProfileStat = new HashMap<>();
+        Map<String, Long> typeStat = new HashMap<>();
+        Map<String, Long> keySizeStat = new HashMap<>();
+        Map<String, Long> bcStat = new HashMap<>();
+        Map<String, Long> statusStat = new HashMap<>();
+        Map<String, Long> complianceStat = new HashMap<>();
+        for (Map.Entry<CertificateStatisticKey, Long> entry : counts.entrySet()) {
+            final String value = entry.getKey().getValue();
+            final Long count = entry.getValue();
+            switch (entry.getKey().getDimension()) {
+                case GROUP -> groupStat.merge(getName(groupNames, value), count, Long::sum);
+                case RA_PROFILE -> raProfileStat.merge(getName(raProfileNames, value), count, Long::sum);
+                case TYPE -> typeStat.merge(value, count, Long::sum);
+                case KEY_SIZE -> keySizeStat.merge(value, count, Long::sum);
+                case BASIC_CONSTRAINTS -> bcStat.merge(value, count, Long::sum);
+                case STATUS -> statusStat.merge(value, count, Long::sum);
+                case COMPLIANCE_STATUS -> complianceStat.merge(value != null ? COMPLIANCE_STATUS_LABELS.get(value.toUpperCase()) : "Not Checked", count, Long::sum);
+            }
+        }
+        dto.setGroupStatByCertificateCount(groupStat);
+        dto.setRaProfileStatByCertificateCount(raProfileStat);
+        dto.setCertificateStatByType(typeStat);
+        dto.setCertificateStatByKeySize(keySizeStat);
+        dto.setCertificateStatByBasicConstraints(bcStat);
+        dto.setCertificateStatByExpiry(expiryStat);
+        dto.setCertificateStatByStatus(statusStat);
+        dto.setCertificateStatByComplianceStatus(complianceStat);
+        return dto;
+    }
+
+    private String getName(Map<String, String> names, String uuid) {
+        final String name = uuid != null ? names.get(uuid) : null;
+        return name != null ? name : UNKNOWN;
+    }
+
+    private String getExpiryTime(Date now, Date expiry) {
+        long diffInMillies = expiry.getTime() - now.getTime();
+        long difference = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
+        if (diffInMillies <= 0) {
+            return "expired";
+        } else if (difference < 10) {
+            return "10";
+        } else if (difference < 20) {
+            return "20";
+        } else if (difference < 30) {
+            return "30";
+        } else if (difference < 60) {
+            return "60";
+        } else if (difference < 90) {
+            return "90";
+        }
+        return "More";
+    }
+
+    /**
+     * Changes recorded by the transaction, written by the transaction itself just before it is committed,
+     * so they are committed or rolled back together with the certificates
+     */
+    private class StatisticChangesSynchronization implements TransactionSynchronization {
+
+        private final Map<CertificateStatisticKey, Long> changes = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (readOnly) {
+                return;
+            }
+            // certificates changed by the transaction are flushed first, so their changes are recorded as well
+            entityManager.flush();
+            writeChanges(changes);
+            changes.clear();
+        }
+    }
+}
@@ -57,6 +57,9 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
     @Autowired
     private ConnectorRepository connectorRepository;
 
+    @Autowired
+    private CertificateComplianceResultRepository certificateComplianceResultRepository;
+
     @Autowired
     private RaProfileService raProfileService;
 
@@ -409,10 +412,12 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
             if (raProfile.getComplianceProfiles() != null || raProfile.getComplianceProfiles().isEmpty()) {
                 List<Certificate> certificates = certificateService.listCertificatesForRaProfile(raProfile);
                 for (Certificate certificate : certificates) {
-                    certificate.setComplianceResult(null);
                     certificate.setComplianceStatus(null);
                     certificateService.updateCertificateEntity(certificate);
                 }
+                if (!certificates.isEmpty()) {
+                    certificateComplianceResultRepository.deleteByCertificateUuidIn(certificates.stream().map(Certificate::getUuid).collect(Collectors.toList()));
+                }
             } else {
                 try {
                     complianceService.complianceCheckForRaProfile(SecuredUUID.fromString(raProfileUuid));
@@ -642,11 +647,14 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
 
     private void resetComplianceStatus(ComplianceProfile complianceProfile) {
         for (RaProfile raProfile : complianceProfile.getRaProfiles()) {
-            for (Certificate certificate : certificateService.listCertificatesForRaProfileAndNonNullComplianceStatus(raProfile)) {
+            List<Certificate> certificates = certificateService.listCertificatesForRaProfileAndNonNullComplianceStatus(raProfile);
+            for (Certificate certificate : certificates) {
                 certificate.setComplianceStatus(null);
-                certificate.setComplianceResult(null);
                 certificateService.updateCertificateEntity(certificate);
             }
+            if (!certificates.isEmpty()) {
+                certificateComplianceResultRepository.deleteByCertificateUuidIn(certificates.stream().map(Certificate::getUuid).collect(Collectors.toList()));
+            }
         }
     }
 }
@@ -12,23 +12,30 @@ import com.czertainly.api.model.connector.compliance.ComplianceResponseDto;
 import com.czertainly.api.model.connector.compliance.ComplianceResponseRulesDto;
 import com.czertainly.api.model.connector.compliance.ComplianceRulesResponseDto;
 import com.czertainly.api.model.core.auth.Resource;
-import com.czertainly.api.model.core.certificate.CertificateComplianceStorageDto;
 import com.czertainly.api.model.core.certificate.CertificateStatus;
 import com.czertainly.api.model.core.compliance.ComplianceConnectorAndRulesDto;
+import com.czertainly.api.model.core.compliance.ComplianceRuleStatus;
 import com.czertainly.api.model.core.compliance.ComplianceRulesDto;
 import com.czertainly.api.model.core.compliance.ComplianceStatus;
+import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.connector.FunctionGroupCode;
 import com.czertainly.api.model.core.connector.FunctionGroupDto;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
+import com.czertainly.core.model.KeysetCursor;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
+import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
 import com.czertainly.core.service.ComplianceService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -66,6 +73,19 @@ public class ComplianceServiceImpl implements ComplianceService {
     @Autowired
     private ComplianceProfileRuleRepository complianceProfileRuleRepository;
 
+    @Autowired
+    private CertificateContentRepository certificateContentRepository;
+
+    @Autowired
+    private CertificateComplianceResultRepository certificateComplianceResultRepository;
+
+    // Number of certificates checked and saved together, aligned with the JDBC batch size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     //Connector Communication only
     public void addFetchGroupsAndRules(Connector connector) throws ConnectorException {
@@ -114,72 +134,15 @@ public class ComplianceServiceImpl implements ComplianceService {
         }
         logger.debug("Checking the Compliance of the Certificate: {}", certificate);
         RaProfile raProfile = certificate.getRaProfile();
-        CertificateComplianceStorageDto complianceResults = new CertificateComplianceStorageDto();
         if (raProfile == null) {
             logger.warn("Certificate with uuid: {} does not have any RA Profile association", certificate.getUuid());
             return;
         }
-        Set<ComplianceProfile> complianceProfiles = raProfile.getComplianceProfiles();
-        if (complianceProfiles == null || complianceProfiles.isEmpty()) {
+        if (raProfile.getComplianceProfiles() == null || raProfile.getComplianceProfiles().isEmpty()) {
             logger.warn("Certificate with uuid: {} does not have any Compliance Profile association", certificate.getUuid());
             return;
         }
-        for (ComplianceProfile complianceProfile : complianceProfiles) {
-            logger.debug("Applying profile: {}", complianceProfile);
-            Set<ComplianceGroup> applicableGroups = complianceProfile.getGroups();
-            Map<String, List<ComplianceRulesDto>> groupRuleMap = new HashMap<>();
-            for (ComplianceGroup grp : applicableGroups) {
-                groupRuleMap.computeIfAbsent(grp.getConnector().getUuid().toString(), k -> new ArrayList<>()).addAll(grp.getRules().stream().map(ComplianceRule::mapToDto).collect(Collectors.toList()));
-            }
-
-            for (ComplianceConnectorAndRulesDto connector : complianceProfile.mapToDto().getRules()) {
-                logger.debug("Checking for Connector: {}", connector);
-                ComplianceRequestDto complianceRequestDto = new ComplianceRequestDto();
-                complianceRequestDto.setCertificate(certificate.getCertificateContent().getContent());
-                List<ComplianceRulesDto> applicableRules = connector.getRules();
-                if (groupRuleMap.containsKey(connector.getConnectorUuid())) {
-                    applicableRules.addAll(groupRuleMap.get(connector.getConnectorUuid()));
-                }
-                if (applicableRules.isEmpty()) {
-                    logger.debug("Compliance Profile {} does not have any rule for Connector:{}", complianceProfile.getName(), connector.getConnectorName());
-                    setComplianceForCertificate(certificate.getUuid().toString(), ComplianceStatus.NA, complianceResults);
-                    return;
-                }
-                complianceRequestDto.setRules(getComplianceRequestRules(applicableRules));
-                ComplianceResponseDto responseDto = complianceApiClient.checkCompliance(
-                        getConnectorEntity(connector.getConnectorUuid()).mapToDto(),
-                        connector.getKind(),
-                        complianceRequestDto
-                );
-                logger.debug("Certificate Compliance Response from Connector: {}", responseDto);
-
-                for (ComplianceResponseRulesDto rule : responseDto.getRules()) {
-                    ComplianceRule complianceRule = getComplianceRuleEntity(SecuredUUID.fromString(rule.getUuid()),
-                            getConnectorEntity(connector.getConnectorUuid()), connector.getKind());
-                    String complianceProfileRuleUuid = null;
-                    try {
-                        complianceProfileRuleUuid = complianceProfileRuleRepository.findByComplianceProfileAndComplianceRule(complianceProfile, complianceRule)
-                                .orElseThrow(() -> new NotFoundException("Unable to find compliance profile rule for the result")).getUuid().toString();
-                    } catch (NotFoundException e) {
-                        complianceProfileRuleUuid = complianceRule.getUuid().toString();
-                    }
-                    switch (rule.getStatus()) {
-                        case OK:
-                            complianceResults.getOk().add(complianceProfileRuleUuid);
-                            break;
-                        case NOK:
-                            complianceResults.getNok().add(complianceProfileRuleUuid);
-                            break;
-                        case NA:
-                            complianceResults.getNa().add(complianceProfileRuleUuid);
-                    }
-                }
-                logger.debug("Status from the Connector: {}", responseDto.getStatus());
-            }
-        }
-        ComplianceStatus overallStatus = computeOverallComplianceStatus(complianceResults);
-        logger.debug("Overall Status: {}", overallStatus);
-        setComplianceForCertificate(certificate.getUuid().toString(), overallStatus, complianceResults);
+        checkCompliance(List.of(certificate), getComplianceChecks(raProfile));
     }
 
     @Override
@@ -200,8 +163,11 @@ public class ComplianceServiceImpl implements ComplianceService {
         ComplianceProfile complianceProfile = complianceProfileRepository.findByUuid(uuid).orElseThrow(
                 () -> new NotFoundException(ComplianceProfile.class, uuid));
         logger.debug("Checking the compliance for all the Certificates with profile: {}", complianceProfile);
-        Set<RaProfile> raProfiles = complianceProfile.getRaProfiles();
-        for (RaProfile raProfile : raProfiles) {
+        // RA profiles are loaded one by one, the persistence context is cleared after every batch of the checked certificates
+        List<UUID> raProfileUuids = complianceProfile.getRaProfiles().stream().map(RaProfile::getUuid).collect(Collectors.toList());
+        for (UUID raProfileUuid : raProfileUuids) {
+            RaProfile raProfile = raProfileRepository.findByUuid(raProfileUuid)
+                    .orElseThrow(() -> new NotFoundException(RaProfile.class, raProfileUuid));
             complianceCheckForRaProfile(raProfile);
         }
     }
@@ -224,51 +190,24 @@ public class ComplianceServiceImpl implements ComplianceService {
 
     @Override
     public void inCoreComplianceStatusUpdate(UUID ruleUuid) {
-        List<Certificate> certificates = getinCoreComplianceUpdatableCertificates(ruleUuid.toString());
-        for(Certificate certificate: certificates) {
-            removeAndUpdateComplianceStatus(certificate, ruleUuid);
-        }
-    }
-
-    private List<Certificate> getinCoreComplianceUpdatableCertificates(String ruleUuid) {
-        return certificateRepository.findByComplianceResultContaining(ruleUuid);
-    }
-
-    private void removeAndUpdateComplianceStatus(Certificate certificate, UUID ruleUuid) {
-        CertificateComplianceStorageDto complianceResult = certificate.getComplianceResult();
-        List<String> nokResult = complianceResult.getNok();
-        List<String> okResult = complianceResult.getOk();
-        List<String> naResult = complianceResult.getNa();
-        if(nokResult.contains(ruleUuid.toString())) {
-            nokResult.remove(ruleUuid.toString());
-        }
-        if(okResult.contains(ruleUuid.toString())) {
-            okResult.remove(ruleUuid.toString());
-        }
-        if(naResult.contains(ruleUuid.toString())) {
-            naResult.remove(ruleUuid.toString());
+        List<UUID> certificateUuids = certificateComplianceResultRepository.findCertificateUuidsByRuleUuid(ruleUuid);
+        if (certificateUuids.isEmpty()) {
+            return;
         }
+        certificateComplianceResultRepository.deleteByRuleUuid(ruleUuid);
 
-        complianceResult.setNok(nokResult);
-        complianceResult.setOk(okResult);
-        complianceResult.setNa(naResult);
-
-        if(!nokResult.isEmpty()) {
-            certificate.setComplianceStatus(ComplianceStatus.NOK);
+        // overall status of the affected certificates is computed from the results of the remaining rules
+        Map<UUID, Map<UUID, ComplianceRuleStatus>> complianceResults = new HashMap<>();
+        for (CertificateComplianceResult result : certificateComplianceResultRepository.findByCertificateUuidIn(certificateUuids)) {
+            complianceResults.computeIfAbsent(result.getCertificateUuid(), k -> new HashMap<>()).put(result.getRuleUuid(), result.getStatus());
         }
-        else if(nokResult.isEmpty() && !complianceResult.getOk().isEmpty()) {
-            certificate.setComplianceStatus(ComplianceStatus.OK);
-        } else if (nokResult.isEmpty() && complianceResult.getOk().isEmpty()) {
-            certificate.setComplianceStatus(ComplianceStatus.NA);
-        } else {
-            certificate.setComplianceStatus(null);
-            complianceResult = null;
+        List<Certificate> certificates = certificateRepository.findByUuidIn(certificateUuids);
+        for (Certificate certificate : certificates) {
+            certificate.setComplianceStatus(computeOverallComplianceStatus(complianceResults.getOrDefault(certificate.getUuid(), Map.of())));
         }
-        certificate.setComplianceResult(complianceResult);
-        certificateRepository.save(certificate);
+        certificateRepository.saveAll(certificates);
     }
 
-
     public void saveComplianceRule(ComplianceRule complianceRule) {
         complianceRuleRepository.save(complianceRule);
     }
@@ -286,17 +225,149 @@ public class ComplianceServiceImpl implements ComplianceService {
     }
 
     private void complianceCheckForRaProfile(RaProfile raProfile) throws ConnectorException {
-        List<Certificate> certificates = certificateRepository.findByRaProfile(raProfile);
+        if (raProfile.getComplianceProfiles() == null || raProfile.getComplianceProfiles().isEmpty()) {
+            logger.warn("RA Profile {} does not have any Compliance Profile association", raProfile.getName());
+            return;
+        }
+        List<ComplianceProviderCheck> checks = getComplianceChecks(raProfile);
+        UUID raProfileUuid = raProfile.getUuid();
+
+        SecurityFilter filter = SecurityFilter.create();
+        filter.setResourceFilter(SecurityResourceFilter.create());
+
+        // certificates are read page by page using keyset pagination so that all certificates of the RA profile are not loaded at once
+        KeysetCursor cursor = null;
+        List<Certificate> certificates;
+        long checked = 0;
+        do {
+            certificates = certificateRepository.findUsingSecurityFilterByKeyset(filter, (root, cb) -> cb.equal(root.get("raProfileUuid"), raProfileUuid), cursor, batchSize);
+            if (!certificates.isEmpty()) {
+                Certificate last = certificates.get(certificates.size() - 1);
+                cursor = new KeysetCursor(last.getCreated(), last.getUuid());
+            }
+            checkCompliance(certificates, checks);
+            checked += certificates.size();
+
+            // results of the batch are written, the certificates are not needed in the persistence context anymore
+            entityManager.flush();
+            entityManager.clear();
+        } while (certificates.size() == batchSize);
+        logger.debug("Compliance of {} certificates in RA Profile {} checked", checked, raProfileUuid);
+    }
+
+    /**
+     * Check the compliance of the certificates of the same RA profile. Certificates are sent to the compliance providers
+     * one provider after another and the results of all the certificates are saved together. Certificates are given the
+     * status NA and their previous results are removed when the RA profile does not have any applicable rule.
+     *
+     * @param certificates Certificates of the RA profile
+     * @param checks       Compliance rules of the RA profile grouped by the compliance provider
+     * @throws ConnectorException Thrown when there are issues in communicating with the compliance provider
+     */
+    private void checkCompliance(List<Certificate> certificates, List<ComplianceProviderCheck> checks) throws ConnectorException {
+        Map<UUID, Map<UUID, ComplianceRuleStatus>> complianceResults = new LinkedHashMap<>();
+        Map<UUID, Certificate> applicableCertificates = new LinkedHashMap<>();
         for (Certificate certificate : certificates) {
-            checkComplianceOfCertificate(certificate);
+            if (!certificate.getStatus().equals(CertificateStatus.NEW)) {
+                applicableCertificates.put(certificate.getUuid(), certificate);
+                complianceResults.put(certificate.getUuid(), new HashMap<>());
+            }
         }
-    }
+        if (applicableCertificates.isEmpty()) {
+            return;
+        }
+        if (checks.isEmpty()) {
+            logger.debug("No applicable compliance rules, status of {} certificates is set to NA", applicableCertificates.size());
+        }
+
+        // contents of the whole batch are loaded by one query instead of one query per certificate
+        certificateContentRepository.findAllById(applicableCertificates.values().stream().map(Certificate::getCertificateContentId).filter(Objects::nonNull).collect(Collectors.toSet()));
 
-    private void setComplianceForCertificate(String uuid, ComplianceStatus status,
-                                             CertificateComplianceStorageDto result) throws NotFoundException {
-        Certificate certificate = certificateRepository.findByUuid(UUID.fromString(uuid)).orElseThrow(() -> new NotFoundException(Certificate.class, uuid));
-        certificate.setComplianceStatus(status);
-        certificate.setComplianceResult(result);
+        for (ComplianceProviderCheck check : checks) {
+            logger.debug("Checking {} certificates with Connector: {}, Kind: {}", applicableCertificates.size(), check.getConnector().getName(), check.getKind());
+            for (Certificate certificate : applicableCertificates.values()) {
+                ComplianceRequestDto complianceRequestDto = new ComplianceRequestDto();
+                complianceRequestDto.setCertificate(certificate.getCertificateContent().getContent());
+                complianceRequestDto.setRules(check.getRules());
+                ComplianceResponseDto responseDto = complianceApiClient.checkCompliance(check.getConnector(), check.getKind(), complianceRequestDto);
+                logger.debug("Certificate Compliance Response from Connector: {}", responseDto);
+
+                Map<UUID, ComplianceRuleStatus> result = complianceResults.get(certificate.getUuid());
+                for (ComplianceResponseRulesDto rule : responseDto.getRules()) {
+                    // the same rule can be applied through more compliance profiles, the worst result is kept
+                    result.merge(UUID.fromString(check.getResultUuid(rule.getUuid())), rule.getStatus(), ComplianceServiceImpl::worseRuleStatus);
+                }
+            }
+        }
+
+        // previous results of the batch are replaced by one delete statement, new results are inserted in JDBC batches
+        certificateComplianceResultRepository.deleteByCertificateUuidIn(applicableCertificates.keySet());
+        for (Certificate certificate : applicableCertificates.values()) {
+            Map<UUID, ComplianceRuleStatus> result = complianceResults.get(certificate.getUuid());
+            ComplianceStatus overallStatus = computeOverallComplianceStatus(result);
+            logger.debug("Overall Status of the Certificate {}: {}", certificate.getUuid(), overallStatus);
+            certificate.setComplianceStatus(overallStatus);
+            for (Map.Entry<UUID, ComplianceRuleStatus> ruleResult : result.entrySet()) {
+                // results are always new after the delete, persist avoids the select of the merge done by the repository
+                entityManager.persist(new CertificateComplianceResult(certificate.getUuid(), ruleResult.getKey(), ruleResult.getValue()));
+            }
+        }
+        certificateRepository.saveAll(applicableCertificates.values());
+    }
+
+    /**
+     * Prepare the compliance rules of all the compliance profiles of the RA profile, so that the rules and the compliance
+     * profile rules are not looked up for every checked certificate.
+     *
+     * @param raProfile RA profile with the associated compliance profiles
+     * @return Compliance rules grouped by the compliance profile and the compliance provider, ordered by the provider
+     * @throws NotFoundException Thrown when the connector of the compliance rules is not found
+     */
+    private List<ComplianceProviderCheck> getComplianceChecks(RaProfile raProfile) throws NotFoundException {
+        List<ComplianceProviderCheck> checks = new ArrayList<>();
+        Map<String, Connector> connectors = new HashMap<>();
+        Map<String, List<ComplianceRule>> connectorRules = new HashMap<>();
+        for (ComplianceProfile complianceProfile : raProfile.getComplianceProfiles()) {
+            logger.debug("Applying profile: {}", complianceProfile);
+            Map<String, List<ComplianceRulesDto>> groupRuleMap = new HashMap<>();
+            for (ComplianceGroup grp : complianceProfile.getGroups()) {
+                groupRuleMap.computeIfAbsent(grp.getConnector().getUuid().toString(), k -> new ArrayList<>()).addAll(grp.getRules().stream().map(ComplianceRule::mapToDto).collect(Collectors.toList()));
+            }
+            Map<UUID, String> profileRuleUuids = new HashMap<>();
+            for (ComplianceProfileRule complianceProfileRule : complianceProfile.getComplianceRules()) {
+                profileRuleUuids.putIfAbsent(complianceProfileRule.getComplianceRule().getUuid(), complianceProfileRule.getUuid().toString());
+            }
+
+            for (ComplianceConnectorAndRulesDto connectorRulesDto : complianceProfile.mapToDto().getRules()) {
+                List<ComplianceRulesDto> applicableRules = connectorRulesDto.getRules();
+                if (groupRuleMap.containsKey(connectorRulesDto.getConnectorUuid())) {
+                    applicableRules.addAll(groupRuleMap.get(connectorRulesDto.getConnectorUuid()));
+                }
+                // connector without rules does not contribute any result, certificates without results are NA
+                if (applicableRules.isEmpty()) {
+                    logger.debug("Compliance Profile {} does not have any rule for Connector:{}", complianceProfile.getName(), connectorRulesDto.getConnectorName());
+                    continue;
+                }
+
+                Connector connector = connectors.get(connectorRulesDto.getConnectorUuid());
+                if (connector == null) {
+                    connector = getConnectorEntity(connectorRulesDto.getConnectorUuid());
+                    connectors.put(connectorRulesDto.getConnectorUuid(), connector);
+                }
+                final Connector ruleConnector = connector;
+                List<ComplianceRule> rules = connectorRules.computeIfAbsent(connectorRulesDto.getConnectorUuid() + ":" + connectorRulesDto.getKind(),
+                        k -> complianceRuleRepository.findByConnectorAndKind(ruleConnector, connectorRulesDto.getKind()));
+
+                // results are stored under the compliance profile rule, rules added through the groups are stored under the rule itself
+                Map<String, String> resultUuids = new HashMap<>();
+                for (ComplianceRule rule : rules) {
+                    resultUuids.put(rule.getUuid().toString(), profileRuleUuids.getOrDefault(rule.getUuid(), rule.getUuid().toString()));
+                }
+                checks.add(new ComplianceProviderCheck(connector.mapToDto(), connectorRulesDto.getKind(), getComplianceRequestRules(applicableRules), resultUuids));
+            }
+        }
+        checks.sort(Comparator.comparing((ComplianceProviderCheck c) -> c.getConnector().getUuid()).thenComparing(ComplianceProviderCheck::getKind));
+        return checks;
     }
 
     private List<ComplianceRequestRulesDto> getComplianceRequestRules(List<ComplianceRulesDto> rules) {
@@ -316,19 +387,26 @@ public class ComplianceServiceImpl implements ComplianceService {
         return dtos;
     }
 
-    private ComplianceStatus computeOverallComplianceStatus(CertificateComplianceStorageDto dto) {
-        if (!dto.getNok().isEmpty()) {
+    private ComplianceStatus computeOverallComplianceStatus(Map<UUID, ComplianceRuleStatus> results) {
+        if (results.containsValue(ComplianceRuleStatus.NOK)) {
             return ComplianceStatus.NOK;
         }
-        if (dto.getNok().isEmpty() && dto.getOk().isEmpty()) {
-            return ComplianceStatus.NA;
-        }
-        if (!dto.getOk().isEmpty()) {
+        if (results.containsValue(ComplianceRuleStatus.OK)) {
             return ComplianceStatus.OK;
         }
         return ComplianceStatus.NA;
     }
 
+    private static ComplianceRuleStatus worseRuleStatus(ComplianceRuleStatus first, ComplianceRuleStatus second) {
+        if (first == ComplianceRuleStatus.NOK || second == ComplianceRuleStatus.NOK) {
+            return ComplianceRuleStatus.NOK;
+        }
+        if (first == ComplianceRuleStatus.OK || second == ComplianceRuleStatus.OK) {
+            return ComplianceRuleStatus.OK;
+        }
+        return ComplianceRuleStatus.NA;
+    }
+
     private void addGroups(Connector connector, String kind) throws ConnectorException {
         logger.info("Adding groups for the Connector: {}, Kind: {}", connector.getName(), kind);
         List<ComplianceGroupsResponseDto> groups = complianceApiClient.getComplianceGroups(connector.mapToDto(), kind);
@@ -475,4 +553,46 @@ public class ComplianceServiceImpl implements ComplianceService {
         return connectorRepository.findByUuid(UUID.fromString(uuid))
                 .orElseThrow(() -> new NotFoundException(Connector.class, uuid));
     }
+
+    /**
+     * Compliance rules of one compliance profile that are checked by one compliance provider, connector and kind,
+     * together with the identifiers under which the results of the rules are stored.
+     */
+    private static class ComplianceProviderCheck {
+
+        private final ConnectorDto connector;
+
+        private final String kind;
+
+        private final List<ComplianceRequestRulesDto> rules;
+
+        private final Map<String, String> resultUuids;
+
+        private ComplianceProviderCheck(ConnectorDto connector, String kind, List<ComplianceRequestRulesDto> rules, Map<String, String> resultUuids) {
+            this.connector = connector;
+            this.kind = kind;
+            this.rules = rules;
+            this.resultUuids = resultUuids;
+        }
+
+        public ConnectorDto getConnector() {
+            return connector;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public List<ComplianceRequestRulesDto> getRules() {
+            return rules;
+        }
+
+        public String getResultUuid(String ruleUuid) throws NotFoundException {
+            String resultUuid = resultUuids.get(ruleUuid);
+            if (resultUuid == null) {
+                throw new NotFoundException(ComplianceRule.class, ruleUuid);
+            }
+            return resultUuid;
+        }
+    }
 }
@@ -43,15 +43,22 @@ import com.czertainly.core.service.ConnectorAuthService;
 import com.czertainly.core.service.ConnectorService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import com.czertainly.core.util.MetaDefinitions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.Exceptions;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -93,6 +100,45 @@ public class ConnectorServiceImpl implements ConnectorService {
     @Autowired
     private AttributeContent2ObjectRepository attributeContent2ObjectRepository;
 
+    // Time in seconds for which the attribute definitions of the connector are reused, 0 disables the cache
+    @Value("${connector.attribute-definitions.cache.ttl:300}")
+    private long attributeDefinitionCacheTtl;
+
+    // Maximum number of function group and kind combinations of all connectors kept in the cache
+    @Value("${connector.attribute-definitions.cache.max-size:1000}")
+    private int attributeDefinitionCacheMaxSize;
+
+    // Serialized attribute definitions keyed by the connector UUID, function group and kind
+    private final Map<String, CachedAttributeDefinitions> attributeDefinitionCache = new ConcurrentHashMap<>();
+
+    // Version of the cached definitions of each connector. Invalidation increments the version, so the definitions
+    // fetched before the invalidation and stored after it are never served
+    private final Map<UUID, AtomicLong> attributeDefinitionVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong attributeDefinitionCacheHits = new AtomicLong();
+    private final AtomicLong attributeDefinitionCacheMisses = new AtomicLong();
+    private final AtomicLong attributeDefinitionCacheEvictions = new AtomicLong();
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.gets", attributeDefinitionCacheHits, AtomicLong::get)
+                .tags("cache", "connectorAttributeDefinitions", "result", "hit")
+                .description("Number of connector attribute definitions served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", attributeDefinitionCacheMisses, AtomicLong::get)
+                .tags("cache", "connectorAttributeDefinitions", "result", "miss")
+                .description("Number of connector attribute definitions requested from the connector")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", attributeDefinitionCacheEvictions, AtomicLong::get)
+                .tags("cache", "connectorAttributeDefinitions")
+                .description("Number of connector attribute definitions evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", attributeDefinitionCache, Map::size)
+                .tags("cache", "connectorAttributeDefinitions")
+                .description("Number of connector attribute definitions in the cache")
+                .register(meterRegistry);
+    }
+
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.CONNECTOR, operation = OperationType.REQUEST)
     @ExternalAuthorization(resource = Resource.CONNECTOR, action = ResourceAction.LIST)
@@ -198,6 +244,7 @@ public class ConnectorServiceImpl implements ConnectorService {
         setFunctionGroups(functionGroupDtos, connector);
 
         complianceRuleGroupUpdate(connector, false);
+        loadAttributeDefinitions(connector);
 
         attributeService.createAttributeContent(connector.getUuid(), request.getCustomAttributes(), Resource.CONNECTOR);
         ConnectorDto dto = connector.mapToDto();
@@ -236,6 +283,7 @@ public class ConnectorServiceImpl implements ConnectorService {
         setFunctionGroups(request.getFunctionGroups(), connector);
 
         complianceRuleGroupUpdate(connector, false);
+        loadAttributeDefinitions(connector);
         return connector.mapToDto();
     }
 
@@ -273,6 +321,7 @@ public class ConnectorServiceImpl implements ConnectorService {
         connectorRepository.save(connector);
 
         complianceRuleGroupUpdate(connector, true);
+        loadAttributeDefinitions(connector);
 
         attributeService.updateAttributeContent(connector.getUuid(), request.getCustomAttributes(), Resource.CONNECTOR);
         ConnectorDto dto = connector.mapToDto();
@@ -376,6 +425,7 @@ public class ConnectorServiceImpl implements ConnectorService {
                     connector.setStatus(ConnectorStatus.CONNECTED);
                     connectorRepository.save(connector);
                     complianceRuleGroupUpdate(connector, false);
+                    loadAttributeDefinitions(connector);
                 } else {
                     logger.warn("Connector {} has unexpected status {}", connector.getName(), connector.getStatus());
                 }
@@ -404,6 +454,7 @@ public class ConnectorServiceImpl implements ConnectorService {
                 setFunctionGroups(functionGroups, connector);
 
                 complianceRuleGroupUpdate(connector, true);
+                loadAttributeDefinitions(connector);
             } catch (NotFoundException e) {
                 logger.warn("Unable to find the connector with uuid {}", uuid);
             }
@@ -427,6 +478,7 @@ public class ConnectorServiceImpl implements ConnectorService {
         setFunctionGroups(functionGroups, connector);
 
         complianceRuleGroupUpdate(connector, true);
+        loadAttributeDefinitions(connector);
 
         return result;
     }
@@ -514,6 +566,7 @@ public class ConnectorServiceImpl implements ConnectorService {
             connector.setStatus(ConnectorStatus.CONNECTED);
             connectorRepository.save(connector);
             complianceRuleGroupUpdate(connector, false);
+            loadAttributeDefinitions(connector);
         } else {
             throw new ValidationException(ValidationError.create("Connector {} has unexpected status {}", connector.getName(), connector.getStatus()));
         }
@@ -537,7 +590,7 @@ public class ConnectorServiceImpl implements ConnectorService {
 
         validateFunctionGroup(connector, functionGroup);
 
-        return attributeApiClient.listAttributeDefinitions(connector.mapToDto(), functionGroup, functionGroupType);
+        return getAttributeDefinitions(connector, functionGroup, functionGroupType);
     }
 
     @Override
@@ -562,7 +615,7 @@ public class ConnectorServiceImpl implements ConnectorService {
         Connector connector = connectorRepository.findByUuid(uuid)
                 .orElseThrow(() -> new NotFoundException(Connector.class, uuid));
 
-        List<BaseAttribute> definitions = attributeApiClient.listAttributeDefinitions(connector.mapToDto(), functionGroup, functionGroupType);
+        List<BaseAttribute> definitions = getAttributeDefinitions(connector, functionGroup, functionGroupType);
         List<String> existingAttributesFromConnector = definitions.stream().map(BaseAttribute::getName).collect(Collectors.toList());
         for (RequestAttributeDto requestAttributeDto : attributes) {
             if (!existingAttributesFromConnector.contains(requestAttributeDto.getName())) {
@@ -590,13 +643,44 @@ public class ConnectorServiceImpl implements ConnectorService {
         for (FunctionGroupDto fg : connector.mapToDto().getFunctionGroups()) {
             Map<String, List<BaseAttribute>> kindsAttribute = new HashMap<>();
             for (String kind : fg.getKinds()) {
-                kindsAttribute.put(kind, attributeApiClient.listAttributeDefinitions(connector.mapToDto(), fg.getFunctionGroupCode(), kind));
+                kindsAttribute.put(kind, getAttributeDefinitions(connector, fg.getFunctionGroupCode(), kind));
             }
             attributes.put(fg.getFunctionGroupCode(), kindsAttribute);
         }
         return attributes;
     }
 
+    @Override
+    public List<BaseAttribute> getAttributeDefinitions(Connector connector, FunctionGroupCode functionGroup, String kind) throws ConnectorException {
+        if (attributeDefinitionCacheTtl <= 0) {
+            return attributeApiClient.listAttributeDefinitions(connector.mapToDto(), functionGroup, kind);
+        }
+
+        String cacheKey = getAttributeDefinitionCacheKey(connector.getUuid(), functionGroup, kind);
+        long version = attributeDefinitionVersions.computeIfAbsent(connector.getUuid(), k -> new AtomicLong()).get();
+        CachedAttributeDefinitions cachedDefinitions = attributeDefinitionCache.get(cacheKey);
+        if (cachedDefinitions != null && cachedDefinitions.getVersion() == version && !cachedDefinitions.isExpired()) {
+            attributeDefinitionCacheHits.incrementAndGet();
+            // definitions are deserialized for every caller, callers are free to modify the returned list
+            return AttributeDefinitionUtils.deserialize(cachedDefinitions.getDefinitions(), BaseAttribute.class);
+        }
+
+        attributeDefinitionCacheMisses.incrementAndGet();
+        List<BaseAttribute> definitions = attributeApiClient.listAttributeDefinitions(connector.mapToDto(), functionGroup, kind);
+        if (definitions != null) {
+            cacheAttributeDefinitions(cacheKey, connector.getUuid(), version, AttributeDefinitionUtils.serialize(definitions));
+        }
+        return definitions;
+    }
+
+    @Override
+    public void invalidateAttributeDefinitionCache(UUID connectorUuid) {
+        attributeDefinitionVersions.computeIfAbsent(connectorUuid, k -> new AtomicLong()).incrementAndGet();
+        int size = attributeDefinitionCache.size();
+        attributeDefinitionCache.values().removeIf(cachedDefinitions -> cachedDefinitions.getConnectorUuid().equals(connectorUuid));
+        attributeDefinitionCacheEvictions.addAndGet(Math.max(0, size - attributeDefinitionCache.size()));
+    }
+
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.CONNECTOR, operation = OperationType.DELETE)
     @ExternalAuthorization(resource = Resource.CONNECTOR, action = ResourceAction.DELETE)
@@ -752,6 +836,44 @@ public class ConnectorServiceImpl implements ConnectorService {
         connector2FunctionGroupRepository.deleteAll(connector2FunctionGroups);
         attributeService.deleteAttributeContent(connector.getUuid(), Resource.CONNECTOR);
         connectorRepository.delete(connector);
+        invalidateAttributeDefinitionCache(connector.getUuid());
+    }
+
+    /**
+     * Replace the cached attribute definitions of the connector with the definitions of all its function groups and kinds.
+     * Connector that is not available yet keeps the cache empty and the definitions are requested on first use.
+     */
+    private void loadAttributeDefinitions(Connector connector) {
+        invalidateAttributeDefinitionCache(connector.getUuid());
+        if (attributeDefinitionCacheTtl <= 0 || ConnectorStatus.WAITING_FOR_APPROVAL.equals(connector.getStatus())) {
+            return;
+        }
+
+        for (FunctionGroupDto fg : connector.mapToDto().getFunctionGroups()) {
+            for (String kind : fg.getKinds()) {
+                try {
+                    getAttributeDefinitions(connector, fg.getFunctionGroupCode(), kind);
+                } catch (Exception e) {
+                    logger.warn("Unable to load attribute definitions of connector {} for function group {} and kind {}: {}", connector.getName(), fg.getFunctionGroupCode(), kind, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void cacheAttributeDefinitions(String cacheKey, UUID connectorUuid, long version, String definitions) {
+        if (attributeDefinitionCache.size() >= attributeDefinitionCacheMaxSize) {
+            int size = attributeDefinitionCache.size();
+            attributeDefinitionCache.values().removeIf(CachedAttributeDefinitions::isExpired);
+            if (attributeDefinitionCache.size() >= attributeDefinitionCacheMaxSize) {
+                attributeDefinitionCache.clear();
+            }
+            attributeDefinitionCacheEvictions.addAndGet(Math.max(0, size - attributeDefinitionCache.size()));
+        }
+        attributeDefinitionCache.put(cacheKey, new CachedAttributeDefinitions(connectorUuid, version, definitions, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(attributeDefinitionCacheTtl)));
+    }
+
+    private String getAttributeDefinitionCacheKey(UUID connectorUuid, FunctionGroupCode functionGroup, String kind) {
+        return connectorUuid + "|" + functionGroup.getCode() + "|" + kind;
     }
 
     private void complianceRuleGroupUpdate(Connector connector, Boolean update) {
@@ -876,4 +998,38 @@ public class ConnectorServiceImpl implements ConnectorService {
         }
         return connectorDtos;
     }
+
+    private static class CachedAttributeDefinitions {
+
+        private final UUID connectorUuid;
+
+        private final long version;
+
+        private final String definitions;
+
+        private final long expiresAt;
+
+        private CachedAttributeDefinitions(UUID connectorUuid, long version, String definitions, long expiresAt) {
+            this.connectorUuid = connectorUuid;
+            this.version = version;
+            this.definitions = definitions;
+            this.expiresAt = expiresAt;
+        }
+
+        public UUID getConnectorUuid() {
+            return connectorUuid;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getDefinitions() {
+            return definitions;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
 }
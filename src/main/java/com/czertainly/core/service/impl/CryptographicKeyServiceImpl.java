@@ -50,6 +50,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -174,23 +175,20 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
         filter.setParentRefProperty("tokenInstanceReferenceUuid");
         RequestValidatorHelper.revalidateSearchRequestDto(request);
 
-        final List<UUID> objectUUIDs = new ArrayList<>();
+        final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
         if (!request.getFilters().isEmpty()) {
-            final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
             searchFieldObjects.addAll(getSearchFieldObjectForMetadata());
             searchFieldObjects.addAll(getSearchFieldObjectForCustomAttributes());
-
-            final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(searchFieldObjects, request.getFilters(), entityManager.getCriteriaBuilder(), Resource.CRYPTOGRAPHIC_KEY);
-            objectUUIDs.addAll(cryptographicKeyRepository.findUsingSecurityFilterByCustomCriteriaQuery(filter, criteriaQueryDataObject.getRoot(), criteriaQueryDataObject.getCriteriaQuery(), criteriaQueryDataObject.getPredicate()));
         }
 
+        final Specification<CryptographicKeyItem> specification = (root, query, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, query, searchFieldObjects, Resource.CRYPTOGRAPHIC_KEY);
         final Pageable p = PageRequest.of(request.getPageNumber() - 1, request.getItemsPerPage());
-        final List<KeyItemDto> listedKeyDtos = cryptographicKeyItemRepository.findUsingSecurityFilter(filter, (root, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, objectUUIDs), p, (root, cb) -> cb.desc(root.get("cryptographicKey").get("created")))
+        final List<KeyItemDto> listedKeyDtos = cryptographicKeyItemRepository.findUsingSecurityFilterBySpecification(filter, specification, p, (root, cb) -> cb.desc(root.get("cryptographicKey").get("created")))
                 .stream()
                 .map(CryptographicKeyItem::mapToSummaryDto)
                 .collect(Collectors.toList());
 
-        final Long maxItems = cryptographicKeyItemRepository.countUsingSecurityFilter(filter, (root, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root));
+        final Long maxItems = cryptographicKeyItemRepository.countUsingSecurityFilterBySpecification(filter, specification);
         final CryptographicKeyResponseDto responseDto = new CryptographicKeyResponseDto();
         responseDto.setCryptographicKeys(listedKeyDtos);
         responseDto.setItemsPerPage(request.getItemsPerPage());
@@ -851,6 +849,18 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
         return null;
     }
 
+    @Override
+    public Map<String, UUID> findKeysByFingerprints(Collection<String> fingerprints) {
+        Map<String, UUID> keys = new HashMap<>();
+        if (fingerprints.isEmpty()) {
+            return keys;
+        }
+        for (CryptographicKeyItem item : cryptographicKeyItemRepository.findByFingerprintIn(fingerprints)) {
+            keys.putIfAbsent(item.getFingerprint(), item.getCryptographicKeyUuid());
+        }
+        return keys;
+    }
+
     @Override
     public List<NameAndUuidDto> listResourceObjects(SecurityFilter filter) {
         return null;
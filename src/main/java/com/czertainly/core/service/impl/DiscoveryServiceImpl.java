@@ -21,6 +21,7 @@ import com.czertainly.api.model.core.audit.OperationType;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.certificate.CertificateEvent;
 import com.czertainly.api.model.core.certificate.CertificateEventStatus;
+import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.connector.FunctionGroupCode;
 import com.czertainly.api.model.core.discovery.DiscoveryStatus;
 import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
@@ -41,22 +42,30 @@ import com.czertainly.core.util.*;
 import com.czertainly.core.util.converter.Sql2PredicateConverter;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.cert.X509Certificate;
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -65,7 +74,6 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiscoveryServiceImpl.class);
     private static final Integer MAXIMUM_CERTIFICATES_PER_PAGE = 100;
-    private static final Integer SLEEP_TIME = 5 * 1000; // Seconds * Milliseconds - Retry of discovery for every 5 Seconds
     private static final Long MAXIMUM_WAIT_TIME = (long) (6 * 60 * 60); // Hours * Minutes * Seconds
     @Autowired
     private DiscoveryRepository discoveryRepository;
@@ -93,10 +101,33 @@ public class DiscoveryServiceImpl implements DiscoveryService {
     private AttributeService attributeService;
     @Autowired
     private AttributeContentRepository attributeContentRepository;
+    @Autowired
+    private CertificateEventHistoryRepository certificateEventHistoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("threadPoolTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    // Number of discovered certificates stored together, aligned with the JDBC batch size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    // Interval in seconds of the first status check of a running discovery, repeated while the provider reports new certificates
+    @Value("${discovery.polling.min-interval:5}")
+    private long minPollInterval;
+
+    // Maximum interval in seconds between the status checks of a running discovery without any progress
+    @Value("${discovery.polling.max-interval:60}")
+    private long maxPollInterval;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Discoveries waiting for the completion in the discovery provider
+    private final Map<UUID, DiscoveryProgress> runningDiscoveries = new ConcurrentHashMap<>();
+
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.DISCOVERY, operation = OperationType.REQUEST)
     @ExternalAuthorization(resource = Resource.DISCOVERY, action = ResourceAction.LIST)
@@ -105,22 +136,18 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         RequestValidatorHelper.revalidateSearchRequestDto(request);
         final Pageable p = PageRequest.of(request.getPageNumber() - 1, request.getItemsPerPage());
 
-        final List<UUID> objectUUIDs = new ArrayList<>();
+        final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
         if (!request.getFilters().isEmpty()) {
-            final List<SearchFieldObject> searchFieldObjects = new ArrayList<>();
             searchFieldObjects.addAll(getSearchFieldObjectForMetadata());
             searchFieldObjects.addAll(getSearchFieldObjectForCustomAttributes());
-
-            final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(searchFieldObjects, request.getFilters(), entityManager.getCriteriaBuilder(), Resource.DISCOVERY);
-            objectUUIDs.addAll(certificateRepository.findUsingSecurityFilterByCustomCriteriaQuery(filter, criteriaQueryDataObject.getRoot(), criteriaQueryDataObject.getCriteriaQuery(), criteriaQueryDataObject.getPredicate()));
         }
 
-        final BiFunction<Root<DiscoveryHistory>, CriteriaBuilder, Predicate> additionalWhereClause = (root, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, objectUUIDs);
-        final List<DiscoveryHistoryDto> listedDiscoveriesDTOs = discoveryRepository.findUsingSecurityFilter(filter, additionalWhereClause, p, (root, cb) -> cb.desc(root.get("created")))
+        final Specification<DiscoveryHistory> specification = (root, query, cb) -> Sql2PredicateConverter.mapSearchFilter2Predicates(request.getFilters(), cb, root, query, searchFieldObjects, Resource.DISCOVERY);
+        final List<DiscoveryHistoryDto> listedDiscoveriesDTOs = discoveryRepository.findUsingSecurityFilterBySpecification(filter, specification, p, (root, cb) -> cb.desc(root.get("created")))
                 .stream()
                 .map(DiscoveryHistory::mapToListDto)
                 .collect(Collectors.toList());
-        final Long maxItems = discoveryRepository.countUsingSecurityFilter(filter, additionalWhereClause);
+        final Long maxItems = discoveryRepository.countUsingSecurityFilterBySpecification(filter, specification);
 
         final DiscoveryResponseDto responseDto = new DiscoveryResponseDto();
         responseDto.setDiscoveries(listedDiscoveriesDTOs);
@@ -260,69 +287,136 @@ public class DiscoveryServiceImpl implements DiscoveryService {
             modal.setDiscoveryConnectorReference(response.getUuid());
             discoveryRepository.save(modal);
 
-            DiscoveryDataRequestDto getRequest = new DiscoveryDataRequestDto();
-            getRequest.setName(response.getName());
-            getRequest.setKind(request.getKind());
-            getRequest.setStartIndex(0);
-            getRequest.setEndIndex(MAXIMUM_CERTIFICATES_PER_PAGE);
-
-            Boolean waitForCompletion = checkForCompletion(response);
-            boolean isReachedMaxTime = false;
-            int oldCertificateCount = 0;
-            while (waitForCompletion) {
-                if (modal.getDiscoveryConnectorReference() == null) {
-                    return;
-                }
-                logger.debug("Waiting {}ms.", SLEEP_TIME);
-                Thread.sleep(SLEEP_TIME);
-
-                response = discoveryApiClient.getDiscoveryData(connector.mapToDto(), getRequest, response.getUuid());
-
-                if ((modal.getStartTime().getTime() - new Date().getTime()) / 1000 > MAXIMUM_WAIT_TIME
-                        && !isReachedMaxTime && oldCertificateCount == response.getTotalCertificatesDiscovered()) {
-                    isReachedMaxTime = true;
-                    modal.setStatus(DiscoveryStatus.WARNING);
-                    modal.setMessage(
-                            "Discovery exceeded maximum time of " + MAXIMUM_WAIT_TIME / (60 * 60) + " hours. There are no changes in number of certificates discovered. Please abort the discovery if the provider is stuck in IN_PROGRESS");
-                }
-                discoveryRepository.save(modal);
-                oldCertificateCount = response.getTotalCertificatesDiscovered();
-                waitForCompletion = checkForCompletion(response);
-            }
-
-            Integer currentTotal = 0;
-            Set<DiscoveryProviderCertificateDataDto> certificatesDiscovered = new HashSet<>();
-            while (currentTotal < response.getTotalCertificatesDiscovered()) {
-                getRequest.setStartIndex(currentTotal);
-                getRequest.setEndIndex(currentTotal + MAXIMUM_CERTIFICATES_PER_PAGE);
-                response = discoveryApiClient.getDiscoveryData(connector.mapToDto(), getRequest, response.getUuid());
-                if (response.getCertificateData().size() > MAXIMUM_CERTIFICATES_PER_PAGE) {
-                    response.setStatus(DiscoveryStatus.FAILED);
-                    updateDiscovery(modal, response);
-                    logger.error("Too many content in response. Maximum processable is " + MAXIMUM_CERTIFICATES_PER_PAGE);
-                    throw new InterruptedException(
-                            "Too many content in response to process. Maximum processable is " + MAXIMUM_CERTIFICATES_PER_PAGE);
-                }
-                currentTotal += MAXIMUM_CERTIFICATES_PER_PAGE;
-                certificatesDiscovered.addAll(response.getCertificateData());
+            DiscoveryProgress progress = new DiscoveryProgress(modal.getUuid(), connector.mapToDto(), response.getUuid(),
+                    response.getName(), request.getKind(), SecurityContextHolder.getContext());
+            if (checkForCompletion(response)) {
+                // the executor thread is released, status of the discovery is checked by the scheduled polling
+                progress.scheduleNextPoll(minPollInterval);
+                runningDiscoveries.put(modal.getUuid(), progress);
+                logger.debug("Discovery {} is in progress, next status check in {}s.", modal.getName(), minPollInterval);
+                return;
             }
 
-            updateDiscovery(modal, response);
-            List<Certificate> certificates = updateCertificates(certificatesDiscovered, modal);
-            certValidationService.validateCertificates(certificates);
+            downloadDiscoveredCertificates(modal, progress, response);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            modal.setStatus(DiscoveryStatus.FAILED);
-            modal.setMessage(e.getMessage());
-            discoveryRepository.save(modal);
-            logger.error(e.getMessage());
+            failDiscovery(modal, e);
         } catch (Exception e) {
+            failDiscovery(modal, e);
+        }
+    }
 
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedDiscoveries() {
+        // running discoveries are tracked only in the memory, their status can no longer be checked after the restart
+        for (DiscoveryHistory modal : discoveryRepository.findByStatus(DiscoveryStatus.IN_PROGRESS)) {
             modal.setStatus(DiscoveryStatus.FAILED);
-            modal.setMessage(e.getMessage());
+            modal.setMessage("Discovery was interrupted by the restart of the platform");
             discoveryRepository.save(modal);
-            logger.error(e.getMessage());
+            logger.warn("Discovery {} was interrupted by the restart of the platform.", modal.getName());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void pollRunningDiscoveries() {
+        long now = System.currentTimeMillis();
+        for (DiscoveryProgress progress : runningDiscoveries.values()) {
+            if (!progress.startPolling(now)) {
+                continue;
+            }
+            try {
+                taskExecutor.execute(new DelegatingSecurityContextRunnable(() -> pollDiscovery(progress), progress.getSecurityContext()));
+            } catch (TaskRejectedException e) {
+                logger.debug("Executor is busy, status of the discovery {} will be checked later.", progress.getDiscoveryUuid());
+                progress.scheduleNextPoll(progress.getPollInterval());
+            }
+        }
+    }
+
+    private void pollDiscovery(DiscoveryProgress progress) {
+        // status is checked again with the same interval unless the discovery is finished below
+        long nextPollInterval = progress.getPollInterval();
+        boolean finished = false;
+        try {
+            DiscoveryHistory modal = discoveryRepository.findByUuid(progress.getDiscoveryUuid()).orElse(null);
+            if (modal == null) {
+                // discovery was deleted in the meantime, there is nothing to wait for
+                finished = true;
+                return;
+            }
+
+            try {
+                DiscoveryProviderDto response = discoveryApiClient.getDiscoveryData(progress.getConnector(),
+                        progress.getDataRequest(0, MAXIMUM_CERTIFICATES_PER_PAGE), progress.getConnectorReference());
+
+                if (checkForCompletion(response)) {
+                    boolean unchanged = progress.getCertificateCount() == response.getTotalCertificatesDiscovered();
+                    if ((new Date().getTime() - modal.getStartTime().getTime()) / 1000 > MAXIMUM_WAIT_TIME
+                            && !progress.isMaxTimeReached() && unchanged) {
+                        progress.setMaxTimeReached();
+                        modal.setStatus(DiscoveryStatus.WARNING);
+                        modal.setMessage(
+                                "Discovery exceeded maximum time of " + MAXIMUM_WAIT_TIME / (60 * 60) + " hours. There are no changes in number of certificates discovered. Please abort the discovery if the provider is stuck in IN_PROGRESS");
+                        discoveryRepository.save(modal);
+                    }
+                    progress.setCertificateCount(response.getTotalCertificatesDiscovered());
+
+                    // check often while the provider is discovering new certificates, back off while nothing changes
+                    nextPollInterval = unchanged ? Math.min(progress.getPollInterval() * 2, maxPollInterval) : minPollInterval;
+                    logger.debug("Discovery {} is in progress, next status check in {}s.", modal.getName(), nextPollInterval);
+                    return;
+                }
+
+                finished = true;
+                downloadDiscoveredCertificates(modal, progress, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = true;
+                failDiscovery(modal, e);
+            } catch (Exception e) {
+                finished = true;
+                failDiscovery(modal, e);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unable to check the status of the discovery {}: {}", progress.getDiscoveryUuid(), e.getMessage());
+        } finally {
+            if (finished) {
+                runningDiscoveries.remove(progress.getDiscoveryUuid());
+            } else {
+                progress.scheduleNextPoll(nextPollInterval);
+            }
+        }
+    }
+
+    private void downloadDiscoveredCertificates(DiscoveryHistory modal, DiscoveryProgress progress, DiscoveryProviderDto response) throws ConnectorException, InterruptedException {
+        int currentTotal = 0;
+        Set<DiscoveryProviderCertificateDataDto> certificatesDiscovered = new HashSet<>();
+        while (currentTotal < response.getTotalCertificatesDiscovered()) {
+            response = discoveryApiClient.getDiscoveryData(progress.getConnector(),
+                    progress.getDataRequest(currentTotal, currentTotal + MAXIMUM_CERTIFICATES_PER_PAGE), progress.getConnectorReference());
+            if (response.getCertificateData().size() > MAXIMUM_CERTIFICATES_PER_PAGE) {
+                response.setStatus(DiscoveryStatus.FAILED);
+                updateDiscovery(modal, response);
+                logger.error("Too many content in response. Maximum processable is " + MAXIMUM_CERTIFICATES_PER_PAGE);
+                throw new InterruptedException(
+                        "Too many content in response to process. Maximum processable is " + MAXIMUM_CERTIFICATES_PER_PAGE);
+            }
+            currentTotal += MAXIMUM_CERTIFICATES_PER_PAGE;
+            certificatesDiscovered.addAll(response.getCertificateData());
         }
+
+        updateDiscovery(modal, response);
+        List<Certificate> certificates = updateCertificates(certificatesDiscovered, modal);
+        certValidationService.validateCertificates(certificates);
+    }
+
+    private void failDiscovery(DiscoveryHistory modal, Exception e) {
+        modal.setStatus(DiscoveryStatus.FAILED);
+        modal.setMessage(e.getMessage());
+        discoveryRepository.save(modal);
+        logger.error(e.getMessage());
     }
 
     @Override
@@ -384,35 +478,97 @@ public class DiscoveryServiceImpl implements DiscoveryService {
             return allCerts;
         }
 
-        for (DiscoveryProviderCertificateDataDto certificate : certificatesDiscovered) {
+        // parsing does not touch the database and runs in parallel, certificates discovered multiple times are merged
+        Map<String, DiscoveredCertificate> discoveredCertificates = new LinkedHashMap<>();
+        certificatesDiscovered.parallelStream()
+                .map(certificate -> parseDiscoveredCertificate(certificate, modal))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+                .forEach(certificate -> discoveredCertificates.merge(certificate.getFingerprint(), certificate, DiscoveredCertificate::merge));
+
+        List<DiscoveredCertificate> certificates = new ArrayList<>(discoveredCertificates.values());
+        for (int i = 0; i < certificates.size(); i += batchSize) {
+            List<DiscoveredCertificate> batch = certificates.subList(i, Math.min(i + batchSize, certificates.size()));
             try {
-                X509Certificate x509Cert = CertificateUtil.parseCertificate(certificate.getBase64Content());
-                boolean existingCertificate = certificateRepository.existsByFingerprint(CertificateUtil.getThumbprint(x509Cert.getEncoded()));
-                Certificate entry = certificateService.createCertificateEntity(x509Cert);
-                allCerts.add(entry);
-                createDiscoveryCertificate(entry, modal, !existingCertificate);
-                certificateService.updateCertificateEntity(entry);
-                updateMeta(entry, certificate, modal);
-                Map<String, Object> additionalInfo = new HashMap<>();
-                additionalInfo.put("Discovery Name", modal.getName());
-                additionalInfo.put("Discovery UUID", modal.getUuid());
-                additionalInfo.put("Discovery Connector Name", modal.getConnectorName());
-                additionalInfo.put("Discovery Kind", modal.getKind());
-                certificateEventHistoryService.addEventHistory(
-                        CertificateEvent.DISCOVERY,
-                        CertificateEventStatus.SUCCESS,
-                        "Discovered from Connector: " + modal.getConnectorName() + " via discovery: " + modal.getName(),
-                        MetaDefinitions.serialize(additionalInfo),
-                        entry
-                );
+                allCerts.addAll(transactionTemplate.execute(status -> updateCertificatesBatch(batch, modal)));
             } catch (Exception e) {
-                logger.error(e.getMessage());
-                logger.error("Unable to create certificate for " + modal.toString());
+                // one certificate that cannot be stored fails the whole batch, the batch was rolled back and its
+                // certificates are stored one by one, so only the failing certificates are skipped
+                logger.warn("Unable to create {} certificates for {} together, creating them one by one: {}", batch.size(), modal, e.getMessage());
+                for (DiscoveredCertificate certificate : batch) {
+                    try {
+                        allCerts.addAll(transactionTemplate.execute(status -> updateCertificatesBatch(List.of(certificate), modal)));
+                    } catch (Exception ex) {
+                        logger.error(ex.getMessage());
+                        logger.error("Unable to create certificate with fingerprint {} for {}", certificate.getFingerprint(), modal);
+                    }
+                }
             }
         }
         return allCerts;
     }
 
+    private DiscoveredCertificate parseDiscoveredCertificate(DiscoveryProviderCertificateDataDto certificate, DiscoveryHistory modal) {
+        try {
+            X509Certificate x509Cert = CertificateUtil.parseCertificate(certificate.getBase64Content());
+            return new DiscoveredCertificate(CertificateUtil.getThumbprint(x509Cert.getEncoded()), x509Cert, certificate);
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+            logger.error("Unable to parse certificate for " + modal.toString());
+            return null;
+        }
+    }
+
+    private List<Certificate> updateCertificatesBatch(List<DiscoveredCertificate> batch, DiscoveryHistory modal) {
+        Map<String, Certificate> entries = new HashMap<>();
+        for (Certificate certificate : certificateRepository.findByFingerprintIn(batch.stream().map(DiscoveredCertificate::getFingerprint).collect(Collectors.toList()))) {
+            entries.put(certificate.getFingerprint(), certificate);
+        }
+        Set<String> existingFingerprints = new HashSet<>(entries.keySet());
+
+        Map<String, X509Certificate> newCertificates = new LinkedHashMap<>();
+        for (DiscoveredCertificate certificate : batch) {
+            if (!existingFingerprints.contains(certificate.getFingerprint())) {
+                newCertificates.put(certificate.getFingerprint(), certificate.getX509Certificate());
+            }
+        }
+        for (Certificate certificate : certificateService.createCertificateEntities(newCertificates)) {
+            entries.put(certificate.getFingerprint(), certificate);
+        }
+
+        Map<String, Object> additionalInfo = new HashMap<>();
+        additionalInfo.put("Discovery Name", modal.getName());
+        additionalInfo.put("Discovery UUID", modal.getUuid());
+        additionalInfo.put("Discovery Connector Name", modal.getConnectorName());
+        additionalInfo.put("Discovery Kind", modal.getKind());
+        String additionalInformation = MetaDefinitions.serialize(additionalInfo);
+        String message = "Discovered from Connector: " + modal.getConnectorName() + " via discovery: " + modal.getName();
+
+        List<Certificate> batchCerts = new ArrayList<>();
+        List<DiscoveryCertificate> discoveryCertificates = new ArrayList<>();
+        List<CertificateEventHistory> eventHistories = new ArrayList<>();
+        for (DiscoveredCertificate certificate : batch) {
+            Certificate entry = entries.get(certificate.getFingerprint());
+            batchCerts.add(entry);
+            discoveryCertificates.add(createDiscoveryCertificate(entry, modal, !existingFingerprints.contains(certificate.getFingerprint())));
+            eventHistories.add(certificateEventHistoryService.getEventHistory(CertificateEvent.DISCOVERY, CertificateEventStatus.SUCCESS, message, additionalInformation, entry));
+        }
+        discoveryCertificateRepository.saveAll(discoveryCertificates);
+
+        Map<UUID, List<MetadataAttribute>> metadata = new HashMap<>();
+        for (DiscoveredCertificate certificate : batch) {
+            for (DiscoveryProviderCertificateDataDto certificateData : certificate.getCertificateData()) {
+                if (certificateData.getMeta() != null) {
+                    metadata.computeIfAbsent(entries.get(certificate.getFingerprint()).getUuid(), k -> new ArrayList<>()).addAll(certificateData.getMeta());
+                }
+            }
+        }
+        metadataService.createMetadata(modal.getConnectorUuid(), metadata, modal.getUuid(), modal.getName(), Resource.CERTIFICATE, Resource.DISCOVERY);
+        certificateEventHistoryRepository.saveAll(eventHistories);
+
+        return batchCerts;
+    }
+
     private void updateCertificateIssuers(List<Certificate> certificates) {
         for (Certificate certificate : certificates) {
             try {
@@ -423,7 +579,7 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         }
     }
 
-    private void createDiscoveryCertificate(Certificate entry, DiscoveryHistory modal, boolean newlyDiscovered) {
+    private DiscoveryCertificate createDiscoveryCertificate(Certificate entry, DiscoveryHistory modal, boolean newlyDiscovered) {
         DiscoveryCertificate discoveryCertificate = new DiscoveryCertificate();
         discoveryCertificate.setCommonName(entry.getCommonName());
         discoveryCertificate.setSerialNumber(entry.getSerialNumber());
@@ -433,12 +589,7 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         discoveryCertificate.setCertificateContent(entry.getCertificateContent());
         discoveryCertificate.setDiscovery(modal);
         discoveryCertificate.setNewlyDiscovered(newlyDiscovered);
-        discoveryCertificateRepository.save(discoveryCertificate);
-    }
-
-    private void updateMeta(Certificate modal, DiscoveryProviderCertificateDataDto certificate, DiscoveryHistory history) {
-        metadataService.createMetadataDefinitions(history.getConnectorUuid(), certificate.getMeta());
-        metadataService.createMetadata(history.getConnectorUuid(), modal.getUuid(), history.getUuid(), history.getName(), certificate.getMeta(), Resource.CERTIFICATE, Resource.DISCOVERY);
+        return discoveryCertificate;
     }
 
     @Override
@@ -493,4 +644,133 @@ public class DiscoveryServiceImpl implements DiscoveryService {
     private List<SearchFieldObject> getSearchFieldObjectForCustomAttributes() {
         return attributeContentRepository.findDistinctAttributeContentNamesByAttrTypeAndObjType(Resource.DISCOVERY, AttributeType.CUSTOM);
     }
+
+    private static class DiscoveredCertificate {
+
+        private final String fingerprint;
+
+        private final X509Certificate x509Certificate;
+
+        private final List<DiscoveryProviderCertificateDataDto> certificateData = new ArrayList<>();
+
+        private DiscoveredCertificate(String fingerprint, X509Certificate x509Certificate, DiscoveryProviderCertificateDataDto certificateData) {
+            this.fingerprint = fingerprint;
+            this.x509Certificate = x509Certificate;
+            this.certificateData.add(certificateData);
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public X509Certificate getX509Certificate() {
+            return x509Certificate;
+        }
+
+        public List<DiscoveryProviderCertificateDataDto> getCertificateData() {
+            return certificateData;
+        }
+
+        public DiscoveredCertificate merge(DiscoveredCertificate other) {
+            certificateData.addAll(other.certificateData);
+            return this;
+        }
+    }
+
+    /**
+     * State of a discovery that is running in the discovery provider. The discovery is waiting for its next status
+     * check, or it is being polled by one of the executor threads.
+     */
+    private static class DiscoveryProgress {
+
+        private final UUID discoveryUuid;
+
+        private final ConnectorDto connector;
+
+        private final String connectorReference;
+
+        private final String name;
+
+        private final String kind;
+
+        private final SecurityContext securityContext;
+
+        private boolean polling;
+
+        private long nextPollAt;
+
+        private long pollInterval;
+
+        private int certificateCount;
+
+        private boolean maxTimeReached;
+
+        private DiscoveryProgress(UUID discoveryUuid, ConnectorDto connector, String connectorReference, String name, String kind, SecurityContext securityContext) {
+            this.discoveryUuid = discoveryUuid;
+            this.connector = connector;
+            this.connectorReference = connectorReference;
+            this.name = name;
+            this.kind = kind;
+            this.securityContext = securityContext;
+        }
+
+        public UUID getDiscoveryUuid() {
+            return discoveryUuid;
+        }
+
+        public ConnectorDto getConnector() {
+            return connector;
+        }
+
+        public String getConnectorReference() {
+            return connectorReference;
+        }
+
+        public SecurityContext getSecurityContext() {
+            return securityContext;
+        }
+
+        public DiscoveryDataRequestDto getDataRequest(int startIndex, int endIndex) {
+            DiscoveryDataRequestDto request = new DiscoveryDataRequestDto();
+            request.setName(name);
+            request.setKind(kind);
+            request.setStartIndex(startIndex);
+            request.setEndIndex(endIndex);
+            return request;
+        }
+
+        public synchronized long getPollInterval() {
+            return pollInterval;
+        }
+
+        public synchronized int getCertificateCount() {
+            return certificateCount;
+        }
+
+        public synchronized void setCertificateCount(int certificateCount) {
+            this.certificateCount = certificateCount;
+        }
+
+        public synchronized boolean isMaxTimeReached() {
+            return maxTimeReached;
+        }
+
+        public synchronized void setMaxTimeReached() {
+            this.maxTimeReached = true;
+        }
+
+        public synchronized boolean startPolling(long now) {
+            if (polling || now < nextPollAt) {
+                return false;
+            }
+            polling = true;
+            return true;
+        }
+
+        public synchronized void scheduleNextPoll(long interval) {
+            polling = false;
+            pollInterval = interval;
+            nextPollAt = System.currentTimeMillis() + interval * 1000;
+        }
+    }
 }
@@ -1,7 +1,7 @@
 package com.czertainly.core.service.impl;
 
-import com.czertainly.api.model.core.audit.ExportResultDto;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.czertainly.core.model.ExportResource;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
@@ -9,12 +9,16 @@ import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -46,51 +50,64 @@ public class ExportProcessor {
     @Value("${export.zip:true}")
     private Boolean isZipped;
 
-    public <T> ExportResultDto generateExport(String fileNamePrefix, List<T> data) {
-        ExportResultDto result = new ExportResultDto();
-
+    /**
+     * Write the data as CSV into a temporary file, zipped when configured. Rows are written one by one as they
+     * are read from the stream, so the memory used by the export does not depend on the number of rows.
+     *
+     * @param fileNamePrefix Prefix of the name of the exported file
+     * @param type           Type of the exported rows, used to create the CSV schema
+     * @param data           Rows to be exported
+     * @return Export to be read once
+     */
+    public <T> ExportResource generateExport(String fileNamePrefix, Class<T> type, Stream<T> data) {
         String fileNameDateTime = LocalDateTime.now().format(EXPORT_DATE_TIME_FORMAT);
         String fileName = String.format("%s_%s.csv", fileNamePrefix, fileNameDateTime);
 
-        if (data == null || data.isEmpty()) {
-            result.setFileContent(new byte[0]);
-            return result;
-        }
-
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream();
-             OutputStreamWriter osWriter = new OutputStreamWriter(os, encoding)) {
-
-            CsvSchema schema = CSV_MAPPER.schemaFor(data.get(0).getClass())
-                    .withColumnSeparator(separator)
-                    .withLineSeparator(lineEnding)
-                    .withUseHeader(isHeaderIncluded)
-                    .withQuoteChar('"')
-                    .withEscapeChar('\\');
-
-            ObjectWriter writer = CSV_MAPPER.writer()
-                    .with(schema);
-
-            writer.writeValue(osWriter, data);
-
-            if (isZipped) {
-                try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                     ZipOutputStream zos = new ZipOutputStream(bos)) {
+        CsvSchema schema = CSV_MAPPER.schemaFor(type)
+                .withColumnSeparator(separator)
+                .withLineSeparator(lineEnding)
+                .withUseHeader(isHeaderIncluded)
+                .withQuoteChar('"')
+                .withEscapeChar('\\');
+
+        Path path = null;
+        try {
+            path = Files.createTempFile(fileNamePrefix, isZipped ? ".zip" : ".csv");
+            try (OutputStream fileOutputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+                OutputStream os = fileOutputStream;
+                if (isZipped) {
+                    ZipOutputStream zos = new ZipOutputStream(fileOutputStream);
                     zos.putNextEntry(new ZipEntry(fileName));
-                    zos.write(os.toByteArray());
-                    zos.closeEntry();
-                    zos.finish();
-                    zos.flush();
+                    os = zos;
+                }
 
-                    result.setFileName(String.format("%s_%s.zip", fileNamePrefix, fileNameDateTime));
-                    result.setFileContent(bos.toByteArray());
+                // closing the sequence writer closes the writer and output streams and finishes the zip
+                try (SequenceWriter writer = CSV_MAPPER.writer(schema).writeValues(new OutputStreamWriter(os, encoding))) {
+                    Iterator<T> iterator = data.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                    }
                 }
-            } else {
-                result.setFileName(fileName);
-                result.setFileContent(os.toByteArray());
             }
         } catch (IOException e) {
+            deleteTempFile(path);
             throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            deleteTempFile(path);
+            throw e;
+        }
+
+        return new ExportResource(isZipped ? String.format("%s_%s.zip", fileNamePrefix, fileNameDateTime) : fileName, path);
+    }
+
+    private void deleteTempFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // temporary file that cannot be deleted is left to the system
         }
-        return result;
     }
 }
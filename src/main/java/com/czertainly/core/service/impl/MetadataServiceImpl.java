@@ -7,7 +7,6 @@ import com.czertainly.api.model.common.attribute.v2.AttributeType;
 import com.czertainly.api.model.common.attribute.v2.MetadataAttribute;
 import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
 import com.czertainly.api.model.common.attribute.v2.content.BaseAttributeContent;
-import com.czertainly.api.model.common.attribute.v2.properties.MetadataAttributeProperties;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.core.dao.entity.AttributeContent;
 import com.czertainly.core.dao.entity.AttributeContent2Object;
@@ -17,6 +16,7 @@ import com.czertainly.core.dao.repository.AttributeContent2ObjectRepository;
 import com.czertainly.core.dao.repository.AttributeContentRepository;
 import com.czertainly.core.dao.repository.AttributeDefinitionRepository;
 import com.czertainly.core.service.MetadataService;
+import com.czertainly.core.util.AttributeContentHashUtil;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,33 +55,28 @@ public class MetadataServiceImpl implements MetadataService {
 
     @Override
     public void createMetadataDefinitions(UUID connectorUuid, List<MetadataAttribute> metadataDefinitions) {
-        if (metadataDefinitions == null) {
+        if (metadataDefinitions == null || metadataDefinitions.isEmpty()) {
             return;
         }
-        for (MetadataAttribute metadataAttribute : metadataDefinitions) {
-            if (metadataAttribute.getProperties() != null && metadataAttribute.getProperties().isGlobal()) {
-                Optional<AttributeDefinition> definition = metadataDefinitionRepository.findByTypeAndAttributeNameAndGlobalAndContentType(metadataAttribute.getType(), metadataAttribute.getName(), true, metadataAttribute.getContentType());
-                if (definition.isPresent()) continue;
-            }
-            if (!metadataDefinitionRepository.existsByConnectorUuidAndAttributeUuidAndTypeAndContentType(connectorUuid, UUID.fromString(metadataAttribute.getUuid()), metadataAttribute.getType(), metadataAttribute.getContentType())) {
-                AttributeDefinition definition = metadataDefinitionRepository.findByConnectorUuidAndAttributeNameAndAttributeUuidAndTypeAndContentType(connectorUuid, metadataAttribute.getName(), null, metadataAttribute.getType(), metadataAttribute.getContentType()).orElse(null);
-                if (definition != null) {
-                    definition.setAttributeUuid(UUID.fromString(metadataAttribute.getUuid()));
-                } else {
-                    createMetadataDefinition(connectorUuid, metadataAttribute);
-                }
-            }
-        }
+        createMetadataDefinitions(connectorUuid, metadataDefinitions, loadMetadataDefinitions(connectorUuid));
     }
 
     @Override
     public void createMetadata(UUID connectorUuid, UUID objectUuid, UUID sourceObjectUuid, String sourceObjectName, List<MetadataAttribute> metadata, Resource resource, Resource sourceObjectResource) {
-        if (metadata == null) {
+        if (metadata == null || metadata.isEmpty()) {
             return;
         }
-        for (MetadataAttribute metadataAttribute : metadata) {
-            createMetadataContent(metadataAttribute.getName(), metadataAttribute.getContentType(), connectorUuid, objectUuid, UUID.fromString(metadataAttribute.getUuid()), sourceObjectUuid, sourceObjectName, metadataAttribute.getContent(), resource, sourceObjectResource, metadataAttribute.getProperties());
+        createMetadataContents(connectorUuid, Map.of(objectUuid, metadata), sourceObjectUuid, sourceObjectName, resource, sourceObjectResource, loadMetadataDefinitions(connectorUuid));
+    }
+
+    @Override
+    public void createMetadata(UUID connectorUuid, Map<UUID, List<MetadataAttribute>> metadata, UUID sourceObjectUuid, String sourceObjectName, Resource resource, Resource sourceObjectResource) {
+        if (metadata == null || metadata.isEmpty()) {
+            return;
         }
+        final ConnectorMetadataDefinitions definitions = loadMetadataDefinitions(connectorUuid);
+        createMetadataDefinitions(connectorUuid, metadata.values().stream().flatMap(Collection::stream).collect(Collectors.toList()), definitions);
+        createMetadataContents(connectorUuid, metadata, sourceObjectUuid, sourceObjectName, resource, sourceObjectResource, definitions);
     }
 
     @Override
@@ -210,7 +205,37 @@ public class MetadataServiceImpl implements MetadataService {
         return metadataResponses;
     }
 
-    private void createMetadataDefinition(UUID connectorUuid, MetadataAttribute attribute) {
+    private ConnectorMetadataDefinitions loadMetadataDefinitions(UUID connectorUuid) {
+        return new ConnectorMetadataDefinitions(
+                metadataDefinitionRepository.findByGlobalAndType(true, AttributeType.META),
+                metadataDefinitionRepository.findByConnectorUuidAndType(connectorUuid, AttributeType.META)
+        );
+    }
+
+    private void createMetadataDefinitions(UUID connectorUuid, List<MetadataAttribute> metadataDefinitions, ConnectorMetadataDefinitions definitions) {
+        final List<AttributeDefinition> newDefinitions = new ArrayList<>();
+        for (MetadataAttribute metadataAttribute : metadataDefinitions) {
+            if (metadataAttribute.getProperties() != null && metadataAttribute.getProperties().isGlobal()
+                    && definitions.getGlobalDefinition(metadataAttribute.getName(), metadataAttribute.getContentType()) != null) {
+                continue;
+            }
+            final UUID attributeUuid = UUID.fromString(metadataAttribute.getUuid());
+            if (definitions.getConnectorDefinition(attributeUuid, metadataAttribute.getContentType()) != null) {
+                continue;
+            }
+            AttributeDefinition definition = definitions.removeDefinitionWithoutAttributeUuid(metadataAttribute.getName(), metadataAttribute.getContentType());
+            if (definition != null) {
+                definition.setAttributeUuid(attributeUuid);
+            } else {
+                definition = createMetadataDefinition(connectorUuid, metadataAttribute);
+                newDefinitions.add(definition);
+            }
+            definitions.addConnectorDefinition(definition);
+        }
+        metadataDefinitionRepository.saveAll(newDefinitions);
+    }
+
+    private AttributeDefinition createMetadataDefinition(UUID connectorUuid, MetadataAttribute attribute) {
         AttributeDefinition definition = new AttributeDefinition();
         definition.setAttributeDefinition(attribute);
         definition.setAttributeName(attribute.getName());
@@ -219,43 +244,135 @@ public class MetadataServiceImpl implements MetadataService {
         definition.setContentType(attribute.getContentType());
         definition.setType(AttributeType.META);
         definition.setGlobal(false);
-        metadataDefinitionRepository.save(definition);
+        return definition;
     }
 
-    private void createMetadataContent(final String attributeName, final AttributeContentType contentType, final UUID connectorUuid, final UUID objectUuid, final UUID attributeUuid, final UUID sourceObjectUuid, final String sourceObjectName, final List<BaseAttributeContent> metadata, final Resource resource, final Resource sourceObjectResource, final MetadataAttributeProperties properties) {
-        AttributeDefinition definition = null;
-        if (properties != null && properties.isGlobal()) {
-            definition = metadataDefinitionRepository.findByTypeAndAttributeNameAndGlobalAndContentType(AttributeType.META, attributeName, true, contentType).orElse(null);
+    private void createMetadataContents(final UUID connectorUuid, final Map<UUID, List<MetadataAttribute>> metadata, final UUID sourceObjectUuid, final String sourceObjectName, final Resource resource, final Resource sourceObjectResource, final ConnectorMetadataDefinitions definitions) {
+        // resolve the definition and content hash of the metadata first, so the identical content is looked up only once
+        final Map<UUID, List<Map.Entry<AttributeDefinition, List<BaseAttributeContent>>>> objectContents = new HashMap<>();
+        final Set<UUID> definitionUuids = new HashSet<>();
+        final Set<String> contentHashes = new HashSet<>();
+        for (Map.Entry<UUID, List<MetadataAttribute>> entry : metadata.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            for (MetadataAttribute metadataAttribute : entry.getValue()) {
+                AttributeDefinition definition = null;
+                if (metadataAttribute.getProperties() != null && metadataAttribute.getProperties().isGlobal()) {
+                    definition = definitions.getGlobalDefinition(metadataAttribute.getName(), metadataAttribute.getContentType());
+                }
+                if (definition == null) {
+                    definition = definitions.getConnectorDefinition(UUID.fromString(metadataAttribute.getUuid()), metadataAttribute.getContentType());
+                }
+                if (definition == null) {
+                    logger.warn("Definition of the metadata attribute {} from connector {} does not exist", metadataAttribute.getName(), connectorUuid);
+                    continue;
+                }
+                objectContents.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(Map.entry(definition, metadataAttribute.getContent()));
+                definitionUuids.add(definition.getUuid());
+                contentHashes.add(AttributeContentHashUtil.calculateContentHash(metadataAttribute.getContent()));
+            }
+        }
+        if (objectContents.isEmpty()) {
+            return;
+        }
+
+        final Map<String, AttributeContent> contents = new HashMap<>();
+        for (AttributeContent content : metadataContentRepository.findByAttributeDefinitionUuidInAndContentHashIn(definitionUuids, contentHashes)) {
+            contents.put(content.getAttributeDefinitionUuid() + content.getContentHash(), content);
         }
-        if (definition == null) {
-            definition = metadataDefinitionRepository.findByConnectorUuidAndAttributeUuid(connectorUuid, attributeUuid).orElse(null);
+        final List<AttributeContent> newContents = new ArrayList<>();
+        for (List<Map.Entry<AttributeDefinition, List<BaseAttributeContent>>> objectContent : objectContents.values()) {
+            for (Map.Entry<AttributeDefinition, List<BaseAttributeContent>> entry : objectContent) {
+                contents.computeIfAbsent(entry.getKey().getUuid() + AttributeContentHashUtil.calculateContentHash(entry.getValue()),
+                        k -> createMetadataContent(entry.getKey(), entry.getValue(), newContents));
+            }
+        }
+        metadataContentRepository.saveAll(newContents);
+
+        // objects reported by the connector again are already linked to the content
+        final Set<String> existingLinks = new HashSet<>();
+        for (AttributeContent2Object metadata2Object : metadata2ObjectRepository.findByObjectUuidInAndObjectType(objectContents.keySet(), resource)) {
+            existingLinks.add(metadata2Object.getObjectUuid() + ":" + metadata2Object.getAttributeContentUuid() + ":" + metadata2Object.getSourceObjectUuid());
+        }
+        final List<AttributeContent2Object> metadata2Objects = new ArrayList<>();
+        for (Map.Entry<UUID, List<Map.Entry<AttributeDefinition, List<BaseAttributeContent>>>> objectContent : objectContents.entrySet()) {
+            for (Map.Entry<AttributeDefinition, List<BaseAttributeContent>> entry : objectContent.getValue()) {
+                final AttributeContent content = contents.get(entry.getKey().getUuid() + AttributeContentHashUtil.calculateContentHash(entry.getValue()));
+                if (!existingLinks.add(objectContent.getKey() + ":" + content.getUuid() + ":" + sourceObjectUuid)) {
+                    continue;
+                }
+                final AttributeContent2Object metadata2Object = new AttributeContent2Object();
+                metadata2Object.setObjectUuid(objectContent.getKey());
+                metadata2Object.setObjectType(resource);
+                metadata2Object.setSourceObjectUuid(sourceObjectUuid);
+                metadata2Object.setSourceObjectName(sourceObjectName);
+                metadata2Object.setSourceObjectType(sourceObjectResource);
+                metadata2Object.setConnectorUuid(connectorUuid);
+                metadata2Object.setAttributeContent(content);
+                metadata2Objects.add(metadata2Object);
+            }
+        }
+        metadata2ObjectRepository.saveAll(metadata2Objects);
+        logger.debug("Created {} new metadata contents and {} links to the objects", newContents.size(), metadata2Objects.size());
+    }
+
+    /**
+     * Create the metadata content. Identical content can be created by a concurrent transaction, its content is used
+     * when the row already exists.
+     *
+     * @param definition            Definition of the metadata
+     * @param baseAttributeContents Content of the metadata
+     * @param newContents           Created contents whose items need to be saved
+     * @return Stored metadata content
+     */
+    private AttributeContent createMetadataContent(final AttributeDefinition definition, final List<BaseAttributeContent> baseAttributeContents, final List<AttributeContent> newContents) {
+        final String contentHash = AttributeContentHashUtil.calculateContentHash(baseAttributeContents);
+        final boolean inserted = metadataContentRepository.insertContent(UUID.randomUUID(), definition.getUuid(), contentHash) > 0;
+        final AttributeContent content = metadataContentRepository.findByAttributeDefinitionUuidAndContentHash(definition.getUuid(), contentHash).orElseThrow();
+        if (inserted) {
+            content.addAttributeContent(baseAttributeContents);
+            newContents.add(content);
         }
+        return content;
+    }
+
+    /**
+     * Metadata definitions available for the connector, loaded once for all the metadata reported by the connector
+     */
+    private static class ConnectorMetadataDefinitions {
+
+        private final Map<String, AttributeDefinition> globalDefinitions = new HashMap<>();
+        private final Map<String, AttributeDefinition> connectorDefinitions = new HashMap<>();
+        private final Map<String, AttributeDefinition> definitionsWithoutAttributeUuid = new HashMap<>();
 
-        AttributeContent existingContent = null;
-        final List<AttributeContent> attributeContentList = metadataContentRepository.findByBaseAttributeContentAndAttributeDefinition(metadata, definition);
-        for (final AttributeContent ac : attributeContentList) {
-            if (ac.getAttributeContentItems().size() == metadata.size()) {
-                existingContent = ac;
+        private ConnectorMetadataDefinitions(List<AttributeDefinition> globalDefinitions, List<AttributeDefinition> connectorDefinitions) {
+            for (AttributeDefinition definition : globalDefinitions) {
+                this.globalDefinitions.putIfAbsent(definition.getAttributeName() + ":" + definition.getContentType(), definition);
+            }
+            for (AttributeDefinition definition : connectorDefinitions) {
+                if (definition.getAttributeUuid() == null) {
+                    definitionsWithoutAttributeUuid.putIfAbsent(definition.getAttributeName() + ":" + definition.getContentType(), definition);
+                } else {
+                    addConnectorDefinition(definition);
+                }
             }
         }
 
-        final AttributeContent2Object metadata2Object = new AttributeContent2Object();
-        metadata2Object.setObjectUuid(objectUuid);
-        metadata2Object.setObjectType(resource);
-        metadata2Object.setSourceObjectUuid(sourceObjectUuid);
-        metadata2Object.setSourceObjectName(sourceObjectName);
-        metadata2Object.setSourceObjectType(sourceObjectResource);
-        metadata2Object.setConnectorUuid(connectorUuid);
-
-        if (existingContent != null) {
-            metadata2Object.setAttributeContent(existingContent);
-        } else {
-            final AttributeContent content = new AttributeContent();
-            content.addAttributeContent(metadata);
-            content.setAttributeDefinition(definition);
-            metadataContentRepository.save(content);
-            metadata2Object.setAttributeContent(content);
+        private AttributeDefinition getGlobalDefinition(String attributeName, AttributeContentType contentType) {
+            return globalDefinitions.get(attributeName + ":" + contentType);
+        }
+
+        private AttributeDefinition getConnectorDefinition(UUID attributeUuid, AttributeContentType contentType) {
+            return connectorDefinitions.get(attributeUuid + ":" + contentType);
+        }
+
+        private AttributeDefinition removeDefinitionWithoutAttributeUuid(String attributeName, AttributeContentType contentType) {
+            return definitionsWithoutAttributeUuid.remove(attributeName + ":" + contentType);
+        }
+
+        private void addConnectorDefinition(AttributeDefinition definition) {
+            connectorDefinitions.putIfAbsent(definition.getAttributeUuid() + ":" + definition.getContentType(), definition);
         }
-        metadata2ObjectRepository.save(metadata2Object);
     }
 }
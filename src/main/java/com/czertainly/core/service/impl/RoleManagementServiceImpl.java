@@ -5,10 +5,12 @@ import com.czertainly.api.model.client.auth.RoleRequestDto;
 import com.czertainly.api.model.common.NameAndUuidDto;
 import com.czertainly.api.model.core.auth.*;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.security.authn.client.CzertainlyAuthenticationClient;
 import com.czertainly.core.security.authn.client.RoleManagementApiClient;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.opa.OpaClient;
 import com.czertainly.core.service.AttributeService;
 import com.czertainly.core.service.RoleManagementService;
 import org.slf4j.Logger;
@@ -31,6 +33,12 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @Autowired
     private AttributeService attributeService;
 
+    @Autowired
+    private OpaClient opaClient;
+
+    @Autowired
+    private CzertainlyAuthenticationClient authenticationClient;
+
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.LIST)
     public List<RoleDto> listRoles() {
@@ -77,6 +85,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.DELETE)
     public void deleteRole(String roleUuid) {
         roleManagementApiClient.deleteRole(roleUuid);
+        invalidatePermissionCaches();
         attributeService.deleteAttributeContent(UUID.fromString(roleUuid), Resource.ROLE);
     }
 
@@ -89,7 +98,9 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.UPDATE)
     public SubjectPermissionsDto addPermissions(String roleUuid, RolePermissionsRequestDto request) {
-        return roleManagementApiClient.savePermissions(roleUuid, request);
+        SubjectPermissionsDto dto = roleManagementApiClient.savePermissions(roleUuid, request);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
@@ -108,18 +119,21 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.UPDATE)
     public void addResourcePermissionObjects(String roleUuid, String resourceUuid, List<ObjectPermissionsRequestDto> request) {
         roleManagementApiClient.addResourcePermissionObjects(roleUuid, resourceUuid, request);
+        invalidatePermissionCaches();
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.UPDATE)
     public void updateResourcePermissionObjects(String roleUuid, String resourceUuid, String objectUuid, ObjectPermissionsRequestDto request) {
         roleManagementApiClient.updateResourcePermissionObjects(roleUuid, resourceUuid, objectUuid, request);
+        invalidatePermissionCaches();
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.UPDATE)
     public void removeResourcePermissionObjects(String roleUuid, String resourceUuid, String objectUuid) {
         roleManagementApiClient.removeResourcePermissionObjects(roleUuid, resourceUuid, objectUuid);
+        invalidatePermissionCaches();
     }
 
     @Override
@@ -129,7 +143,9 @@ public class RoleManagementServiceImpl implements RoleManagementService {
 
     @Override
     public RoleDetailDto updateUsers(String roleUuid, List<String> userUuids) {
-        return roleManagementApiClient.updateUsers(roleUuid, userUuids);
+        RoleDetailDto dto = roleManagementApiClient.updateUsers(roleUuid, userUuids);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
@@ -142,4 +158,10 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     public void evaluatePermissionChain(SecuredUUID uuid) throws NotFoundException {
         getRole(uuid.toString());
     }
+
+    private void invalidatePermissionCaches() {
+        // cached authentications and authorization decisions contain roles and permissions that were changed
+        authenticationClient.invalidateAuthenticationCache();
+        opaClient.invalidateDecisionCache();
+    }
 }
@@ -23,6 +23,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.service.model.SecuredList;
+import com.czertainly.core.service.scep.ExtendedScepHelperService;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import jakarta.transaction.Transactional;
@@ -49,6 +50,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
     private AttributeService attributeService;
     private CertificateService certificateService;
     private CertValidationService certValidationService;
+    private ExtendedScepHelperService extendedScepHelperService;
 
     @Autowired
     public ScepProfileServiceImpl(ScepProfileRepository scepProfileRepository) {
@@ -80,6 +82,11 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         this.certValidationService = certValidationService;
     }
 
+    @Autowired
+    public void setExtendedScepHelperService(ExtendedScepHelperService extendedScepHelperService) {
+        this.extendedScepHelperService = extendedScepHelperService;
+    }
+
     @Override
     @AuditLogged(originator = ObjectType.FE, affected = ObjectType.SCEP_PROFILE, operation = OperationType.REQUEST)
     @ExternalAuthorization(resource = Resource.SCEP_PROFILE, action = ResourceAction.LIST)
@@ -158,6 +165,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         if (request.getCaCertificateUuid() != null) {
             validateScepCertificateEligibility(request.getCaCertificateUuid());
             scepProfile.setCaCertificateUuid(UUID.fromString(request.getCaCertificateUuid()));
+            extendedScepHelperService.invalidateCaCertificateCache(scepProfile.getUuid());
         }
         if(request.getCustomAttributes() != null) {
             attributeService.validateCustomAttributes(request.getCustomAttributes(), Resource.SCEP_PROFILE);
@@ -321,6 +329,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         } else {
             attributeService.deleteAttributeContent(scepProfile.getUuid(), Resource.SCEP_PROFILE);
             scepProfileRepository.delete(scepProfile);
+            extendedScepHelperService.invalidateCaCertificateCache(scepProfile.getUuid());
         }
     }
 
@@ -11,10 +11,12 @@ import com.czertainly.api.model.core.auth.*;
 import com.czertainly.api.model.core.certificate.CertificateStatus;
 import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.security.authn.client.CzertainlyAuthenticationClient;
 import com.czertainly.core.security.authn.client.UserManagementApiClient;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.opa.OpaClient;
 import com.czertainly.core.service.AttributeService;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.UserManagementService;
@@ -47,6 +49,12 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Autowired
     private AttributeService attributeService;
 
+    @Autowired
+    private OpaClient opaClient;
+
+    @Autowired
+    private CzertainlyAuthenticationClient authenticationClient;
+
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.LIST)
     public List<UserDto> listUsers() {
@@ -97,6 +105,7 @@ public class UserManagementServiceImpl implements UserManagementService {
     public UserDetailDto updateUser(String userUuid, UpdateUserRequestDto request) throws NotFoundException, CertificateException {
         attributeService.validateCustomAttributes(request.getCustomAttributes(), Resource.USER);
         UserDetailDto dto = getUserUpdateRequestPayload(userUuid, request, "", "");
+        invalidatePermissionCaches();
         attributeService.updateAttributeContent(UUID.fromString(userUuid), request.getCustomAttributes(), Resource.USER);
         return dto;
     }
@@ -104,13 +113,16 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     //Internal Use Only -- For Auth Profile Update API
     public UserDetailDto updateUserInternal(String userUuid, UpdateUserRequestDto request, String certificateUuid, String certificateFingerprint) throws NotFoundException, CertificateException {
-        return getUserUpdateRequestPayload(userUuid, request, certificateUuid, certificateFingerprint);
+        UserDetailDto dto = getUserUpdateRequestPayload(userUuid, request, certificateUuid, certificateFingerprint);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.DELETE)
     public void deleteUser(String userUuid) {
         userManagementApiClient.removeUser(userUuid);
+        invalidatePermissionCaches();
         certificateService.removeCertificateUser(UUID.fromString(userUuid));
         attributeService.deleteAttributeContent(UUID.fromString(userUuid), Resource.USER);
     }
@@ -118,13 +130,17 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto updateRoles(String userUuid, List<String> roleUuids) {
-        return userManagementApiClient.updateRoles(userUuid, roleUuids);
+        UserDetailDto dto = userManagementApiClient.updateRoles(userUuid, roleUuids);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto updateRole(String userUuid, String roleUuid) {
-        return userManagementApiClient.updateRole(userUuid, roleUuid);
+        UserDetailDto dto = userManagementApiClient.updateRole(userUuid, roleUuid);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
@@ -136,13 +152,17 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.ENABLE)
     public UserDetailDto enableUser(String userUuid) {
-        return userManagementApiClient.enableUser(userUuid);
+        UserDetailDto dto = userManagementApiClient.enableUser(userUuid);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.ENABLE)
     public UserDetailDto disableUser(String userUuid) {
-        return userManagementApiClient.disableUser(userUuid);
+        UserDetailDto dto = userManagementApiClient.disableUser(userUuid);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
@@ -154,7 +174,9 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto removeRole(String userUuid, String roleUuid) {
-        return userManagementApiClient.removeRole(userUuid, roleUuid);
+        UserDetailDto dto = userManagementApiClient.removeRole(userUuid, roleUuid);
+        invalidatePermissionCaches();
+        return dto;
     }
 
     @Override
@@ -229,4 +251,10 @@ public class UserManagementServiceImpl implements UserManagementService {
         }
         return response;
     }
+
+    private void invalidatePermissionCaches() {
+        // cached authentications and authorization decisions contain roles and permissions that were changed
+        authenticationClient.invalidateAuthenticationCache();
+        opaClient.invalidateDecisionCache();
+    }
 }
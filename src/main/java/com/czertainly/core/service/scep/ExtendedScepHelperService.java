@@ -1,8 +1,9 @@
 package com.czertainly.core.service.scep;
 
-import com.czertainly.core.dao.entity.RaProfile;
 import org.springframework.http.ResponseEntity;
 
+import java.util.UUID;
+
 public interface ExtendedScepHelperService {
 
     /**
@@ -22,4 +23,10 @@ public interface ExtendedScepHelperService {
      * @return SCEP response to be sent
      */
     ResponseEntity<Object> handlePost(String profileName, String operation, byte[] message);
+
+    /**
+     * Remove the cached CA certificate and chain of the SCEP Profile
+     * @param scepProfileUuid UUID of the SCEP Profile
+     */
+    void invalidateCaCertificateCache(UUID scepProfileUuid);
 }
@@ -6,7 +6,6 @@ import com.czertainly.api.model.client.attribute.RequestAttributeDto;
 import com.czertainly.api.model.client.certificate.CertificateUpdateObjectsDto;
 import com.czertainly.api.model.common.collection.DigestAlgorithm;
 import com.czertainly.api.model.common.collection.RsaSignatureScheme;
-import com.czertainly.api.model.connector.cryptography.enums.KeyType;
 import com.czertainly.api.model.connector.cryptography.operations.CipherDataRequestDto;
 import com.czertainly.api.model.connector.cryptography.operations.DecryptDataResponseDto;
 import com.czertainly.api.model.connector.cryptography.operations.data.CipherRequestData;
@@ -61,6 +60,7 @@ import org.bouncycastle.util.CollectionStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -79,6 +79,8 @@ import java.security.cert.CertificateException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Transactional
@@ -93,11 +95,6 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
             "DES3",
             "Renewal"
     );
-    private List<X509Certificate> caCertificateChain = new ArrayList<>();
-    private X509Certificate recipient;
-    private boolean raProfileBased;
-    private RaProfile raProfile;
-    private ScepProfile scepProfile;
     private RaProfileRepository raProfileRepository;
     private ScepProfileRepository scepProfileRepository;
     private ScepTransactionRepository scepTransactionRepository;
@@ -105,8 +102,13 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
     private CertValidationService certValidationService;
     private CertificateService certificateService;
     private CryptographicOperationsApiClient cryptographicOperationsApiClient;
-    private CryptographicKeyItem privateKeyItem = null;
-    private CryptographicKeyItem publicKeyItem = null;
+
+    // Time in seconds for which the parsed CA certificate and its chain are reused for the SCEP Profile, 0 disables the cache
+    @Value("${scep.ca-certificate.cache.ttl:300}")
+    private long caCertificateCacheTtl;
+
+    // Parsed CA certificates and chains keyed by the UUID of the SCEP Profile
+    private final Map<UUID, CachedCaCertificates> caCertificateCache = new ConcurrentHashMap<>();
 
     @Autowired
     public void setRaProfileRepository(RaProfileRepository raProfileRepository) {
@@ -143,15 +145,6 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         this.cryptographicOperationsApiClient = cryptographicOperationsApiClient;
     }
 
-    public void setRecipient(String certificateContent) {
-        try {
-            this.recipient = CertificateUtil.parseCertificate(certificateContent);
-        } catch (CertificateException e) {
-            // This should not occur
-            throw new IllegalArgumentException("Error converting the certificate to x509 object");
-        }
-    }
-
     @Override
     public ResponseEntity<Object> handleGet(String profileName, String operation, String message) {
         byte[] encoded = new byte[0];
@@ -166,64 +159,77 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return service(profileName, operation, message);
     }
 
+    @Override
+    public void invalidateCaCertificateCache(UUID scepProfileUuid) {
+        caCertificateCache.remove(scepProfileUuid);
+    }
+
     private ResponseEntity<Object> service(String profileName, String operation, byte[] message) {
-        init(profileName);
-        String validationResult = validate();
+        boolean raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
+        RaProfile raProfile;
+        ScepProfile scepProfile;
+        if (raProfileBased) {
+            raProfile = raProfileRepository.findByName(profileName).orElse(null);
+            scepProfile = raProfile != null ? raProfile.getScepProfile() : null;
+        } else {
+            scepProfile = scepProfileRepository.findByName(profileName).orElse(null);
+            raProfile = scepProfile != null ? scepProfile.getRaProfile() : null;
+        }
+        String validationResult = validate(raProfileBased, raProfile, scepProfile);
         if (!validationResult.isEmpty()) {
             throw new ValidationException(ValidationError.create(validationResult));
         }
+        ScepRequestContext context = createContext(raProfileBased, raProfile, scepProfile);
         switch (operation) {
             case "GetCACert":
-                return caCertificateChain.size() > 1 ? getCaCertChain() : getCaCert();
+                return context.getCaCertificateChain().size() > 1 ? getCaCertChain(context) : getCaCert(context);
             case "GetCACaps":
                 return getCaCaps();
             case "PKIOperation":
-                return pkiOperation(message);
+                return pkiOperation(context, message);
             default:
-                return errorReturn(null, FailInfo.BAD_REQUEST, "Unsupported Operation");
+                return errorReturn(context, null, FailInfo.BAD_REQUEST, "Unsupported Operation");
 
         }
     }
 
-    private void init(String profileName) {
-        this.raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
-        if (raProfileBased) {
-            raProfile = raProfileRepository.findByName(profileName).orElse(null);
-            if (raProfile == null) {
-                return;
-            }
-            scepProfile = raProfile.getScepProfile();
-        } else {
-            scepProfile = scepProfileRepository.findByName(profileName).orElse(null);
-            if (scepProfile == null) {
-                return;
+    private ScepRequestContext createContext(boolean raProfileBased, RaProfile raProfile, ScepProfile scepProfile) {
+        Certificate scepCaCertificate = scepProfile.getCaCertificate();
+        CachedCaCertificates caCertificates = caCertificateCache.get(scepProfile.getUuid());
+        // cached certificates are not used when the CA certificate of the profile was changed in the meantime
+        if (caCertificates == null || caCertificates.isExpired() || !caCertificates.getCaCertificateUuid().equals(scepCaCertificate.getUuid())) {
+            caCertificates = loadCaCertificates(scepCaCertificate);
+            if (caCertificateCacheTtl > 0) {
+                caCertificateCache.put(scepProfile.getUuid(), caCertificates);
             }
-            raProfile = scepProfile.getRaProfile();
         }
+        return new ScepRequestContext(raProfileBased, raProfile, scepProfile, caCertificates.getRecipient(), caCertificates.getCaCertificateChain());
+    }
 
-        Certificate scepCaCertificate = scepProfile.getCaCertificate();
-        setRecipient(scepCaCertificate.getCertificateContent().getContent());
-        this.caCertificateChain = new ArrayList<>();
-        for (Certificate certificate : certValidationService.getCertificateChain(scepCaCertificate)) {
-            try {
-                this.caCertificateChain.add(CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()));
-            } catch (CertificateException e) {
-                // This should not happen
-                throw new IllegalArgumentException("Error converting the certificate to x509 object");
+    private CachedCaCertificates loadCaCertificates(Certificate scepCaCertificate) {
+        try {
+            X509Certificate recipient = CertificateUtil.parseCertificate(scepCaCertificate.getCertificateContent().getContent());
+            List<X509Certificate> caCertificateChain = new ArrayList<>();
+            for (Certificate certificate : certValidationService.getCertificateChain(scepCaCertificate)) {
+                caCertificateChain.add(CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()));
             }
+            return new CachedCaCertificates(scepCaCertificate.getUuid(), recipient, caCertificateChain, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(caCertificateCacheTtl));
+        } catch (CertificateException e) {
+            // This should not happen
+            throw new IllegalArgumentException("Error converting the certificate to x509 object");
         }
     }
 
-    private String validate() {
-        String scepProfileValidation = validateScepProfile();
+    private String validate(boolean raProfileBased, RaProfile raProfile, ScepProfile scepProfile) {
+        String scepProfileValidation = validateScepProfile(raProfileBased, scepProfile);
         if (scepProfileValidation.isEmpty()) {
-            return validateRaProfile();
+            return validateRaProfile(raProfileBased, raProfile);
         } else {
             return scepProfileValidation;
         }
     }
 
-    private String validateScepProfile() {
+    private String validateScepProfile(boolean raProfileBased, ScepProfile scepProfile) {
         if (scepProfile == null) {
             return "Requested SCEP Profile not found";
         }
@@ -239,7 +245,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return "";
     }
 
-    private String validateRaProfile() {
+    private String validateRaProfile(boolean raProfileBased, RaProfile raProfile) {
         if (raProfile == null) {
             return "Requested RA Profile not found";
         }
@@ -252,9 +258,9 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return "";
     }
 
-    private ResponseEntity<Object> getCaCert() {
+    private ResponseEntity<Object> getCaCert(ScepRequestContext context) {
         try {
-            byte[] encoded = recipient.getEncoded();
+            byte[] encoded = context.getRecipient().getEncoded();
             return getResponseEntity(encoded, "application/x-x509-ca-cert", encoded.length);
         } catch (CertificateException e) {
             // This should not happen
@@ -262,14 +268,14 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         }
     }
 
-    private ResponseEntity<Object> getCaCertChain() {
+    private ResponseEntity<Object> getCaCertChain(ScepRequestContext context) {
         byte[] encoded;
         CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
         try {
-            generator.addCertificates(new JcaCertStore(caCertificateChain));
+            generator.addCertificates(new JcaCertStore(context.getCaCertificateChain()));
             encoded = generator.generate(new CMSProcessableByteArray(new byte[0])).getEncoded();
         } catch (CertificateEncodingException | IOException | CMSException e) {
-            return errorReturn(null, FailInfo.BAD_REQUEST, e.getMessage());
+            return errorReturn(context, null, FailInfo.BAD_REQUEST, e.getMessage());
         }
         return getResponseEntity(encoded, "application/x-x509-ca-ra-cert", encoded.length);
     }
@@ -285,66 +291,66 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return new ResponseEntity<>(body, responseHeaders, HttpStatus.OK);
     }
 
-    private ResponseEntity<Object> pkiOperation(byte[] body) {
+    private ResponseEntity<Object> pkiOperation(ScepRequestContext context, byte[] body) {
         ScepRequestMessage scepRequestMessage = null;
         ScepResponseMessage responseMessage = null;
-        setPrivateKey();
         try {
             scepRequestMessage = new ScepRequestMessage(body);
             String requestError = initiateRequestMessageParsing(scepRequestMessage);
             if (!requestError.isEmpty()) {
-                return errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, requestError);
+                return errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, requestError);
             }
         } catch (Exception e) {
             logger.error("Error parsing the Scep Request Message", e.getMessage());
-            errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, "Error parsing scep request message");
+            errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, "Error parsing scep request message");
         }
 
-        String decryptError = decrypt(scepRequestMessage);
+        String decryptError = decrypt(context, scepRequestMessage);
         if (!decryptError.isEmpty()) {
-            return errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, decryptError);
+            return errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, decryptError);
         }
-        if (!validateScepChallengePassword(scepRequestMessage)) {
-            return errorReturn(scepRequestMessage, FailInfo.BAD_MESSAGE_CHECK, "Challenge password validation failed. Empty / Incorrect password");
+        if (!validateScepChallengePassword(context.getScepProfile(), scepRequestMessage)) {
+            return errorReturn(context, scepRequestMessage, FailInfo.BAD_MESSAGE_CHECK, "Challenge password validation failed. Empty / Incorrect password");
         }
         try {
-            String validationErrors = verifySignature(scepRequestMessage);
+            String validationErrors = verifySignature(context.getScepProfile(), scepRequestMessage);
             if (!validationErrors.isEmpty()) {
-                return errorReturn(scepRequestMessage, FailInfo.BAD_MESSAGE_CHECK, "Signature verification failed for the request");
+                return errorReturn(context, scepRequestMessage, FailInfo.BAD_MESSAGE_CHECK, "Signature verification failed for the request");
             }
         } catch (Exception e) {
-            return errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, "Error validating signature. " + e.getMessage());
+            return errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, "Error validating signature. " + e.getMessage());
         }
 
+        ScepProfile scepProfile = context.getScepProfile();
         if (scepTransactionRepository.existsByTransactionIdAndScepProfile(scepRequestMessage.getTransactionId(), scepProfile)) {
-            responseMessage = checkGetExistingTransaction(scepRequestMessage);
+            responseMessage = checkGetExistingTransaction(context, scepRequestMessage);
         } else if (scepRequestMessage.getMessageType() == ScepCommonHelper.SCEP_TYPE_PKCSREQ) {
             try {
                 if (scepProfile.getRequireManualApproval() != null && !scepProfile.getRequireManualApproval()) {
-                    responseMessage = issueCertificate(scepRequestMessage);
+                    responseMessage = issueCertificate(context, scepRequestMessage);
                 } else {
-                    responseMessage = generateCsr(scepRequestMessage);
+                    responseMessage = generateCsr(context, scepRequestMessage);
                 }
             } catch (Exception e) {
-                return errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, e.getMessage());
+                return errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, e.getMessage());
             }
         } else if (scepRequestMessage.getMessageType() == ScepCommonHelper.SCEP_TYPE_POLL_CERT) {
-            responseMessage = pollCertificate(scepRequestMessage);
+            responseMessage = pollCertificate(context, scepRequestMessage);
         } else {
-            return errorReturn(scepRequestMessage, FailInfo.BAD_REQUEST, "Unsupported Operation. The requested operation is not supported");
+            return errorReturn(context, scepRequestMessage, FailInfo.BAD_REQUEST, "Unsupported Operation. The requested operation is not supported");
         }
-        return getResponse(responseMessage);
+        return getResponse(context, responseMessage);
     }
 
-    private ResponseEntity<Object> errorReturn(ScepRequestMessage scepRequestMessage, FailInfo failInfo, String errorText) {
+    private ResponseEntity<Object> errorReturn(ScepRequestContext context, ScepRequestMessage scepRequestMessage, FailInfo failInfo, String errorText) {
         ScepResponseMessage scepResponseMessage = new ScepResponseMessage();
         scepResponseMessage.setFailInfo(failInfo);
         scepResponseMessage.setFailText(errorText);
         scepResponseMessage.setStatus(PkiStatus.FAILURE);
-        prepareMessage(scepRequestMessage, scepResponseMessage);
+        prepareMessage(context, scepRequestMessage, scepResponseMessage);
         logger.error("Error in SCEP Request: " + errorText);
         try {
-            byte[] responseBody = generateResponseBody(scepResponseMessage);
+            byte[] responseBody = generateResponseBody(context, scepResponseMessage);
             return getResponseEntity(responseBody, "application/x-pki-message", responseBody.length);
         } catch (CertificateEncodingException e) {
             logger.error(e.getMessage());
@@ -352,9 +358,9 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return null;
     }
 
-    private ResponseEntity<Object> getResponse(ScepResponseMessage scepResponseMessage) {
+    private ResponseEntity<Object> getResponse(ScepRequestContext context, ScepResponseMessage scepResponseMessage) {
         try {
-            byte[] responseBody = generateResponseBody(scepResponseMessage);
+            byte[] responseBody = generateResponseBody(context, scepResponseMessage);
             return getResponseEntity(responseBody, "application/x-pki-message", responseBody.length);
         } catch (CertificateEncodingException e) {
             // This should not happen
@@ -362,56 +368,45 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         }
     }
 
-    private void setPrivateKey() {
-        for (CryptographicKeyItem item : scepProfile.getCaCertificate().getKey().getItems()) {
-            if (item.getType().equals(KeyType.PRIVATE_KEY)) {
-                privateKeyItem = item;
-            } else if (item.getType().equals(KeyType.PUBLIC_KEY)) {
-                publicKeyItem = item;
-            } else {
-                //do nothing
-            }
-        }
-    }
-
-    private ScepResponseMessage issueCertificate(ScepRequestMessage scepRequestMessage) throws CertificateException, ConnectorException, NoSuchAlgorithmException, AlreadyExistException, IOException {
+    private ScepResponseMessage issueCertificate(ScepRequestContext context, ScepRequestMessage scepRequestMessage) throws CertificateException, ConnectorException, NoSuchAlgorithmException, AlreadyExistException, IOException {
         ClientCertificateSignRequestDto requestDto = new ClientCertificateSignRequestDto();
         ScepResponseMessage responseMessage = new ScepResponseMessage();
         requestDto.setPkcs10(new String(Base64.getEncoder().encode(scepRequestMessage.getPkcs10().getEncoded())));
+        RaProfile raProfile = context.getRaProfile();
         ClientCertificateDataResponseDto response = clientOperationService.issueCertificate(raProfile.getAuthorityInstanceReference().getSecuredParentUuid(), raProfile.getSecuredUuid(), requestDto);
         responseMessage.setCertificate(CertificateUtil.parseCertificate(response.getCertificateData()));
-        addTransactionEntity(scepRequestMessage.getTransactionId(), response.getUuid());
+        addTransactionEntity(context.getScepProfile(), scepRequestMessage.getTransactionId(), response.getUuid());
         responseMessage.setStatus(PkiStatus.SUCCESS);
-        prepareMessage(scepRequestMessage, responseMessage);
+        prepareMessage(context, scepRequestMessage, responseMessage);
         return responseMessage;
     }
 
-    private ScepResponseMessage generateCsr(ScepRequestMessage scepRequestMessage) throws NotFoundException, CertificateException, IOException, NoSuchAlgorithmException, InvalidKeyException, NoSuchProviderException {
+    private ScepResponseMessage generateCsr(ScepRequestContext context, ScepRequestMessage scepRequestMessage) throws NotFoundException, CertificateException, IOException, NoSuchAlgorithmException, InvalidKeyException, NoSuchProviderException {
         ClientCertificateRequestDto requestDto = new ClientCertificateRequestDto();
         ScepResponseMessage responseMessage = new ScepResponseMessage();
         requestDto.setPkcs10(new String(Base64.getEncoder().encode(scepRequestMessage.getPkcs10().getEncoded())));
         CertificateDetailDto response = clientOperationService.createCsr(requestDto);
         CertificateUpdateObjectsDto updateObjectsRequest = new CertificateUpdateObjectsDto();
-        updateObjectsRequest.setRaProfileUuid(raProfile.getUuid().toString());
+        updateObjectsRequest.setRaProfileUuid(context.getRaProfile().getUuid().toString());
         certificateService.updateCertificateObjects(SecuredUUID.fromString(response.getUuid()), updateObjectsRequest);
-        addTransactionEntity(scepRequestMessage.getTransactionId(), response.getUuid());
+        addTransactionEntity(context.getScepProfile(), scepRequestMessage.getTransactionId(), response.getUuid());
         responseMessage.setStatus(PkiStatus.PENDING);
-        prepareMessage(scepRequestMessage, responseMessage);
+        prepareMessage(context, scepRequestMessage, responseMessage);
         return responseMessage;
     }
 
-    private ScepResponseMessage checkGetExistingTransaction(ScepRequestMessage scepRequestMessage) {
-        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfile(scepRequestMessage.getTransactionId(), scepProfile).orElse(null);
+    private ScepResponseMessage checkGetExistingTransaction(ScepRequestContext context, ScepRequestMessage scepRequestMessage) {
+        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfile(scepRequestMessage.getTransactionId(), context.getScepProfile()).orElse(null);
         Certificate certificate = scepTransaction.getCertificate();
         ScepResponseMessage responseMessage = new ScepResponseMessage();
         try {
             if (certificate.getStatus() != CertificateStatus.NEW) {
                 responseMessage.setStatus(PkiStatus.SUCCESS);
                 responseMessage.setCertificate(CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()));
-                prepareMessage(scepRequestMessage, responseMessage);
+                prepareMessage(context, scepRequestMessage, responseMessage);
             } else {
                 responseMessage.setStatus(PkiStatus.PENDING);
-                prepareMessage(scepRequestMessage, responseMessage);
+                prepareMessage(context, scepRequestMessage, responseMessage);
             }
         } catch (Exception e) {
             //TODO
@@ -419,11 +414,12 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return responseMessage;
     }
 
-    private String decrypt(ScepRequestMessage scepRequestMessage) {
+    private String decrypt(ScepRequestContext context, ScepRequestMessage scepRequestMessage) {
         if (scepRequestMessage.getMessageType() != ScepCommonHelper.SCEP_TYPE_PKCSREQ) {
             return "";
         }
         try {
+            CryptographicKeyItem privateKeyItem = context.getPrivateKeyItem();
             String tokenInstanceUuid = privateKeyItem.getCryptographicKey().getTokenInstanceReference().getTokenInstanceUuid();
             String keyUuid = privateKeyItem.getKeyReferenceUuid().toString();
             ConnectorDto connectorDto = privateKeyItem.getCryptographicKey().getTokenInstanceReference().getConnector().mapToDto();
@@ -443,7 +439,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         }
     }
 
-    private void addTransactionEntity(String transactionId, String certificateUuid) {
+    private void addTransactionEntity(ScepProfile scepProfile, String transactionId, String certificateUuid) {
         ScepTransaction scepTransaction = new ScepTransaction();
         scepTransaction.setTransactionId(transactionId);
         scepTransaction.setCertificateUuid(UUID.fromString(certificateUuid));
@@ -451,7 +447,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         scepTransactionRepository.save(scepTransaction);
     }
 
-    private ScepResponseMessage pollCertificate(ScepRequestMessage scepRequestMessage) {
+    private ScepResponseMessage pollCertificate(ScepRequestContext context, ScepRequestMessage scepRequestMessage) {
         ScepResponseMessage responseMessage = new ScepResponseMessage();
         try {
             ScepTransaction transaction = getTransaction(scepRequestMessage.getTransactionId());
@@ -461,7 +457,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
             } else {
                 responseMessage.setStatus(PkiStatus.PENDING);
             }
-            prepareMessage(scepRequestMessage, responseMessage);
+            prepareMessage(context, scepRequestMessage, responseMessage);
 
         } catch (Exception e) {
             logger.error(e.getMessage());
@@ -469,13 +465,13 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return responseMessage;
     }
 
-    private void prepareMessage(ScepRequestMessage requestMessage, ScepResponseMessage responseMessage) {
+    private void prepareMessage(ScepRequestContext context, ScepRequestMessage requestMessage, ScepResponseMessage responseMessage) {
         if (requestMessage == null) {
             return;
         }
         responseMessage.setRecipientNonce(requestMessage.getSenderNonce());
         responseMessage.setTransactionId(requestMessage.getTransactionId());
-        responseMessage.setCaCertificate(recipient);
+        responseMessage.setCaCertificate(context.getRecipient());
         responseMessage.setRecipientKeyInfo(requestMessage.getRequestKeyInfo());
         responseMessage.setDigestAlgorithm(requestMessage.getPreferredDigestAlg());
 
@@ -486,7 +482,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return scepTransactionRepository.findByTransactionId(transactionId).orElse(null);
     }
 
-    private boolean validateScepChallengePassword(ScepRequestMessage scepRequestMessage) {
+    private boolean validateScepChallengePassword(ScepProfile scepProfile, ScepRequestMessage scepRequestMessage) {
         if (scepProfile.getChallengePassword() == null || scepProfile.getChallengePassword().isEmpty()) {
             return true;
         }
@@ -495,7 +491,10 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return csrChallengePassword.equals(scepProfile.getChallengePassword());
     }
 
-    public byte[] generateResponseBody(ScepResponseMessage responseMessage) throws CertificateEncodingException {
+    private byte[] generateResponseBody(ScepRequestContext context, ScepResponseMessage responseMessage) throws CertificateEncodingException {
+        ScepProfile scepProfile = context.getScepProfile();
+        CryptographicKeyItem privateKeyItem = context.getPrivateKeyItem();
+        CryptographicKeyItem publicKeyItem = context.getPublicKeyItem();
         try {
             CMSTypedData msg;
 
@@ -507,11 +506,11 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
                     certList.add(responseMessage.getCertificate());
                     if (scepProfile.isIncludeCaCertificate()) {
                         if (scepProfile.isIncludeCaCertificateChain()) {
-                            certList.addAll(caCertificateChain);
+                            certList.addAll(context.getCaCertificateChain());
                         } else {
                             // If we have an explicit CAcertificate
                             logger.debug("Including explicitly set CA certificate in SCEP response.");
-                            certList.add(recipient);
+                            certList.add(context.getRecipient());
                         }
                     }
                 }
@@ -632,7 +631,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
                     JcaDigestCalculatorProviderBuilder calculatorProviderBuilder = new JcaDigestCalculatorProviderBuilder().setProvider(BouncyCastleProvider.PROVIDER_NAME);
                     JcaSignerInfoGeneratorBuilder builder = new JcaSignerInfoGeneratorBuilder(calculatorProviderBuilder.build());
                     builder.setSignedAttributeGenerator(new DefaultSignedAttributeTableGenerator(new AttributeTable(attributes)));
-                    gen1.addSignerInfoGenerator(builder.build(signer, recipient));
+                    gen1.addSignerInfoGenerator(builder.build(signer, context.getRecipient()));
                 }
             } catch (OperatorCreationException e) {
                 throw new IllegalStateException("BouncyCastle failed in creating signature provider.", e);
@@ -812,19 +811,19 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return "";
     }
 
-    public String verifySignature(ScepRequestMessage scepRequestMessage) throws CMSException, OperatorCreationException, CertificateException, NoSuchAlgorithmException, InvalidKeyException {
+    public String verifySignature(ScepProfile scepProfile, ScepRequestMessage scepRequestMessage) throws CMSException, OperatorCreationException, CertificateException, NoSuchAlgorithmException, InvalidKeyException {
 
         if (scepRequestMessage.getMessageType() != ScepCommonHelper.SCEP_TYPE_RENEWAL && scepRequestMessage.getMessageType() == ScepCommonHelper.SCEP_TYPE_RENEWAL) {
             return "Unsupported Operation";
         }
         if (scepRequestMessage.getMessageType() == ScepCommonHelper.SCEP_TYPE_PKCSREQ) {
-            String renewalChecks = renewalValidation(scepRequestMessage);
+            String renewalChecks = renewalValidation(scepProfile, scepRequestMessage);
             if (renewalChecks != "Empty" && !renewalChecks.isEmpty()) {
                 return renewalChecks;
             }
             return "";
         } else if (scepRequestMessage.getMessageType() == ScepCommonHelper.SCEP_TYPE_RENEWAL) {
-            String renewalChecks = renewalValidation(scepRequestMessage);
+            String renewalChecks = renewalValidation(scepProfile, scepRequestMessage);
             if (renewalChecks.equals("Empty")) {
                 return "Unable to find renewal certificate";
             }
@@ -833,7 +832,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return "Unsupported Operation";
     }
 
-    private String renewalValidation(ScepRequestMessage scepRequestMessage) throws CertificateException, OperatorCreationException, CMSException, NoSuchAlgorithmException, InvalidKeyException {
+    private String renewalValidation(ScepProfile scepProfile, ScepRequestMessage scepRequestMessage) throws CertificateException, OperatorCreationException, CMSException, NoSuchAlgorithmException, InvalidKeyException {
         CMSSignedData cmsSignedData = new CMSSignedData(scepRequestMessage.getScepRequestMessage());
         String cn = null;
         try {
@@ -851,7 +850,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
                 if (x509Certificate.getPublicKey().getEncoded().equals(((JcaPKCS10CertificationRequest) scepRequestMessage.getPkcs10()).getPublicKey().getEncoded())) {
                     return "Public Key of the renewal certificate and the CSR cannot be same";
                 }
-                return checkRenewalTimeframe(certificate);
+                return checkRenewalTimeframe(scepProfile, certificate);
             }
         }
         if (certificates.isEmpty()) {
@@ -860,7 +859,7 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         return "";
     }
 
-    private String checkRenewalTimeframe(Certificate certificate) {
+    private String checkRenewalTimeframe(ScepProfile scepProfile, Certificate certificate) {
         if (scepProfile.getRenewalThreshold() == null) {
             if (certificate.getValidity() / 2 < certificate.getExpiryInDays()) {
                 return "Cannot renew certificate. Validity exceeds the half life time of certificate";
@@ -874,4 +873,38 @@ public class ExtendedScepHelperServiceImpl implements ExtendedScepHelperService
         }
         return "";
     }
+
+    private static class CachedCaCertificates {
+
+        private final UUID caCertificateUuid;
+
+        private final X509Certificate recipient;
+
+        private final List<X509Certificate> caCertificateChain;
+
+        private final long expiresAt;
+
+        private CachedCaCertificates(UUID caCertificateUuid, X509Certificate recipient, List<X509Certificate> caCertificateChain, long expiresAt) {
+            this.caCertificateUuid = caCertificateUuid;
+            this.recipient = recipient;
+            this.caCertificateChain = List.copyOf(caCertificateChain);
+            this.expiresAt = expiresAt;
+        }
+
+        public UUID getCaCertificateUuid() {
+            return caCertificateUuid;
+        }
+
+        public X509Certificate getRecipient() {
+            return recipient;
+        }
+
+        public List<X509Certificate> getCaCertificateChain() {
+            return caCertificateChain;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package com.czertainly.core.service.scep.impl;
+
+import com.czertainly.api.model.connector.cryptography.enums.KeyType;
+import com.czertainly.core.dao.entity.CryptographicKeyItem;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.entity.scep.ScepProfile;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+/**
+ * Profiles and CA material resolved for a single SCEP request. Context is created for every request
+ * and is not shared between requests, so the SCEP helper service does not hold any request state.
+ */
+final class ScepRequestContext {
+
+    private final boolean raProfileBased;
+    private final RaProfile raProfile;
+    private final ScepProfile scepProfile;
+    private final X509Certificate recipient;
+    private final List<X509Certificate> caCertificateChain;
+    private final CryptographicKeyItem privateKeyItem;
+    private final CryptographicKeyItem publicKeyItem;
+
+    ScepRequestContext(boolean raProfileBased, RaProfile raProfile, ScepProfile scepProfile, X509Certificate recipient, List<X509Certificate> caCertificateChain) {
+        this.raProfileBased = raProfileBased;
+        this.raProfile = raProfile;
+        this.scepProfile = scepProfile;
+        this.recipient = recipient;
+        this.caCertificateChain = List.copyOf(caCertificateChain);
+
+        CryptographicKeyItem privateKey = null;
+        CryptographicKeyItem publicKey = null;
+        if (scepProfile.getCaCertificate().getKey() != null) {
+            for (CryptographicKeyItem item : scepProfile.getCaCertificate().getKey().getItems()) {
+                if (item.getType().equals(KeyType.PRIVATE_KEY)) {
+                    privateKey = item;
+                } else if (item.getType().equals(KeyType.PUBLIC_KEY)) {
+                    publicKey = item;
+                }
+            }
+        }
+        this.privateKeyItem = privateKey;
+        this.publicKeyItem = publicKey;
+    }
+
+    public boolean isRaProfileBased() {
+        return raProfileBased;
+    }
+
+    public RaProfile getRaProfile() {
+        return raProfile;
+    }
+
+    public ScepProfile getScepProfile() {
+        return scepProfile;
+    }
+
+    public X509Certificate getRecipient() {
+        return recipient;
+    }
+
+    public List<X509Certificate> getCaCertificateChain() {
+        return caCertificateChain;
+    }
+
+    public CryptographicKeyItem getPrivateKeyItem() {
+        return privateKeyItem;
+    }
+
+    public CryptographicKeyItem getPublicKeyItem() {
+        return publicKeyItem;
+    }
+}
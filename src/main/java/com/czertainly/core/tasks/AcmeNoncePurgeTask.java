@@ -0,0 +1,26 @@
+package com.czertainly.core.tasks;
+
+import com.czertainly.core.service.acme.AcmeNonceStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class AcmeNoncePurgeTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcmeNoncePurgeTask.class);
+
+    @Autowired
+    private AcmeNonceStore acmeNonceStore;
+
+    // scheduled every 5 minutes, to remove nonces that were issued and never used
+    @Scheduled(fixedDelay = 1000*60*5, initialDelay = 1000*60)
+    public void purgeExpiredNonces() {
+        try {
+            int purged = acmeNonceStore.purgeExpired();
+            logger.debug("Removed {} expired ACME nonces", purged);
+        } catch (Exception e) {
+            logger.error("Failed to remove expired ACME nonces: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.czertainly.core.tasks;
+
+import com.czertainly.core.service.AuthorityInformationAccessService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class AuthorityInformationAccessCachePurgeTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorityInformationAccessCachePurgeTask.class);
+
+    @Autowired
+    private AuthorityInformationAccessService authorityInformationAccessService;
+
+    // scheduled every hour, to remove issuer certificates that expired in the disk cache
+    @Scheduled(fixedDelay = 1000*60*60, initialDelay = 1000*60*5)
+    public void purgeDiskCache() {
+        try {
+            int purged = authorityInformationAccessService.purgeDiskCache();
+            logger.debug("Removed {} expired files from the issuer certificate cache", purged);
+        } catch (Exception e) {
+            logger.error("Failed to remove expired files from the issuer certificate cache: {}", e.getMessage());
+        }
+    }
+}
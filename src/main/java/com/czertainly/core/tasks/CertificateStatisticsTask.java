@@ -0,0 +1,17 @@
+package com.czertainly.core.tasks;
+
+import com.czertainly.core.service.CertificateStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class CertificateStatisticsTask {
+
+    @Autowired
+    private CertificateStatisticsService certificateStatisticsService;
+
+    // scheduled for every 6 hours, to correct the statistics by changes that were not recorded
+    @Scheduled(fixedRate = 1000*60*60*6, initialDelay = 1000*60)
+    public void reconcileStatistics() {
+        certificateStatisticsService.reconcileStatistics();
+    }
+}
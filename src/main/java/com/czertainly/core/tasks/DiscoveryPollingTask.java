@@ -0,0 +1,25 @@
+package com.czertainly.core.tasks;
+
+import com.czertainly.core.service.DiscoveryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class DiscoveryPollingTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryPollingTask.class);
+
+    @Autowired
+    private DiscoveryService discoveryService;
+
+    // scheduled every second, to hand over the discoveries due for the status check to the executor
+    @Scheduled(fixedDelay = 1000, initialDelay = 1000*10)
+    public void pollRunningDiscoveries() {
+        try {
+            discoveryService.pollRunningDiscoveries();
+        } catch (Exception e) {
+            logger.error("Failed to check status of running discoveries: {}", e.getMessage());
+        }
+    }
+}
@@ -14,4 +14,28 @@ public class ScheduledTasks {
     public UpdateCertificateStatusTask updateCertificateStatusTask() {
         return new UpdateCertificateStatusTask();
     }
+
+    @Bean
+    @ConditionalOnProperty(value = "scheduled-tasks.enabled", matchIfMissing = true, havingValue = "true")
+    public CertificateStatisticsTask certificateStatisticsTask() {
+        return new CertificateStatisticsTask();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "scheduled-tasks.enabled", matchIfMissing = true, havingValue = "true")
+    public AcmeNoncePurgeTask acmeNoncePurgeTask() {
+        return new AcmeNoncePurgeTask();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "scheduled-tasks.enabled", matchIfMissing = true, havingValue = "true")
+    public AuthorityInformationAccessCachePurgeTask authorityInformationAccessCachePurgeTask() {
+        return new AuthorityInformationAccessCachePurgeTask();
+    }
+
+    // not conditional on scheduled tasks, running discoveries are tracked by the instance that started them
+    @Bean
+    public DiscoveryPollingTask discoveryPollingTask() {
+        return new DiscoveryPollingTask();
+    }
 }
@@ -0,0 +1,110 @@
+package com.czertainly.core.util;
+
+import com.czertainly.api.model.common.attribute.v2.content.BaseAttributeContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.xml.bind.DatatypeConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Calculates the hash of the attribute content that is used to find identical content of the attribute definition
+ * by a single indexed lookup. The hash is calculated from the canonical JSON form of the content items, so the content
+ * loaded from the database and the content received in the request produce the same hash. Order of the items
+ * does not matter.
+ */
+public class AttributeContentHashUtil {
+
+    // Mapper configured the same way as the JSON format mapper of Hibernate that stores the content items
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private AttributeContentHashUtil() {
+    }
+
+    /**
+     * Calculates the hash of the attribute content
+     *
+     * @param contentItems List of the attribute content items
+     * @return SHA-256 hash of the content in hex format
+     */
+    public static String calculateContentHash(List<? extends BaseAttributeContent> contentItems) {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (BaseAttributeContent contentItem : contentItems) {
+            nodes.add(OBJECT_MAPPER.valueToTree(contentItem));
+        }
+        return calculateHash(nodes);
+    }
+
+    /**
+     * Calculates the hash of the attribute content stored as JSON
+     *
+     * @param jsonContentItems List of the attribute content items serialized to JSON
+     * @return SHA-256 hash of the content in hex format
+     */
+    public static String calculateJsonContentHash(List<String> jsonContentItems) {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String jsonContentItem : jsonContentItems) {
+            try {
+                nodes.add(OBJECT_MAPPER.readTree(jsonContentItem));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid attribute content JSON: " + e.getMessage(), e);
+            }
+        }
+        return calculateHash(nodes);
+    }
+
+    private static String calculateHash(List<JsonNode> nodes) {
+        String canonicalContent = nodes.stream()
+                .map(AttributeContentHashUtil::canonicalize)
+                .sorted()
+                .collect(Collectors.joining(",", "[", "]"));
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] digest = messageDigest.digest(canonicalContent.getBytes(StandardCharsets.UTF_8));
+            return DatatypeConverter.printHexBinary(digest).toLowerCase();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String canonicalize(JsonNode node) {
+        if (node.isObject()) {
+            List<String> fieldNames = new ArrayList<>();
+            node.fieldNames().forEachRemaining(fieldNames::add);
+            fieldNames.sort(null);
+
+            StringBuilder builder = new StringBuilder("{");
+            for (String fieldName : fieldNames) {
+                JsonNode value = node.get(fieldName);
+                // null properties are not always serialized, treat them as missing
+                if (value.isNull()) {
+                    continue;
+                }
+                if (builder.length() > 1) {
+                    builder.append(',');
+                }
+                builder.append(OBJECT_MAPPER.getNodeFactory().textNode(fieldName)).append(':').append(canonicalize(value));
+            }
+            return builder.append('}').toString();
+        }
+        if (node.isArray()) {
+            StringBuilder builder = new StringBuilder("[");
+            Iterator<JsonNode> elements = node.elements();
+            while (elements.hasNext()) {
+                builder.append(canonicalize(elements.next()));
+                if (elements.hasNext()) {
+                    builder.append(',');
+                }
+            }
+            return builder.append(']').toString();
+        }
+        return node.toString();
+    }
+}
@@ -8,12 +8,15 @@ import com.czertainly.api.model.core.certificate.CertificateStatus;
 import com.czertainly.api.model.core.certificate.CertificateType;
 import com.czertainly.core.dao.entity.Certificate;
 import jakarta.xml.bind.DatatypeConverter;
+import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.pkcs.Attribute;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
 import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.jcajce.provider.asymmetric.x509.CertificateFactory;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
@@ -25,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import javax.naming.InvalidNameException;
 import javax.naming.ldap.LdapName;
 import javax.naming.ldap.Rdn;
+import javax.security.auth.x500.X500Principal;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringWriter;
@@ -242,6 +246,7 @@ public class CertificateUtil {
         modal.setSerialNumber(certificate.getSerialNumber().toString(16));
         setSubjectDNParams(modal, certificate.getSubjectX500Principal().toString());
         setIssuerDNParams(modal, certificate.getIssuerX500Principal().toString());
+        setKeyIdentifierParams(modal, certificate);
         modal.setNotAfter(certificate.getNotAfter());
         modal.setNotBefore(certificate.getNotBefore());
         if (certificate.getPublicKey() == null) {
@@ -304,6 +309,47 @@ public class CertificateUtil {
 
 
 
+    /**
+     * Sets the key identifiers and the normalized DNs of the certificate, that are used to find the issuer of the certificate
+     *
+     * @param modal       Certificate entity
+     * @param certificate X.509 certificate
+     */
+    public static void setKeyIdentifierParams(Certificate modal, X509Certificate certificate) {
+        modal.setSubjectDnNormalized(certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL));
+        modal.setIssuerDnNormalized(certificate.getIssuerX500Principal().getName(X500Principal.CANONICAL));
+        modal.setSubjectKeyIdentifier(getSubjectKeyIdentifier(certificate));
+        modal.setAuthorityKeyIdentifier(getAuthorityKeyIdentifier(certificate));
+    }
+
+    public static String getSubjectKeyIdentifier(X509Certificate certificate) {
+        byte[] extensionValue = certificate.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+        if (extensionValue == null) {
+            return null;
+        }
+        try {
+            byte[] keyIdentifier = SubjectKeyIdentifier.getInstance(ASN1OctetString.getInstance(extensionValue).getOctets()).getKeyIdentifier();
+            return DatatypeConverter.printHexBinary(keyIdentifier).toLowerCase();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unable to parse the subject key identifier of the certificate {}", certificate.getSubjectX500Principal());
+            return null;
+        }
+    }
+
+    public static String getAuthorityKeyIdentifier(X509Certificate certificate) {
+        byte[] extensionValue = certificate.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+        if (extensionValue == null) {
+            return null;
+        }
+        try {
+            byte[] keyIdentifier = AuthorityKeyIdentifier.getInstance(ASN1OctetString.getInstance(extensionValue).getOctets()).getKeyIdentifier();
+            return keyIdentifier != null ? DatatypeConverter.printHexBinary(keyIdentifier).toLowerCase() : null;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unable to parse the authority key identifier of the certificate {}", certificate.getSubjectX500Principal());
+            return null;
+        }
+    }
+
     private static void setIssuerDNParams(Certificate modal, String issuerDN) {
         modal.setIssuerDn(issuerDN);
         LdapName ldapName = null;
@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.URL;
 import java.net.URLConnection;
 import java.security.GeneralSecurityException;
@@ -26,13 +27,32 @@ import java.security.cert.X509Certificate;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class CrlUtil {
     private static final Logger logger = LoggerFactory.getLogger(CrlUtil.class);
     //CRL Timeout setting when initiating URL Connection. If the connection takes more than 30 seconds, it is determined as not reachable
     private static final Integer CRL_CONNECTION_TIMEOUT = 30; //seconds
+    // CRL that does not specify nextUpdate is kept in the cache only for limited time before it is downloaded again
+    private static final long CRL_CACHE_DEFAULT_VALIDITY = TimeUnit.HOURS.toMillis(1);
+    // maximum number of distribution points kept in the cache
+    private static final int CRL_CACHE_MAX_SIZE = 256;
+
+    // downloaded and indexed CRLs keyed by the distribution point URL
+    private static final Map<String, CachedCrl> crlCache = new ConcurrentHashMap<>();
+    // downloads in progress keyed by the distribution point URL, concurrent checks of the same CRL wait for the pending download instead
+    private static final Map<String, CompletableFuture<CachedCrl>> pendingDownloads = new ConcurrentHashMap<>();
 
     private CrlUtil() {
     }
@@ -79,16 +99,21 @@ public class CrlUtil {
     }
 
     public static String checkCertificateRevocationList(X509Certificate certificate, String crlUrl) throws IOException, GeneralSecurityException, TimeoutException {
+        return checkCertificateRevocationList(certificate, crlUrl, (url, download) -> download.call());
+    }
+
+    /**
+     * Check the certificate against the CRL from the given distribution point
+     *
+     * @param certificate Certificate to be checked
+     * @param crlUrl      URL of the CRL distribution point
+     * @param guard       Guard of the CRL download, it is not applied when the CRL is taken from the cache
+     * @return Empty string when the certificate is not revoked, revocation reason and date otherwise
+     */
+    public static String checkCertificateRevocationList(X509Certificate certificate, String crlUrl, DownloadGuard guard) throws IOException, GeneralSecurityException, TimeoutException {
         logger.debug("Initiating CRL check for {}", certificate.getSubjectDN());
         logger.debug("CRL URL is {}", crlUrl);
-        X509CRL crl;
-        URL url = new URL(crlUrl);
-        URLConnection connection = url.openConnection();
-        connection.setConnectTimeout(CRL_CONNECTION_TIMEOUT);
-        CertificateFactory cf = CertificateFactory.getInstance("X509");
-        try (DataInputStream inStream = new DataInputStream(connection.getInputStream())) {
-            crl = (X509CRL) cf.generateCRL(inStream);
-        }
+        CachedCrl crl = getCrl(crlUrl, guard);
         logger.debug("Completed CRL check for {}", certificate.getSubjectDN());
         X509CRLEntry crlCertificate = crl.getRevokedCertificate(certificate.getSerialNumber());
         if (crlCertificate == null) {
@@ -103,4 +128,142 @@ public class CrlUtil {
             }
         }
     }
+
+    /**
+     * Remove all CRLs from the cache, next revocation check will download them again
+     */
+    public static void clearCrlCache() {
+        crlCache.clear();
+    }
+
+    private static CachedCrl getCrl(String crlUrl, DownloadGuard guard) throws IOException, GeneralSecurityException {
+        CachedCrl cachedCrl = crlCache.get(crlUrl);
+        if (cachedCrl != null && cachedCrl.isValid()) {
+            logger.debug("Using cached CRL from {}", crlUrl);
+            return cachedCrl;
+        }
+
+        CompletableFuture<CachedCrl> download = new CompletableFuture<>();
+        CompletableFuture<CachedCrl> pendingDownload = pendingDownloads.putIfAbsent(crlUrl, download);
+        if (pendingDownload != null) {
+            return waitForDownload(crlUrl, pendingDownload);
+        }
+        try {
+            // CRL could be downloaded by another thread before this download was registered
+            cachedCrl = crlCache.get(crlUrl);
+            if (cachedCrl == null || !cachedCrl.isValid()) {
+                cachedCrl = new CachedCrl(downloadCrl(crlUrl, guard));
+                evictCrlCache();
+                crlCache.put(crlUrl, cachedCrl);
+            }
+            download.complete(cachedCrl);
+            return cachedCrl;
+        } catch (IOException | GeneralSecurityException | RuntimeException | Error e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingDownloads.remove(crlUrl, download);
+        }
+    }
+
+    private static CachedCrl waitForDownload(String crlUrl, CompletableFuture<CachedCrl> pendingDownload) throws IOException, GeneralSecurityException {
+        try {
+            return pendingDownload.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Waiting for the CRL from " + crlUrl + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof GeneralSecurityException securityException) {
+                throw securityException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Unable to download the CRL from " + crlUrl, e.getCause());
+        }
+    }
+
+    private static X509CRL downloadCrl(String crlUrl, DownloadGuard guard) throws IOException, GeneralSecurityException {
+        try {
+            return guard.download(crlUrl, () -> downloadCrl(crlUrl));
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download of the CRL from " + crlUrl + " was interrupted", e);
+        } catch (Exception e) {
+            throw new IOException("Unable to download the CRL from " + crlUrl, e);
+        }
+    }
+
+    private static X509CRL downloadCrl(String crlUrl) throws IOException, GeneralSecurityException {
+        logger.debug("Downloading CRL from {}", crlUrl);
+        URL url = new URL(crlUrl);
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(CRL_CONNECTION_TIMEOUT));
+        connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(CRL_CONNECTION_TIMEOUT));
+        CertificateFactory cf = CertificateFactory.getInstance("X509");
+        try (DataInputStream inStream = new DataInputStream(connection.getInputStream())) {
+            return (X509CRL) cf.generateCRL(inStream);
+        }
+    }
+
+    private static void evictCrlCache() {
+        if (crlCache.size() < CRL_CACHE_MAX_SIZE) {
+            return;
+        }
+        crlCache.entrySet().removeIf(entry -> !entry.getValue().isValid());
+        while (crlCache.size() >= CRL_CACHE_MAX_SIZE) {
+            crlCache.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().getValidUntil()))
+                    .ifPresent(entry -> crlCache.remove(entry.getKey()));
+        }
+    }
+
+    /**
+     * Guard of the CRL download, e.g. limiting the number of concurrent requests to the same host
+     */
+    @FunctionalInterface
+    public interface DownloadGuard {
+        X509CRL download(String crlUrl, Callable<X509CRL> download) throws Exception;
+    }
+
+    /**
+     * Downloaded CRL together with index of its revoked serial numbers. Index is built only once
+     * when the CRL is downloaded and is valid until the nextUpdate of the CRL.
+     */
+    private static final class CachedCrl {
+        private final Map<BigInteger, X509CRLEntry> revokedCertificates = new HashMap<>();
+        private final Date validUntil;
+
+        private CachedCrl(X509CRL crl) {
+            Set<? extends X509CRLEntry> entries = crl.getRevokedCertificates();
+            if (entries != null) {
+                for (X509CRLEntry entry : entries) {
+                    revokedCertificates.put(entry.getSerialNumber(), entry);
+                }
+            }
+            if (crl.getNextUpdate() != null) {
+                this.validUntil = crl.getNextUpdate();
+            } else {
+                this.validUntil = new Date(System.currentTimeMillis() + CRL_CACHE_DEFAULT_VALIDITY);
+            }
+            logger.debug("CRL issued by {} indexed with {} revoked certificates, valid until {}", crl.getIssuerX500Principal(), revokedCertificates.size(), validUntil);
+        }
+
+        private X509CRLEntry getRevokedCertificate(BigInteger serialNumber) {
+            return revokedCertificates.get(serialNumber);
+        }
+
+        private Date getValidUntil() {
+            return validUntil;
+        }
+
+        private boolean isValid() {
+            return new Date().before(validUntil);
+        }
+    }
 }
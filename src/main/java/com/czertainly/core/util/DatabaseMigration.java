@@ -53,7 +53,10 @@ public class DatabaseMigration {
         V202211141030__AttributeV2TablesAndMigration(-1479676999),
         V202301311500__PublicKeyMigration(-761670493),
         V202303211718__Scep_Roles(1153102066),
-        V202303230830__AttributeContentJsonMigration(1077049851);
+        V202303230830__AttributeContentJsonMigration(1077049851),
+        V202304091200__AttributeContentHashMigration(586488195),
+        V202304091300__CertificateKeyIdentifierMigration(-75723113),
+        V202304091400__CertificateStatisticMigration(1229977247);
 
         private final int checksum;
 
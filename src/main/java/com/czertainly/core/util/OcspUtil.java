@@ -1,6 +1,5 @@
 package com.czertainly.core.util;
 
-import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1TaggedObject;
 import org.bouncycastle.asn1.DERIA5String;
@@ -10,17 +9,23 @@ import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.asn1.ocsp.OCSPResponseStatus;
 import org.bouncycastle.asn1.x509.AccessDescription;
 import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
 import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
 import org.bouncycastle.asn1.x509.X509ObjectIdentifiers;
+import org.bouncycastle.cert.CertException;
+import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.cert.ocsp.*;
+import org.bouncycastle.operator.ContentVerifierProvider;
 import org.bouncycastle.operator.DigestCalculator;
-import org.bouncycastle.operator.DigestCalculatorProvider;
-import org.bouncycastle.operator.OperatorException;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,49 +33,57 @@ import java.io.*;
 import java.math.BigInteger;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.security.SecureRandom;
 import java.security.Security;
-import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class OcspUtil {
 	private static final Logger logger = LoggerFactory.getLogger(OcspUtil.class);
-	
+	// OCSP Timeout setting for connecting and reading the response from the OCSP responder
+	private static final int OCSP_CONNECTION_TIMEOUT = 30; //seconds
+	// maximum number of CertIDs sent to the OCSP responder in a single request
+	private static final int OCSP_BATCH_SIZE = 20;
+	// maximum number of OCSP statuses kept in the cache
+	private static final int OCSP_CACHE_MAX_SIZE = 10000;
+	// length of the nonce in bytes, see RFC 8954
+	private static final int NONCE_LENGTH = 32;
+
+	private static final SecureRandom nonceGenerator = new SecureRandom();
+
+	// OCSP statuses keyed by the OCSP URL and CertID, valid until nextUpdate of the response
+	private static final Map<String, CachedOcspStatus> ocspCache = new ConcurrentHashMap<>();
+
 	private OcspUtil() {}
 
 	public static String getChainFromAia(X509Certificate certificate) {
 		byte[] octetBytes = certificate.getExtensionValue(Extension.authorityInfoAccess.getId());
-
-		DLSequence dlSequence = null;
-		ASN1Encodable asn1Encodable = null;
-
+		if (octetBytes == null) {
+			logger.info("Chain for the certificate is not available in Authority Information Access");
+			return null;
+		}
 		try {
 			ASN1Primitive fromExtensionValue = JcaX509ExtensionUtils.parseExtensionValue(octetBytes);
-			if (!(fromExtensionValue instanceof DLSequence))
-				return null;
-			dlSequence = (DLSequence) fromExtensionValue;
-			for (int i = 0; i < dlSequence.size(); i++) {
-				asn1Encodable = dlSequence.getObjectAt(i);
-				if (asn1Encodable instanceof DLSequence)
-					break;
-			}
-			if (!(asn1Encodable instanceof DLSequence))
-				return null;
-			dlSequence = (DLSequence) asn1Encodable;
-			for (int i = 0; i < dlSequence.size(); i++) {
-				asn1Encodable = dlSequence.getObjectAt(i);
-				if (asn1Encodable instanceof ASN1TaggedObject)
-					break;
-			}
-			if (!(asn1Encodable instanceof ASN1TaggedObject))
-				return null;
-			ASN1TaggedObject derTaggedObject = (ASN1TaggedObject) asn1Encodable;
-			byte[] encoded = derTaggedObject.getEncoded();
-			if (derTaggedObject.getTagNo() == 6) {
-				int len = encoded[1];
-				logger.info("Chain for the certificate is {}", new String(encoded, 2, len));
-				return new String(encoded, 2, len);
+			AuthorityInformationAccess authorityInformationAccess = AuthorityInformationAccess.getInstance(fromExtensionValue);
+			for (AccessDescription accessDescription : authorityInformationAccess.getAccessDescriptions()) {
+				if (!accessDescription.getAccessMethod().equals(X509ObjectIdentifiers.id_ad_caIssuers)) {
+					continue;
+				}
+				GeneralName name = accessDescription.getAccessLocation();
+				if (name.getTagNo() != GeneralName.uniformResourceIdentifier) {
+					continue;
+				}
+				String chainUrl = DERIA5String.getInstance((ASN1TaggedObject) name.toASN1Primitive(), false).getString();
+				logger.info("Chain for the certificate is {}", chainUrl);
+				return chainUrl;
 			}
 		} catch (Exception e) {
 			logger.error("Error while getting Chain");
@@ -111,44 +124,180 @@ public class OcspUtil {
 	}
 	
 	public static String checkOcsp(X509Certificate certificate, X509Certificate issuer, String serviceUrl) throws Exception {
-			logger.debug("OCSP Check URL is {}",serviceUrl);
-			OCSPReq request = generateOCSPRequest(issuer, certificate.getSerialNumber());
-			OCSPResp ocspResponse = getOCSPResponse(serviceUrl, request);
-			if (OCSPResponseStatus.SUCCESSFUL == ocspResponse.getStatus())
-				logger.debug("OCSP Server responded with status");
-
-			BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
-			SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
-
-			if (responses != null && responses.length == 1) {
-				SingleResp resp = responses[0];
-				Object status = resp.getCertStatus();
-				if (status == org.bouncycastle.cert.ocsp.CertificateStatus.GOOD) {
-					logger.debug("OCSP Check Success. Certificate is valid");
-					return "Success";
-				} else if (status instanceof RevokedStatus) {
-					logger.debug("OCSP Check Failed. Certificate is revoked");
-					return "Failed";
-				} else if (status instanceof UnknownStatus) {
-					logger.debug("OCSP Check Unknown");
-					return "Unknown";
+		return checkOcsp(List.of(certificate), issuer, serviceUrl).get(certificate.getSerialNumber());
+	}
+
+	/**
+	 * Check OCSP status of certificates issued by the same issuer. Statuses already known from previous
+	 * OCSP responses that are still within their nextUpdate are taken from the cache, remaining certificates
+	 * are packed into OCSP requests with multiple CertIDs.
+	 *
+	 * @param certificates Certificates to be checked, all issued by the issuer
+	 * @param issuer       Issuer of the certificates
+	 * @param serviceUrl   OCSP URL
+	 * @return Map of certificate serial numbers to the OCSP check result (Success, Failed or Unknown)
+	 */
+	public static Map<BigInteger, String> checkOcsp(List<X509Certificate> certificates, X509Certificate issuer, String serviceUrl) throws Exception {
+		logger.debug("OCSP Check URL is {}", serviceUrl);
+		Map<BigInteger, String> result = new HashMap<>();
+		List<CertificateID> toRequest = new ArrayList<>();
+
+		DigestCalculator digestCalculator = new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1);
+		JcaX509CertificateHolder issuerHolder = new JcaX509CertificateHolder(issuer);
+		for (X509Certificate certificate : certificates) {
+			CertificateID id = new CertificateID(digestCalculator, issuerHolder, certificate.getSerialNumber());
+			CachedOcspStatus cached = ocspCache.get(getCacheKey(serviceUrl, id));
+			if (cached != null && cached.isValid()) {
+				logger.debug("Using cached OCSP status for serial number {}", certificate.getSerialNumber().toString(16));
+				result.put(certificate.getSerialNumber(), cached.getStatus());
+			} else {
+				toRequest.add(id);
+			}
+		}
+
+		for (int i = 0; i < toRequest.size(); i += OCSP_BATCH_SIZE) {
+			List<CertificateID> batch = toRequest.subList(i, Math.min(i + OCSP_BATCH_SIZE, toRequest.size()));
+			result.putAll(requestOcspStatus(serviceUrl, batch, issuer));
+		}
+		return result;
+	}
+
+	/**
+	 * Remove all OCSP statuses from the cache
+	 */
+	public static void clearOcspCache() {
+		ocspCache.clear();
+	}
+
+	private static Map<BigInteger, String> requestOcspStatus(String serviceUrl, List<CertificateID> ids, X509Certificate issuer) throws Exception {
+		Map<BigInteger, String> result = new HashMap<>();
+		OCSPReq request = generateOCSPRequest(ids);
+		OCSPResp ocspResponse = getOCSPResponse(serviceUrl, request);
+		if (OCSPResponseStatus.SUCCESSFUL == ocspResponse.getStatus())
+			logger.debug("OCSP Server responded with status");
+
+		BasicOCSPResp basicResponse = (OCSPResponseStatus.SUCCESSFUL == ocspResponse.getStatus()) ? (BasicOCSPResp) ocspResponse.getResponseObject() : null;
+		if (basicResponse != null && !isResponseTrusted(basicResponse, request, issuer)) {
+			logger.warn("OCSP response from {} is not trusted, statuses of the certificates are unknown", serviceUrl);
+			basicResponse = null;
+		}
+		SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
+
+		if (responses != null) {
+			for (SingleResp resp : responses) {
+				// single response to a single request is accepted as is, otherwise responses are matched by CertID
+				CertificateID id = (ids.size() == 1 && responses.length == 1) ? ids.get(0) : resp.getCertID();
+				if (!ids.contains(id)) {
+					continue;
 				}
+				String status = getOcspStatus(resp);
+				result.put(id.getSerialNumber(), status);
+				cacheOcspStatus(serviceUrl, id, resp, status);
+			}
+		}
+
+		for (CertificateID id : ids) {
+			if (result.containsKey(id.getSerialNumber())) {
+				continue;
+			}
+			if (ids.size() > 1) {
+				// some responders do not support multiple CertIDs in one request, ask for the certificate separately
+				result.putAll(requestOcspStatus(serviceUrl, List.of(id), issuer));
+			} else {
+				logger.debug("OCSP Check Unknown.");
+				result.put(id.getSerialNumber(), "Unknown");
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Check that the OCSP response is signed by the issuer or by the responder delegated by the issuer and that
+	 * it answers the request. Response without nonce is accepted, as responders serving pre-produced responses do not
+	 * include the nonce.
+	 *
+	 * @param response OCSP response
+	 * @param request  OCSP request the response was received for
+	 * @param issuer   Issuer of the checked certificates
+	 * @return true if the response is trusted
+	 */
+	private static boolean isResponseTrusted(BasicOCSPResp response, OCSPReq request, X509Certificate issuer) throws OperatorCreationException, OCSPException {
+		Extension responseNonce = response.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+		if (responseNonce != null && !responseNonce.getExtnValue().equals(request.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce).getExtnValue())) {
+			logger.debug("Nonce of the OCSP response does not match the request");
+			return false;
+		}
+
+		ContentVerifierProvider issuerVerifier = new JcaContentVerifierProviderBuilder().build(issuer.getPublicKey());
+		if (response.isSignatureValid(issuerVerifier)) {
+			return true;
+		}
+		// delegated responder must be issued directly by the issuer and authorized to sign OCSP responses
+		Date now = new Date();
+		for (X509CertificateHolder responder : response.getCerts()) {
+			try {
+				ExtendedKeyUsage extendedKeyUsage = ExtendedKeyUsage.fromExtensions(responder.getExtensions());
+				if (extendedKeyUsage == null || !extendedKeyUsage.hasKeyPurposeId(KeyPurposeId.id_kp_OCSPSigning)
+						|| !responder.isValidOn(now) || !responder.isSignatureValid(issuerVerifier)) {
+					continue;
+				}
+				if (response.isSignatureValid(new JcaContentVerifierProviderBuilder().build(responder))) {
+					return true;
+				}
+			} catch (CertException | CertificateException e) {
+				logger.debug("Unable to verify the OCSP responder certificate {}: {}", responder.getSubject(), e.getMessage());
+			}
+		}
+		logger.debug("Signature of the OCSP response is not valid");
+		return false;
+	}
+
+	private static String getOcspStatus(SingleResp resp) {
+		Object status = resp.getCertStatus();
+		if (status == org.bouncycastle.cert.ocsp.CertificateStatus.GOOD) {
+			logger.debug("OCSP Check Success. Certificate is valid");
+			return "Success";
+		} else if (status instanceof RevokedStatus) {
+			logger.debug("OCSP Check Failed. Certificate is revoked");
+			return "Failed";
+		} else if (status instanceof UnknownStatus) {
+			logger.debug("OCSP Check Unknown");
+			return "Unknown";
 		}
 		logger.debug("OCSP Check Unknown.");
 		return "Unknown";
 	}
-	
-	private static OCSPReq generateOCSPRequest(X509Certificate issuerCert, BigInteger serialNumber)
-			throws OCSPException, IOException, OperatorException, CertificateEncodingException {
-		JcaDigestCalculatorProviderBuilder digestCalculatorProviderBuilder = new JcaDigestCalculatorProviderBuilder();
-		DigestCalculatorProvider digestCalculatorProvider = digestCalculatorProviderBuilder.build();
-		DigestCalculator digestCalculator = digestCalculatorProvider.get(CertificateID.HASH_SHA1);
-		CertificateID id = new CertificateID(digestCalculator, new JcaX509CertificateHolder(issuerCert), serialNumber);
-		BigInteger nonce = BigInteger.valueOf(System.currentTimeMillis());
+
+	private static void cacheOcspStatus(String serviceUrl, CertificateID id, SingleResp resp, String status) {
+		Date now = new Date();
+		// responses without nextUpdate indicate that newer information is always available and cannot be cached
+		if (resp.getNextUpdate() == null || !resp.getNextUpdate().after(now) || resp.getThisUpdate().after(now)) {
+			return;
+		}
+		if (ocspCache.size() >= OCSP_CACHE_MAX_SIZE) {
+			ocspCache.entrySet().removeIf(entry -> !entry.getValue().isValid());
+			while (ocspCache.size() >= OCSP_CACHE_MAX_SIZE) {
+				ocspCache.entrySet().stream()
+						.min(Comparator.comparing(entry -> entry.getValue().getValidUntil()))
+						.ifPresent(entry -> ocspCache.remove(entry.getKey()));
+			}
+		}
+		ocspCache.put(getCacheKey(serviceUrl, id), new CachedOcspStatus(status, resp.getNextUpdate()));
+	}
+
+	private static String getCacheKey(String serviceUrl, CertificateID id) {
+		return serviceUrl + "|" + Hex.toHexString(id.getIssuerNameHash()) + "|" + Hex.toHexString(id.getIssuerKeyHash()) + "|" + id.getSerialNumber().toString(16);
+	}
+
+	private static OCSPReq generateOCSPRequest(List<CertificateID> ids) throws OCSPException {
+		byte[] nonce = new byte[NONCE_LENGTH];
+		nonceGenerator.nextBytes(nonce);
 		OCSPReqBuilder gen = new OCSPReqBuilder();
-		gen.addRequest(id);
+		for (CertificateID id : ids) {
+			gen.addRequest(id);
+		}
 		Extension ext = new Extension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce, false,
-				new DEROctetString(nonce.toByteArray()));
+				new DEROctetString(nonce));
 		gen.setRequestExtensions(new Extensions(new Extension[] { ext }));
 
 		return gen.build();
@@ -161,6 +310,8 @@ public class OcspUtil {
 			if (serviceUrl.startsWith("http")) {
 				URL url = new URL(serviceUrl);
 				HttpURLConnection con = (HttpURLConnection) url.openConnection();
+				con.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(OCSP_CONNECTION_TIMEOUT));
+				con.setReadTimeout((int) TimeUnit.SECONDS.toMillis(OCSP_CONNECTION_TIMEOUT));
 				con.setRequestProperty("Content-Type", "application/ocsp-request");
 				con.setRequestProperty("Accept", "application/ocsp-response");
 				con.setDoOutput(true);
@@ -172,8 +323,9 @@ public class OcspUtil {
 				dataOut.close();
 
 				// Get Response
-				InputStream in = (InputStream) con.getContent();
-                return new OCSPResp(in);
+				try (InputStream in = con.getInputStream()) {
+					return new OCSPResp(in);
+				}
 			} else {
 				throw new IllegalArgumentException("Only http is supported for OCSP requests");
 			}
@@ -182,4 +334,26 @@ public class OcspUtil {
 			throw new IOException("Cannot get OCSP response from URL: " + serviceUrl, e);
 		}
 	}
+
+	private static final class CachedOcspStatus {
+		private final String status;
+		private final Date validUntil;
+
+		private CachedOcspStatus(String status, Date validUntil) {
+			this.status = status;
+			this.validUntil = validUntil;
+		}
+
+		private String getStatus() {
+			return status;
+		}
+
+		private Date getValidUntil() {
+			return validUntil;
+		}
+
+		private boolean isValid() {
+			return new Date().before(validUntil);
+		}
+	}
 }
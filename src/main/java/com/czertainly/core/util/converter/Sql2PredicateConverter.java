@@ -1,5 +1,7 @@
 package com.czertainly.core.util.converter;
 
+import com.czertainly.api.exception.ValidationError;
+import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
 import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
 import com.czertainly.api.model.common.enums.IPlatformEnum;
@@ -12,6 +14,7 @@ import com.czertainly.api.model.core.search.SearchableFields;
 import com.czertainly.core.dao.entity.AttributeContent;
 import com.czertainly.core.dao.entity.AttributeContent2Object;
 import com.czertainly.core.dao.entity.AttributeContentItem;
+import com.czertainly.core.dao.entity.AttributeDefinition;
 import com.czertainly.core.dao.entity.CryptographicKeyItem;
 import com.czertainly.core.enums.SearchFieldNameEnum;
 import com.czertainly.core.enums.SearchFieldTypeEnum;
@@ -26,31 +29,28 @@ public class Sql2PredicateConverter {
     private static final String SIGNATURE_VERIFICATION = "%\"Signature Verification\":{\"status\":\"%STATUS%\"%";
     private static final String CRL_VERIFICATION = "%\"CRL Verification\":{\"status\":\"%STATUS%\"%";
 
-    public static Predicate mapSearchFilter2Predicates(final List<SearchFilterRequestDto> dtos, final CriteriaBuilder criteriaBuilder, final Root root, final List<UUID> objectUUIDsToBeFiltered) {
+    /**
+     * Map search filters to predicates of the query. Custom and meta attribute filters are mapped to correlated
+     * EXISTS subqueries, so the matching objects are resolved by the database within the same statement.
+     *
+     * @param dtos             Search filters
+     * @param criteriaBuilder  Criteria builder
+     * @param root             Root of the query
+     * @param query            Query the subqueries are created for
+     * @param searchableFields Searchable custom and meta attributes
+     * @param resource         Resource of the objects the attributes belong to
+     * @return Predicate of all search filters
+     */
+    public static Predicate mapSearchFilter2Predicates(final List<SearchFilterRequestDto> dtos, final CriteriaBuilder criteriaBuilder, final Root root, final CommonAbstractCriteria query, final List<SearchFieldObject> searchableFields, final Resource resource) {
         final List<Predicate> predicates = new ArrayList<>();
-        boolean hasFilteredAttributes = false;
         for (final SearchFilterRequestDto dto : dtos) {
             if (dto.getSearchGroup() == SearchGroup.PROPERTY) {
                 predicates.add(mapSearchFilter2Predicate(dto, criteriaBuilder, root));
-            } else {
-                hasFilteredAttributes = true;
+            } else if (dto.getSearchGroup() == SearchGroup.CUSTOM || dto.getSearchGroup() == SearchGroup.META) {
+                predicates.add(prepareAttributeExistsPredicate(searchableFields, dto, criteriaBuilder, root, query, resource));
             }
         }
-        final Predicate propertyPredicates = criteriaBuilder.and(predicates.toArray(new Predicate[]{}));
-        if (objectUUIDsToBeFiltered != null && !dtos.isEmpty() && hasFilteredAttributes) {
-            Predicate uuidOrPredicate = root.get("uuid").in(objectUUIDsToBeFiltered);
-            if (root.getJavaType().equals(CryptographicKeyItem.class)) {
-                uuidOrPredicate = criteriaBuilder.or(
-                        uuidOrPredicate,
-                        prepareExpression(root, "cryptographicKey.uuid").in(objectUUIDsToBeFiltered));
-            }
-            return criteriaBuilder.and(propertyPredicates, uuidOrPredicate);
-        }
-        return propertyPredicates;
-    }
-
-    public static Predicate mapSearchFilter2Predicates(final List<SearchFilterRequestDto> dtos, final CriteriaBuilder criteriaBuilder, final Root root) {
-        return mapSearchFilter2Predicates(dtos, criteriaBuilder, root, null);
+        return criteriaBuilder.and(predicates.toArray(new Predicate[]{}));
     }
 
     public static Predicate mapSearchFilter2Predicate(final SearchFilterRequestDto dto, final CriteriaBuilder criteriaBuilder, final Root root) {
@@ -252,110 +252,46 @@ public class Sql2PredicateConverter {
         return textToBeFormatted.replace("%STATUS%", statusCode);
     }
 
-    public static CriteriaQueryDataObject prepareQueryToSearchIntoAttributes(final List<SearchFieldObject> searchableFields, final List<SearchFilterRequestDto> dtos, final CriteriaBuilder criteriaBuilder, final Resource resource) {
-
-        final CriteriaQuery<UUID> criteriaQuery = criteriaBuilder.createQuery(UUID.class);
-        final Root<AttributeContent2Object> root = criteriaQuery.from(AttributeContent2Object.class);
-
-        criteriaQuery.distinct(true).select(root.get("objectUuid"));
-
-        final List<Predicate> rootPredicates = new ArrayList<>();
-
-        for (final SearchFilterRequestDto dto : dtos) {
-            final SearchGroup searchGroup = dto.getSearchGroup();
-            if (searchGroup == SearchGroup.CUSTOM || searchGroup == SearchGroup.META) {
-
-                // --- SUB QUERY ---
-                final Subquery<UUID> subquery = criteriaQuery.subquery(UUID.class);
-                final Root<AttributeContent2Object> subRoot = subquery.from(AttributeContent2Object.class);
-                final Join<AttributeContent2Object, AttributeContent> joinAttributeContent = subRoot.join("attributeContent");
-                final Join<AttributeContent, AttributeContentItem> joinAttributeContentItem = joinAttributeContent.join("attributeContentItems");
-
-                subquery.select(subRoot.get("objectUuid"));
-
-                final List<Predicate> subPredicates = new ArrayList<>();
-                subPredicates.add(criteriaBuilder.equal(subRoot.get("objectType"), resource));
-
-                final String identifier = dto.getFieldIdentifier();
-                final String[] fieldIdentifier = identifier.split("\\|");
-                final AttributeContentType fieldAttributeContentType = AttributeContentType.valueOf(fieldIdentifier[1]);
-                final String fieldIdentifierName = fieldIdentifier[0];
-                final Optional<SearchFieldObject> searchFieldObject =
-                        searchableFields.stream().filter(attr ->
-                                attr.getAttributeType().equals(searchGroup.getAttributeType())
-                                        && attr.getAttributeName().equals(fieldIdentifierName)
-                                            && attr.getAttributeContentType().equals(fieldAttributeContentType)).findFirst();
-
-                if (searchFieldObject.isPresent()) {
-
-                    final SearchFieldObject searchField = searchFieldObject.get();
-
-                    final Subquery<String> jsonValueQuery = subquery.subquery(String.class);
-                    final Root subACIRoot = jsonValueQuery.from(AttributeContentItem.class);
-
-                    final Expression expressionFunctionToGetJsonValue = criteriaBuilder.function("jsonb_extract_path_text", String.class, subACIRoot.get("json"),
-                            criteriaBuilder.literal(searchField.getAttributeContentType().isFilterByData() ? "data" : "reference"));
-
-                    final Predicate predicateForContentType = criteriaBuilder.equal(prepareExpression(subACIRoot, "attributeContent.attributeDefinition.contentType"), searchField.getAttributeContentType());
-                    final Predicate predicateToKeepRelationWithUpperQuery = criteriaBuilder.equal(subACIRoot.get("uuid"), joinAttributeContentItem.get("uuid"));
-                    final Predicate predicateGroup = criteriaBuilder.equal(prepareExpression(subACIRoot, "attributeContent.attributeDefinition.type"), searchField.getAttributeType());
-                    final Predicate predicateAttributeName =
-                            criteriaBuilder.equal(prepareExpression(subACIRoot, "attributeContent.attributeDefinition.attributeName"), fieldIdentifierName);
-
-                    jsonValueQuery.select(expressionFunctionToGetJsonValue);
-                    jsonValueQuery.where(predicateForContentType, predicateToKeepRelationWithUpperQuery, predicateAttributeName, predicateGroup);
-
-                    final Predicate predicateOfTheExpression =
-                            buildPredicateByCondition(criteriaBuilder, dto.getCondition(), jsonValueQuery, null, searchField.isDateTimeFormat(), searchField.isBooleanFormat(), dto, searchField);
-
-                    subPredicates.add(predicateOfTheExpression);
-                    subquery.where(subPredicates.toArray(new Predicate[]{}));
-                    rootPredicates.add(criteriaBuilder.in(root.get("objectUuid")).value(subquery));
-                }
-            }
+    private static Predicate prepareAttributeExistsPredicate(final List<SearchFieldObject> searchableFields, final SearchFilterRequestDto dto, final CriteriaBuilder criteriaBuilder, final Root root, final CommonAbstractCriteria query, final Resource resource) {
+        final SearchGroup searchGroup = dto.getSearchGroup();
+        final String[] fieldIdentifier = dto.getFieldIdentifier().split("\\|");
+        final AttributeContentType fieldAttributeContentType = AttributeContentType.valueOf(fieldIdentifier[1]);
+        final String fieldIdentifierName = fieldIdentifier[0];
+        final Optional<SearchFieldObject> searchFieldObject =
+                searchableFields.stream().filter(attr ->
+                        attr.getAttributeType().equals(searchGroup.getAttributeType())
+                                && attr.getAttributeName().equals(fieldIdentifierName)
+                                && attr.getAttributeContentType().equals(fieldAttributeContentType)).findFirst();
+        if (searchFieldObject.isEmpty()) {
+            throw new ValidationException(ValidationError.create("Unknown attribute {} to filter by", dto.getFieldIdentifier()));
         }
-
-        final CriteriaQueryDataObject cqdo = new CriteriaQueryDataObject();
-        cqdo.setCriteriaQuery(criteriaQuery);
-        cqdo.setPredicate(criteriaBuilder.and(rootPredicates.toArray(new Predicate[]{})));
-        return cqdo;
-    }
-
-
-    public static class CriteriaQueryDataObject {
-
-        private CriteriaQuery criteriaQuery;
-
-        private Root root;
-
-        private Predicate predicate;
-
-        public CriteriaQuery getCriteriaQuery() {
-            return criteriaQuery;
-        }
-
-        public void setCriteriaQuery(CriteriaQuery criteriaQuery) {
-            this.criteriaQuery = criteriaQuery;
-        }
-
-        public Predicate getPredicate() {
-            return predicate;
-        }
-
-        public void setPredicate(Predicate predicate) {
-            this.predicate = predicate;
-        }
-
-        public Root getRoot() {
-            return root;
+        final SearchFieldObject searchField = searchFieldObject.get();
+
+        final Subquery<Integer> subquery = query.subquery(Integer.class);
+        final Root<AttributeContent2Object> subRoot = subquery.from(AttributeContent2Object.class);
+        final Join<AttributeContent2Object, AttributeContent> joinAttributeContent = subRoot.join("attributeContent");
+        final Join<AttributeContent, AttributeDefinition> joinAttributeDefinition = joinAttributeContent.join("attributeDefinition");
+        final Join<AttributeContent, AttributeContentItem> joinAttributeContentItem = joinAttributeContent.join("attributeContentItems");
+
+        Predicate predicateObjectUuid = criteriaBuilder.equal(subRoot.get("objectUuid"), root.get("uuid"));
+        if (root.getJavaType().equals(CryptographicKeyItem.class)) {
+            predicateObjectUuid = criteriaBuilder.or(
+                    predicateObjectUuid,
+                    criteriaBuilder.equal(subRoot.get("objectUuid"), prepareExpression(root, "cryptographicKey.uuid")));
         }
 
-        public void setRoot(Root root) {
-            this.root = root;
-        }
+        final Expression expressionFunctionToGetJsonValue = criteriaBuilder.function("jsonb_extract_path_text", String.class, joinAttributeContentItem.get("json"),
+                criteriaBuilder.literal(searchField.getAttributeContentType().isFilterByData() ? "data" : "reference"));
+
+        subquery.select(criteriaBuilder.literal(1));
+        subquery.where(
+                criteriaBuilder.equal(subRoot.get("objectType"), resource),
+                predicateObjectUuid,
+                criteriaBuilder.equal(joinAttributeDefinition.get("type"), searchField.getAttributeType()),
+                criteriaBuilder.equal(joinAttributeDefinition.get("contentType"), searchField.getAttributeContentType()),
+                criteriaBuilder.equal(joinAttributeDefinition.get("attributeName"), fieldIdentifierName),
+                buildPredicateByCondition(criteriaBuilder, dto.getCondition(), expressionFunctionToGetJsonValue, null, searchField.isDateTimeFormat(), searchField.isBooleanFormat(), dto, searchField)
+        );
+        return criteriaBuilder.exists(subquery);
     }
-
-
 }
-
-
@@ -0,0 +1,132 @@
+package db.migration;
+
+import com.czertainly.core.util.AttributeContentHashUtil;
+import com.czertainly.core.util.DatabaseMigration;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Migration script for the content hash of the attribute content. Hash is calculated for all stored content,
+ * identical content of the same attribute definition is merged and the unique index is created on the hash.
+ */
+public class V202304091200__AttributeContentHashMigration extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V202304091200__AttributeContentHashMigration.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public Integer getChecksum() {
+        return DatabaseMigration.JavaMigrationChecksums.V202304091200__AttributeContentHashMigration.getChecksum();
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("ALTER TABLE attribute_content ADD COLUMN content_hash VARCHAR");
+        }
+
+        final Map<UUID, UUID> definitions = new HashMap<>();
+        final Map<UUID, List<String>> contentItems = new LinkedHashMap<>();
+        try (Statement select = context.getConnection().createStatement();
+             ResultSet rows = select.executeQuery("SELECT ac.uuid, ac.attribute_definition_uuid, aci.json::text AS json FROM attribute_content ac " +
+                     "LEFT JOIN attribute_content_item aci ON aci.attribute_content_uuid = ac.uuid ORDER BY ac.uuid")) {
+            while (rows.next()) {
+                final UUID attributeContentUuid = UUID.fromString(rows.getString("uuid"));
+                definitions.put(attributeContentUuid, UUID.fromString(rows.getString("attribute_definition_uuid")));
+                final List<String> items = contentItems.computeIfAbsent(attributeContentUuid, k -> new ArrayList<>());
+                final String json = rows.getString("json");
+                if (json != null) {
+                    items.add(json);
+                }
+            }
+        }
+
+        final Map<String, UUID> survivingContents = new HashMap<>();
+        final Map<UUID, String> contentHashes = new LinkedHashMap<>();
+        final Map<UUID, UUID> duplicateContents = new LinkedHashMap<>();
+        for (Map.Entry<UUID, List<String>> entry : contentItems.entrySet()) {
+            final String contentHash = AttributeContentHashUtil.calculateJsonContentHash(entry.getValue());
+            final UUID survivingContentUuid = survivingContents.putIfAbsent(definitions.get(entry.getKey()) + ":" + contentHash, entry.getKey());
+            if (survivingContentUuid == null) {
+                contentHashes.put(entry.getKey(), contentHash);
+            } else {
+                duplicateContents.put(entry.getKey(), survivingContentUuid);
+            }
+        }
+        logger.info("Calculated hash of {} attribute contents, {} duplicate contents will be merged", contentHashes.size(), duplicateContents.size());
+
+        mergeDuplicateContents(context, duplicateContents);
+        updateContentHashes(context, contentHashes);
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("DROP INDEX attribute_content_attribute_definition_uuid_index");
+            statement.execute("CREATE UNIQUE INDEX attribute_content_definition_hash_index ON attribute_content (attribute_definition_uuid, content_hash)");
+        }
+    }
+
+    private void mergeDuplicateContents(Context context, Map<UUID, UUID> duplicateContents) throws SQLException {
+        try (PreparedStatement relink = context.getConnection().prepareStatement("UPDATE attribute_content_2_object SET attribute_content_uuid = ? WHERE attribute_content_uuid = ?");
+             PreparedStatement deleteItems = context.getConnection().prepareStatement("DELETE FROM attribute_content_item WHERE attribute_content_uuid = ?");
+             PreparedStatement deleteContent = context.getConnection().prepareStatement("DELETE FROM attribute_content WHERE uuid = ?")) {
+            int count = 0;
+            for (Map.Entry<UUID, UUID> entry : duplicateContents.entrySet()) {
+                relink.setObject(1, entry.getValue());
+                relink.setObject(2, entry.getKey());
+                relink.addBatch();
+                deleteItems.setObject(1, entry.getKey());
+                deleteItems.addBatch();
+                deleteContent.setObject(1, entry.getKey());
+                deleteContent.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    executeBatches(relink, deleteItems, deleteContent);
+                }
+            }
+            executeBatches(relink, deleteItems, deleteContent);
+        }
+
+        if (duplicateContents.isEmpty()) {
+            return;
+        }
+        // object could be linked to several of the merged contents, the same link is kept only once.
+        // Links of the metadata from different sources are not duplicates.
+        try (Statement statement = context.getConnection().createStatement()) {
+            final int deleted = statement.executeUpdate("DELETE FROM attribute_content_2_object a USING attribute_content_2_object b " +
+                    "WHERE a.uuid > b.uuid AND a.attribute_content_uuid = b.attribute_content_uuid " +
+                    "AND a.object_type = b.object_type AND a.object_uuid = b.object_uuid " +
+                    "AND a.source_object_type IS NOT DISTINCT FROM b.source_object_type " +
+                    "AND a.source_object_uuid IS NOT DISTINCT FROM b.source_object_uuid " +
+                    "AND a.connector_uuid IS NOT DISTINCT FROM b.connector_uuid");
+            logger.info("Deleted {} duplicate links of the merged attribute contents", deleted);
+        }
+    }
+
+    private void updateContentHashes(Context context, Map<UUID, String> contentHashes) throws SQLException {
+        try (PreparedStatement update = context.getConnection().prepareStatement("UPDATE attribute_content SET content_hash = ? WHERE uuid = ?")) {
+            int count = 0;
+            for (Map.Entry<UUID, String> entry : contentHashes.entrySet()) {
+                update.setString(1, entry.getValue());
+                update.setObject(2, entry.getKey());
+                update.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    private void executeBatches(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+    }
+}
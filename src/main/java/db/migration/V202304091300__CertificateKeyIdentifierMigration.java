@@ -0,0 +1,89 @@
+package db.migration;
+
+import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.DatabaseMigration;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.security.auth.x500.X500Principal;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Migration script for the key identifiers and normalized DNs of the certificates that are used to resolve
+ * the certificate chain. Issuer links are created from the existing issuer serial numbers when the issuer is unambiguous.
+ */
+public class V202304091300__CertificateKeyIdentifierMigration extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V202304091300__CertificateKeyIdentifierMigration.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public Integer getChecksum() {
+        return DatabaseMigration.JavaMigrationChecksums.V202304091300__CertificateKeyIdentifierMigration.getChecksum();
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("ALTER TABLE certificate ADD COLUMN issuer_certificate_uuid UUID REFERENCES certificate(uuid) ON DELETE SET NULL, " +
+                    "ADD COLUMN subject_key_identifier VARCHAR, " +
+                    "ADD COLUMN authority_key_identifier VARCHAR, " +
+                    "ADD COLUMN subject_dn_normalized VARCHAR, " +
+                    "ADD COLUMN issuer_dn_normalized VARCHAR");
+        }
+
+        int count = 0;
+        try (Statement select = context.getConnection().createStatement();
+             PreparedStatement update = context.getConnection().prepareStatement("UPDATE certificate SET subject_key_identifier = ?, authority_key_identifier = ?, " +
+                     "subject_dn_normalized = ?, issuer_dn_normalized = ? WHERE uuid = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery("SELECT c.uuid, cc.content FROM certificate c JOIN certificate_content cc ON cc.id = c.certificate_content_id")) {
+                while (rows.next()) {
+                    final X509Certificate certificate;
+                    try {
+                        certificate = CertificateUtil.getX509Certificate(CertificateUtil.normalizeCertificateContent(rows.getString("content")));
+                    } catch (CertificateException | IllegalArgumentException e) {
+                        logger.warn("Unable to parse the certificate {}: {}", rows.getString("uuid"), e.getMessage());
+                        continue;
+                    }
+                    update.setString(1, CertificateUtil.getSubjectKeyIdentifier(certificate));
+                    update.setString(2, CertificateUtil.getAuthorityKeyIdentifier(certificate));
+                    update.setString(3, certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL));
+                    update.setString(4, certificate.getIssuerX500Principal().getName(X500Principal.CANONICAL));
+                    update.setObject(5, UUID.fromString(rows.getString("uuid")));
+                    update.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            update.executeBatch();
+        }
+        logger.info("Updated key identifiers of {} certificates", count);
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE INDEX certificate_issuer_certificate_uuid_index ON certificate (issuer_certificate_uuid)");
+            statement.execute("CREATE INDEX certificate_subject_key_identifier_index ON certificate (subject_key_identifier)");
+            statement.execute("CREATE INDEX certificate_authority_key_identifier_index ON certificate (authority_key_identifier)");
+            statement.execute("CREATE INDEX certificate_subject_dn_normalized_index ON certificate (subject_dn_normalized)");
+            statement.execute("CREATE INDEX certificate_subject_dn_index ON certificate (subject_dn)");
+            statement.execute("CREATE INDEX certificate_serial_number_index ON certificate (UPPER(serial_number))");
+
+            // issuer is linked only when it is unambiguous, key identifiers must match when both certificates have them.
+            // Certificates with more candidates are linked with the signature verified when their status is updated.
+            final String issuerCondition = "UPPER(i.serial_number) = UPPER(c.issuer_serial_number) AND i.subject_dn = c.issuer_dn AND i.uuid <> c.uuid " +
+                    "AND (c.authority_key_identifier IS NULL OR i.subject_key_identifier IS NULL OR i.subject_key_identifier = c.authority_key_identifier)";
+            int linked = statement.executeUpdate("UPDATE certificate c SET issuer_certificate_uuid = (SELECT i.uuid FROM certificate i WHERE " + issuerCondition + ") " +
+                    "WHERE c.issuer_serial_number IS NOT NULL AND (SELECT COUNT(*) FROM certificate i WHERE " + issuerCondition + ") = 1");
+            logger.info("Linked issuers of {} certificates", linked);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package db.migration;
+
+import com.czertainly.api.model.core.certificate.CertificateStatus;
+import com.czertainly.api.model.core.certificate.CertificateType;
+import com.czertainly.api.model.core.compliance.ComplianceStatus;
+import com.czertainly.core.model.CertificateStatisticKey;
+import com.czertainly.core.util.DatabaseMigration;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Migration script filling the certificate statistics from the existing certificates, so the statistics are available
+ * without waiting for the first reconciliation.
+ */
+public class V202304091400__CertificateStatisticMigration extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V202304091400__CertificateStatisticMigration.class);
+
+    @Override
+    public Integer getChecksum() {
+        return DatabaseMigration.JavaMigrationChecksums.V202304091400__CertificateStatisticMigration.getChecksum();
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final Map<CertificateStatisticKey, Long> counts = new HashMap<>();
+        try (Statement select = context.getConnection().createStatement();
+             ResultSet rows = select.executeQuery("SELECT ra_profile_uuid, group_uuid, key_size, status, compliance_status, certificate_type, basic_constraints, COUNT(*) AS certificate_count " +
+                     "FROM certificate GROUP BY ra_profile_uuid, group_uuid, key_size, status, compliance_status, certificate_type, basic_constraints")) {
+            while (rows.next()) {
+                final String status = rows.getString("status");
+                final String complianceStatus = rows.getString("compliance_status");
+                final String certificateType = rows.getString("certificate_type");
+                final Integer keySize = rows.getObject("key_size", Integer.class);
+                for (CertificateStatisticKey key : CertificateStatisticKey.getKeys(rows.getObject("ra_profile_uuid", UUID.class), rows.getObject("group_uuid", UUID.class),
+                        keySize,
+                        status != null ? CertificateStatus.valueOf(status) : null,
+                        complianceStatus != null ? ComplianceStatus.valueOf(complianceStatus) : null,
+                        certificateType != null ? CertificateType.valueOf(certificateType) : null,
+                        rows.getString("basic_constraints"))) {
+                    counts.merge(key, rows.getLong("certificate_count"), Long::sum);
+                }
+            }
+        }
+
+        try (PreparedStatement insert = context.getConnection().prepareStatement("INSERT INTO certificate_statistic (uuid, ra_profile_uuid, dimension, dimension_value, certificate_count) VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<CertificateStatisticKey, Long> count : counts.entrySet()) {
+                insert.setObject(1, UUID.randomUUID());
+                insert.setObject(2, count.getKey().getRaProfileUuid());
+                insert.setString(3, count.getKey().getDimension().name());
+                insert.setString(4, count.getKey().getValue());
+                insert.setLong(5, count.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        logger.info("Created {} certificate statistic counters", counts.size());
+    }
+}
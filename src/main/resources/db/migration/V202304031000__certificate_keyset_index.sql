@@ -0,0 +1 @@
+create index certificate_created_uuid_index on core.certificate (i_cre desc, uuid desc);
@@ -0,0 +1,11 @@
+create index attribute_content_2_object_object_uuid_index
+    on core.attribute_content_2_object (object_uuid, object_type, attribute_content_uuid);
+
+create index attribute_content_item_attribute_content_uuid_index
+    on core.attribute_content_item (attribute_content_uuid);
+
+create index attribute_content_attribute_definition_uuid_index
+    on core.attribute_content (attribute_definition_uuid);
+
+create index attribute_definition_name_type_index
+    on core.attribute_definition (attribute_name, attribute_type, attribute_content_type);
@@ -0,0 +1,12 @@
+CREATE TABLE certificate_statistic
+(
+    uuid              uuid    not null,
+    ra_profile_uuid   uuid,
+    dimension         varchar not null,
+    dimension_value   varchar,
+    certificate_count bigint  not null,
+    PRIMARY KEY (uuid)
+);
+
+create unique index certificate_statistic_key_index
+    on certificate_statistic (COALESCE(ra_profile_uuid, '00000000-0000-0000-0000-000000000000'), dimension, COALESCE(dimension_value, ''));
@@ -0,0 +1 @@
+create index acme_nonce_expires_index on core.acme_nonce (expires);
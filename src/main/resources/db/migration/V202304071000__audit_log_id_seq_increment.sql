@@ -0,0 +1 @@
+alter sequence core.audit_log_id_seq increment by 50;
@@ -0,0 +1 @@
+alter sequence core.certificate_content_id_seq increment by 50;
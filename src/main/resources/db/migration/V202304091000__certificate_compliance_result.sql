@@ -0,0 +1,28 @@
+create table core.certificate_compliance_result
+(
+    certificate_uuid uuid    not null,
+    rule_uuid        uuid    not null,
+    status           varchar not null,
+    primary key (certificate_uuid, rule_uuid),
+    constraint certificate_compliance_result_to_certificate_key
+        foreign key (certificate_uuid) references core.certificate (uuid) on delete cascade
+);
+
+create index certificate_compliance_result_rule_uuid_index on core.certificate_compliance_result (rule_uuid);
+create index certificate_compliance_status_index on core.certificate (compliance_status);
+
+-- rule listed in more than one status is migrated with the most severe one: NOK, then OK, then NA
+insert into core.certificate_compliance_result (certificate_uuid, rule_uuid, status)
+select distinct on (c.uuid, r.rule_uuid::uuid) c.uuid, r.rule_uuid::uuid, r.status
+from core.certificate c
+         cross join lateral (
+    select jsonb_array_elements_text(c.compliance_result::jsonb -> 'nok') as rule_uuid, 'NOK' as status, 1 as priority
+    union all
+    select jsonb_array_elements_text(c.compliance_result::jsonb -> 'ok'), 'OK', 2
+    union all
+    select jsonb_array_elements_text(c.compliance_result::jsonb -> 'na'), 'NA', 3
+    ) r
+where c.compliance_result is not null
+order by c.uuid, r.rule_uuid::uuid, r.priority;
+
+alter table core.certificate drop column compliance_result;
@@ -0,0 +1,2 @@
+create index attribute_content_2_object_attribute_content_uuid_index
+    on core.attribute_content_2_object (attribute_content_uuid);
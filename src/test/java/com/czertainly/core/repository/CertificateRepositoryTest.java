@@ -0,0 +1,110 @@
+package com.czertainly.core.repository;
+
+import com.czertainly.api.model.core.certificate.CertificateStatus;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.model.KeysetCursor;
+import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+import com.czertainly.core.util.BaseSpringBootTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+public class CertificateRepositoryTest extends BaseSpringBootTest {
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testFindUsingSecurityFilterByKeyset_sameCreated() {
+        List<UUID> uuids = saveCertificates(5);
+        // certificates created in the same instant are ordered by their UUID
+        entityManager.createQuery("UPDATE Certificate c SET c.created = :created WHERE c.uuid IN :uuids")
+                .setParameter("created", LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .setParameter("uuids", uuids)
+                .executeUpdate();
+        entityManager.clear();
+
+        List<UUID> listed = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        KeysetCursor cursor = null;
+        List<Certificate> certificates;
+        do {
+            certificates = certificateRepository.findUsingSecurityFilterByKeyset(createFilter(), (root, cb) -> root.get("uuid").in(uuids), cursor, 2);
+            pageSizes.add(certificates.size());
+            certificates.forEach(certificate -> listed.add(certificate.getUuid()));
+            if (!certificates.isEmpty()) {
+                Certificate last = certificates.get(certificates.size() - 1);
+                cursor = new KeysetCursor(last.getCreated(), last.getUuid());
+            }
+        } while (certificates.size() == 2);
+
+        Assertions.assertEquals(List.of(2, 2, 1), pageSizes);
+        // database compares UUIDs as unsigned bytes, same as their string representation
+        Assertions.assertEquals(uuids.stream().sorted(Comparator.comparing(UUID::toString).reversed()).toList(), listed);
+    }
+
+    @Test
+    public void testCountUsingSecurityFilterBySpecification_estimated() {
+        saveCertificates(3);
+        entityManager.createNativeQuery("ANALYZE certificate").executeUpdate();
+        long analyzed = certificateRepository.count();
+        saveCertificates(2);
+
+        // estimate is taken from the table statistics and does not include the certificates created since the last analyze
+        Assertions.assertEquals(analyzed, certificateRepository.countUsingSecurityFilterBySpecification(createFilter(), null, true));
+        Assertions.assertEquals(analyzed + 2, certificateRepository.countUsingSecurityFilterBySpecification(createFilter(), null, false));
+    }
+
+    @Test
+    public void testCountUsingSecurityFilterBySpecification_estimateFallback() {
+        saveCertificates(3);
+        entityManager.createNativeQuery("ANALYZE certificate").executeUpdate();
+        List<UUID> uuids = saveCertificates(2);
+        long exact = certificateRepository.count();
+
+        // filtered listing is counted exactly
+        Assertions.assertEquals(exact, certificateRepository.countUsingSecurityFilterBySpecification(createFilter(), (root, query, cb) -> cb.conjunction(), true));
+
+        // user allowed to access only specific certificates gets the exact count of those certificates
+        SecurityFilter restrictedFilter = createFilter();
+        restrictedFilter.getResourceFilter().setAreOnlySpecificObjectsAllowed(true);
+        restrictedFilter.getResourceFilter().addAllowedObjects(uuids.stream().map(UUID::toString).toList());
+        Assertions.assertEquals(2, certificateRepository.countUsingSecurityFilterBySpecification(restrictedFilter, null, true));
+
+        SecurityFilter forbiddenFilter = createFilter();
+        forbiddenFilter.getResourceFilter().addDeniedObjects(uuids.stream().map(UUID::toString).toList());
+        Assertions.assertEquals(exact - 2, certificateRepository.countUsingSecurityFilterBySpecification(forbiddenFilter, null, true));
+    }
+
+    private SecurityFilter createFilter() {
+        SecurityFilter filter = SecurityFilter.create();
+        filter.setResourceFilter(SecurityResourceFilter.create());
+        return filter;
+    }
+
+    private List<UUID> saveCertificates(int count) {
+        List<Certificate> certificates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Certificate certificate = new Certificate();
+            certificate.setSubjectDn("CN=Keyset Test " + i);
+            certificate.setIssuerDn("CN=Keyset Test CA");
+            certificate.setSerialNumber(UUID.randomUUID().toString());
+            certificate.setStatus(CertificateStatus.VALID);
+            certificates.add(certificate);
+        }
+        return certificateRepository.saveAllAndFlush(certificates).stream().map(Certificate::getUuid).toList();
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.util.List;
@@ -113,6 +114,39 @@ class CzertainlyAuthenticationClientTest {
         assertThrows(CzertainlyAuthenticationException.class, willThrow);
     }
 
+    @Test
+    void reusesCachedAuthenticationUntilInvalidated() throws InterruptedException {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        CzertainlyAuthenticationClient cachingClient = new CzertainlyAuthenticationClient(objectMapper,
+                String.format("http://%s:%d", authServiceMock.getHostName(), authServiceMock.getPort()));
+        ReflectionTestUtils.setField(cachingClient, "authenticationCacheTtl", 60L);
+        ReflectionTestUtils.setField(cachingClient, "authenticationCacheMaxSize", 100);
+        setUpSuccessfulAuthenticationResponse();
+        setUpSuccessfulAuthenticationResponse();
+        int requestCount = authServiceMock.getRequestCount();
+
+        // when
+        cachingClient.authenticate(new HttpHeaders());
+        AuthenticationInfo cachedInfo = cachingClient.authenticate(new HttpHeaders());
+
+        // then
+        assertEquals("FrantisekJednicka", cachedInfo.getUsername());
+        assertEquals(requestCount + 1, authServiceMock.getRequestCount());
+
+        // when
+        cachingClient.invalidateAuthenticationCache();
+        cachingClient.authenticate(new HttpHeaders());
+
+        // then
+        assertEquals(requestCount + 2, authServiceMock.getRequestCount());
+
+        // consume recorded requests so they do not interfere with other tests
+        getLastRequest();
+        getLastRequest();
+    }
+
     RecordedRequest getLastRequest() throws InterruptedException {
         return authServiceMock.takeRequest(500, TimeUnit.MILLISECONDS);
     }
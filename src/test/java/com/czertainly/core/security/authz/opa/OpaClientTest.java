@@ -17,6 +17,7 @@ import org.junit.jupiter.api.function.Executable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -123,6 +124,37 @@ class OpaClientTest {
         //@formatter:on
     }
 
+    @Test
+    void reusesCachedDecisionUntilInvalidated() throws InterruptedException {
+        // given
+        OpaClient cachingOpaClient = new OpaClient(new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false),
+                String.format("http://%s:%d", opaMock.getHostName(), opaMock.getPort()));
+        ReflectionTestUtils.setField(cachingOpaClient, "decisionCacheTtl", 60L);
+        ReflectionTestUtils.setField(cachingOpaClient, "decisionCacheMaxSize", 100);
+        setUpSuccessfulResourceAccessResponse();
+        setUpSuccessfulResourceAccessResponse();
+        int requestCount = opaMock.getRequestCount();
+
+        // when
+        cachingOpaClient.checkResourceAccess(OpaPolicy.METHOD.policyName, getResource(), getPrincipal(), null);
+        OpaResourceAccessResult cachedResult = cachingOpaClient.checkResourceAccess(OpaPolicy.METHOD.policyName, getResource(), getPrincipal(), null);
+
+        // then
+        assertTrue(cachedResult.isAuthorized());
+        assertEquals(requestCount + 1, opaMock.getRequestCount());
+
+        // when
+        cachingOpaClient.invalidateDecisionCache();
+        cachingOpaClient.checkResourceAccess(OpaPolicy.METHOD.policyName, getResource(), getPrincipal(), null);
+
+        // then
+        assertEquals(requestCount + 2, opaMock.getRequestCount());
+
+        // consume recorded requests so they do not interfere with other tests
+        getLastRequest();
+        getLastRequest();
+    }
+
     @Test
     void throwsExceptionWhenResponseIsEmpty() {
         // given
@@ -0,0 +1,72 @@
+package com.czertainly.core.service;
+
+import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
+import com.czertainly.core.service.acme.AcmeNonceStore;
+import com.czertainly.core.service.acme.impl.InMemoryAcmeNonceStore;
+import com.czertainly.core.util.BaseSpringBootTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+
+public class AcmeNonceStoreTest extends BaseSpringBootTest {
+
+    @Autowired
+    private AcmeNonceStore acmeNonceStore;
+
+    @Autowired
+    private AcmeNonceRepository acmeNonceRepository;
+
+    @Test
+    public void testConsumeNonce() {
+        acmeNonceStore.store("nonce", new Date(System.currentTimeMillis() + 60000));
+
+        Assertions.assertTrue(acmeNonceStore.consume("nonce"));
+        Assertions.assertFalse(acmeNonceStore.consume("nonce"));
+        Assertions.assertTrue(acmeNonceRepository.findByNonce("nonce").isEmpty());
+    }
+
+    @Test
+    public void testConsumeExpiredNonce() {
+        acmeNonceStore.store("expiredNonce", new Date(System.currentTimeMillis() - 60000));
+
+        Assertions.assertFalse(acmeNonceStore.consume("expiredNonce"));
+        Assertions.assertFalse(acmeNonceStore.consume("unknownNonce"));
+    }
+
+    @Test
+    public void testPurgeExpiredNonces() {
+        acmeNonceStore.store("expiredNonce", new Date(System.currentTimeMillis() - 60000));
+        acmeNonceStore.store("validNonce", new Date(System.currentTimeMillis() + 60000));
+
+        Assertions.assertEquals(1, acmeNonceStore.purgeExpired());
+        Assertions.assertTrue(acmeNonceRepository.findByNonce("expiredNonce").isEmpty());
+        Assertions.assertTrue(acmeNonceStore.consume("validNonce"));
+    }
+
+    @Test
+    public void testInMemoryNonceStore() {
+        AcmeNonceStore inMemoryStore = new InMemoryAcmeNonceStore();
+        inMemoryStore.store("nonce", new Date(System.currentTimeMillis() + 60000));
+        inMemoryStore.store("expiredNonce", new Date(System.currentTimeMillis() - 60000));
+
+        Assertions.assertEquals(1, inMemoryStore.purgeExpired());
+        Assertions.assertFalse(inMemoryStore.consume("expiredNonce"));
+        Assertions.assertTrue(inMemoryStore.consume("nonce"));
+        Assertions.assertFalse(inMemoryStore.consume("nonce"));
+    }
+
+    @Test
+    public void testInMemoryNonceStore_maxSize() {
+        AcmeNonceStore inMemoryStore = new InMemoryAcmeNonceStore(2);
+        inMemoryStore.store("oldestNonce", new Date(System.currentTimeMillis() + 60000));
+        inMemoryStore.store("olderNonce", new Date(System.currentTimeMillis() + 60000));
+        inMemoryStore.store("nonce", new Date(System.currentTimeMillis() + 60000));
+
+        // oldest nonce is evicted to keep the size of the store
+        Assertions.assertFalse(inMemoryStore.consume("oldestNonce"));
+        Assertions.assertTrue(inMemoryStore.consume("olderNonce"));
+        Assertions.assertTrue(inMemoryStore.consume("nonce"));
+    }
+}
@@ -2,18 +2,36 @@ package com.czertainly.core.service;
 
 import com.czertainly.api.model.core.audit.AuditLogFilter;
 import com.czertainly.api.model.core.audit.AuditLogResponseDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
+import com.czertainly.api.model.core.audit.ObjectType;
+import com.czertainly.api.model.core.audit.OperationStatusEnum;
+import com.czertainly.api.model.core.audit.OperationType;
+import com.czertainly.core.api.web.AuditLogControllerImpl;
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.entity.QAuditLog;
+import com.czertainly.core.dao.repository.AuditLogRepository;
+import com.czertainly.core.model.ExportResource;
 import com.czertainly.core.util.BaseSpringBootTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @SpringBootTest
 public class AuditLogExportTest extends BaseSpringBootTest {
@@ -21,14 +39,42 @@ public class AuditLogExportTest extends BaseSpringBootTest {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogControllerImpl auditLogController;
+
     @Test
     public void testExportAuditLog() throws IOException {
         auditLogService.listAuditLogs(new AuditLogFilter(), Pageable.unpaged());
-        ExportResultDto result = auditLogService.exportAuditLogs(new AuditLogFilter(), Sort.by("id"));
+        ExportResource result = auditLogService.exportAuditLogs(new AuditLogFilter(), Sort.by("id"));
+        Assertions.assertNotNull(result.getFilename());
+
+        try (ZipInputStream zis = new ZipInputStream(result.getInputStream())) {
+            ZipEntry entry = zis.getNextEntry();
+            Assertions.assertNotNull(entry);
+            Assertions.assertTrue(entry.getName().endsWith(".csv"));
+            Assertions.assertTrue(zis.readAllBytes().length > 0);
+        }
+
+        // export file is deleted once read
+        Assertions.assertFalse(result.exists());
+    }
+
+    @Test
+    public void testExportAuditLog_notRead() {
+        ServletRequestAttributes requestAttributes = new ServletRequestAttributes(new MockHttpServletRequest("HEAD", "/v1/auditLogs/export"));
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            ResponseEntity<Resource> response = auditLogController.exportAuditLogs(new AuditLogFilter(), Pageable.unpaged());
+            Assertions.assertTrue(response.getBody().exists());
 
-        try (FileOutputStream fos = new FileOutputStream(File.createTempFile(result.getFileName(), ""))) {
-            fos.write(result.getFileContent());
-            fos.flush();
+            // export file is deleted on the completion of the request that did not read it
+            requestAttributes.requestCompleted();
+            Assertions.assertFalse(response.getBody().exists());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
         }
     }
 
@@ -43,4 +89,57 @@ public class AuditLogExportTest extends BaseSpringBootTest {
         // therefore we expect only 1 record to be available after purging all
         Assertions.assertEquals(1, logs.getItems().size());
     }
+
+    @Test
+    public void testPurgeAuditLogs_moreChunks() {
+        for (int i = 0; i < 5; i++) {
+            auditLogRepository.save(createAuditLog("purged"));
+        }
+        auditLogRepository.save(createAuditLog("kept"));
+        // chunks are deleted in their own transactions, audit logs must be committed to be visible to them
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        AuditLogService auditLogServiceImpl = AopTestUtils.getTargetObject(auditLogService);
+        Object purgeChunkSize = ReflectionTestUtils.getField(auditLogServiceImpl, "purgeChunkSize");
+        AuditLogRepository repositorySpy = Mockito.mock(AuditLogRepository.class, AdditionalAnswers.delegatesTo(auditLogRepository));
+        ReflectionTestUtils.setField(auditLogServiceImpl, "purgeChunkSize", 2);
+        ReflectionTestUtils.setField(auditLogServiceImpl, "auditLogRepository", repositorySpy);
+
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setObjectIdentifier("purged");
+        try {
+            // five matching audit logs are deleted in three chunks of at most two audit logs
+            Assertions.assertEquals(5, auditLogService.purgeAuditLogs(filter, Pageable.unpaged().getSort()));
+            Mockito.verify(repositorySpy, Mockito.times(3)).deleteChunk(Mockito.any(), Mockito.eq(2));
+
+            TestTransaction.start();
+            Assertions.assertTrue(auditLogService.listAuditLogs(filter, Pageable.unpaged()).getItems().isEmpty());
+            filter.setObjectIdentifier("kept");
+            Assertions.assertEquals(1, auditLogService.listAuditLogs(filter, Pageable.unpaged()).getItems().size());
+        } finally {
+            ReflectionTestUtils.setField(auditLogServiceImpl, "purgeChunkSize", purgeChunkSize);
+            ReflectionTestUtils.setField(auditLogServiceImpl, "auditLogRepository", auditLogRepository);
+            if (TestTransaction.isActive()) {
+                TestTransaction.end();
+            }
+            TestTransaction.start();
+            auditLogRepository.deleteAll(auditLogRepository.findAll(QAuditLog.auditLog.author.eq("purge")));
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+            TestTransaction.start();
+        }
+    }
+
+    private AuditLog createAuditLog(String objectIdentifier) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAuthor("purge");
+        auditLog.setCreated(LocalDateTime.now());
+        auditLog.setOrigination(ObjectType.FE);
+        auditLog.setAffected(ObjectType.AUDIT_LOG);
+        auditLog.setObjectIdentifier(objectIdentifier);
+        auditLog.setOperation(OperationType.REQUEST);
+        auditLog.setOperationStatus(OperationStatusEnum.SUCCESS);
+        return auditLog;
+    }
 }
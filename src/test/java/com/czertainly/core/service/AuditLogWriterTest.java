@@ -0,0 +1,110 @@
+package com.czertainly.core.service;
+
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.repository.AuditLogRepository;
+import com.czertainly.core.service.impl.AuditLogWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+public class AuditLogWriterTest {
+
+    private AuditLogRepository auditLogRepository;
+
+    private AuditLogWriter auditLogWriter;
+
+    private final List<AuditLog> written = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        auditLogRepository = Mockito.mock(AuditLogRepository.class);
+        Mockito.when(auditLogRepository.saveAll(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<AuditLog> batch = invocation.getArgument(0);
+            synchronized (written) {
+                batch.forEach(written::add);
+            }
+            return batch;
+        });
+
+        auditLogWriter = new AuditLogWriter();
+        ReflectionTestUtils.setField(auditLogWriter, "queueCapacity", 100);
+        ReflectionTestUtils.setField(auditLogWriter, "batchSize", 10);
+        ReflectionTestUtils.setField(auditLogWriter, "offerTimeout", 100L);
+        ReflectionTestUtils.setField(auditLogWriter, "writeAttempts", 3);
+        ReflectionTestUtils.setField(auditLogWriter, "retryDelay", 10L);
+        ReflectionTestUtils.setField(auditLogWriter, "shutdownTimeout", 10L);
+        ReflectionTestUtils.setField(auditLogWriter, "auditLogRepository", auditLogRepository);
+    }
+
+    @Test
+    public void testQueuedAuditLogsWrittenOnStop() {
+        auditLogWriter.start();
+        for (int i = 0; i < 25; i++) {
+            auditLogWriter.write(new AuditLog());
+        }
+        auditLogWriter.stop();
+
+        Assertions.assertEquals(25, written.size());
+        Mockito.verify(auditLogRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    public void testAuditLogWrittenByCallerWhenStopped() {
+        auditLogWriter.start();
+        auditLogWriter.stop();
+
+        AuditLog auditLog = new AuditLog();
+        auditLogWriter.write(auditLog);
+
+        Mockito.verify(auditLogRepository).save(auditLog);
+    }
+
+    @Test
+    public void testAuditLogsLeftInQueueWrittenOnStop() throws InterruptedException {
+        // writer thread already finished when the audit logs are queued
+        Thread writerThread = new Thread(() -> {});
+        writerThread.start();
+        writerThread.join();
+        ReflectionTestUtils.setField(auditLogWriter, "queue", new ArrayBlockingQueue<AuditLog>(10));
+        ReflectionTestUtils.setField(auditLogWriter, "writerThread", writerThread);
+        ReflectionTestUtils.setField(auditLogWriter, "running", true);
+
+        auditLogWriter.write(new AuditLog());
+        auditLogWriter.write(new AuditLog());
+        Mockito.verify(auditLogRepository, Mockito.never()).save(Mockito.any());
+
+        auditLogWriter.stop();
+        Mockito.verify(auditLogRepository, Mockito.times(2)).save(Mockito.any(AuditLog.class));
+    }
+
+    @Test
+    public void testBatchWrittenOneByOneWhenSaveAllFails() {
+        Mockito.when(auditLogRepository.saveAll(Mockito.anyIterable())).thenThrow(new RuntimeException("Batch insert failed"));
+        Mockito.when(auditLogRepository.save(Mockito.any(AuditLog.class)))
+                .thenThrow(new RuntimeException("Connection lost"))
+                .thenAnswer(invocation -> {
+                    AuditLog auditLog = invocation.getArgument(0);
+                    synchronized (written) {
+                        written.add(auditLog);
+                    }
+                    return auditLog;
+                });
+
+        auditLogWriter.start();
+        for (int i = 0; i < 25; i++) {
+            auditLogWriter.write(new AuditLog());
+        }
+        auditLogWriter.stop();
+
+        // first attempt of the first audit log failed and was retried
+        Assertions.assertEquals(25, written.size());
+        Assertions.assertEquals(25, written.stream().map(AuditLog::getUuid).distinct().count());
+        Mockito.verify(auditLogRepository, Mockito.times(26)).save(Mockito.any(AuditLog.class));
+    }
+}
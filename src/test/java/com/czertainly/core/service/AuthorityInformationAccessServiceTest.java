@@ -0,0 +1,196 @@
+package com.czertainly.core.service;
+
+import com.czertainly.core.util.BaseSpringBootTest;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class AuthorityInformationAccessServiceTest extends BaseSpringBootTest {
+
+    @Autowired
+    private AuthorityInformationAccessService authorityInformationAccessService;
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private WireMockServer mockServer;
+
+    private X509Certificate x509Cert;
+
+    @BeforeEach
+    public void setUp() throws GeneralSecurityException, IOException {
+        mockServer = new WireMockServer(0);
+        mockServer.start();
+
+        WireMock.configureFor("localhost", mockServer.port());
+
+        InputStream keyStoreStream = CertificateServiceTest.class.getClassLoader().getResourceAsStream("client1.p12");
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(keyStoreStream, "123456".toCharArray());
+
+        x509Cert = (X509Certificate) keyStore.getCertificate("1");
+
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(authorityInformationAccessService), "cacheDirectory", cacheDirectory.toString());
+        clearMemoryCache();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mockServer.stop();
+    }
+
+    @Test
+    public void testGetIssuerCertificate_cached() throws GeneralSecurityException {
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/cached.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded())));
+
+        String caIssuersUrl = mockServer.baseUrl() + "/ca/cached.cer";
+        X509Certificate issuer = authorityInformationAccessService.getIssuerCertificate(caIssuersUrl);
+        Assertions.assertNotNull(issuer);
+        Assertions.assertEquals(x509Cert, issuer);
+
+        Assertions.assertEquals(x509Cert, authorityInformationAccessService.getIssuerCertificate(caIssuersUrl));
+        mockServer.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/ca/cached.cer")));
+    }
+
+    @Test
+    public void testGetIssuerCertificate_notAvailable() {
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/missing.cer"))
+                .willReturn(WireMock.notFound()));
+
+        String caIssuersUrl = mockServer.baseUrl() + "/ca/missing.cer";
+        Assertions.assertNull(authorityInformationAccessService.getIssuerCertificate(caIssuersUrl));
+
+        // location that could not be downloaded is not requested again for a while
+        Assertions.assertNull(authorityInformationAccessService.getIssuerCertificate(caIssuersUrl));
+        mockServer.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/ca/missing.cer")));
+    }
+
+    @Test
+    public void testGetIssuerCertificate_diskCache() throws GeneralSecurityException {
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/disk.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded())));
+
+        String caIssuersUrl = mockServer.baseUrl() + "/ca/disk.cer";
+        Assertions.assertEquals(x509Cert, authorityInformationAccessService.getIssuerCertificate(caIssuersUrl));
+
+        // issuer is loaded from the disk, for example after the restart of the instance
+        clearMemoryCache();
+        Assertions.assertEquals(x509Cert, authorityInformationAccessService.getIssuerCertificate(caIssuersUrl));
+        mockServer.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/ca/disk.cer")));
+    }
+
+    @Test
+    public void testGetIssuerCertificate_diskCacheCreatedOwnerOnly() throws Exception {
+        Assumptions.assumeTrue(cacheDirectory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/created.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded())));
+        Path createdDirectory = cacheDirectory.resolve("aia");
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(authorityInformationAccessService), "cacheDirectory", createdDirectory.toString());
+
+        Assertions.assertEquals(x509Cert, authorityInformationAccessService.getIssuerCertificate(mockServer.baseUrl() + "/ca/created.cer"));
+        Assertions.assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(createdDirectory));
+        try (Stream<Path> files = Files.list(createdDirectory)) {
+            Assertions.assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testGetIssuerCertificate_diskCacheWritableByOthers() throws Exception {
+        Assumptions.assumeTrue(cacheDirectory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/shared.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded())));
+        Files.setPosixFilePermissions(cacheDirectory, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        // certificates are not stored in the directory other users could tamper with
+        Assertions.assertEquals(x509Cert, authorityInformationAccessService.getIssuerCertificate(mockServer.baseUrl() + "/ca/shared.cer"));
+        Assertions.assertTrue(listCacheFiles().isEmpty());
+    }
+
+    @Test
+    public void testGetIssuerCertificate_concurrentRequests() throws Exception {
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/concurrent.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded()).withFixedDelay(500)));
+
+        String caIssuersUrl = mockServer.baseUrl() + "/ca/concurrent.cer";
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<X509Certificate>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(executor.submit(() -> authorityInformationAccessService.getIssuerCertificate(caIssuersUrl)));
+            }
+            for (Future<X509Certificate> result : results) {
+                Assertions.assertEquals(x509Cert, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mockServer.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/ca/concurrent.cer")));
+        Map<?, ?> pendingLoads = (Map<?, ?>) ReflectionTestUtils.getField(AopTestUtils.getTargetObject(authorityInformationAccessService), "pendingLoads");
+        Assertions.assertTrue(pendingLoads.isEmpty());
+    }
+
+    @Test
+    public void testPurgeDiskCache() throws Exception {
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo("/ca/purged.cer"))
+                .willReturn(WireMock.ok().withBody(x509Cert.getEncoded())));
+        authorityInformationAccessService.getIssuerCertificate(mockServer.baseUrl() + "/ca/purged.cer");
+
+        // files that are still valid are kept
+        Assertions.assertEquals(0, authorityInformationAccessService.purgeDiskCache());
+        Assertions.assertEquals(2, listCacheFiles().size());
+
+        FileTime expired = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+        for (Path file : listCacheFiles()) {
+            Files.setLastModifiedTime(file, expired);
+        }
+        Assertions.assertEquals(2, authorityInformationAccessService.purgeDiskCache());
+        Assertions.assertTrue(listCacheFiles().isEmpty());
+    }
+
+    private List<Path> listCacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.toList();
+        }
+    }
+
+    private void clearMemoryCache() {
+        Object authorityInformationAccessServiceImpl = AopTestUtils.getTargetObject(authorityInformationAccessService);
+        ((Map<?, ?>) ReflectionTestUtils.getField(authorityInformationAccessServiceImpl, "urlCache")).clear();
+        ((Map<?, ?>) ReflectionTestUtils.getField(authorityInformationAccessServiceImpl, "contentCache")).clear();
+    }
+}
@@ -7,19 +7,29 @@ import com.czertainly.core.dao.entity.CertificateContent;
 import com.czertainly.core.dao.repository.CertificateContentRepository;
 import com.czertainly.core.dao.repository.CertificateRepository;
 import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateTestHelper;
+import com.czertainly.core.util.CrlUtil;
 import com.czertainly.core.util.MetaDefinitions;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
@@ -36,6 +46,9 @@ public class CertValidationServiceTest extends BaseSpringBootTest {
     @Autowired
     private CertValidationService certValidationService;
 
+    @Autowired
+    private CertificateService certificateService;
+
     @Autowired
     private CertificateRepository certificateRepository;
     @Autowired
@@ -81,6 +94,23 @@ public class CertValidationServiceTest extends BaseSpringBootTest {
         certValidationService.validateCertificates(List.of());
     }
 
+    @Test
+    public void testValidateCertificates_executorRejected() {
+        // certificates rejected by the saturated executor are validated by the calling thread
+        ThreadPoolTaskExecutor rejectingExecutor = Mockito.mock(ThreadPoolTaskExecutor.class);
+        Mockito.when(rejectingExecutor.submit(Mockito.any(Runnable.class))).thenThrow(new TaskRejectedException("Executor is full"));
+        Object target = AopTestUtils.getTargetObject(certValidationService);
+        Object validationTaskExecutor = ReflectionTestUtils.getField(target, "validationTaskExecutor");
+        ReflectionTestUtils.setField(target, "validationTaskExecutor", rejectingExecutor);
+        try {
+            ReflectionTestUtils.invokeMethod(target, "validateInBatches", List.of(certificate));
+        } finally {
+            ReflectionTestUtils.setField(target, "validationTaskExecutor", validationTaskExecutor);
+        }
+
+        Assertions.assertTrue(StringUtils.isNotBlank(certificateRepository.findByUuid(certificate.getUuid()).orElseThrow().getCertificateValidationResult()));
+    }
+
     @Test
     public void testValidateCertificate() throws NotFoundException, CertificateException, IOException {
         certValidationService.validate(certificate);
@@ -98,4 +128,65 @@ public class CertValidationServiceTest extends BaseSpringBootTest {
         Assertions.assertTrue(signatureVerification instanceof Map);
         Assertions.assertEquals("failed", ((Map) signatureVerification).get("status"));
     }
+
+    @Test
+    public void testGetCertificateChain() throws Exception {
+        KeyPair rootKeyPair = CertificateTestHelper.generateKeyPair();
+        KeyPair intermediateKeyPair = CertificateTestHelper.generateKeyPair();
+        Certificate root = storeCertificate(CertificateTestHelper.createCertificate("CN=Chain Test Root CA", rootKeyPair.getPublic(), "CN=Chain Test Root CA", rootKeyPair, true, null));
+        Certificate intermediate = storeCertificate(CertificateTestHelper.createCertificate("CN=Chain Test Intermediate CA", intermediateKeyPair.getPublic(), "CN=Chain Test Root CA", rootKeyPair, true, null));
+        Certificate leaf = storeCertificate(CertificateTestHelper.createCertificate("CN=Chain Test Leaf", CertificateTestHelper.generateKeyPair().getPublic(), "CN=Chain Test Intermediate CA", intermediateKeyPair, true, null));
+        certificateService.updateCertificateIssuer(leaf);
+
+        Assertions.assertEquals(List.of(leaf, intermediate, root), certValidationService.getCertificateChain(leaf));
+    }
+
+    @Test
+    public void testGetCertificateChain_cycle() {
+        Certificate issuer = new Certificate();
+        issuer.setSubjectDn("testIssuer");
+        issuer.setIssuerDn("testCertificate");
+        issuer.setSerialNumber("987654321");
+        issuer.setStatus(CertificateStatus.VALID);
+        issuer.setCertificateContent(certificateContent);
+        issuer.setIssuerCertificateUuid(certificate.getUuid());
+        issuer = certificateRepository.save(issuer);
+        certificate.setIssuerCertificateUuid(issuer.getUuid());
+        certificateRepository.save(certificate);
+
+        Assertions.assertEquals(List.of(certificate, issuer), certValidationService.getCertificateChain(certificate));
+    }
+
+    @Test
+    public void testValidateCertificate_revokedIssuer() throws Exception {
+        WireMockServer mockServer = new WireMockServer(0);
+        mockServer.start();
+        try {
+            CrlUtil.clearCrlCache();
+            KeyPair rootKeyPair = CertificateTestHelper.generateKeyPair();
+            KeyPair intermediateKeyPair = CertificateTestHelper.generateKeyPair();
+            mockServer.stubFor(WireMock
+                    .get(WireMock.urlPathEqualTo("/crl/root.crl"))
+                    .willReturn(WireMock.ok().withBody(CertificateTestHelper.createEmptyCrl("CN=Revocation Test Root CA", rootKeyPair))));
+
+            storeCertificate(CertificateTestHelper.createCertificate("CN=Revocation Test Root CA", rootKeyPair.getPublic(), "CN=Revocation Test Root CA", rootKeyPair, true, null));
+            Certificate intermediate = storeCertificate(CertificateTestHelper.createCertificate("CN=Revocation Test Intermediate CA", intermediateKeyPair.getPublic(), "CN=Revocation Test Root CA", rootKeyPair, true, mockServer.baseUrl() + "/crl/root.crl"));
+            Certificate leaf = storeCertificate(CertificateTestHelper.createCertificate("CN=Revocation Test Leaf", CertificateTestHelper.generateKeyPair().getPublic(), "CN=Revocation Test Intermediate CA", intermediateKeyPair, true, null));
+            certificateService.updateCertificateIssuer(leaf);
+
+            // certificates issued by the certificate revoked via platform are revoked as well
+            intermediate.setStatus(CertificateStatus.REVOKED);
+            certValidationService.validate(intermediate);
+
+            Assertions.assertEquals(CertificateStatus.REVOKED, intermediate.getStatus());
+            Assertions.assertEquals(CertificateStatus.REVOKED, certificateRepository.findByUuid(leaf.getUuid()).orElseThrow().getStatus());
+        } finally {
+            mockServer.stop();
+            CrlUtil.clearCrlCache();
+        }
+    }
+
+    private Certificate storeCertificate(X509Certificate x509Certificate) throws Exception {
+        return certificateService.checkCreateCertificate(Base64.getEncoder().encodeToString(x509Certificate.getEncoded()));
+    }
 }
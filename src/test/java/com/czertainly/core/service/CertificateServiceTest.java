@@ -21,6 +21,16 @@ import com.czertainly.core.dao.repository.RaProfileRepository;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateTestHelper;
+import com.czertainly.core.util.CertificateUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.encoders.Hex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -29,13 +39,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class CertificateServiceTest extends BaseSpringBootTest {
 
@@ -117,6 +132,86 @@ public class CertificateServiceTest extends BaseSpringBootTest {
         Assertions.assertEquals("177e75f42e95ecb98f831eb57de27b0bc8c47643", cert.getSerialNumber());
     }
 
+    @Test
+    public void testCreateCertificateEntity_issuerLookupParams() throws Exception {
+        KeyPair keyPair = CertificateTestHelper.generateKeyPair();
+        Date now = new Date();
+        X509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(new X500Name("CN=Issuer Test CA,O=Test Org"), BigInteger.ONE,
+                now, new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)), new X500Name("CN=Issuer Test Leaf,O=Test Org"), keyPair.getPublic());
+        certificateBuilder.addExtension(Extension.authorityKeyIdentifier, false, new AuthorityKeyIdentifier(Hex.decode("0A1B2C3D4E5F60718293A4B5C6D7E8F901234567")));
+        X509Certificate x509Certificate = new JcaX509CertificateConverter().getCertificate(certificateBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        Certificate cert = certificateService.createCertificateEntity(x509Certificate);
+
+        Assertions.assertEquals("o=test org,cn=issuer test leaf", cert.getSubjectDnNormalized());
+        Assertions.assertEquals("o=test org,cn=issuer test ca", cert.getIssuerDnNormalized());
+        Assertions.assertEquals("0a1b2c3d4e5f60718293a4b5c6d7e8f901234567", cert.getAuthorityKeyIdentifier());
+        Assertions.assertNull(cert.getSubjectKeyIdentifier());
+    }
+
+    @Test
+    public void testUpdateCertificateIssuer_byAuthorityKeyIdentifier() throws Exception {
+        KeyPair caKeyPair = CertificateTestHelper.generateKeyPair();
+        Certificate ca = storeCertificate(CertificateTestHelper.createCertificate("CN=Issuer Test CA", caKeyPair.getPublic(), "CN=Issuer Test CA", caKeyPair, true, null));
+        // issuer DN does not match the subject DN of the CA, the issuer can be found only by the key identifier
+        Certificate leaf = storeCertificate(CertificateTestHelper.createCertificate("CN=Issuer Test Leaf", CertificateTestHelper.generateKeyPair().getPublic(), "CN=Renamed Issuer Test CA", caKeyPair, true, null));
+
+        certificateService.updateCertificateIssuer(leaf);
+
+        Assertions.assertEquals(ca.getUuid(), leaf.getIssuerCertificateUuid());
+        Assertions.assertEquals(ca.getSerialNumber(), leaf.getIssuerSerialNumber());
+    }
+
+    @Test
+    public void testUpdateCertificateIssuer_byNormalizedDn() throws Exception {
+        KeyPair caKeyPair = CertificateTestHelper.generateKeyPair();
+        Certificate ca = storeCertificate(CertificateTestHelper.createCertificate("CN=Issuer Test CA,O=Test", caKeyPair.getPublic(), "CN=Issuer Test CA,O=Test", caKeyPair, false, null));
+        // certificate without the authority key identifier, issuer DN differs from the CA only in the letter case
+        Certificate leaf = storeCertificate(CertificateTestHelper.createCertificate("CN=Issuer Test Leaf", CertificateTestHelper.generateKeyPair().getPublic(), "CN=issuer test ca,O=test", caKeyPair, false, null));
+        Assertions.assertNull(leaf.getAuthorityKeyIdentifier());
+        Assertions.assertNotEquals(ca.getSubjectDn(), leaf.getIssuerDn());
+
+        certificateService.updateCertificateIssuer(leaf);
+
+        Assertions.assertEquals(ca.getUuid(), leaf.getIssuerCertificateUuid());
+    }
+
+    @Test
+    public void testUpdateCertificateIssuer_relinkIssuedCertificates() throws Exception {
+        KeyPair caKeyPair = CertificateTestHelper.generateKeyPair();
+        X509Certificate caCertificate = CertificateTestHelper.createCertificate("CN=Issuer Test CA", caKeyPair.getPublic(), "CN=Issuer Test CA", caKeyPair, true, null);
+        Certificate leaf = storeCertificate(CertificateTestHelper.createCertificate("CN=Issuer Test Leaf", CertificateTestHelper.generateKeyPair().getPublic(), "CN=Issuer Test CA", caKeyPair, true, null));
+        certificateService.updateCertificateIssuer(leaf);
+        Assertions.assertNull(leaf.getIssuerCertificateUuid());
+
+        // issued certificate is linked when its issuer is stored
+        Certificate ca = storeCertificate(caCertificate);
+        certificateService.updateCertificateIssuer(ca);
+        Assertions.assertEquals(ca.getUuid(), leaf.getIssuerCertificateUuid());
+
+        // link is cleared when the issuer is deleted and the certificate is linked again when the issuer is uploaded again
+        certificateService.deleteCertificate(ca.getSecuredUuid());
+        Assertions.assertTrue(certificateRepository.findByUuid(ca.getUuid()).isEmpty());
+        Assertions.assertTrue(certificateRepository.findAllByIssuerCertificateUuid(ca.getUuid()).isEmpty());
+
+        Certificate uploadedCa = storeCertificate(caCertificate);
+        certificateService.updateCertificateIssuer(uploadedCa);
+        Assertions.assertNotEquals(ca.getUuid(), uploadedCa.getUuid());
+        Assertions.assertEquals(uploadedCa.getUuid(), certificateRepository.findByUuid(leaf.getUuid()).orElseThrow().getIssuerCertificateUuid());
+    }
+
+    @Test
+    public void testCreateCertificateEntities() throws CertificateException, NoSuchAlgorithmException {
+        String fingerprint = CertificateUtil.getThumbprint(x509Cert);
+        List<Certificate> certs = certificateService.createCertificateEntities(Map.of(fingerprint, x509Cert));
+
+        Assertions.assertEquals(1, certs.size());
+        Assertions.assertEquals("CLIENT1", certs.get(0).getCommonName());
+        Assertions.assertNotNull(certs.get(0).getCertificateContentId());
+        Assertions.assertTrue(certificateRepository.findByFingerprint(fingerprint).isPresent());
+        Assertions.assertNotNull(certificateContentRepository.findByFingerprint(fingerprint));
+    }
+
     @Test
     public void testCheckCreateCertificate() throws CertificateException, AlreadyExistException, NoSuchAlgorithmException {
         Certificate cert = certificateService.checkCreateCertificate(Base64.getEncoder().encodeToString(x509Cert.getEncoded()));
@@ -248,4 +343,8 @@ public class CertificateServiceTest extends BaseSpringBootTest {
 
         Assertions.assertAll(() -> certificateService.getCertificate(certificate.getSecuredUuid()));
     }
+
+    private Certificate storeCertificate(X509Certificate x509Certificate) throws Exception {
+        return certificateService.checkCreateCertificate(Base64.getEncoder().encodeToString(x509Certificate.getEncoded()));
+    }
 }
@@ -0,0 +1,182 @@
+package com.czertainly.core.service;
+
+import com.czertainly.api.model.client.dashboard.StatisticsDto;
+import com.czertainly.api.model.core.certificate.CertificateStatus;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.CertificateContent;
+import com.czertainly.core.dao.repository.CertificateContentRepository;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.CertificateStatisticRepository;
+import com.czertainly.core.enums.CertificateStatisticDimensionEnum;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+import com.czertainly.core.util.BaseSpringBootTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CertificateStatisticsServiceTest extends BaseSpringBootTest {
+
+    @Autowired
+    private CertificateStatisticsService certificateStatisticsService;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private CertificateContentRepository certificateContentRepository;
+
+    @Autowired
+    private CertificateStatisticRepository certificateStatisticRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Certificate certificate;
+
+    @BeforeEach
+    public void setUp() {
+        CertificateContent certificateContent = new CertificateContent();
+        certificateContent.setContent("123456");
+        certificateContent = certificateContentRepository.save(certificateContent);
+
+        certificate = new Certificate();
+        certificate.setSubjectDn("testCertificate");
+        certificate.setIssuerDn("testCertificate");
+        certificate.setSerialNumber("123456789");
+        certificate.setStatus(CertificateStatus.VALID);
+        certificate.setKeySize(2048);
+        certificate.setNotAfter(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(100)));
+        certificate.setCertificateContent(certificateContent);
+        certificate.setCertificateContentId(certificateContent.getId());
+        certificate = certificateRepository.save(certificate);
+    }
+
+    @Test
+    public void testReconcileStatistics() {
+        // counter that does not correspond to any certificate is removed
+        certificateStatisticRepository.insertCount(UUID.randomUUID(), UUID.fromString(CertificateStatisticRepository.NO_RA_PROFILE), CertificateStatisticDimensionEnum.STATUS.name(), CertificateStatus.REVOKED.getCode(), 5);
+
+        certificateStatisticsService.reconcileStatistics();
+
+        StatisticsDto result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+        Assertions.assertEquals(1L, result.getCertificateStatByStatus().get(CertificateStatus.VALID.getCode()));
+        Assertions.assertNull(result.getCertificateStatByStatus().get(CertificateStatus.REVOKED.getCode()));
+        Assertions.assertEquals(1L, result.getCertificateStatByKeySize().get("2048"));
+        Assertions.assertEquals(1L, result.getCertificateStatByExpiry().get("More"));
+        Assertions.assertEquals(1L, result.getRaProfileStatByCertificateCount().get("Unknown"));
+        Assertions.assertEquals(1L, result.getCertificateStatByComplianceStatus().get("Not Checked"));
+    }
+
+    @Test
+    public void testReconcileStatistics_reconciledByOtherInstance() throws Exception {
+        certificateStatisticRepository.insertCount(UUID.randomUUID(), UUID.fromString(CertificateStatisticRepository.NO_RA_PROFILE), CertificateStatisticDimensionEnum.STATUS.name(), CertificateStatus.REVOKED.getCode(), 5);
+
+        // other instance holds the lock in its own transaction
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> otherInstance = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            boolean result = certificateStatisticRepository.tryAdvisoryLock(CertificateStatisticRepository.RECALCULATION_LOCK_KEY);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }));
+        try {
+            Assertions.assertTrue(locked.await(10, TimeUnit.SECONDS));
+            certificateStatisticsService.reconcileStatistics();
+        } finally {
+            release.countDown();
+        }
+        Assertions.assertTrue(otherInstance.get(10, TimeUnit.SECONDS));
+
+        StatisticsDto result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+        Assertions.assertEquals(5L, result.getCertificateStatByStatus().get(CertificateStatus.REVOKED.getCode()));
+        Assertions.assertNull(result.getCertificateStatByStatus().get(CertificateStatus.VALID.getCode()));
+    }
+
+    @Test
+    public void testStatisticsRestrictedByRaProfile() {
+        certificateStatisticsService.reconcileStatistics();
+
+        SecurityResourceFilter raProfileFilter = new SecurityResourceFilter(List.of(UUID.randomUUID().toString()), List.of(), true);
+        StatisticsDto result = certificateStatisticsService.addCertificateStatistics(raProfileFilter, new StatisticsDto());
+        Assertions.assertTrue(result.getCertificateStatByStatus().isEmpty());
+        Assertions.assertTrue(result.getRaProfileStatByCertificateCount().isEmpty());
+    }
+
+    @Test
+    public void testChangesWrittenWithTransaction() {
+        // changes are written only by the committed transactions
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            TestTransaction.start();
+            StatisticsDto result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+            Assertions.assertEquals(1L, result.getCertificateStatByStatus().get(CertificateStatus.VALID.getCode()));
+
+            Certificate loaded = certificateRepository.findByUuid(certificate.getUuid()).orElseThrow();
+            loaded.setStatus(CertificateStatus.REVOKED);
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+
+            TestTransaction.start();
+            result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+            Assertions.assertNull(result.getCertificateStatByStatus().get(CertificateStatus.VALID.getCode()));
+            Assertions.assertEquals(1L, result.getCertificateStatByStatus().get(CertificateStatus.REVOKED.getCode()));
+            Assertions.assertEquals(1L, result.getCertificateStatByKeySize().get("2048"));
+
+            // changes recorded before the recalculation are included in it and not written again
+            loaded = certificateRepository.findByUuid(certificate.getUuid()).orElseThrow();
+            loaded.setKeySize(4096);
+            certificateStatisticsService.recalculateStatistics();
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+
+            TestTransaction.start();
+            result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+            Assertions.assertNull(result.getCertificateStatByKeySize().get("2048"));
+            Assertions.assertEquals(1L, result.getCertificateStatByKeySize().get("4096"));
+        } finally {
+            if (TestTransaction.isActive()) {
+                TestTransaction.end();
+            }
+            TestTransaction.start();
+            certificateRepository.deleteAll(certificateRepository.findByUuidIn(List.of(certificate.getUuid())));
+            certificateContentRepository.deleteById(certificate.getCertificateContentId());
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+            TestTransaction.start();
+        }
+        Assertions.assertTrue(certificateStatisticRepository.findCounts().isEmpty());
+    }
+
+    @Test
+    public void testExpiryStatistics() {
+        certificate.setNotAfter(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(10) - TimeUnit.MINUTES.toMillis(1)));
+        certificateRepository.save(certificate);
+
+        StatisticsDto result = certificateStatisticsService.addCertificateStatistics((SecurityResourceFilter) null, new StatisticsDto());
+        Assertions.assertEquals(1L, result.getCertificateStatByExpiry().get("10"));
+        Assertions.assertNull(result.getCertificateStatByExpiry().get("20"));
+
+        result = certificateStatisticsService.addCertificateStatistics(List.of(certificate), new StatisticsDto());
+        Assertions.assertEquals(1L, result.getCertificateStatByExpiry().get("10"));
+    }
+}
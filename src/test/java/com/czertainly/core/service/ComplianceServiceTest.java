@@ -3,6 +3,8 @@ package com.czertainly.core.service;
 import com.czertainly.api.exception.ConnectorException;
 import com.czertainly.api.model.core.certificate.CertificateStatus;
 import com.czertainly.api.model.core.certificate.CertificateType;
+import com.czertainly.api.model.core.compliance.ComplianceRuleStatus;
+import com.czertainly.api.model.core.compliance.ComplianceStatus;
 import com.czertainly.api.model.core.connector.ConnectorStatus;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
@@ -15,6 +17,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 public class ComplianceServiceTest extends BaseSpringBootTest {
 
@@ -40,6 +50,12 @@ public class ComplianceServiceTest extends BaseSpringBootTest {
     private ComplianceGroupRepository complianceGroupRepository;
     @Autowired
     private ComplianceRuleRepository complianceRuleRepository;
+    @Autowired
+    private CertificateComplianceResultRepository certificateComplianceResultRepository;
+    @Autowired
+    private ComplianceProfileRepository complianceProfileRepository;
+    @Autowired
+    private ComplianceProfileRuleRepository complianceProfileRuleRepository;
 
 
     private RaProfile raProfile;
@@ -159,4 +175,95 @@ public class ComplianceServiceTest extends BaseSpringBootTest {
         Boolean isExists = complianceService.complianceGroupExists(SecuredUUID.fromString("abfbc322-29e1-11ed-a261-0242ac120002"), connector, "default");
         Assertions.assertEquals(false, isExists);
     }
+
+    @Test
+    public void testInCoreComplianceStatusUpdate() {
+        UUID removedRuleUuid = UUID.fromString("e8965d90-f1fd-11ec-b939-0242ac120004");
+        UUID remainingRuleUuid = UUID.fromString("e8965d90-f1fd-11ec-b939-0242ac120005");
+        certificateComplianceResultRepository.saveAll(List.of(
+                new CertificateComplianceResult(certificate.getUuid(), removedRuleUuid, ComplianceRuleStatus.NOK),
+                new CertificateComplianceResult(certificate.getUuid(), remainingRuleUuid, ComplianceRuleStatus.OK)));
+        certificate.setComplianceStatus(ComplianceStatus.NOK);
+        certificateRepository.save(certificate);
+
+        complianceService.inCoreComplianceStatusUpdate(removedRuleUuid);
+
+        Assertions.assertEquals(ComplianceStatus.OK, certificateRepository.findByUuid(certificate.getUuid()).get().getComplianceStatus());
+        List<CertificateComplianceResult> results = certificateComplianceResultRepository.findByCertificateUuidIn(List.of(certificate.getUuid()));
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(remainingRuleUuid, results.get(0).getRuleUuid());
+    }
+
+    @Test
+    public void testComplianceCheck_noApplicableRules() throws ConnectorException {
+        ComplianceProfile complianceProfile = new ComplianceProfile();
+        complianceProfile.setName("EmptyProfile");
+        complianceProfileRepository.save(complianceProfile);
+        raProfile.setComplianceProfiles(new HashSet<>(Set.of(complianceProfile)));
+        raProfileRepository.save(raProfile);
+
+        certificate.setRaProfile(raProfile);
+        certificate.setComplianceStatus(ComplianceStatus.NOK);
+        certificateRepository.save(certificate);
+        certificateComplianceResultRepository.save(new CertificateComplianceResult(certificate.getUuid(), complianceRule.getUuid(), ComplianceRuleStatus.NOK));
+
+        complianceService.checkComplianceOfCertificate(certificate);
+
+        Assertions.assertEquals(ComplianceStatus.NA, certificateRepository.findByUuid(certificate.getUuid()).get().getComplianceStatus());
+        Assertions.assertTrue(certificateComplianceResultRepository.findByCertificateUuidIn(List.of(certificate.getUuid())).isEmpty());
+    }
+
+    @Test
+    public void testComplianceCheck_RaProfileBatches() {
+        mockServer.stubFor(WireMock
+                .any(WireMock.urlPathMatching("/v1/complianceProvider/[^/]+/compliance"))
+                .willReturn(WireMock.okJson("{\"status\":\"nok\",\"rules\":[{\"uuid\":\"" + complianceRule.getUuid() + "\",\"name\":\"Rule1\",\"status\":\"nok\"}]}")));
+
+        complianceRule.setConnector(connector);
+        ComplianceProfile complianceProfile = new ComplianceProfile();
+        complianceProfile.setName("TestProfile");
+        complianceProfileRepository.save(complianceProfile);
+        ComplianceProfileRule complianceProfileRule = new ComplianceProfileRule();
+        complianceProfileRule.setComplianceProfile(complianceProfile);
+        complianceProfileRule.setComplianceRule(complianceRule);
+        complianceProfileRuleRepository.save(complianceProfileRule);
+        complianceProfile.getComplianceRules().add(complianceProfileRule);
+        raProfile.setComplianceProfiles(new HashSet<>(Set.of(complianceProfile)));
+        raProfileRepository.save(raProfile);
+
+        // three certificates of the RA profile are checked in two batches
+        List<UUID> certificateUuids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CertificateContent content = new CertificateContent();
+            content.setContent("content" + i);
+            content.setFingerprint("fingerprint" + i);
+            certificateContentRepository.save(content);
+
+            Certificate raProfileCertificate = new Certificate();
+            raProfileCertificate.setCertificateContent(content);
+            raProfileCertificate.setSerialNumber("serial" + i);
+            raProfileCertificate.setStatus(CertificateStatus.VALID);
+            raProfileCertificate.setRaProfile(raProfile);
+            certificateUuids.add(certificateRepository.save(raProfileCertificate).getUuid());
+        }
+
+        Object complianceServiceImpl = AopTestUtils.getTargetObject(complianceService);
+        Object batchSize = ReflectionTestUtils.getField(complianceServiceImpl, "batchSize");
+        ReflectionTestUtils.setField(complianceServiceImpl, "batchSize", 2);
+        try {
+            ReflectionTestUtils.invokeMethod(complianceServiceImpl, "complianceCheckForRaProfile", raProfile);
+        } finally {
+            ReflectionTestUtils.setField(complianceServiceImpl, "batchSize", batchSize);
+        }
+
+        mockServer.verify(3, WireMock.anyRequestedFor(WireMock.urlPathMatching("/v1/complianceProvider/[^/]+/compliance")));
+        for (Certificate checkedCertificate : certificateRepository.findByUuidIn(certificateUuids)) {
+            Assertions.assertEquals(ComplianceStatus.NOK, checkedCertificate.getComplianceStatus());
+        }
+        List<CertificateComplianceResult> results = certificateComplianceResultRepository.findByCertificateUuidIn(certificateUuids);
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertTrue(results.stream().allMatch(r -> r.getRuleUuid().equals(complianceProfileRule.getUuid()) && r.getStatus() == ComplianceRuleStatus.NOK));
+        // certificate outside the RA profile is not checked
+        Assertions.assertNotEquals(ComplianceStatus.NOK, certificateRepository.findByUuid(certificate.getUuid()).get().getComplianceStatus());
+    }
 }
@@ -307,6 +307,25 @@ public class ConnectorServiceTest extends BaseSpringBootTest {
         Assertions.assertNotNull(attributes);
     }
 
+    @Test
+    public void testGetAttributes_cached() throws ConnectorException {
+        FunctionGroupCode code = FunctionGroupCode.CREDENTIAL_PROVIDER;
+        String kind = "ApiKey";
+        String url = "/v1/" + code.getCode() + "/" + kind + "/attributes";
+
+        mockServer.stubFor(WireMock
+                .get(WireMock.urlPathEqualTo(url))
+                .willReturn(WireMock.okJson("[]")));
+
+        connectorService.getAttributes(connector.getSecuredUuid(), code, kind);
+        connectorService.getAttributes(connector.getSecuredUuid(), code, kind);
+        mockServer.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo(url)));
+
+        connectorService.invalidateAttributeDefinitionCache(connector.getUuid());
+        connectorService.getAttributes(connector.getSecuredUuid(), code, kind);
+        mockServer.verify(2, WireMock.getRequestedFor(WireMock.urlPathEqualTo(url)));
+    }
+
     @Test
     public void testGetAttributes_validationFail() {
         Assertions.assertThrows(
@@ -4,6 +4,8 @@ import com.czertainly.api.exception.AlreadyExistException;
 import com.czertainly.api.exception.NotFoundException;
 import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.client.attribute.AttributeDefinitionDto;
+import com.czertainly.api.model.client.attribute.RequestAttributeDto;
+import com.czertainly.api.model.client.attribute.ResponseAttributeDto;
 import com.czertainly.api.model.client.attribute.custom.CustomAttributeCreateRequestDto;
 import com.czertainly.api.model.client.attribute.custom.CustomAttributeDefinitionDetailDto;
 import com.czertainly.api.model.client.attribute.custom.CustomAttributeUpdateRequestDto;
@@ -12,6 +14,7 @@ import com.czertainly.api.model.common.attribute.v2.BaseAttribute;
 import com.czertainly.api.model.common.attribute.v2.DataAttribute;
 import com.czertainly.api.model.common.attribute.v2.MetadataAttribute;
 import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
+import com.czertainly.api.model.common.attribute.v2.content.StringAttributeContent;
 import com.czertainly.api.model.common.attribute.v2.properties.DataAttributeProperties;
 import com.czertainly.api.model.common.attribute.v2.properties.MetadataAttributeProperties;
 import com.czertainly.api.model.core.auth.Resource;
@@ -29,7 +32,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 public class CustomAttributeServiceTest extends BaseSpringBootTest {
 
@@ -267,4 +272,107 @@ public class CustomAttributeServiceTest extends BaseSpringBootTest {
         List<BaseAttribute> attributes = attributeService.getResourceAttributes(Resource.ROLE);
         Assertions.assertEquals(1, attributes.size());
     }
+
+    @Test
+    public void testDeleteAttributeContent_sharedContent() {
+        RequestAttributeDto requestAttribute = new RequestAttributeDto();
+        requestAttribute.setName(attribute.getName());
+        requestAttribute.setContent(List.of(new StringAttributeContent("value")));
+        UUID firstObjectUuid = UUID.randomUUID();
+        UUID secondObjectUuid = UUID.randomUUID();
+        attributeService.createAttributeContent(firstObjectUuid, List.of(requestAttribute), Resource.CERTIFICATE);
+        attributeService.createAttributeContent(secondObjectUuid, List.of(requestAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(1, attributeContentRepository.count());
+        Assertions.assertEquals(2, attributeContent2ObjectRepository.count());
+
+        // content is still linked to the second object
+        attributeService.deleteAttributeContent(List.of(firstObjectUuid), Resource.CERTIFICATE);
+        Assertions.assertEquals(1, attributeContentRepository.count());
+        Assertions.assertEquals(1, attributeContent2ObjectRepository.count());
+
+        attributeService.deleteAttributeContent(secondObjectUuid, Resource.CERTIFICATE);
+        Assertions.assertEquals(0, attributeContentRepository.count());
+        Assertions.assertEquals(0, attributeContent2ObjectRepository.count());
+    }
+
+    @Test
+    public void testUpdateAttributeContent_bulk() {
+        RequestAttributeDto requestAttribute = new RequestAttributeDto();
+        requestAttribute.setName(attribute.getName());
+        requestAttribute.setContent(List.of(new StringAttributeContent("old")));
+        UUID firstObjectUuid = UUID.randomUUID();
+        UUID secondObjectUuid = UUID.randomUUID();
+        attributeService.createAttributeContent(firstObjectUuid, List.of(requestAttribute), Resource.CERTIFICATE);
+
+        requestAttribute.setContent(List.of(new StringAttributeContent("new")));
+        attributeService.updateAttributeContent(List.of(firstObjectUuid, secondObjectUuid), List.of(requestAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(1, attributeContentRepository.count());
+        Assertions.assertEquals(2, attributeContent2ObjectRepository.count());
+
+        // applying the same content again does not create new links
+        attributeService.updateAttributeContent(List.of(firstObjectUuid, secondObjectUuid), List.of(requestAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(1, attributeContentRepository.count());
+        Assertions.assertEquals(2, attributeContent2ObjectRepository.count());
+        Assertions.assertEquals("new", attributeService.getCustomAttributesWithValues(secondObjectUuid, Resource.CERTIFICATE).get(0).getContent().get(0).getData());
+    }
+
+    @Test
+    public void testUpdateAttributeContent_bulkDisabledOrMissingAttribute() {
+        RequestAttributeDto requestAttribute = new RequestAttributeDto();
+        requestAttribute.setName(attribute.getName());
+        requestAttribute.setContent(List.of(new StringAttributeContent("old")));
+        UUID objectUuid = UUID.randomUUID();
+        attributeService.createAttributeContent(objectUuid, List.of(requestAttribute), Resource.CERTIFICATE);
+
+        RequestAttributeDto missingAttribute = new RequestAttributeDto();
+        missingAttribute.setName("missing");
+        missingAttribute.setContent(List.of(new StringAttributeContent("value")));
+        attributeService.updateAttributeContent(List.of(objectUuid), List.of(missingAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(1, attributeContent2ObjectRepository.count());
+
+        // content of the disabled attribute is removed and no new content is created, same as for the single object
+        definition.setEnabled(false);
+        attributeDefinitionRepository.save(definition);
+        requestAttribute.setContent(List.of(new StringAttributeContent("new")));
+        attributeService.updateAttributeContent(List.of(objectUuid), List.of(requestAttribute, missingAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(0, attributeContentRepository.count());
+        Assertions.assertEquals(0, attributeContent2ObjectRepository.count());
+    }
+
+    @Test
+    public void testUpdateAttributeContent_bulkKeepsOtherAttributes() {
+        DataAttribute otherAttribute = new DataAttribute();
+        otherAttribute.setUuid("87e968ca-9404-4128-8b58-3ab5db2ba08e");
+        otherAttribute.setName("otherAttribute");
+        otherAttribute.setType(AttributeType.CUSTOM);
+        otherAttribute.setContentType(AttributeContentType.STRING);
+        otherAttribute.setProperties(attribute.getProperties());
+
+        AttributeDefinition otherDefinition = new AttributeDefinition();
+        otherDefinition.setAttributeDefinition(otherAttribute);
+        otherDefinition.setAttributeName(otherAttribute.getName());
+        otherDefinition.setAttributeUuid(UUID.fromString(otherAttribute.getUuid()));
+        otherDefinition.setContentType(otherAttribute.getContentType());
+        otherDefinition.setType(AttributeType.CUSTOM);
+        otherDefinition.setEnabled(true);
+        attributeDefinitionRepository.save(otherDefinition);
+
+        RequestAttributeDto otherRequestAttribute = new RequestAttributeDto();
+        otherRequestAttribute.setName(otherAttribute.getName());
+        otherRequestAttribute.setContent(List.of(new StringAttributeContent("other")));
+        RequestAttributeDto requestAttribute = new RequestAttributeDto();
+        requestAttribute.setName(attribute.getName());
+        requestAttribute.setContent(List.of(new StringAttributeContent("old")));
+        UUID objectUuid = UUID.randomUUID();
+        attributeService.createAttributeContent(objectUuid, List.of(requestAttribute, otherRequestAttribute), Resource.CERTIFICATE);
+
+        requestAttribute.setContent(List.of(new StringAttributeContent("new")));
+        attributeService.updateAttributeContent(List.of(objectUuid), List.of(requestAttribute), Resource.CERTIFICATE);
+        Assertions.assertEquals(2, attributeContentRepository.count());
+        Assertions.assertEquals(2, attributeContent2ObjectRepository.count());
+
+        Map<String, String> values = attributeService.getCustomAttributesWithValues(objectUuid, Resource.CERTIFICATE).stream()
+                .collect(Collectors.toMap(ResponseAttributeDto::getName, a -> a.getContent().get(0).getData().toString()));
+        Assertions.assertEquals(Map.of(attribute.getName(), "new", otherAttribute.getName(), "other"), values);
+    }
 }
@@ -1,5 +1,6 @@
 package com.czertainly.core.service;
 
+import com.czertainly.api.clients.DiscoveryApiClient;
 import com.czertainly.api.exception.AlreadyExistException;
 import com.czertainly.api.exception.ConnectorException;
 import com.czertainly.api.exception.NotFoundException;
@@ -9,7 +10,10 @@ import com.czertainly.api.model.client.certificate.SearchRequestDto;
 import com.czertainly.api.model.client.discovery.DiscoveryDto;
 import com.czertainly.api.model.client.discovery.DiscoveryHistoryDetailDto;
 import com.czertainly.api.model.client.discovery.DiscoveryHistoryDto;
+import com.czertainly.api.model.connector.discovery.DiscoveryProviderDto;
+import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.connector.ConnectorStatus;
+import com.czertainly.api.model.core.discovery.DiscoveryStatus;
 import com.czertainly.api.model.core.connector.FunctionGroupCode;
 import com.czertainly.core.dao.entity.Connector;
 import com.czertainly.core.dao.entity.Connector2FunctionGroup;
@@ -21,14 +25,26 @@ import com.czertainly.core.dao.repository.DiscoveryRepository;
 import com.czertainly.core.dao.repository.FunctionGroupRepository;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.service.impl.DiscoveryServiceImpl;
 import com.czertainly.core.util.BaseSpringBootTest;
 import com.czertainly.core.util.MetaDefinitions;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
-
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public class DiscoveryServiceTest extends BaseSpringBootTest {
 
@@ -45,6 +61,8 @@ public class DiscoveryServiceTest extends BaseSpringBootTest {
     private FunctionGroupRepository functionGroupRepository;
     @Autowired
     private Connector2FunctionGroupRepository connector2FunctionGroupRepository;
+    @Autowired
+    private DiscoveryApiClient discoveryApiClient;
 
     private DiscoveryHistory discovery;
     private Connector connector;
@@ -198,4 +216,155 @@ public class DiscoveryServiceTest extends BaseSpringBootTest {
         discoveryService.bulkRemoveDiscovery(List.of(discovery.getSecuredUuid()));
         Assertions.assertThrows(NotFoundException.class, () -> discoveryService.getDiscovery(discovery.getSecuredUuid()));
     }
+
+    @Test
+    public void testPollDiscovery_backoff() throws Exception {
+        DiscoveryApiClient discoveryApiClient = Mockito.mock(DiscoveryApiClient.class);
+        Object progress = startPolling(discovery.getUuid(), discoveryApiClient);
+        try {
+            Mockito.when(discoveryApiClient.getDiscoveryData(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(createResponse(DiscoveryStatus.IN_PROGRESS, 0));
+            // interval is doubled up to the maximum while the provider does not discover new certificates
+            for (long expectedInterval : new long[]{10, 20, 40, 60, 60}) {
+                pollDiscovery(progress);
+                Assertions.assertEquals(expectedInterval, (long) ReflectionTestUtils.getField(progress, "pollInterval"));
+                Assertions.assertFalse((boolean) ReflectionTestUtils.getField(progress, "polling"));
+            }
+
+            // interval is reset once new certificates are discovered
+            Mockito.when(discoveryApiClient.getDiscoveryData(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(createResponse(DiscoveryStatus.IN_PROGRESS, 3));
+            pollDiscovery(progress);
+            Assertions.assertEquals(5L, (long) ReflectionTestUtils.getField(progress, "pollInterval"));
+            Assertions.assertTrue(getRunningDiscoveries().containsKey(discovery.getUuid()));
+        } finally {
+            stopPolling();
+        }
+    }
+
+    @Test
+    public void testPollDiscovery_completed() throws Exception {
+        DiscoveryApiClient discoveryApiClient = Mockito.mock(DiscoveryApiClient.class);
+        Object progress = startPolling(discovery.getUuid(), discoveryApiClient);
+        try {
+            Mockito.when(discoveryApiClient.getDiscoveryData(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(createResponse(DiscoveryStatus.COMPLETED, 0));
+            pollDiscovery(progress);
+
+            Assertions.assertFalse(getRunningDiscoveries().containsKey(discovery.getUuid()));
+            Assertions.assertEquals(DiscoveryStatus.COMPLETED, discoveryRepository.findByUuid(discovery.getUuid()).orElseThrow().getStatus());
+        } finally {
+            stopPolling();
+        }
+    }
+
+    @Test
+    public void testPollDiscovery_deleted() throws Exception {
+        DiscoveryApiClient discoveryApiClient = Mockito.mock(DiscoveryApiClient.class);
+        Object progress = startPolling(UUID.randomUUID(), discoveryApiClient);
+        try {
+            pollDiscovery(progress);
+
+            Assertions.assertTrue(getRunningDiscoveries().isEmpty());
+            Mockito.verifyNoInteractions(discoveryApiClient);
+        } finally {
+            stopPolling();
+        }
+    }
+
+    @Test
+    public void testPollDiscovery_lookupFailed() throws Exception {
+        DiscoveryApiClient discoveryApiClient = Mockito.mock(DiscoveryApiClient.class);
+        Object progress = startPolling(discovery.getUuid(), discoveryApiClient);
+        DiscoveryRepository failingRepository = Mockito.mock(DiscoveryRepository.class);
+        Mockito.when(failingRepository.findByUuid(Mockito.any(UUID.class))).thenThrow(new IllegalStateException("Database is not available"));
+        ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "discoveryRepository", failingRepository);
+        try {
+            pollDiscovery(progress);
+
+            // discovery is checked again with the same interval
+            Assertions.assertTrue(getRunningDiscoveries().containsKey(discovery.getUuid()));
+            Assertions.assertFalse((boolean) ReflectionTestUtils.getField(progress, "polling"));
+            Assertions.assertEquals(5L, (long) ReflectionTestUtils.getField(progress, "pollInterval"));
+        } finally {
+            ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "discoveryRepository", discoveryRepository);
+            stopPolling();
+        }
+    }
+
+    @Test
+    public void testPollRunningDiscoveries_rejected() throws Exception {
+        DiscoveryApiClient discoveryApiClient = Mockito.mock(DiscoveryApiClient.class);
+        Object progress = startPolling(discovery.getUuid(), discoveryApiClient);
+        Object taskExecutor = ReflectionTestUtils.getField(getDiscoveryServiceImpl(), "taskExecutor");
+        ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "taskExecutor", (TaskExecutor) task -> {
+            throw new TaskRejectedException("Executor is busy");
+        });
+        try {
+            // discovery is due for the status check
+            ReflectionTestUtils.setField(progress, "nextPollAt", 0L);
+            discoveryService.pollRunningDiscoveries();
+
+            // rejected status check is scheduled again with the same interval
+            Assertions.assertFalse((boolean) ReflectionTestUtils.getField(progress, "polling"));
+            Assertions.assertEquals(5L, (long) ReflectionTestUtils.getField(progress, "pollInterval"));
+            Assertions.assertTrue((long) ReflectionTestUtils.getField(progress, "nextPollAt") > System.currentTimeMillis());
+            Mockito.verifyNoInteractions(discoveryApiClient);
+        } finally {
+            ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "taskExecutor", taskExecutor);
+            stopPolling();
+        }
+    }
+
+    @Test
+    public void testFailInterruptedDiscoveries() {
+        discovery.setStatus(DiscoveryStatus.IN_PROGRESS);
+        discoveryRepository.save(discovery);
+
+        discoveryService.failInterruptedDiscoveries();
+
+        Assertions.assertEquals(DiscoveryStatus.FAILED, discoveryRepository.findByUuid(discovery.getUuid()).orElseThrow().getStatus());
+    }
+
+    private Object startPolling(UUID discoveryUuid, DiscoveryApiClient discoveryApiClient) throws Exception {
+        discovery.setStartTime(new Date());
+        discoveryRepository.save(discovery);
+        ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "discoveryApiClient", discoveryApiClient);
+
+        Class<?> progressClass = Class.forName(DiscoveryServiceImpl.class.getName() + "$DiscoveryProgress");
+        Constructor<?> constructor = progressClass.getDeclaredConstructor(UUID.class, ConnectorDto.class, String.class, String.class, String.class, SecurityContext.class);
+        constructor.setAccessible(true);
+        Object progress = constructor.newInstance(discoveryUuid, connector.mapToDto(), "reference", DISCOVERY_NAME, "IpAndPort", SecurityContextHolder.getContext());
+        ReflectionTestUtils.invokeMethod(progress, "scheduleNextPoll", 5L);
+        getRunningDiscoveries().put(discoveryUuid, progress);
+        return progress;
+    }
+
+    private void stopPolling() {
+        getRunningDiscoveries().clear();
+        ReflectionTestUtils.setField(getDiscoveryServiceImpl(), "discoveryApiClient", discoveryApiClient);
+    }
+
+    private void pollDiscovery(Object progress) {
+        // status check handed over to the executor
+        ReflectionTestUtils.setField(progress, "polling", true);
+        ReflectionTestUtils.invokeMethod(getDiscoveryServiceImpl(), "pollDiscovery", progress);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Object> getRunningDiscoveries() {
+        return (Map<UUID, Object>) ReflectionTestUtils.getField(getDiscoveryServiceImpl(), "runningDiscoveries");
+    }
+
+    private DiscoveryService getDiscoveryServiceImpl() {
+        return AopTestUtils.getTargetObject(discoveryService);
+    }
+
+    private DiscoveryProviderDto createResponse(DiscoveryStatus status, int totalCertificatesDiscovered) {
+        DiscoveryProviderDto response = new DiscoveryProviderDto();
+        response.setUuid("reference");
+        response.setName(DISCOVERY_NAME);
+        response.setStatus(status);
+        response.setTotalCertificatesDiscovered(totalCertificatesDiscovered);
+        response.setCertificateData(List.of());
+        response.setMeta(List.of());
+        return response;
+    }
 }
@@ -0,0 +1,87 @@
+package com.czertainly.core.service;
+
+import com.czertainly.api.model.common.attribute.v2.AttributeType;
+import com.czertainly.api.model.common.attribute.v2.MetadataAttribute;
+import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
+import com.czertainly.api.model.common.attribute.v2.content.StringAttributeContent;
+import com.czertainly.api.model.common.attribute.v2.properties.MetadataAttributeProperties;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.connector.ConnectorStatus;
+import com.czertainly.core.dao.entity.Connector;
+import com.czertainly.core.dao.repository.AttributeContent2ObjectRepository;
+import com.czertainly.core.dao.repository.AttributeContentRepository;
+import com.czertainly.core.dao.repository.AttributeDefinitionRepository;
+import com.czertainly.core.dao.repository.ConnectorRepository;
+import com.czertainly.core.util.BaseSpringBootTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class MetadataServiceTest extends BaseSpringBootTest {
+
+    @Autowired
+    private MetadataService metadataService;
+
+    @Autowired
+    private AttributeDefinitionRepository attributeDefinitionRepository;
+
+    @Autowired
+    private AttributeContentRepository attributeContentRepository;
+
+    @Autowired
+    private AttributeContent2ObjectRepository attributeContent2ObjectRepository;
+
+    @Autowired
+    private ConnectorRepository connectorRepository;
+
+    private Connector connector;
+
+    @BeforeEach
+    public void setUp() {
+        connector = new Connector();
+        connector.setName("test");
+        connector.setUrl("http://localhost:3665");
+        connector.setStatus(ConnectorStatus.CONNECTED);
+        connector = connectorRepository.save(connector);
+    }
+
+    @Test
+    public void testCreateMetadata_multipleObjects() {
+        UUID firstObjectUuid = UUID.randomUUID();
+        UUID secondObjectUuid = UUID.randomUUID();
+        UUID sourceObjectUuid = UUID.randomUUID();
+        Map<UUID, List<MetadataAttribute>> metadata = Map.of(
+                firstObjectUuid, List.of(createMetadataAttribute("shared"), createMetadataAttribute("first")),
+                secondObjectUuid, List.of(createMetadataAttribute("shared"))
+        );
+
+        metadataService.createMetadata(connector.getUuid(), metadata, sourceObjectUuid, "source", Resource.CERTIFICATE, Resource.DISCOVERY);
+        Assertions.assertEquals(1, attributeDefinitionRepository.findByConnectorUuidAndType(connector.getUuid(), AttributeType.META).size());
+        Assertions.assertEquals(2, attributeContentRepository.count());
+        Assertions.assertEquals(3, attributeContent2ObjectRepository.count());
+        Assertions.assertEquals(2, metadataService.getMetadata(connector.getUuid(), firstObjectUuid, Resource.CERTIFICATE).size());
+
+        // metadata reported again by the same source are already linked
+        metadataService.createMetadata(connector.getUuid(), metadata, sourceObjectUuid, "source", Resource.CERTIFICATE, Resource.DISCOVERY);
+        Assertions.assertEquals(2, attributeContentRepository.count());
+        Assertions.assertEquals(3, attributeContent2ObjectRepository.count());
+    }
+
+    private MetadataAttribute createMetadataAttribute(String value) {
+        MetadataAttribute metadataAttribute = new MetadataAttribute();
+        metadataAttribute.setUuid("a2a3b2f6-1b66-4a2c-8d2e-1e9a5f0d7c11");
+        metadataAttribute.setName("discoverySource");
+        metadataAttribute.setType(AttributeType.META);
+        metadataAttribute.setContentType(AttributeContentType.STRING);
+        MetadataAttributeProperties properties = new MetadataAttributeProperties();
+        properties.setLabel("Discovery Source");
+        metadataAttribute.setProperties(properties);
+        metadataAttribute.setContent(List.of(new StringAttributeContent(value)));
+        return metadataAttribute;
+    }
+}
@@ -0,0 +1,66 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.api.exception.AcmeProblemDocumentException;
+import com.czertainly.core.dao.entity.acme.AcmeAccount;
+import com.czertainly.core.util.AcmePublicKeyProcessor;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AcmeAccountKeyCacheTest {
+
+    private AcmeAccountKeyCache acmeAccountKeyCache;
+
+    private RSAKey accountKey;
+
+    private AcmeAccount account;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        acmeAccountKeyCache = new AcmeAccountKeyCache();
+        ReflectionTestUtils.setField(acmeAccountKeyCache, "accountKeyCacheMaxSize", 100);
+
+        accountKey = new RSAKeyGenerator(2048).generate();
+        account = new AcmeAccount();
+        account.setAccountId("testAccount");
+        account.setPublicKey(AcmePublicKeyProcessor.publicKeyPemStringFromObject(accountKey.toPublicKey()));
+    }
+
+    @Test
+    public void testVerifySignature() throws Exception {
+        Assertions.assertTrue(acmeAccountKeyCache.verify(account, signedJws(accountKey)));
+        Assertions.assertFalse(acmeAccountKeyCache.verify(account, signedJws(new RSAKeyGenerator(2048).generate())));
+        Assertions.assertSame(acmeAccountKeyCache.getPublicKey(account), acmeAccountKeyCache.getPublicKey(account));
+    }
+
+    @Test
+    public void testKeyRollover() throws Exception {
+        Assertions.assertTrue(acmeAccountKeyCache.verify(account, signedJws(accountKey)));
+
+        // changed key of the account is used even when the cached key was not invalidated
+        RSAKey newAccountKey = new RSAKeyGenerator(2048).generate();
+        account.setPublicKey(AcmePublicKeyProcessor.publicKeyPemStringFromObject(newAccountKey.toPublicKey()));
+        Assertions.assertFalse(acmeAccountKeyCache.verify(account, signedJws(accountKey)));
+        Assertions.assertTrue(acmeAccountKeyCache.verify(account, signedJws(newAccountKey)));
+    }
+
+    @Test
+    public void testInvalidPublicKey() {
+        account.setPublicKey("invalidPublicKey");
+        Assertions.assertThrows(AcmeProblemDocumentException.class, () -> acmeAccountKeyCache.getPublicKey(account));
+    }
+
+    private JWSObject signedJws(RSAKey key) throws Exception {
+        JWSObject jwsObject = new JWSObject(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("testAccount").build(), new Payload("{}"));
+        jwsObject.sign(new RSASSASigner(key));
+        return jwsObject;
+    }
+}
@@ -0,0 +1,186 @@
+package com.czertainly.core.service.scep.impl;
+
+import com.czertainly.api.exception.NotFoundException;
+import com.czertainly.api.model.client.scep.ScepProfileEditRequestDto;
+import com.czertainly.api.model.connector.cryptography.enums.CryptographicAlgorithm;
+import com.czertainly.api.model.connector.cryptography.enums.KeyFormat;
+import com.czertainly.api.model.connector.cryptography.enums.KeyType;
+import com.czertainly.api.model.core.cryptography.key.KeyState;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.CryptographicKey;
+import com.czertainly.core.dao.entity.CryptographicKeyItem;
+import com.czertainly.core.dao.entity.scep.ScepProfile;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.CryptographicKeyItemRepository;
+import com.czertainly.core.dao.repository.CryptographicKeyRepository;
+import com.czertainly.core.dao.repository.scep.ScepProfileRepository;
+import com.czertainly.core.service.CertificateService;
+import com.czertainly.core.service.ScepProfileService;
+import com.czertainly.core.service.scep.ExtendedScepHelperService;
+import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class ExtendedScepHelperServiceTest extends BaseSpringBootTest {
+
+    @Autowired
+    private ExtendedScepHelperService extendedScepHelperService;
+
+    @Autowired
+    private ScepProfileService scepProfileService;
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private CryptographicKeyRepository cryptographicKeyRepository;
+
+    @Autowired
+    private CryptographicKeyItemRepository cryptographicKeyItemRepository;
+
+    @Autowired
+    private ScepProfileRepository scepProfileRepository;
+
+    private Object extendedScepHelperServiceImpl;
+    private Object caCertificateCacheTtl;
+    private CryptographicKey key;
+    private Certificate caCertificate;
+    private ScepProfile scepProfile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        extendedScepHelperServiceImpl = AopTestUtils.getTargetObject(extendedScepHelperService);
+        caCertificateCacheTtl = ReflectionTestUtils.getField(extendedScepHelperServiceImpl, "caCertificateCacheTtl");
+        getCaCertificateCache().clear();
+
+        key = new CryptographicKey();
+        key.setName("scepCacheTestKey");
+        cryptographicKeyRepository.save(key);
+
+        CryptographicKeyItem privateKey = new CryptographicKeyItem();
+        privateKey.setLength(2048);
+        privateKey.setCryptographicKey(key);
+        privateKey.setCryptographicKeyUuid(key.getUuid());
+        privateKey.setType(KeyType.PRIVATE_KEY);
+        privateKey.setKeyData("some/encrypted/data");
+        privateKey.setFormat(KeyFormat.PRKI);
+        privateKey.setState(KeyState.ACTIVE);
+        privateKey.setEnabled(true);
+        privateKey.setCryptographicAlgorithm(CryptographicAlgorithm.RSA);
+        cryptographicKeyItemRepository.save(privateKey);
+        key.setItems(Set.of(privateKey));
+        cryptographicKeyRepository.save(key);
+
+        caCertificate = createCaCertificate("CN=SCEP Cache Test CA");
+
+        scepProfile = new ScepProfile();
+        scepProfile.setName("scepCacheTest");
+        scepProfile.setChallengePassword("test123");
+        scepProfile.setEnabled(true);
+        scepProfile.setCaCertificate(caCertificate);
+        scepProfileRepository.save(scepProfile);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(extendedScepHelperServiceImpl, "caCertificateCacheTtl", caCertificateCacheTtl);
+        getCaCertificateCache().clear();
+    }
+
+    @Test
+    public void testCaCertificateCache_reused() {
+        ScepRequestContext context = createContext();
+        Assertions.assertEquals(caCertificate.getSerialNumber(), context.getRecipient().getSerialNumber().toString(16));
+        Assertions.assertEquals(1, context.getCaCertificateChain().size());
+        Assertions.assertNotNull(context.getPrivateKeyItem());
+
+        // parsed certificates are shared by the contexts, context itself is created for every request
+        ScepRequestContext nextContext = createContext();
+        Assertions.assertNotSame(context, nextContext);
+        Assertions.assertSame(context.getRecipient(), nextContext.getRecipient());
+    }
+
+    @Test
+    public void testCaCertificateCache_expired() {
+        ScepRequestContext context = createContext();
+
+        ReflectionTestUtils.setField(getCaCertificateCache().get(scepProfile.getUuid()), "expiresAt", System.currentTimeMillis() - 1);
+        ScepRequestContext expiredContext = createContext();
+        Assertions.assertNotSame(context.getRecipient(), expiredContext.getRecipient());
+        Assertions.assertEquals(context.getRecipient(), expiredContext.getRecipient());
+    }
+
+    @Test
+    public void testCaCertificateCache_disabled() {
+        ReflectionTestUtils.setField(extendedScepHelperServiceImpl, "caCertificateCacheTtl", 0L);
+
+        ScepRequestContext context = createContext();
+        Assertions.assertNotSame(context.getRecipient(), createContext().getRecipient());
+        Assertions.assertTrue(getCaCertificateCache().isEmpty());
+    }
+
+    @Test
+    public void testCaCertificateCache_caCertificateChanged() throws Exception {
+        createContext();
+        Certificate newCaCertificate = createCaCertificate("CN=SCEP Cache Test New CA");
+
+        ScepProfileEditRequestDto request = new ScepProfileEditRequestDto();
+        request.setCaCertificateUuid(newCaCertificate.getUuid().toString());
+        scepProfileService.editScepProfile(scepProfile.getSecuredUuid(), request);
+        Assertions.assertFalse(getCaCertificateCache().containsKey(scepProfile.getUuid()));
+
+        scepProfile.setCaCertificate(newCaCertificate);
+        Assertions.assertEquals(newCaCertificate.getSerialNumber(), createContext().getRecipient().getSerialNumber().toString(16));
+    }
+
+    @Test
+    public void testCaCertificateCache_caCertificateChangedWithoutInvalidation() throws Exception {
+        createContext();
+
+        // profile updated by another instance, cached certificates of the previous CA certificate are not used
+        Certificate newCaCertificate = createCaCertificate("CN=SCEP Cache Test Other CA");
+        scepProfile.setCaCertificate(newCaCertificate);
+        Assertions.assertEquals(newCaCertificate.getSerialNumber(), createContext().getRecipient().getSerialNumber().toString(16));
+    }
+
+    @Test
+    public void testCaCertificateCache_profileDeleted() throws NotFoundException {
+        createContext();
+        Assertions.assertTrue(getCaCertificateCache().containsKey(scepProfile.getUuid()));
+
+        scepProfileService.deleteScepProfile(scepProfile.getSecuredUuid());
+        Assertions.assertFalse(getCaCertificateCache().containsKey(scepProfile.getUuid()));
+    }
+
+    private ScepRequestContext createContext() {
+        return ReflectionTestUtils.invokeMethod(extendedScepHelperServiceImpl, "createContext", false, null, scepProfile);
+    }
+
+    private Map<UUID, ?> getCaCertificateCache() {
+        return (Map<UUID, ?>) ReflectionTestUtils.getField(extendedScepHelperServiceImpl, "caCertificateCache");
+    }
+
+    private Certificate createCaCertificate(String subject) throws Exception {
+        KeyPair keyPair = CertificateTestHelper.generateKeyPair();
+        X509Certificate x509Certificate = CertificateTestHelper.createCertificate(subject, keyPair.getPublic(), subject, keyPair, true, null);
+        Certificate certificate = certificateService.checkCreateCertificate(Base64.getEncoder().encodeToString(x509Certificate.getEncoded()));
+        certificate.setKey(key);
+        return certificateRepository.save(certificate);
+    }
+}
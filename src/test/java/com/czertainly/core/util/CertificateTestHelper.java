@@ -0,0 +1,86 @@
+package com.czertainly.core.util;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class CertificateTestHelper {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static KeyPair generateKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    /**
+     * Create the certificate valid for one year
+     *
+     * @param subject        Subject DN of the certificate
+     * @param publicKey      Public key of the certificate
+     * @param issuer         Issuer DN of the certificate
+     * @param issuerKeyPair  Key pair of the issuer that signs the certificate
+     * @param keyIdentifiers Include the subject and authority key identifier extensions
+     * @param crlUrl         CRL distribution point, can be null
+     * @return Signed certificate
+     */
+    public static X509Certificate createCertificate(String subject, PublicKey publicKey, String issuer, KeyPair issuerKeyPair,
+                                                    boolean keyIdentifiers, String crlUrl) throws Exception {
+        Date now = new Date();
+        X509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(new X500Name(issuer),
+                new BigInteger(64, RANDOM), new Date(now.getTime() - TimeUnit.MINUTES.toMillis(1)),
+                new Date(now.getTime() + TimeUnit.DAYS.toMillis(365)), new X500Name(subject), publicKey);
+        if (keyIdentifiers) {
+            JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+            certificateBuilder.addExtension(Extension.subjectKeyIdentifier, false, extensionUtils.createSubjectKeyIdentifier(publicKey));
+            certificateBuilder.addExtension(Extension.authorityKeyIdentifier, false, extensionUtils.createAuthorityKeyIdentifier(issuerKeyPair.getPublic()));
+        }
+        if (crlUrl != null) {
+            DistributionPointName distributionPointName = new DistributionPointName(
+                    new GeneralNames(new GeneralName(GeneralName.uniformResourceIdentifier, crlUrl)));
+            certificateBuilder.addExtension(Extension.cRLDistributionPoints, false,
+                    new CRLDistPoint(new DistributionPoint[]{new DistributionPoint(distributionPointName, null, null)}));
+        }
+        return new JcaX509CertificateConverter().getCertificate(certificateBuilder.build(getSigner(issuerKeyPair)));
+    }
+
+    /**
+     * Create the CRL without any revoked certificate
+     *
+     * @param issuer        Issuer DN of the CRL
+     * @param issuerKeyPair Key pair of the issuer that signs the CRL
+     * @return Encoded CRL
+     */
+    public static byte[] createEmptyCrl(String issuer, KeyPair issuerKeyPair) throws Exception {
+        Date now = new Date();
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(new X500Name(issuer), new Date(now.getTime() - TimeUnit.MINUTES.toMillis(1)));
+        crlBuilder.setNextUpdate(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)));
+        return crlBuilder.build(getSigner(issuerKeyPair)).getEncoded();
+    }
+
+    private static ContentSigner getSigner(KeyPair keyPair) throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+    }
+}
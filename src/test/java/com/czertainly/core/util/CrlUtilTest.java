@@ -0,0 +1,134 @@
+package com.czertainly.core.util;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CrlUtilTest {
+
+    private static final X500Name ISSUER = new X500Name("CN=Test CRL Issuer");
+
+    private MockWebServer crlServer;
+    private KeyPair keyPair;
+    private ContentSigner signer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        CrlUtil.clearCrlCache();
+        crlServer = new MockWebServer();
+        crlServer.start();
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        crlServer.shutdown();
+        CrlUtil.clearCrlCache();
+    }
+
+    @Test
+    public void testCrlIsDownloadedOnlyOnceUntilNextUpdate() throws Exception {
+        enqueueCrl(new Date(System.currentTimeMillis() + 60_000), BigInteger.TEN);
+        String crlUrl = crlServer.url("/test.crl").toString();
+
+        String revoked = CrlUtil.checkCertificateRevocationList(createCertificate(BigInteger.TEN), crlUrl);
+        String notRevoked = CrlUtil.checkCertificateRevocationList(createCertificate(BigInteger.ONE), crlUrl);
+
+        Assertions.assertTrue(revoked.startsWith("KEY_COMPROMISE="));
+        Assertions.assertEquals("", notRevoked);
+        Assertions.assertEquals(1, crlServer.getRequestCount());
+    }
+
+    @Test
+    public void testExpiredCrlIsDownloadedAgain() throws Exception {
+        enqueueCrl(new Date(System.currentTimeMillis() - 1000), BigInteger.TEN);
+        enqueueCrl(new Date(System.currentTimeMillis() + 60_000), BigInteger.TWO);
+        String crlUrl = crlServer.url("/test.crl").toString();
+
+        Assertions.assertNotEquals("", CrlUtil.checkCertificateRevocationList(createCertificate(BigInteger.TEN), crlUrl));
+        Assertions.assertEquals("", CrlUtil.checkCertificateRevocationList(createCertificate(BigInteger.TEN), crlUrl));
+        Assertions.assertEquals(2, crlServer.getRequestCount());
+    }
+
+    @Test
+    public void testConcurrentChecksDownloadCrlOnce() throws Exception {
+        enqueueCrl(new Date(System.currentTimeMillis() + 60_000), BigInteger.TEN);
+        String crlUrl = crlServer.url("/test.crl").toString();
+        X509Certificate certificate = createCertificate(BigInteger.TEN);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> CrlUtil.checkCertificateRevocationList(certificate, crlUrl)));
+            }
+            for (Future<String> result : results) {
+                Assertions.assertTrue(result.get(30, TimeUnit.SECONDS).startsWith("KEY_COMPROMISE="));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, crlServer.getRequestCount());
+        Assertions.assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(CrlUtil.class, "pendingDownloads")).isEmpty());
+    }
+
+    @Test
+    public void testFailedDownloadIsNotKeptPending() throws Exception {
+        crlServer.enqueue(new MockResponse().setResponseCode(404));
+        String crlUrl = crlServer.url("/missing.crl").toString();
+
+        Assertions.assertThrows(IOException.class, () -> CrlUtil.checkCertificateRevocationList(createCertificate(BigInteger.TEN), crlUrl));
+        Assertions.assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(CrlUtil.class, "pendingDownloads")).isEmpty());
+    }
+
+    private void enqueueCrl(Date nextUpdate, BigInteger revokedSerialNumber) throws IOException {
+        Date now = new Date();
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(ISSUER, new Date(now.getTime() - 60_000));
+        crlBuilder.setNextUpdate(nextUpdate);
+        crlBuilder.addCRLEntry(revokedSerialNumber, now, CRLReason.keyCompromise);
+        X509CRLHolder crl = crlBuilder.build(signer);
+
+        crlServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/pkix-crl")
+                .setBody(new Buffer().write(crl.getEncoded())));
+    }
+
+    private X509Certificate createCertificate(BigInteger serialNumber) throws Exception {
+        Date now = new Date();
+        JcaX509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(ISSUER, serialNumber,
+                new Date(now.getTime() - 60_000), new Date(now.getTime() + 60_000),
+                new X500Name("CN=Test Certificate"), keyPair.getPublic());
+        return new JcaX509CertificateConverter().getCertificate(certificateBuilder.build(signer));
+    }
+}
@@ -51,4 +51,25 @@ public class DatabaseMigrationTest {
 
         Assertions.assertEquals(DatabaseMigration.JavaMigrationChecksums.V202303211718__Scep_Roles.getChecksum(), checksum);
     }
+
+    @Test
+    public void testCalculateChecksum_V202304091200__AttributeContentHashMigration() throws IOException {
+        int checksum = DatabaseMigration.calculateChecksum("src/main/java/db/migration/V202304091200__AttributeContentHashMigration.java");
+
+        Assertions.assertEquals(DatabaseMigration.JavaMigrationChecksums.V202304091200__AttributeContentHashMigration.getChecksum(), checksum);
+    }
+
+    @Test
+    public void testCalculateChecksum_V202304091300__CertificateKeyIdentifierMigration() throws IOException {
+        int checksum = DatabaseMigration.calculateChecksum("src/main/java/db/migration/V202304091300__CertificateKeyIdentifierMigration.java");
+
+        Assertions.assertEquals(DatabaseMigration.JavaMigrationChecksums.V202304091300__CertificateKeyIdentifierMigration.getChecksum(), checksum);
+    }
+
+    @Test
+    public void testCalculateChecksum_V202304091400__CertificateStatisticMigration() throws IOException {
+        int checksum = DatabaseMigration.calculateChecksum("src/main/java/db/migration/V202304091400__CertificateStatisticMigration.java");
+
+        Assertions.assertEquals(DatabaseMigration.JavaMigrationChecksums.V202304091400__CertificateStatisticMigration.getChecksum(), checksum);
+    }
 }
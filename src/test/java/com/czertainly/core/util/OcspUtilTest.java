@@ -0,0 +1,220 @@
+package com.czertainly.core.util;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cert.ocsp.jcajce.JcaBasicOCSPRespBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class OcspUtilTest {
+
+    private static final String ISSUER = "CN=Test OCSP Issuer";
+
+    private MockWebServer ocspServer;
+    private KeyPair issuerKeyPair;
+    private X509Certificate issuer;
+
+    // serial numbers of the certificates reported as revoked by the responder
+    private Set<BigInteger> revokedSerialNumbers = Set.of();
+    // number of CertIDs in each OCSP request received by the responder
+    private final List<Integer> requestSizes = new CopyOnWriteArrayList<>();
+    private boolean singleCertIdOnly;
+    private boolean withNextUpdate = true;
+    // key and certificate used to sign the OCSP responses, issuer by default
+    private KeyPair responderKeyPair;
+    private X509Certificate responderCertificate;
+    private boolean wrongNonce;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        OcspUtil.clearOcspCache();
+        issuerKeyPair = CertificateTestHelper.generateKeyPair();
+        issuer = CertificateTestHelper.createCertificate(ISSUER, issuerKeyPair.getPublic(), ISSUER, issuerKeyPair, true, null);
+        responderKeyPair = issuerKeyPair;
+        responderCertificate = issuer;
+
+        ocspServer = new MockWebServer();
+        ocspServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                try {
+                    return new MockResponse()
+                            .setHeader("Content-Type", "application/ocsp-response")
+                            .setBody(new Buffer().write(createOcspResponse(new OCSPReq(request.getBody().readByteArray()))));
+                } catch (Exception e) {
+                    return new MockResponse().setResponseCode(500);
+                }
+            }
+        });
+        ocspServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        ocspServer.shutdown();
+        OcspUtil.clearOcspCache();
+    }
+
+    @Test
+    public void testCheckOcsp_multipleCertIds() throws Exception {
+        List<X509Certificate> certificates = createCertificates(3);
+        revokedSerialNumbers = Set.of(certificates.get(1).getSerialNumber());
+
+        Map<BigInteger, String> statuses = OcspUtil.checkOcsp(certificates, issuer, getOcspUrl());
+
+        Assertions.assertEquals("Success", statuses.get(certificates.get(0).getSerialNumber()));
+        Assertions.assertEquals("Failed", statuses.get(certificates.get(1).getSerialNumber()));
+        Assertions.assertEquals("Success", statuses.get(certificates.get(2).getSerialNumber()));
+        Assertions.assertEquals(List.of(3), requestSizes);
+    }
+
+    @Test
+    public void testCheckOcsp_singleCertIdResponder() throws Exception {
+        singleCertIdOnly = true;
+        List<X509Certificate> certificates = createCertificates(3);
+
+        Map<BigInteger, String> statuses = OcspUtil.checkOcsp(certificates, issuer, getOcspUrl());
+
+        Assertions.assertEquals(3, statuses.size());
+        Assertions.assertTrue(statuses.values().stream().allMatch("Success"::equals));
+        // certificates without the response are asked for separately
+        Assertions.assertEquals(List.of(3, 1, 1), requestSizes);
+    }
+
+    @Test
+    public void testCheckOcsp_cachedUntilNextUpdate() throws Exception {
+        List<X509Certificate> certificates = createCertificates(2);
+
+        OcspUtil.checkOcsp(certificates, issuer, getOcspUrl());
+        Assertions.assertEquals("Success", OcspUtil.checkOcsp(certificates.get(0), issuer, getOcspUrl()));
+        Assertions.assertEquals("Success", OcspUtil.checkOcsp(certificates.get(1), issuer, getOcspUrl()));
+
+        Assertions.assertEquals(List.of(2), requestSizes);
+    }
+
+    @Test
+    public void testCheckOcsp_notCachedWithoutNextUpdate() throws Exception {
+        withNextUpdate = false;
+        X509Certificate certificate = createCertificates(1).get(0);
+
+        Assertions.assertEquals("Success", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+        Assertions.assertEquals("Success", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+
+        Assertions.assertEquals(List.of(1, 1), requestSizes);
+    }
+
+    @Test
+    public void testCheckOcsp_delegatedResponder() throws Exception {
+        responderKeyPair = CertificateTestHelper.generateKeyPair();
+        responderCertificate = createResponderCertificate(responderKeyPair, issuerKeyPair);
+        X509Certificate certificate = createCertificates(1).get(0);
+
+        Assertions.assertEquals("Success", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+    }
+
+    @Test
+    public void testCheckOcsp_untrustedResponder() throws Exception {
+        // responder certificate is not issued by the issuer of the checked certificate
+        responderKeyPair = CertificateTestHelper.generateKeyPair();
+        responderCertificate = createResponderCertificate(responderKeyPair, responderKeyPair);
+        X509Certificate certificate = createCertificates(1).get(0);
+
+        Assertions.assertEquals("Unknown", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+        Assertions.assertEquals("Unknown", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+        // untrusted response is not cached
+        Assertions.assertEquals(List.of(1, 1), requestSizes);
+    }
+
+    @Test
+    public void testCheckOcsp_nonceMismatch() throws Exception {
+        wrongNonce = true;
+        X509Certificate certificate = createCertificates(1).get(0);
+
+        Assertions.assertEquals("Unknown", OcspUtil.checkOcsp(certificate, issuer, getOcspUrl()));
+    }
+
+    private String getOcspUrl() {
+        return ocspServer.url("/ocsp").toString();
+    }
+
+    private List<X509Certificate> createCertificates(int count) throws Exception {
+        List<X509Certificate> certificates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            certificates.add(CertificateTestHelper.createCertificate("CN=Test Certificate " + i,
+                    CertificateTestHelper.generateKeyPair().getPublic(), ISSUER, issuerKeyPair, true, null));
+        }
+        return certificates;
+    }
+
+    private byte[] createOcspResponse(OCSPReq request) throws Exception {
+        Req[] certIds = request.getRequestList();
+        requestSizes.add(certIds.length);
+
+        Date now = new Date();
+        Date nextUpdate = withNextUpdate ? new Date(now.getTime() + 60_000) : null;
+        BasicOCSPRespBuilder responseBuilder = new JcaBasicOCSPRespBuilder(responderKeyPair.getPublic(),
+                new JcaDigestCalculatorProviderBuilder().build().get(RespID.HASH_SHA1));
+        Extension nonce = wrongNonce
+                ? new Extension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce, false, new DEROctetString(new byte[]{1, 2, 3}))
+                : request.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+        if (nonce != null) {
+            responseBuilder.setResponseExtensions(new Extensions(nonce));
+        }
+        for (Req certId : singleCertIdOnly ? new Req[]{certIds[0]} : certIds) {
+            CertificateID id = certId.getCertID();
+            CertificateStatus status = revokedSerialNumbers.contains(id.getSerialNumber())
+                    ? new RevokedStatus(now, CRLReason.keyCompromise)
+                    : CertificateStatus.GOOD;
+            responseBuilder.addResponse(id, status, now, nextUpdate);
+        }
+        return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, responseBuilder.build(
+                new JcaContentSignerBuilder("SHA256withRSA").build(responderKeyPair.getPrivate()),
+                new JcaX509CertificateHolder[]{new JcaX509CertificateHolder(responderCertificate)}, now)).getEncoded();
+    }
+
+    private X509Certificate createResponderCertificate(KeyPair keyPair, KeyPair signerKeyPair) throws Exception {
+        Date now = new Date();
+        JcaX509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(new X500Name(ISSUER), BigInteger.valueOf(now.getTime()),
+                new Date(now.getTime() - 60_000), new Date(now.getTime() + 60_000), new X500Name("CN=Test OCSP Responder"), keyPair.getPublic());
+        certificateBuilder.addExtension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(KeyPurposeId.id_kp_OCSPSigning));
+        return new JcaX509CertificateConverter().getCertificate(certificateBuilder.build(
+                new JcaContentSignerBuilder("SHA256withRSA").build(signerKeyPair.getPrivate())));
+    }
+}
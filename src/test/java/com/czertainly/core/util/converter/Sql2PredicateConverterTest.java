@@ -1,15 +1,28 @@
 package com.czertainly.core.util.converter;
 
+import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
 import com.czertainly.api.model.common.attribute.v2.AttributeType;
 import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
+import com.czertainly.api.model.common.attribute.v2.content.BaseAttributeContent;
 import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.certificate.CertificateStatus;
 import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
 import com.czertainly.api.model.core.search.SearchCondition;
 import com.czertainly.api.model.core.search.SearchGroup;
 import com.czertainly.api.model.core.search.SearchableFields;
+import com.czertainly.core.dao.entity.AttributeContent;
+import com.czertainly.core.dao.entity.AttributeContent2Object;
+import com.czertainly.core.dao.entity.AttributeContentItem;
+import com.czertainly.core.dao.entity.AttributeDefinition;
 import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.CertificateContent;
 import com.czertainly.core.dao.entity.CryptographicKeyItem;
+import com.czertainly.core.dao.repository.AttributeContent2ObjectRepository;
+import com.czertainly.core.dao.repository.AttributeContentRepository;
+import com.czertainly.core.dao.repository.AttributeDefinitionRepository;
+import com.czertainly.core.dao.repository.CertificateContentRepository;
+import com.czertainly.core.dao.repository.CertificateRepository;
 import com.czertainly.core.model.SearchFieldObject;
 import com.czertainly.core.util.BaseSpringBootTest;
 import jakarta.persistence.EntityManager;
@@ -26,6 +39,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,6 +60,23 @@ public class Sql2PredicateConverterTest extends BaseSpringBootTest {
 
     private Root<CryptographicKeyItem> rootCryptoKeyItem;
 
+    @Autowired
+    private CertificateRepository certificateRepository;
+    @Autowired
+    private CertificateContentRepository certificateContentRepository;
+    @Autowired
+    private AttributeDefinitionRepository attributeDefinitionRepository;
+    @Autowired
+    private AttributeContentRepository attributeContentRepository;
+    @Autowired
+    private AttributeContent2ObjectRepository attributeContent2ObjectRepository;
+
+    private List<SearchFieldObject> searchableFields;
+
+    private Certificate certificateWithCustom;
+
+    private Certificate certificateWithMeta;
+
     private final String TEST_VALUE = "test";
     private final String TEST_DATE_VALUE = "2022-01-01";
 
@@ -170,88 +201,129 @@ public class Sql2PredicateConverterTest extends BaseSpringBootTest {
 
     @Test
     public void testFilterMetaOnly() {
-        final List<SearchFieldObject> testSearchableFieldsList = new ArrayList<>();
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META));
+        prepareAttributeData();
 
         List<SearchFilterRequestDto> testFilters = new ArrayList<>();
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.NAME, SearchCondition.EQUALS, "test"));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.META, SearchableFields.NAME, AttributeContentType.STRING, SearchCondition.EQUALS, "test"));
-
-        final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject
-                    = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(testSearchableFieldsList, testFilters,  criteriaBuilder, Resource.CERTIFICATE);
-        Assertions.assertEquals(1, criteriaQueryDataObject.getPredicate().getExpressions().size());
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.META, SearchableFields.NAME, AttributeContentType.STRING, SearchCondition.EQUALS, TEST_VALUE));
 
+        Assertions.assertEquals(List.of(certificateWithMeta), findCertificates(testFilters));
     }
 
-
     @Test
     public void testFilterCustomAttrOnly() {
-
-        final List<SearchFieldObject> testSearchableFieldsList = new ArrayList<>();
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NOT_AFTER.name(), AttributeContentType.DATE, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.CKI_LENGTH.name(), AttributeContentType.INTEGER, AttributeType.CUSTOM));
+        prepareAttributeData();
 
         List<SearchFilterRequestDto> testFilters = new ArrayList<>();
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.NAME, SearchCondition.EQUALS, "test"));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME, SearchCondition.EQUALS, "test"));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.STRING, SearchCondition.EQUALS, "test"));
-
-        final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject
-                = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(testSearchableFieldsList, testFilters,  criteriaBuilder, Resource.CERTIFICATE);
-        Assertions.assertEquals(1, criteriaQueryDataObject.getPredicate().getExpressions().size());
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.STRING, SearchCondition.EQUALS, TEST_VALUE));
+        Assertions.assertEquals(List.of(certificateWithCustom), findCertificates(testFilters));
 
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.CKI_LENGTH, AttributeContentType.INTEGER, SearchCondition.EQUALS, 1));
+        Assertions.assertEquals(List.of(certificateWithCustom), findCertificates(testFilters));
 
         List<SearchFilterRequestDto> testFilters2 = new ArrayList<>();
-        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.NAME, SearchCondition.EQUALS, "test"));
-        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.CKI_LENGTH, AttributeContentType.INTEGER, SearchCondition.EQUALS, 1));
-        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.STRING, SearchCondition.EQUALS, "test"));
-        final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject2
-                = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(testSearchableFieldsList, testFilters2,  criteriaBuilder, Resource.CERTIFICATE);
-        Assertions.assertEquals(2, criteriaQueryDataObject2.getPredicate().getExpressions().size());
+        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.STRING, SearchCondition.EQUALS, TEST_VALUE));
+        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.CKI_LENGTH, AttributeContentType.INTEGER, SearchCondition.EQUALS, 2));
+        Assertions.assertTrue(findCertificates(testFilters2).isEmpty());
+    }
 
+    @Test
+    public void testFilterPropertyAndAttributes() {
+        prepareAttributeData();
+
+        List<SearchFilterRequestDto> testFilters = new ArrayList<>();
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME, SearchCondition.EQUALS, "certificateWithCustom"));
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.STRING, SearchCondition.EQUALS, TEST_VALUE));
+        Assertions.assertEquals(List.of(certificateWithCustom), findCertificates(testFilters));
+
+        // attribute filters are combined with the property filters, the certificate has to match all of them
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.META, SearchableFields.NAME, AttributeContentType.STRING, SearchCondition.EQUALS, TEST_VALUE));
+        Assertions.assertTrue(findCertificates(testFilters).isEmpty());
     }
 
     @Test
     public void testFilterNoMetaOrCustomAttr() {
-
-        final List<SearchFieldObject> testSearchableFieldsList = new ArrayList<>();
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NOT_AFTER.name(), AttributeContentType.DATE, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.CKI_LENGTH.name(), AttributeContentType.INTEGER, AttributeType.META));
+        prepareAttributeData();
 
         List<SearchFilterRequestDto> testFilters = new ArrayList<>();
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.NAME, SearchCondition.EQUALS, "test"));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME, SearchCondition.EQUALS, "test"));
+        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME, SearchCondition.STARTS_WITH, "certificateWith"));
 
-        final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject
-                = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(testSearchableFieldsList, testFilters,  criteriaBuilder, Resource.CERTIFICATE);
-        Assertions.assertEquals(0, criteriaQueryDataObject.getPredicate().getExpressions().size());
+        final List<Certificate> certificates = findCertificates(testFilters);
+        Assertions.assertEquals(2, certificates.size());
+        Assertions.assertTrue(certificates.containsAll(List.of(certificateWithCustom, certificateWithMeta)));
     }
 
     @Test
     public void testFilterNoMetaOrCustomAttrWithCorrectAttrContentType() {
-
-        final List<SearchFieldObject> testSearchableFieldsList = new ArrayList<>();
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.NOT_AFTER.name(), AttributeContentType.DATE, AttributeType.META));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM));
-        testSearchableFieldsList.add(new SearchFieldObject(SearchableFields.CKI_LENGTH.name(), AttributeContentType.INTEGER, AttributeType.META));
+        prepareAttributeData();
 
         List<SearchFilterRequestDto> testFilters = new ArrayList<>();
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.NAME, SearchCondition.EQUALS, "test"));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.PROPERTY, SearchableFields.COMMON_NAME, SearchCondition.EQUALS, "test"));
         testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.META, SearchableFields.CKI_LENGTH, AttributeContentType.STRING, SearchCondition.EQUALS, 1));
-        testFilters.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.INTEGER, SearchCondition.EQUALS, "test"));
+        Assertions.assertThrows(ValidationException.class, () -> findCertificates(testFilters));
 
-        final Sql2PredicateConverter.CriteriaQueryDataObject criteriaQueryDataObject
-                = Sql2PredicateConverter.prepareQueryToSearchIntoAttributes(testSearchableFieldsList, testFilters,  criteriaBuilder, Resource.CERTIFICATE);
-        Assertions.assertEquals(0, criteriaQueryDataObject.getPredicate().getExpressions().size());
+        List<SearchFilterRequestDto> testFilters2 = new ArrayList<>();
+        testFilters2.add(new SearchFilterRequestDTODummy(SearchGroup.CUSTOM, SearchableFields.SERIAL_NUMBER, AttributeContentType.INTEGER, SearchCondition.EQUALS, TEST_VALUE));
+        Assertions.assertThrows(ValidationException.class, () -> findCertificates(testFilters2));
+    }
+
+    private List<Certificate> findCertificates(final List<SearchFilterRequestDto> filters) {
+        final Predicate predicate = Sql2PredicateConverter.mapSearchFilter2Predicates(filters, criteriaBuilder, root, criteriaQuery, searchableFields, Resource.CERTIFICATE);
+        return entityManager.createQuery(criteriaQuery.select(root).where(predicate)).getResultList();
+    }
+
+    private void prepareAttributeData() {
+        searchableFields = new ArrayList<>();
+        searchableFields.add(new SearchFieldObject(SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META));
+        searchableFields.add(new SearchFieldObject(SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM));
+        searchableFields.add(new SearchFieldObject(SearchableFields.CKI_LENGTH.name(), AttributeContentType.INTEGER, AttributeType.CUSTOM));
+
+        certificateWithCustom = createCertificate("certificateWithCustom");
+        certificateWithMeta = createCertificate("certificateWithMeta");
+
+        createAttributeContent(certificateWithCustom, SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.CUSTOM, TEST_VALUE);
+        createAttributeContent(certificateWithCustom, SearchableFields.CKI_LENGTH.name(), AttributeContentType.INTEGER, AttributeType.CUSTOM, 1);
+        createAttributeContent(certificateWithMeta, SearchableFields.NAME.name(), AttributeContentType.STRING, AttributeType.META, TEST_VALUE);
+        // content of the same name but different type must not match
+        createAttributeContent(certificateWithMeta, SearchableFields.SERIAL_NUMBER.name(), AttributeContentType.STRING, AttributeType.META, TEST_VALUE);
+    }
+
+    private Certificate createCertificate(final String commonName) {
+        CertificateContent certificateContent = new CertificateContent();
+        certificateContent.setContent(commonName);
+        certificateContent = certificateContentRepository.save(certificateContent);
+
+        Certificate certificate = new Certificate();
+        certificate.setCommonName(commonName);
+        certificate.setSubjectDn("CN=" + commonName);
+        certificate.setIssuerDn("CN=" + commonName);
+        certificate.setSerialNumber(commonName);
+        certificate.setStatus(CertificateStatus.VALID);
+        certificate.setCertificateContent(certificateContent);
+        return certificateRepository.save(certificate);
+    }
+
+    private void createAttributeContent(final Certificate certificate, final String attributeName, final AttributeContentType contentType, final AttributeType type, final Serializable data) {
+        AttributeDefinition attributeDefinition = new AttributeDefinition();
+        attributeDefinition.setContentType(contentType);
+        attributeDefinition.setCreated(LocalDateTime.now());
+        attributeDefinition.setAttributeName(attributeName);
+        attributeDefinition.setType(type);
+        attributeDefinition = attributeDefinitionRepository.save(attributeDefinition);
+
+        final AttributeContentItem attributeContentItem = new AttributeContentItem();
+        attributeContentItem.setJson(new BaseAttributeContent("reference", data));
+        AttributeContent attributeContent = new AttributeContent();
+        attributeContent.setAttributeContentItems(List.of(attributeContentItem));
+        attributeContent.setAttributeDefinition(attributeDefinition);
+        attributeContentItem.setAttributeContent(attributeContent);
+        attributeContent = attributeContentRepository.save(attributeContent);
+
+        final AttributeContent2Object ac2o = new AttributeContent2Object();
+        ac2o.setAttributeContent(attributeContent);
+        ac2o.setObjectUuid(certificate.getUuid());
+        ac2o.setObjectType(Resource.CERTIFICATE);
+        attributeContent2ObjectRepository.save(ac2o);
     }
 
-
     private void testLikePredicate(final Predicate predicate, final String value) {
         Assertions.assertInstanceOf(SqmLikePredicate.class, predicate);
         Assertions.assertEquals(value, ((SqmLikePredicate) predicate).getPattern().toHqlString());